@@ -0,0 +1,58 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeaturesCalculator;
+import org.openjdk.jmh.annotations.*;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AudioFeaturesCalculator} の統計計算のベンチマーク
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class AudioFeaturesCalculatorBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int trackCount;
+
+    private TrackFeatureMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        Track[] tracks = Arrays.stream(SyntheticPlaylists.tracks(trackCount))
+                .map(PlaylistTrack::getTrack)
+                .map(Track.class::cast)
+                .toArray(Track[]::new);
+        matrix = new TrackFeatureMatrix(tracks, SyntheticPlaylists.audioFeatures(trackCount));
+    }
+
+    @Benchmark
+    public AudioFeatureStatistics calculateStatistics() {
+        return AudioFeaturesCalculator.calculateStatistics(matrix);
+    }
+
+    @Benchmark
+    public Map<String, Float> calculateAverageAudioFeatures() {
+        return AudioFeaturesCalculator.calculateAverageAudioFeatures(matrix);
+    }
+
+    @Benchmark
+    public Map<String, Float> calculateMaxAudioFeatures() {
+        return AudioFeaturesCalculator.calculateMaxAudioFeatures(matrix);
+    }
+
+    @Benchmark
+    public Map<String, Float> calculateMinAudioFeatures() {
+        return AudioFeaturesCalculator.calculateMinAudioFeatures(matrix);
+    }
+}
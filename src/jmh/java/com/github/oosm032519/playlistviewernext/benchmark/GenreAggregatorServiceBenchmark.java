@@ -0,0 +1,71 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import com.github.oosm032519.playlistviewernext.service.analytics.GenreAggregatorService;
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyArtistService;
+import org.openjdk.jmh.annotations.*;
+import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link GenreAggregatorService} のジャンル・アーティスト集計のベンチマーク
+ * アーティストのジャンルは呼び出しを記録しないスタブから返し、Spotify APIへのアクセスを含めずに計測する
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class GenreAggregatorServiceBenchmark {
+
+    private static final int TOP_GENRES_LIMIT = 5;
+    private static final int TOP_ARTISTS_LIMIT = 5;
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int trackCount;
+
+    private GenreAggregatorService genreAggregatorService;
+    private PlaylistTrack[] tracks;
+    private Map<String, Integer> genreCounts;
+    private Map<String, Integer> artistCounts;
+
+    @Setup
+    public void setUp() throws Exception {
+        SpotifyArtistService artistService = mock(SpotifyArtistService.class, withSettings().stubOnly());
+        when(artistService.getArtistGenres(anyList())).thenReturn(SyntheticPlaylists.artistGenres(trackCount));
+        genreAggregatorService = new GenreAggregatorService(artistService);
+
+        tracks = SyntheticPlaylists.tracks(trackCount);
+        genreCounts = genreAggregatorService.aggregateGenres(tracks);
+        artistCounts = new HashMap<>();
+        for (PlaylistTrack playlistTrack : tracks) {
+            for (ArtistSimplified artist : ((Track) playlistTrack.getTrack()).getArtists()) {
+                artistCounts.merge(artist.getId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> aggregateGenres() {
+        return genreAggregatorService.aggregateGenres(tracks);
+    }
+
+    @Benchmark
+    public List<String> getTopGenres() {
+        return genreAggregatorService.getTopGenres(genreCounts, TOP_GENRES_LIMIT);
+    }
+
+    @Benchmark
+    public List<String> getTopArtists() {
+        return genreAggregatorService.getTopArtists(artistCounts, TOP_ARTISTS_LIMIT);
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
+import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsJsonWriter;
+import com.neovisionaries.i18n.CountryCode;
+import org.openjdk.jmh.annotations.*;
+import se.michaelthelin.spotify.model_objects.specification.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * プレイリスト詳細のJSON出力のベンチマーク
+ * 全トラックを含むレスポンスのMapをObjectMapperで変換する場合と、{@link PlaylistDetailsJsonWriter} でページごとに書き込む場合を比較する
+ * 出力先は破棄するストリームとし、書き込み処理自体のスループットとアロケーション量 (gc.alloc.rate.norm) を比較する
+ * アロケーション量はどちらも数値の文字列化が大半を占めるため同程度となる。ストリーミングによる改善は同時に保持するトラックが1ページ分となる点
+ * (ピーク時のヒープ使用量) であり、このベンチマークでは全トラックを事前に生成しているため計測対象に含まない
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class PlaylistDetailsJsonWriterBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int UPSTREAM_MARKET_COUNT = 185;
+
+    @Param({"100", "1000", "10000"})
+    private int trackCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlaylistDetailsJsonWriter writer = new PlaylistDetailsJsonWriter(objectMapper);
+    private Track[] tracks;
+    private List<AudioFeatures> audioFeatures;
+    private Map<String, Object> statistics;
+
+    @Setup
+    public void setUp() {
+        tracks = Arrays.stream(SyntheticPlaylists.tracks(trackCount))
+                .map(PlaylistTrack::getTrack)
+                .map(Track.class::cast)
+                .map(PlaylistDetailsJsonWriterBenchmark::withUpstreamFields)
+                .toArray(Track[]::new);
+        audioFeatures = SyntheticPlaylists.audioFeatures(trackCount);
+        AudioFeatureStatistics audioFeatureStatistics = AudioFeatureStatistics.of(new TrackFeatureMatrix(tracks, audioFeatures));
+        statistics = Map.of(
+                "maxAudioFeatures", audioFeatureStatistics.getMaxValues(),
+                "minAudioFeatures", audioFeatureStatistics.getMinValues(),
+                "averageAudioFeatures", audioFeatureStatistics.getMeanValues());
+    }
+
+    @Benchmark
+    public void serializeResponseMap() throws IOException {
+        Map<String, Object> response = new HashMap<>(statistics);
+        response.put("tracks", Map.of("items", new TrackFeatureMatrix(tracks, audioFeatures).toTrackItems()));
+        response.put("playlistName", "Benchmark Playlist");
+        response.put("genreCounts", Map.of());
+        response.put("seedArtists", List.of());
+        response.put("totalDuration", 0L);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void serializeLibraryModels() throws IOException {
+        List<Map<String, Object>> items = new ArrayList<>(tracks.length);
+        for (int i = 0; i < tracks.length; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("track", tracks[i]);
+            item.put("audioFeatures", audioFeatures.get(i));
+            items.add(item);
+        }
+        Map<String, Object> response = new HashMap<>(statistics);
+        response.put("tracks", Map.of("items", items));
+        response.put("playlistName", "Benchmark Playlist");
+        response.put("genreCounts", Map.of());
+        response.put("seedArtists", List.of());
+        response.put("totalDuration", 0L);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void writeStreaming() throws IOException {
+        writer.write(this::events, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * ページごとのイベントを、読み取られるたびに作成するIterator
+     */
+    private Iterator<PlaylistDetailsEvent> events() {
+        return new Iterator<>() {
+            private int offset = -1;
+            private boolean completed;
+
+            @Override
+            public boolean hasNext() {
+                return !completed;
+            }
+
+            @Override
+            public PlaylistDetailsEvent next() {
+                if (offset < 0) {
+                    offset = 0;
+                    return new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, Map.of("playlistName", "Benchmark Playlist"));
+                }
+                if (offset < tracks.length) {
+                    int end = Math.min(offset + PAGE_SIZE, tracks.length);
+                    TrackFeatureMatrix page = new TrackFeatureMatrix(Arrays.copyOfRange(tracks, offset, end), audioFeatures.subList(offset, end));
+                    offset = end;
+                    return new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("items", page.toTrackItems()));
+                }
+                if (offset == tracks.length) {
+                    offset++;
+                    return new PlaylistDetailsEvent(PlaylistDetailsEvent.AUDIO_FEATURES, statistics);
+                }
+                if (offset == tracks.length + 1) {
+                    offset++;
+                    return new PlaylistDetailsEvent(PlaylistDetailsEvent.GENRES, Map.of("genreCounts", Map.of()));
+                }
+                completed = true;
+                return new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of("totalDuration", 0L));
+            }
+        };
+    }
+
+    /**
+     * 上流APIの応答と同程度の項目を持つトラックを作成する
+     */
+    private static Track withUpstreamFields(Track track) {
+        CountryCode[] markets = Arrays.copyOf(CountryCode.values(), UPSTREAM_MARKET_COUNT);
+        String albumId = "album" + track.getId();
+        return new Track.Builder()
+                .setId(track.getId())
+                .setName(track.getName())
+                .setArtists(track.getArtists())
+                .setDurationMs(track.getDurationMs())
+                .setUri("spotify:track:" + track.getId())
+                .setHref("https://api.spotify.com/v1/tracks/" + track.getId())
+                .setPopularity(50)
+                .setPreviewUrl("https://p.scdn.co/mp3-preview/" + track.getId())
+                .setAvailableMarkets(markets)
+                .setExternalIds(new ExternalId.Builder().setExternalIds(Map.of("isrc", "JPXX0" + track.getId())).build())
+                .setExternalUrls(new ExternalUrl.Builder().setExternalUrls(Map.of("spotify", "https://open.spotify.com/track/" + track.getId())).build())
+                .setAlbum(new AlbumSimplified.Builder()
+                        .setId(albumId)
+                        .setName("Album " + track.getId())
+                        .setHref("https://api.spotify.com/v1/albums/" + albumId)
+                        .setAvailableMarkets(markets)
+                        .setImages(
+                                new Image.Builder().setUrl("https://i.scdn.co/image/" + albumId + "640").setHeight(640).setWidth(640).build(),
+                                new Image.Builder().setUrl("https://i.scdn.co/image/" + albumId + "300").setHeight(300).setWidth(300).build(),
+                                new Image.Builder().setUrl("https://i.scdn.co/image/" + albumId + "64").setHeight(64).setWidth(64).build())
+                        .build())
+                .build();
+    }
+}
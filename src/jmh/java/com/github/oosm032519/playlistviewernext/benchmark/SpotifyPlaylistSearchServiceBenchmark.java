@@ -0,0 +1,43 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistSimplified;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpotifyPlaylistSearchService#convertToMap} による検索結果の変換のベンチマーク
+ * 1回の計測で全プレイリストを変換する
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class SpotifyPlaylistSearchServiceBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int playlistCount;
+
+    private SpotifyPlaylistSearchService searchService;
+    private PlaylistSimplified[] playlists;
+
+    @Setup
+    public void setUp() {
+        searchService = new SpotifyPlaylistSearchService(new SpotifyApi.Builder().build(), null,
+                null, null, new SimpleMeterRegistry());
+        playlists = SyntheticPlaylists.playlistSummaries(playlistCount);
+    }
+
+    @Benchmark
+    public void convertToMap(Blackhole blackhole) {
+        for (PlaylistSimplified playlist : playlists) {
+            blackhole.consume(searchService.convertToMap(playlist));
+        }
+    }
+}
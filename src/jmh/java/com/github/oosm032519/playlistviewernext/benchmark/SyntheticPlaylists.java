@@ -0,0 +1,130 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import se.michaelthelin.spotify.model_objects.miscellaneous.PlaylistTracksInformation;
+import se.michaelthelin.spotify.model_objects.specification.*;
+
+import java.util.*;
+
+/**
+ * ベンチマーク用の合成プレイリストを生成するクラス
+ * 乱数のシードを固定しているため、同じ引数からは常に同じデータが生成される
+ */
+final class SyntheticPlaylists {
+
+    private static final long SEED = 42L;
+    private static final int GENRE_POOL_SIZE = 200;
+
+    private SyntheticPlaylists() {
+    }
+
+    /**
+     * 指定された数のトラックを持つプレイリストのトラック配列を生成する
+     * アーティストはトラック数の1/10 (最低10人) の中から1～3人を割り当てる
+     *
+     * @param trackCount トラック数
+     * @return プレイリストのトラック配列
+     */
+    static PlaylistTrack[] tracks(int trackCount) {
+        Random random = new Random(SEED);
+        int artistCount = artistCount(trackCount);
+        PlaylistTrack[] tracks = new PlaylistTrack[trackCount];
+        for (int i = 0; i < trackCount; i++) {
+            ArtistSimplified[] artists = new ArtistSimplified[1 + random.nextInt(3)];
+            for (int j = 0; j < artists.length; j++) {
+                int artist = random.nextInt(artistCount);
+                artists[j] = new ArtistSimplified.Builder()
+                        .setId(artistId(artist))
+                        .setName("Artist " + artist)
+                        .build();
+            }
+            Track track = new Track.Builder()
+                    .setId(String.format("track%017d", i))
+                    .setName("Track " + i)
+                    .setArtists(artists)
+                    .setDurationMs(120_000 + random.nextInt(240_000))
+                    .build();
+            tracks[i] = new PlaylistTrack.Builder().setTrack(track).build();
+        }
+        return tracks;
+    }
+
+    /**
+     * トラック配列と同じ順序に並んだAudioFeaturesを生成する
+     *
+     * @param trackCount トラック数
+     * @return AudioFeaturesのリスト
+     */
+    static List<AudioFeatures> audioFeatures(int trackCount) {
+        Random random = new Random(SEED + 1);
+        List<AudioFeatures> audioFeatures = new ArrayList<>(trackCount);
+        for (int i = 0; i < trackCount; i++) {
+            audioFeatures.add(new AudioFeatures.Builder()
+                    .setId(String.format("track%017d", i))
+                    .setDanceability(random.nextFloat())
+                    .setEnergy(random.nextFloat())
+                    .setValence(random.nextFloat())
+                    .setTempo(60 + random.nextFloat() * 140)
+                    .setAcousticness(random.nextFloat())
+                    .setInstrumentalness(random.nextFloat())
+                    .setLiveness(random.nextFloat())
+                    .setSpeechiness(random.nextFloat())
+                    .build());
+        }
+        return audioFeatures;
+    }
+
+    /**
+     * {@link #tracks(int)} で使用される全アーティストのジャンルを生成する
+     * 各アーティストにはジャンルの候補から0～4個を割り当てる
+     *
+     * @param trackCount トラック数
+     * @return アーティストIDとジャンルのリストのマップ
+     */
+    static Map<String, List<String>> artistGenres(int trackCount) {
+        Random random = new Random(SEED + 2);
+        int artistCount = artistCount(trackCount);
+        Map<String, List<String>> artistGenres = new HashMap<>(artistCount * 2);
+        for (int artist = 0; artist < artistCount; artist++) {
+            List<String> genres = new ArrayList<>();
+            int genreCount = random.nextInt(5);
+            for (int j = 0; j < genreCount; j++) {
+                genres.add("genre " + random.nextInt(GENRE_POOL_SIZE));
+            }
+            artistGenres.put(artistId(artist), genres);
+        }
+        return artistGenres;
+    }
+
+    /**
+     * 検索結果として返されるプレイリストの概要を生成する
+     *
+     * @param playlistCount プレイリスト数
+     * @return プレイリストの概要の配列
+     */
+    static PlaylistSimplified[] playlistSummaries(int playlistCount) {
+        Random random = new Random(SEED + 3);
+        PlaylistSimplified[] playlists = new PlaylistSimplified[playlistCount];
+        for (int i = 0; i < playlistCount; i++) {
+            String id = String.format("playlist%014d", i);
+            playlists[i] = new PlaylistSimplified.Builder()
+                    .setId(id)
+                    .setName("Playlist " + i)
+                    .setTracks(new PlaylistTracksInformation.Builder().setTotal(random.nextInt(500)).build())
+                    .setImages(new Image.Builder().setUrl("https://i.scdn.co/image/" + id).build())
+                    .setExternalUrls(new ExternalUrl.Builder()
+                            .setExternalUrls(Map.of("spotify", "https://open.spotify.com/playlist/" + id))
+                            .build())
+                    .setOwner(new User.Builder().setDisplayName("User " + random.nextInt(1000)).build())
+                    .build();
+        }
+        return playlists;
+    }
+
+    private static int artistCount(int trackCount) {
+        return Math.max(10, trackCount / 10);
+    }
+
+    private static String artistId(int artist) {
+        return String.format("artist%016d", artist);
+    }
+}
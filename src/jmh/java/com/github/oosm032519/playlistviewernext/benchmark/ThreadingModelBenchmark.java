@@ -0,0 +1,68 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上流APIの応答を待つリクエストを同時に受けた場合の、プラットフォームスレッドと仮想スレッドの処理時間の比較
+ * プラットフォームスレッドはTomcatの既定の最大スレッド数 (200) のスレッドプール、仮想スレッドはリクエストごとに1スレッドで処理する
+ * 各リクエストはSpotify APIの呼び出しを模したブロッキング (upstreamLatencyMs) のみを行い、1回の計測で concurrentRequests 件をすべて処理し終えるまでの時間を計測する
+ * アプリケーション全体での比較は load-test プロファイルの負荷試験を spring.threads.virtual.enabled=true/false で実行して行う
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class ThreadingModelBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threadModel;
+
+    @Param({"200", "1000", "5000"})
+    private int concurrentRequests;
+
+    @Param({"50"})
+    private long upstreamLatencyMs;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threadModel)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int handleConcurrentRequests() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            int requestIndex = i;
+            responses.add(executor.submit(() -> {
+                Thread.sleep(upstreamLatencyMs);
+                return requestIndex;
+            }));
+        }
+        int completed = 0;
+        for (Future<Integer> response : responses) {
+            response.get();
+            completed++;
+        }
+        return completed;
+    }
+}
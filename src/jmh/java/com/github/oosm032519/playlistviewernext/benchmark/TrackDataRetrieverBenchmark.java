@@ -0,0 +1,44 @@
+package com.github.oosm032519.playlistviewernext.benchmark;
+
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyTrackService;
+import com.github.oosm032519.playlistviewernext.service.playlist.TrackDataRetriever;
+import org.openjdk.jmh.annotations.*;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TrackDataRetriever} のトラックとAudio Featuresの行列作成のベンチマーク
+ * Audio Featuresは呼び出しを記録しないスタブから返し、Spotify APIへのアクセスを含めずに計測する
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+@State(Scope.Benchmark)
+public class TrackDataRetrieverBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int trackCount;
+
+    private TrackDataRetriever trackDataRetriever;
+    private PlaylistTrack[] tracks;
+
+    @Setup
+    public void setUp() throws Exception {
+        SpotifyTrackService trackService = mock(SpotifyTrackService.class, withSettings().stubOnly());
+        when(trackService.getAudioFeaturesForTracks(anyList())).thenReturn(SyntheticPlaylists.audioFeatures(trackCount));
+        trackDataRetriever = new TrackDataRetriever(trackService, null);
+        tracks = SyntheticPlaylists.tracks(trackCount);
+    }
+
+    @Benchmark
+    public TrackFeatureMatrix getTrackFeatureMatrix() {
+        return trackDataRetriever.getTrackFeatureMatrix(tracks);
+    }
+}
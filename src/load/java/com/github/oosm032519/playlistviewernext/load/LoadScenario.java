@@ -0,0 +1,257 @@
+package com.github.oosm032519.playlistviewernext.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 起動済みのアプリケーションに対して、プレイリスト詳細・検索・お気に入り・セッション確認のリクエストを送り続ける負荷試験のシナリオ。
+ * アプリケーションは組み込みSpotifyスタブを使用するモックモード (stub プロファイル) で起動しておくことを前提とし、外部への通信は発生しない。
+ * 各仮想ユーザーはモックログインでセッションを取得した後、重み付けした操作を無作為に繰り返す。
+ * ウォームアップ後の計測期間について、エンドポイントごとのリクエスト数・エラー数・スループット・p50/p99/最大レイテンシを出力する。
+ * <p>
+ * 引数は "名前=値" (先頭の "--" は省略可) の形式で指定する。
+ * <ul>
+ *     <li>base-url: アプリケーションのURL (既定値: http://localhost:8080)</li>
+ *     <li>users: 同時に操作する仮想ユーザー数 (既定値: 16)</li>
+ *     <li>duration: 計測期間 (既定値: 60s)</li>
+ *     <li>warmup: 計測前のウォームアップ期間 (既定値: 10s)</li>
+ *     <li>playlist-ids: 詳細を取得するプレイリストIDのカンマ区切り (既定値: load-100,load-1000,load-5000)</li>
+ *     <li>queries: 検索クエリのカンマ区切り (既定値: rock,jazz,pop,anime)</li>
+ * </ul>
+ */
+public class LoadScenario {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final URI baseUrl;
+    private final int users;
+    private final Duration duration;
+    private final Duration warmup;
+    private final List<String> playlistIds;
+    private final List<String> queries;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    private volatile boolean measuring;
+
+    /**
+     * 計測対象のエンドポイント
+     */
+    enum Endpoint {
+        LOGIN("POST /api/session/mock-login", 0),
+        SESSION_CHECK("GET /api/session/check", 10),
+        DETAILS("GET /api/playlists/{id}/details", 40),
+        SEARCH("GET /api/playlists/search", 30),
+        FAVORITE_ADD("POST /api/playlists/favorite", 7),
+        FAVORITE_LIST("GET /api/playlists/favorites", 7),
+        FAVORITE_REMOVE("DELETE /api/playlists/favorite", 6);
+
+        private final String label;
+        private final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * エンドポイントごとの計測結果
+     */
+    private static final class EndpointStats {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    LoadScenario(Map<String, String> options) {
+        baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        users = Integer.parseInt(options.getOrDefault("users", "16"));
+        duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        playlistIds = List.of(options.getOrDefault("playlist-ids", "load-100,load-1000,load-5000").split(","));
+        queries = List.of(options.getOrDefault("queries", "rock,jazz,pop,anime").split(","));
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+            }
+        }
+        new LoadScenario(options).run();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("負荷試験を開始します。URL: %s, 仮想ユーザー数: %d, ウォームアップ: %s, 計測期間: %s%n", baseUrl, users, warmup, duration);
+        long end = System.nanoTime() + warmup.plus(duration).toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                int userIndex = user;
+                executor.submit(() -> runUser(userIndex, end));
+            }
+            Thread.sleep(warmup);
+            // ウォームアップ中の記録を破棄して計測を開始する
+            stats.values().forEach(endpointStats -> {
+                endpointStats.recorder.reset();
+                endpointStats.errors.set(0);
+            });
+            measuring = true;
+            Thread.sleep(duration);
+            measuring = false;
+        }
+        report();
+    }
+
+    private void runUser(int userIndex, long end) {
+        String sessionId;
+        try {
+            sessionId = login();
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        Deque<String> favorites = new ArrayDeque<>();
+        int sequence = 0;
+        while (System.nanoTime() < end) {
+            Endpoint endpoint = nextEndpoint();
+            switch (endpoint) {
+                case SESSION_CHECK -> send(endpoint, request("/api/session/check", sessionId).GET());
+                case DETAILS -> send(endpoint, request("/api/playlists/" + pick(playlistIds) + "/details", null).GET());
+                case SEARCH -> send(endpoint, request("/api/playlists/search?query=" + encode(pick(queries))
+                        + "&offset=" + ThreadLocalRandom.current().nextInt(5) * 20 + "&limit=20", null).GET());
+                case FAVORITE_ADD -> {
+                    String playlistId = "load-favorite-" + userIndex + "-" + sequence++;
+                    send(endpoint, request("/api/playlists/favorite?playlistId=" + playlistId + "&playlistName=" + playlistId
+                            + "&totalTracks=100&playlistOwnerName=load", sessionId).POST(HttpRequest.BodyPublishers.noBody()));
+                    favorites.addLast(playlistId);
+                }
+                case FAVORITE_LIST -> send(endpoint, request("/api/playlists/favorites", sessionId).GET());
+                case FAVORITE_REMOVE -> {
+                    String playlistId = favorites.pollFirst();
+                    if (playlistId != null) {
+                        send(endpoint, request("/api/playlists/favorite?playlistId=" + playlistId, sessionId).DELETE());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        // 登録したお気に入りを削除して、繰り返し実行してもデータが増え続けないようにする (計測期間の終了後のため記録されない)
+        for (String playlistId : favorites) {
+            send(Endpoint.FAVORITE_REMOVE, request("/api/playlists/favorite?playlistId=" + playlistId, sessionId).DELETE());
+        }
+    }
+
+    private String login() {
+        HttpResponse<String> response = send(Endpoint.LOGIN, request("/api/session/mock-login", null).POST(HttpRequest.BodyPublishers.noBody()));
+        if (response == null || response.statusCode() != 200) {
+            throw new IllegalStateException("モックログインに失敗しました。モックモード (stub プロファイル) で起動しているか確認してください。");
+        }
+        try {
+            return (String) objectMapper.readValue(response.body(), Map.class).get("sessionId");
+        } catch (IOException e) {
+            throw new IllegalStateException("モックログインのレスポンスを解析できませんでした。", e);
+        }
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder builder) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // 接続エラーはエラーとして計上し、シナリオを継続する
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (measuring) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            endpointStats.recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            if (response == null || response.statusCode() >= 400) {
+                endpointStats.errors.incrementAndGet();
+            }
+        }
+        return response;
+    }
+
+    private HttpRequest.Builder request(String path, String sessionId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (sessionId != null) {
+            builder.header("Cookie", "sessionId=" + sessionId);
+        }
+        return builder;
+    }
+
+    private static Endpoint nextEndpoint() {
+        int totalWeight = Arrays.stream(Endpoint.values()).mapToInt(endpoint -> endpoint.weight).sum();
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : Endpoint.values()) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.SESSION_CHECK;
+    }
+
+    private static String pick(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private void report() {
+        double seconds = duration.toMillis() / 1000.0;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        System.out.printf("%n%-34s %9s %7s %10s %10s %10s %10s%n", "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "max(ms)");
+        for (Endpoint endpoint : Endpoint.values()) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            Histogram histogram = endpointStats.recorder.getIntervalHistogram();
+            total.add(histogram);
+            totalErrors += endpointStats.errors.get();
+            printRow(endpoint.label, histogram, endpointStats.errors.get(), seconds);
+        }
+        printRow("total", total, totalErrors, seconds);
+    }
+
+    private static void printRow(String label, Histogram histogram, long errors, double seconds) {
+        long count = histogram.getTotalCount();
+        System.out.printf("%-34s %9d %7d %10.1f %10.1f %10.1f %10.1f%n", label, count, errors, count / seconds,
+                millis(count, histogram.getValueAtPercentile(50)),
+                millis(count, histogram.getValueAtPercentile(99)),
+                millis(count, histogram.getMaxValue()));
+    }
+
+    private static double millis(long count, long micros) {
+        return count == 0 ? 0 : micros / 1000.0;
+    }
+}
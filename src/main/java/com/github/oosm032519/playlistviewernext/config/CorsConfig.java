@@ -65,6 +65,9 @@ public class CorsConfig {
         // 全てのリクエストヘッダーを許可
         configuration.setAllowedHeaders(List.of("*"));
 
+        // 条件付きGETでフロントエンドがETagを参照できるようにする
+        configuration.setExposedHeaders(List.of("ETag"));
+
         // クッキーや認証情報の送信を許可する
         configuration.setAllowCredentials(true);
 
@@ -0,0 +1,31 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * HTTPの条件付きGETに関する設定を管理するコンフィグレーションクラス。
+ * プレイリスト詳細とお気に入り一覧は、内容を決める値 (snapshot_idやお気に入りのバージョン) からコントローラーでETagを作成する。
+ * プレイリスト検索の結果にはそのような値がないため、レスポンスの本文からETagを作成するフィルターを適用する。
+ */
+@Configuration
+public class HttpCachingConfig {
+
+    /**
+     * プレイリスト検索のレスポンスの本文からETagを作成し、If-None-Matchと一致する場合は本文を送信せずに304を返すフィルターを提供する。
+     * 本文の作成は省略できないが、変更のない検索結果の転送量を削減する。
+     * レスポンスの圧縮を妨げないよう、弱いETagとする。
+     *
+     * @return プレイリスト検索に適用するShallowEtagHeaderFilterの登録情報
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> searchETagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/playlists/search");
+        return registration;
+    }
+}
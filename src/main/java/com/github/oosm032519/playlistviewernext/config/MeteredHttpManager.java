@@ -0,0 +1,130 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.ParseException;
+import se.michaelthelin.spotify.IHttpManager;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SpotifyApiが送信するすべてのHTTPリクエストの所要時間を、エンドポイントの分類と応答のステータスごとに記録するIHttpManagerの実装。
+ * 流量制限による待機時間を含めないよう、{@link ThrottlingHttpManager} の内側に配置する。
+ * Timerはエンドポイントの分類、HTTPメソッド、ステータスの組ごとに初回の記録時に登録し、以降は再利用する。
+ * 実際の送信は委譲先のIHttpManagerが行う。
+ */
+public class MeteredHttpManager implements IHttpManager {
+
+    /**
+     * Spotify APIへのリクエストの所要時間を記録するTimerの名前
+     */
+    static final String METRIC_NAME = "spotify.upstream.requests";
+
+    private final IHttpManager delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Timerを識別するタグの組
+     *
+     * @param endpoint エンドポイントの分類
+     * @param method   HTTPメソッド
+     * @param status   応答のステータス
+     */
+    private record TimerKey(SpotifyRequestThrottle.EndpointClass endpoint, String method, String status) {
+    }
+
+    /**
+     * 委譲先の呼び出しを表す関数
+     */
+    @FunctionalInterface
+    private interface Call {
+        String execute() throws IOException, SpotifyWebApiException, ParseException;
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param delegate      実際にリクエストを送信するIHttpManager
+     * @param meterRegistry メトリクスの登録先
+     */
+    public MeteredHttpManager(IHttpManager delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String get(URI uri, Header[] headers) throws IOException, SpotifyWebApiException, ParseException {
+        return record("GET", uri, () -> delegate.get(uri, headers));
+    }
+
+    @Override
+    public String post(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        return record("POST", uri, () -> delegate.post(uri, headers, body));
+    }
+
+    @Override
+    public String put(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        return record("PUT", uri, () -> delegate.put(uri, headers, body));
+    }
+
+    @Override
+    public String delete(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        return record("DELETE", uri, () -> delegate.delete(uri, headers, body));
+    }
+
+    private String record(String method, URI uri, Call call) throws IOException, SpotifyWebApiException, ParseException {
+        long start = System.nanoTime();
+        String status = "2xx";
+        try {
+            return call.execute();
+        } catch (Exception e) {
+            status = status(e);
+            throw e;
+        } finally {
+            timers.computeIfAbsent(new TimerKey(SpotifyRequestThrottle.EndpointClass.classify(method, uri), method, status), this::registerTimer)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private Timer registerTimer(TimerKey key) {
+        return Timer.builder(METRIC_NAME)
+                .description("Spotify APIへのリクエストの所要時間")
+                .tag("endpoint", key.endpoint().getPropertyKey())
+                .tag("method", key.method())
+                .tag("status", key.status())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    /**
+     * 例外からステータスのタグの値を判定する
+     * SpotifyHttpManagerはステータスコードごとに異なる例外をスローするため、例外の型からステータスコードを求める
+     */
+    private static String status(Exception e) {
+        return switch (e) {
+            case BadRequestException _ -> "400";
+            case UnauthorizedException _ -> "401";
+            case ForbiddenException _ -> "403";
+            case NotFoundException _ -> "404";
+            case TooManyRequestsException _ -> "429";
+            case InternalServerErrorException _ -> "500";
+            case BadGatewayException _ -> "502";
+            case ServiceUnavailableException _ -> "503";
+            case SpotifyWebApiException _ -> "error";
+            case IOException _ -> "io_error";
+            default -> "client_error";
+        };
+    }
+}
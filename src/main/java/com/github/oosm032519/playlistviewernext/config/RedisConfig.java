@@ -3,6 +3,9 @@ package com.github.oosm032519.playlistviewernext.config;
 import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 /**
  * Redisの設定を管理するコンフィグレーションクラス。
@@ -26,4 +29,20 @@ public class RedisConfig {
             }
         };
     }
+
+    /**
+     * 値をバイト配列のまま読み書きするRedisTemplateを提供する。
+     * キャッシュデータを独自のバイナリ形式で格納する場合に使用する。
+     *
+     * @param connectionFactory Redisの接続ファクトリ
+     * @return キーを文字列、値をバイト配列として扱うRedisTemplate
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
 }
@@ -2,6 +2,7 @@ package com.github.oosm032519.playlistviewernext.config;
 
 import com.github.oosm032519.playlistviewernext.filter.SessionAuthenticationFilter;
 import com.github.oosm032519.playlistviewernext.service.auth.SpotifyOAuth2UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,6 +47,18 @@ public class SecurityConfig {
     @Value("${frontend.url}")
     private String frontendUrl;
 
+    /**
+     * Actuatorを公開する管理用ポート (未設定の場合は-1)
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    /**
+     * アプリケーションのポート
+     */
+    @Value("${server.port:8080}")
+    private int serverPort;
+
     /**
      * セキュリティフィルターチェーンの設定を行う。(モックモード用と実処理モード共通化)
      *
@@ -72,7 +85,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         // 公開エンドポイントの設定 (モックモード、実処理モード共通)
                         .requestMatchers("/", "/error", "/webjars/**", "/api/playlists/search",
-                                "api/session/sessionId", "/api/playlists/{id}/details", "api/playlists/recommendations", "/api/session/mock-login").permitAll()
+                                "api/session/sessionId", "/api/playlists/{id}/details", "/api/playlists/{id}/details/reactive", "/api/playlists/{id}/details/stream", "/api/playlists/{id}/details/streaming", "api/playlists/recommendations", "/api/session/mock-login").permitAll()
+                        // Prometheusによるメトリクスの収集とヘルスチェック (内部インターフェースの管理用ポートへのリクエストのみ)
+                        .requestMatchers(this::isManagementPortRequest).permitAll()
                         .anyRequest().authenticated()
                 )
                 // OAuth2ログイン設定 (モックモードが無効の場合のみ適用)
@@ -94,6 +109,17 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * リクエストがアプリケーションとは別の管理用ポートで受け付けられたかを判定する。
+     * 管理用ポートが設定されていない場合やアプリケーションと同じポートの場合、Actuatorには認証が必要となる。
+     *
+     * @param request HTTPリクエスト
+     * @return 管理用ポートへのリクエストの場合はtrue
+     */
+    private boolean isManagementPortRequest(HttpServletRequest request) {
+        return managementPort > 0 && managementPort != serverPort && request.getLocalPort() == managementPort;
+    }
+
     /**
      * セッション認証フィルターを生成する。
      *
@@ -0,0 +1,143 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * サービスレイヤーのメソッド実行時間をMicrometerのTimerに記録するAspectクラスである。
+ * Timerはサービス (クラス名)、メソッド名、結果 (success / error) のタグを持ち、パーセンタイルを集計できるヒストグラムを公開する。
+ * メソッドごとのTimerは初回の呼び出し時に登録し、以降は再利用する。
+ * errorのTimerは、例外をスローしないメソッドのヒストグラムを公開しないよう、初回の例外時に登録する。
+ * MonoやFluxを返すメソッドは、呼び出しではなく購読から完了までの時間を記録する。
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    /**
+     * サービスメソッドの実行時間を記録するTimerの名前
+     */
+    static final String METRIC_NAME = "service.method.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    /**
+     * メソッドごとの結果別のTimerの組
+     */
+    private final class MethodTimers {
+
+        private final Class<?> serviceClass;
+        private final Method method;
+        private final Timer success;
+        private volatile Timer error;
+
+        private MethodTimers(Class<?> serviceClass, Method method) {
+            this.serviceClass = serviceClass;
+            this.method = method;
+            success = timer(serviceClass, method, "success");
+        }
+
+        /**
+         * 正常に終了した呼び出しのTimerを返す
+         */
+        Timer success() {
+            return success;
+        }
+
+        /**
+         * 例外をスローした呼び出しのTimerを返す (初回の呼び出し時に登録する)
+         * MeterRegistryは同じ名前とタグのTimerを1つだけ登録するため、同時に登録されても同じTimerが返る
+         */
+        Timer error() {
+            Timer timer = error;
+            if (timer == null) {
+                timer = timer(serviceClass, method, "error");
+                error = timer;
+            }
+            return timer;
+        }
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param meterRegistry メトリクスの登録先
+     */
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * サービスレイヤーのメソッド実行時間を計測し、結果に応じたTimerに記録する。
+     * com.github.oosm032519.playlistviewernext.serviceパッケージ配下の
+     * すべてのメソッドの実行をインターセプトする。
+     *
+     * @param joinPoint 実行中のメソッドに関する情報を含むJoinPoint
+     * @return メソッドの実行結果
+     * @throws Throwable メソッド実行時に発生した例外
+     */
+    @Around("execution(* com.github.oosm032519.playlistviewernext.service..*(..))")
+    public Object recordExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodTimers methodTimers = timers.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                method -> new MethodTimers(joinPoint.getTarget() != null ? joinPoint.getTarget().getClass() : method.getDeclaringClass(), method));
+        long start = System.nanoTime();
+        try {
+            Object proceed = joinPoint.proceed();
+            if (proceed instanceof Mono<?> mono) {
+                return timed(mono, methodTimers);
+            }
+            if (proceed instanceof Flux<?> flux) {
+                return timed(flux, methodTimers);
+            }
+            methodTimers.success().record(Duration.ofNanos(System.nanoTime() - start));
+            return proceed;
+        } catch (Throwable e) {
+            methodTimers.error().record(Duration.ofNanos(System.nanoTime() - start));
+            throw e;
+        }
+    }
+
+    private static <T> Mono<T> timed(Mono<T> mono, MethodTimers methodTimers) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono
+                    .doOnSuccess(_ -> methodTimers.success().record(Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnError(_ -> methodTimers.error().record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private static <T> Flux<T> timed(Flux<T> flux, MethodTimers methodTimers) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux
+                    .doOnComplete(() -> methodTimers.success().record(Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnError(_ -> methodTimers.error().record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Timer timer(Class<?> serviceClass, Method method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("サービスレイヤーのメソッドの実行時間")
+                .tag("service", serviceClass.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+}
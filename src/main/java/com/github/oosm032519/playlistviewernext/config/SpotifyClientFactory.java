@@ -0,0 +1,37 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import se.michaelthelin.spotify.IHttpManager;
+import se.michaelthelin.spotify.SpotifyApi;
+
+/**
+ * ユーザーのアクセストークンを持つSpotifyApiインスタンスを呼び出しごとに生成するファクトリクラス。
+ * 共有のSpotifyApiインスタンスにアクセストークンを設定すると、並行するリクエスト間で別のユーザーのトークンが使用される可能性があるため、
+ * ユーザーの権限で行う呼び出しはこのファクトリが生成したインスタンスを使用する。
+ * 生成するインスタンスはHTTP接続プールと流量制限を持つIHttpManagerを共有するため、生成のコストは小さい。
+ */
+public class SpotifyClientFactory {
+
+    private final IHttpManager httpManager;
+
+    /**
+     * コンストラクタ
+     *
+     * @param httpManager すべてのSpotifyApiインスタンスで共有するIHttpManager
+     */
+    public SpotifyClientFactory(IHttpManager httpManager) {
+        this.httpManager = httpManager;
+    }
+
+    /**
+     * 指定されたアクセストークンを使用するSpotifyApiインスタンスを生成する。
+     *
+     * @param accessToken Spotifyアクセストークン
+     * @return アクセストークンを設定したSpotifyApiインスタンス
+     */
+    public SpotifyApi forAccessToken(String accessToken) {
+        return new SpotifyApi.Builder()
+                .setAccessToken(accessToken)
+                .setHttpManager(httpManager)
+                .build();
+    }
+}
@@ -1,9 +1,21 @@
 package com.github.oosm032519.playlistviewernext.config;
 
+import com.github.oosm032519.playlistviewernext.util.RateLimitCoordinator;
+import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import com.github.oosm032519.playlistviewernext.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import se.michaelthelin.spotify.IHttpManager;
 import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.SpotifyHttpManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Spotify APIの設定を管理するConfigurationクラス。
@@ -26,18 +38,89 @@ public class SpotifyConfig {
     @Value("${spotify.client.secret}")
     private String clientSecret;
 
+    /**
+     * Spotify APIとの通信に使用するIHttpManagerを生成する。
+     * HTTP接続プールを持つため、アプリケーション内のすべてのSpotifyApiインスタンスでこのインスタンスを共有する。
+     * すべてのリクエストは送信前に流量制限を通過し、流量制限による待機を除いた所要時間がメトリクスに記録される。
+     *
+     * @param requestThrottle Spotify APIへのリクエストの流量制限
+     * @param meterRegistry   メトリクスの登録先
+     * @return IHttpManagerのインスタンス
+     */
+    @Bean
+    public IHttpManager spotifyHttpManager(SpotifyRequestThrottle requestThrottle, MeterRegistry meterRegistry) {
+        return new ThrottlingHttpManager(
+                new MeteredHttpManager(new SpotifyHttpManager.Builder().build(), meterRegistry),
+                requestThrottle);
+    }
+
     /**
      * SpotifyApiインスタンスを生成し、Spring IoCコンテナに登録する。
-     * このインスタンスは、アプリケーション全体でSpotify APIとの通信に使用される。
+     * このインスタンスは、クライアントクレデンシャルトークンによるアプリケーション権限での通信に使用される。
+     * ユーザー権限での通信には {@link SpotifyClientFactory} が生成するインスタンスを使用し、このインスタンスにユーザーのアクセストークンを設定しない。
      *
+     * @param spotifyHttpManager 共有のIHttpManager
      * @return 設定済みのSpotifyApiインスタンス
      */
     @Bean
-    public SpotifyApi spotifyApi() {
+    public SpotifyApi spotifyApi(IHttpManager spotifyHttpManager) {
         // クライアントIDとシークレットを使用してSpotifyApiインスタンスを構築
         return new SpotifyApi.Builder()
                 .setClientId(clientId)
                 .setClientSecret(clientSecret)
+                .setHttpManager(spotifyHttpManager)
                 .build();
     }
+
+    /**
+     * ユーザーのアクセストークンを持つSpotifyApiインスタンスを生成するファクトリを登録する。
+     *
+     * @param spotifyHttpManager 共有のIHttpManager
+     * @return SpotifyClientFactoryのインスタンス
+     */
+    @Bean
+    public SpotifyClientFactory spotifyClientFactory(IHttpManager spotifyHttpManager) {
+        return new SpotifyClientFactory(spotifyHttpManager);
+    }
+
+    /**
+     * Spotify APIへのリクエストの流量制限を生成する。
+     * エンドポイントの分類ごとに spotify.throttle.&lt;分類&gt;.rate (1秒あたりのリクエスト数) と
+     * spotify.throttle.&lt;分類&gt;.burst (瞬間的に許容するリクエスト数) を設定できる。
+     *
+     * @param environment   設定値の参照先
+     * @param maxWait       トークンの取得を待機する時間の上限
+     * @param meterRegistry メトリクスの登録先
+     * @return SpotifyRequestThrottleのインスタンス
+     */
+    @Bean
+    public SpotifyRequestThrottle spotifyRequestThrottle(
+            Environment environment,
+            @Value("${spotify.throttle.max-wait:5s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        Map<SpotifyRequestThrottle.EndpointClass, TokenBucket> buckets = new EnumMap<>(SpotifyRequestThrottle.EndpointClass.class);
+        for (SpotifyRequestThrottle.EndpointClass endpointClass : SpotifyRequestThrottle.EndpointClass.values()) {
+            String prefix = "spotify.throttle." + endpointClass.getPropertyKey();
+            double rate = environment.getProperty(prefix + ".rate", Double.class, endpointClass.getDefaultRatePerSecond());
+            double burst = environment.getProperty(prefix + ".burst", Double.class, endpointClass.getDefaultBurst());
+            buckets.put(endpointClass, new TokenBucket(Math.max(0.1, rate), burst));
+        }
+        return new SpotifyRequestThrottle(buckets, maxWait, meterRegistry);
+    }
+
+    /**
+     * Spotify APIのレート制限状態をアプリケーション全体で共有する調整役を生成し、RetryUtilに登録する。
+     *
+     * @param maxWait    レート制限中に1リクエストが待機できる時間の上限
+     * @param maxWaiters レート制限中に同時に待機できるリクエスト数の上限
+     * @return RateLimitCoordinatorのインスタンス
+     */
+    @Bean
+    public RateLimitCoordinator rateLimitCoordinator(
+            @Value("${spotify.rate-limit.max-wait:10s}") Duration maxWait,
+            @Value("${spotify.rate-limit.max-waiters:256}") int maxWaiters) {
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(maxWait, maxWaiters);
+        RetryUtil.setRateLimitCoordinator(coordinator);
+        return coordinator;
+    }
 }
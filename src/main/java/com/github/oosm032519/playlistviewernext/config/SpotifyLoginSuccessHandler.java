@@ -9,7 +9,6 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
-import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.User;
 
@@ -35,7 +34,7 @@ public class SpotifyLoginSuccessHandler implements AuthenticationSuccessHandler
     public RedisTemplate<String, String> redisTemplate;
 
     @Autowired
-    public SpotifyApi spotifyApi;
+    public SpotifyClientFactory spotifyClientFactory;
 
     /**
      * コンストラクタ
@@ -135,8 +134,7 @@ public class SpotifyLoginSuccessHandler implements AuthenticationSuccessHandler
      */
     private String getSpotifyUserName(String userId, String spotifyAccessToken) {
         try {
-            spotifyApi.setAccessToken(spotifyAccessToken);
-            User user = spotifyApi.getCurrentUsersProfile().build().execute();
+            User user = spotifyClientFactory.forAccessToken(spotifyAccessToken).getCurrentUsersProfile().build().execute();
             return user.getDisplayName();
         } catch (IOException | SpotifyWebApiException | org.apache.hc.core5.http.ParseException e) {
             logger.error("Spotifyユーザー名の取得中にエラーが発生しました。 userId: {}, spotifyAccessToken: {}", userId, spotifyAccessToken, e);
@@ -0,0 +1,67 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.stub.SpotifyStubData;
+import com.github.oosm032519.playlistviewernext.stub.SpotifyStubServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 組み込みSpotifyスタブの設定を管理するConfigurationクラス。
+ * spotify.stub.enabled が true の場合のみ、スタブをアプリケーションと同じプロセス内で起動する。
+ * アプリケーションからスタブを使用するには、モックモードを有効にして spotify.mock-api.url にスタブのURLを設定する (application-stub.properties を参照)。
+ */
+@Configuration
+@ConditionalOnProperty(name = "spotify.stub.enabled", havingValue = "true")
+public class SpotifyStubConfig {
+
+    /**
+     * スタブが返すデータの生成元を生成する。
+     *
+     * @param playlistTracks        IDでトラック数が指定されていないプレイリストのトラック数
+     * @param artistPoolSize        トラックに割り当てるアーティストの種類数
+     * @param searchTotal           プレイリスト検索の総件数
+     * @param recommendationCount   おすすめ楽曲の件数
+     * @param followedPlaylistCount フォロー中のプレイリストの件数
+     * @return SpotifyStubDataのインスタンス
+     */
+    @Bean
+    public SpotifyStubData spotifyStubData(
+            @Value("${spotify.stub.playlist-tracks:100}") int playlistTracks,
+            @Value("${spotify.stub.artist-pool-size:500}") int artistPoolSize,
+            @Value("${spotify.stub.search-total:1000}") int searchTotal,
+            @Value("${spotify.stub.recommendation-count:20}") int recommendationCount,
+            @Value("${spotify.stub.followed-playlist-count:20}") int followedPlaylistCount) {
+        return new SpotifyStubData(playlistTracks, artistPoolSize, searchTotal, recommendationCount, followedPlaylistCount);
+    }
+
+    /**
+     * スタブのHTTPサーバーを生成する。アプリケーションの起動時に起動し、終了時に停止する。
+     *
+     * @param spotifyStubData 応答するデータの生成元
+     * @param objectMapper    JSONへの変換に使用するObjectMapper
+     * @param port            待ち受けるポート番号
+     * @param latency         各応答の基本の遅延
+     * @param latencyJitter   基本の遅延に加える最大の揺らぎ
+     * @param rateLimitRatio  429を返すリクエストの割合 (0以上1以下)
+     * @param retryAfter      429の応答のRetry-Afterヘッダーに設定する待機時間
+     * @return SpotifyStubServerのインスタンス
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SpotifyStubServer spotifyStubServer(
+            SpotifyStubData spotifyStubData,
+            ObjectMapper objectMapper,
+            @Value("${spotify.stub.port:8089}") int port,
+            @Value("${spotify.stub.latency:0ms}") Duration latency,
+            @Value("${spotify.stub.latency-jitter:0ms}") Duration latencyJitter,
+            @Value("${spotify.stub.rate-limit-ratio:0}") double rateLimitRatio,
+            @Value("${spotify.stub.retry-after:1s}") Duration retryAfter) {
+        SpotifyStubServer.Faults faults = new SpotifyStubServer.Faults(
+                latency, latencyJitter, Math.clamp(rateLimitRatio, 0, 1), (int) Math.max(1, retryAfter.toSeconds()));
+        return new SpotifyStubServer(spotifyStubData, objectMapper, faults, port);
+    }
+}
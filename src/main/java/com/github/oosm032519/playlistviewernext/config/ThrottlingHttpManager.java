@@ -0,0 +1,56 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.ParseException;
+import se.michaelthelin.spotify.IHttpManager;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * SpotifyApiが送信するすべてのHTTPリクエストの前に流量制限を適用するIHttpManagerの実装。
+ * 実際の送信は委譲先のIHttpManagerが行う。
+ */
+public class ThrottlingHttpManager implements IHttpManager {
+
+    private final IHttpManager delegate;
+    private final SpotifyRequestThrottle throttle;
+
+    /**
+     * コンストラクタ
+     *
+     * @param delegate 実際にリクエストを送信するIHttpManager
+     * @param throttle 流量制限
+     */
+    public ThrottlingHttpManager(IHttpManager delegate, SpotifyRequestThrottle throttle) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public String get(URI uri, Header[] headers) throws IOException, SpotifyWebApiException, ParseException {
+        throttle.acquire("GET", uri);
+        return delegate.get(uri, headers);
+    }
+
+    @Override
+    public String post(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        throttle.acquire("POST", uri);
+        return delegate.post(uri, headers, body);
+    }
+
+    @Override
+    public String put(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        throttle.acquire("PUT", uri);
+        return delegate.put(uri, headers, body);
+    }
+
+    @Override
+    public String delete(URI uri, Header[] headers, HttpEntity body) throws IOException, SpotifyWebApiException, ParseException {
+        throttle.acquire("DELETE", uri);
+        return delegate.delete(uri, headers, body);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仮想スレッドがキャリアスレッドに固定 (ピン留め) された時間を記録するコンポーネント
+ * リクエスト処理 (spring.threads.virtual.enabled) と上流APIへの並列取得はいずれも仮想スレッド上で実行されるため、
+ * synchronizedブロック内でのブロッキングなどにより固定が発生すると、同時に処理できるリクエスト数がキャリアスレッド数に制限される
+ * JFRのjdk.VirtualThreadPinnedイベントを監視し、固定された時間を jvm.threads.virtual.pinned に記録する
+ * 発生箇所は警告ログに出力するが、大量に出力されないよう一定の間隔で1件のみとする
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    /**
+     * 仮想スレッドが固定された時間を記録するTimerの名前
+     */
+    static final String METRIC_NAME = "jvm.threads.virtual.pinned";
+
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final long WARN_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+    private static final int LOGGED_FRAMES = 5;
+
+    private final Timer pinnedTimer;
+    private final Duration threshold;
+    private final AtomicLong lastWarnNanos = new AtomicLong(System.nanoTime() - WARN_INTERVAL_NANOS);
+
+    private RecordingStream recordingStream;
+
+    /**
+     * コンストラクタ
+     *
+     * @param meterRegistry メトリクスの登録先
+     * @param threshold     記録する固定時間の閾値 (これより短い固定は記録しない)
+     */
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${monitoring.virtual-thread.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+        pinnedTimer = Timer.builder(METRIC_NAME)
+                .description("仮想スレッドがキャリアスレッドに固定された時間")
+                .register(meterRegistry);
+    }
+
+    /**
+     * JFRイベントの監視を開始する
+     * JFRを利用できない実行環境では監視を行わない
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(EVENT_NAME).withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent(EVENT_NAME, this::onPinned);
+            recordingStream.startAsync();
+            logger.info("仮想スレッドの固定の監視を開始しました。閾値: {}", threshold);
+        } catch (RuntimeException e) {
+            logger.warn("JFRを利用できないため、仮想スレッドの固定を監視しません。", e);
+            recordingStream = null;
+        }
+    }
+
+    /**
+     * JFRイベントの監視を停止する
+     */
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        long now = System.nanoTime();
+        long last = lastWarnNanos.get();
+        if (now - last >= WARN_INTERVAL_NANOS && lastWarnNanos.compareAndSet(last, now)) {
+            logger.atWarn()
+                    .addKeyValue("durationMs", event.getDuration().toMillis())
+                    .addKeyValue("thread", event.getThread() != null ? event.getThread().getJavaName() : null)
+                    .log("仮想スレッドがキャリアスレッドに固定されました。発生箇所: {}", topFrames(event));
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "不明";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            if (!builder.isEmpty()) {
+                builder.append(" <- ");
+            }
+            builder.append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return builder.toString();
+    }
+}
@@ -1,17 +1,29 @@
 package com.github.oosm032519.playlistviewernext.controller.playlist;
 
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
 import com.github.oosm032519.playlistviewernext.model.RecommendationRequest;
-import com.github.oosm032519.playlistviewernext.service.analytics.PlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsJsonWriter;
 import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsRetrievalService;
+import com.github.oosm032519.playlistviewernext.service.playlist.ReactivePlaylistDetailsService;
 import com.github.oosm032519.playlistviewernext.service.recommendation.TrackRecommendationService;
+import com.github.oosm032519.playlistviewernext.util.DiagnosticLog;
+import com.github.oosm032519.playlistviewernext.util.ETagUtil;
+import com.github.oosm032519.playlistviewernext.util.FieldProjection;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import se.michaelthelin.spotify.model_objects.specification.Track;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * プレイリストの詳細情報を管理するRESTコントローラー
@@ -22,46 +34,170 @@ import java.util.Map;
 public class PlaylistDetailsController {
 
     private static final Logger logger = LoggerFactory.getLogger(PlaylistDetailsController.class);
+    private static final int STREAMING_PREFETCH = 2;
 
     private final PlaylistDetailsRetrievalService playlistDetailsRetrievalService;
-    private final PlaylistAnalyticsService playlistAnalyticsService;
     private final TrackRecommendationService trackRecommendationService;
+    private final ReactivePlaylistDetailsService reactivePlaylistDetailsService;
+    private final PlaylistDetailsJsonWriter playlistDetailsJsonWriter;
 
     /**
      * PlaylistDetailsControllerのコンストラクタ
      *
      * @param playlistDetailsRetrievalService プレイリスト詳細情報取得サービス
-     * @param playlistAnalyticsService        プレイリスト分析サービス
      * @param trackRecommendationService      楽曲推薦サービス
+     * @param reactivePlaylistDetailsService  ノンブロッキングなプレイリスト詳細情報取得サービス
+     * @param playlistDetailsJsonWriter       プレイリスト詳細のJSONを出力ストリームに直接書き込むクラス
      */
     public PlaylistDetailsController(
             PlaylistDetailsRetrievalService playlistDetailsRetrievalService,
-            PlaylistAnalyticsService playlistAnalyticsService,
-            TrackRecommendationService trackRecommendationService
+            TrackRecommendationService trackRecommendationService,
+            ReactivePlaylistDetailsService reactivePlaylistDetailsService,
+            PlaylistDetailsJsonWriter playlistDetailsJsonWriter
     ) {
         this.playlistDetailsRetrievalService = playlistDetailsRetrievalService;
-        this.playlistAnalyticsService = playlistAnalyticsService;
         this.trackRecommendationService = trackRecommendationService;
+        this.reactivePlaylistDetailsService = reactivePlaylistDetailsService;
+        this.playlistDetailsJsonWriter = playlistDetailsJsonWriter;
     }
 
     /**
      * 指定されたプレイリストの詳細情報とジャンル分析結果を取得する
+     * fields パラメータを指定した場合は、指定された項目のみを返す (書式は {@link FieldProjection} を参照)
+     * プレイリストのsnapshot_idからETagを作成し、If-None-Matchと一致する場合は詳細情報を作成せずに304を返す
      *
-     * @param id プレイリストID
+     * @param id      プレイリストID
+     * @param fields  レスポンスに含める項目 (省略時はすべての項目)
+     * @param request リクエスト (If-None-Matchの確認に使用)
      * @return プレイリストの詳細情報とジャンル分析結果を含むResponseEntity
      */
     @GetMapping("/{id}/details")
-    public ResponseEntity<Map<String, Object>> getPlaylistDetails(@PathVariable String id) {
-        logger.info("プレイリストID: {} の詳細情報を取得中", id);
+    public ResponseEntity<Map<String, Object>> getPlaylistDetails(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request
+    ) {
+        logger.debug("プレイリストID: {} の詳細情報を取得中", id);
+        Optional<FieldProjection> projection = FieldProjection.parse(fields);
+
+        String snapshotId = playlistDetailsRetrievalService.getPlaylistSnapshotId(id);
+        String eTag = detailsETag(snapshotId, projection);
+        if (ETagUtil.isNotModified(request, eTag)) {
+            logger.debug("プレイリストID: {} は変更されていないため304を返します", id);
+            return ETagUtil.notModified(eTag, ETagUtil.REVALIDATE);
+        }
+
+        // プレイリストの詳細情報とジャンル分析結果を取得 (トラック一覧の取得は1回のみ)
+        Map<String, Object> playlistDetails = playlistDetailsRetrievalService.getPlaylistDetails(id, snapshotId);
+
+        return ETagUtil.ok(eTag, ETagUtil.REVALIDATE)
+                .body(projection.map(p -> p.apply(playlistDetails)).orElse(playlistDetails));
+    }
+
+    /**
+     * 指定されたプレイリストの詳細情報とジャンル分析結果をノンブロッキングに取得する
+     * レスポンスは /{id}/details と同じ形式であり、上流APIの応答を待つ間はリクエストを処理するスレッドを占有しない
+     *
+     * ETagと304の扱いは /{id}/details と同じ
+     *
+     * @param id      プレイリストID
+     * @param fields  レスポンスに含める項目 (省略時はすべての項目)
+     * @param request リクエスト (If-None-Matchの確認に使用)
+     * @return プレイリストの詳細情報とジャンル分析結果を含むResponseEntityのMono
+     */
+    @GetMapping("/{id}/details/reactive")
+    public Mono<ResponseEntity<Map<String, Object>>> getPlaylistDetailsReactive(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request
+    ) {
+        logger.debug("プレイリストID: {} の詳細情報をノンブロッキングに取得中", id);
+        Optional<FieldProjection> projection = FieldProjection.parse(fields);
+
+        return reactivePlaylistDetailsService.getPlaylistSnapshotId(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(snapshotId -> {
+                    String eTag = detailsETag(snapshotId.orElse(null), projection);
+                    if (ETagUtil.isNotModified(request, eTag)) {
+                        logger.debug("プレイリストID: {} は変更されていないため304を返します", id);
+                        return Mono.just(ETagUtil.<Map<String, Object>>notModified(eTag, ETagUtil.REVALIDATE));
+                    }
+                    return reactivePlaylistDetailsService.getPlaylistDetails(id, snapshotId.orElse(null))
+                            .map(details -> ETagUtil.ok(eTag, ETagUtil.REVALIDATE)
+                                    .body(projection.map(p -> p.apply(details)).orElse(details)));
+                });
+    }
+
+    /**
+     * 指定されたプレイリストの詳細情報を、ページを受信するたびにJSONとして書き込みながら返す
+     * レスポンスは /{id}/details と同じ形式 (トラックとAudioFeaturesはフロントエンドが使用する項目のみ) であり、
+     * レスポンス全体をメモリ上に作成しないため、トラック数の多いプレイリストでもリクエストあたりのメモリ使用量は一定となる
+     *
+     * ETagと304の扱いは /{id}/details と同じ。/{id}/details が同じsnapshot_idのレスポンスを作成中の場合や
+     * キャッシュしている場合はそのレスポンスを書き込み、どちらもない場合のみページごとに書き込む
+     * (ページごとに書き込んだレスポンスは保持しないため、キャッシュには格納しない)
+     *
+     * @param id      プレイリストID
+     * @param fields  レスポンスに含める項目 (省略時はすべての項目)
+     * @param request リクエスト (If-None-Matchの確認に使用)
+     * @return プレイリストの詳細情報を書き込むStreamingResponseBodyを含むResponseEntity
+     */
+    @GetMapping("/{id}/details/streaming")
+    public ResponseEntity<StreamingResponseBody> getPlaylistDetailsStreaming(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request
+    ) {
+        logger.debug("プレイリストID: {} の詳細情報を書き込みながら取得中", id);
+        Optional<FieldProjection> projection = FieldProjection.parse(fields);
 
-        // プレイリストの基本情報を取得
-        Map<String, Object> playlistDetails = playlistDetailsRetrievalService.getPlaylistDetails(id);
+        String snapshotId = playlistDetailsRetrievalService.getPlaylistSnapshotId(id);
+        String eTag = detailsETag(snapshotId, projection);
+        if (ETagUtil.isNotModified(request, eTag)) {
+            logger.debug("プレイリストID: {} は変更されていないため304を返します", id);
+            return ETagUtil.notModified(eTag, ETagUtil.REVALIDATE);
+        }
+
+        StreamingResponseBody body;
+        Optional<Map<String, Object>> playlistDetails = playlistDetailsRetrievalService.findPlaylistDetails(id, snapshotId);
+        if (playlistDetails.isPresent()) {
+            body = outputStream -> playlistDetailsJsonWriter.write(playlistDetails.get(), outputStream, projection.orElse(null));
+        } else {
+            Flux<PlaylistDetailsEvent> events = reactivePlaylistDetailsService.streamPlaylistDetails(id);
+            // 書き込みを待つ間に受信済みのページが溜まらないよう、先読みするイベント数を制限する
+            body = outputStream -> playlistDetailsJsonWriter.write(events.toIterable(STREAMING_PREFETCH), outputStream, projection.orElse(null));
+        }
+        return ETagUtil.ok(eTag, ETagUtil.REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * 指定されたプレイリストの詳細情報をServer-Sent Eventsで段階的に送信する
+     * プレイリスト情報を最初に送信し、続けてページごとのトラックとAudioFeaturesの統計値、最後にジャンルと上位のアーティストを送信する
+     * イベントの種類とデータは {@link PlaylistDetailsEvent} を参照
+     *
+     * @param id プレイリストID
+     * @return 詳細情報のイベントのFlux
+     */
+    @GetMapping(value = "/{id}/details/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamPlaylistDetails(@PathVariable String id) {
+        logger.debug("プレイリストID: {} の詳細情報を段階的に送信中", id);
 
-        // ジャンル分析を実行し、結果を追加
-        Map<String, Integer> genreCounts = playlistAnalyticsService.getGenreCountsForPlaylist(id);
-        playlistDetails.put("genreCounts", genreCounts);
+        return reactivePlaylistDetailsService.streamPlaylistDetails(id)
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.name()).build());
+    }
 
-        return ResponseEntity.ok(playlistDetails);
+    /**
+     * 詳細情報のETagを作成する
+     * 内容はプレイリストのsnapshot_idとレスポンスに含める項目で決まるため、これらとレスポンス形式のバージョン
+     * (キャッシュのキーと共通の {@link PlaylistDetailsRetrievalService#DETAILS_FORMAT_VERSION}) から作成する
+     *
+     * @return ETag (snapshot_idを取得できなかった場合はnull)
+     */
+    private static String detailsETag(String snapshotId, Optional<FieldProjection> projection) {
+        return ETagUtil.weakETag("playlist-details", PlaylistDetailsRetrievalService.DETAILS_FORMAT_VERSION, snapshotId, projection.map(FieldProjection::toString).orElse(""));
     }
 
     /**
@@ -77,8 +213,9 @@ public class PlaylistDetailsController {
         List<String> seedArtists = request.getSeedArtists();
         Map<String, Float> maxAudioFeatures = request.getMaxAudioFeatures();
         Map<String, Float> minAudioFeatures = request.getMinAudioFeatures();
-        logger.info("seedArtists: {}, maxAudioFeatures: {}, minAudioFeatures: {}",
-                seedArtists, maxAudioFeatures, minAudioFeatures);
+        logger.debug("seedArtists: {}", seedArtists);
+        DiagnosticLog.payload("getRecommendations", "maxAudioFeatures", maxAudioFeatures);
+        DiagnosticLog.payload("getRecommendations", "minAudioFeatures", minAudioFeatures);
 
         // 指定された条件に基づいて楽曲推薦を取得
         List<Track> recommendations = trackRecommendationService.getRecommendations(
@@ -3,6 +3,7 @@ package com.github.oosm032519.playlistviewernext.controller.playlist;
 import com.github.oosm032519.playlistviewernext.controller.auth.SpotifyClientCredentialsAuthentication;
 import com.github.oosm032519.playlistviewernext.exception.ErrorResponse;
 import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistSearchService;
+import com.github.oosm032519.playlistviewernext.util.ETagUtil;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -80,7 +81,9 @@ public class PlaylistSearchController {
         // プレイリストの検索を実行し、検索結果と総数を取得
         Map<String, Object> searchResult = playlistSearchService.searchPlaylists(query, offset, limit);
 
-        // 検索結果を返す
-        return ResponseEntity.ok(searchResult);
+        // 検索結果を返す (ETagは HttpCachingConfig のフィルターが本文から作成する)
+        return ResponseEntity.ok()
+                .cacheControl(ETagUtil.REVALIDATE)
+                .body(searchResult);
     }
 }
@@ -2,7 +2,9 @@ package com.github.oosm032519.playlistviewernext.controller.playlist;
 
 import com.github.oosm032519.playlistviewernext.model.FavoritePlaylistResponse;
 import com.github.oosm032519.playlistviewernext.service.playlist.UserFavoritePlaylistsService;
+import com.github.oosm032519.playlistviewernext.util.ETagUtil;
 import com.github.oosm032519.playlistviewernext.util.HashUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,12 +50,14 @@ public class UserFavoritePlaylistsController {
 
     /**
      * ログインユーザーのお気に入りプレイリストを取得するエンドポイント
+     * ユーザーとお気に入りのバージョンからETagを作成し、If-None-Matchと一致する場合は一覧を取得せずに304を返す
      *
      * @param principal 認証されたユーザー情報
+     * @param request   リクエスト (If-None-Matchの確認に使用)
      * @return お気に入りプレイリストのリストを含むResponseEntity
      */
     @GetMapping
-    public ResponseEntity<?> getFavoritePlaylists(@AuthenticationPrincipal OAuth2User principal) throws NoSuchAlgorithmException {
+    public ResponseEntity<?> getFavoritePlaylists(@AuthenticationPrincipal OAuth2User principal, HttpServletRequest request) throws NoSuchAlgorithmException {
         LOGGER.info("お気に入りプレイリスト一覧取得リクエストを受信しました。");
 
         if (principal == null) {
@@ -92,6 +96,18 @@ public class UserFavoritePlaylistsController {
             return ResponseEntity.status(500).body("ユーザーIDのハッシュ化に失敗しました。");
         }
 
+        String eTag = null;
+        try {
+            eTag = ETagUtil.weakETag("favorites", hashedUserId, userFavoritePlaylistsService.getFavoritePlaylistsVersion(hashedUserId));
+        } catch (Exception e) {
+            // ETagを作成できない場合は、常に一覧を返す
+            LOGGER.warn("お気に入りプレイリストのバージョンを取得できませんでした。ユーザーID: {}", hashedUserId, e);
+        }
+        if (ETagUtil.isNotModified(request, eTag)) {
+            LOGGER.info("ユーザー [{}] のお気に入りプレイリストは変更されていないため304を返します。", hashedUserId);
+            return ETagUtil.notModified(eTag, ETagUtil.REVALIDATE_PRIVATE);
+        }
+
         LOGGER.info("ユーザー [{}] のお気に入りプレイリストの取得を開始します。", hashedUserId);
 
         List<FavoritePlaylistResponse> favoritePlaylists;
@@ -106,6 +122,6 @@ public class UserFavoritePlaylistsController {
         LOGGER.debug("ユーザー [{}] のお気に入りプレイリスト内容: {}", hashedUserId, favoritePlaylists);
 
         LOGGER.info("お気に入りプレイリスト一覧取得リクエストが正常に完了しました。");
-        return ResponseEntity.ok(favoritePlaylists);
+        return ETagUtil.ok(eTag, ETagUtil.REVALIDATE_PRIVATE).body(favoritePlaylists);
     }
 }
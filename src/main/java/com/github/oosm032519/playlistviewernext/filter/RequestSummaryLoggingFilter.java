@@ -0,0 +1,119 @@
+package com.github.oosm032519.playlistviewernext.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * リクエストごとの要約 (メソッド、ルート、ステータス、所要時間) を1行の構造化されたイベントとして出力するフィルター
+ * 出力件数を抑えるため、正常なリクエストは設定した割合でサンプリングし、サーバーエラーと閾値を超えた遅いリクエストは常に出力する
+ * Monoを返すハンドラなど非同期に処理されるリクエストは、非同期処理の完了後のディスパッチで最初の受付からの所要時間を出力する
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestSummaryLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestSummaryLoggingFilter.class);
+    private static final String START_NANOS_ATTRIBUTE = RequestSummaryLoggingFilter.class.getName() + ".startNanos";
+
+    private final double sampleRate;
+    private final Duration slowThreshold;
+
+    /**
+     * コンストラクタ
+     *
+     * @param sampleRate    正常なリクエストの要約を出力する割合 (0.0〜1.0)
+     * @param slowThreshold 常に出力する遅いリクエストの閾値
+     */
+    public RequestSummaryLoggingFilter(
+            @Value("${logging.request-summary.sample-rate:1.0}") double sampleRate,
+            @Value("${logging.request-summary.slow-threshold:1s}") Duration slowThreshold) {
+        this.sampleRate = Math.clamp(sampleRate, 0.0, 1.0);
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * 後続の処理を実行し、完了後にリクエストの要約を出力する
+     *
+     * @param request  HTTPリクエスト
+     * @param response HTTPレスポンス
+     * @param chain    フィルターチェーン
+     * @throws ServletException サーブレット例外
+     * @throws IOException      I/O例外
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain)
+            throws ServletException, IOException {
+        if (!logger.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = request.getAttribute(START_NANOS_ATTRIBUTE) instanceof Long startNanos ? startNanos : System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 非同期処理の完了後のディスパッチで出力する
+                request.setAttribute(START_NANOS_ATTRIBUTE, start);
+            } else {
+                logSummary(request, status, Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+
+    private void logSummary(HttpServletRequest request, int status, Duration elapsed) {
+        if (shouldLog(status, elapsed)) {
+            logger.atInfo()
+                    .addKeyValue("method", request.getMethod())
+                    .addKeyValue("route", route(request))
+                    .addKeyValue("status", status)
+                    .addKeyValue("durationMs", elapsed.toMillis())
+                    .addKeyValue("sampleRate", sampleRate)
+                    .log("request");
+        }
+    }
+
+    /**
+     * 非同期処理の完了後のディスパッチでも要約を出力するため、非同期ディスパッチを対象に含める
+     *
+     * @return 常にfalse
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private boolean shouldLog(int status, Duration elapsed) {
+        if (status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR || elapsed.compareTo(slowThreshold) >= 0) {
+            return true;
+        }
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * ログの集計時にプレイリストIDなどで分散しないよう、一致したハンドラのパスパターンを優先して返す
+     */
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
@@ -55,7 +55,7 @@ public class SessionAuthenticationFilter extends OncePerRequestFilter {
 
         String sessionId = ServletUtil.extractSessionIdFromRequest(request);
         if (sessionId != null) {
-            logger.info("セッションIDをCookieから取得しました: {}", sessionId);
+            logger.debug("セッションIDをCookieから取得しました");
             try {
                 // Redisからセッション情報を取得
                 Map<Object, Object> sessionData = redisTemplate.opsForHash().entries("session:" + sessionId);
@@ -67,14 +67,14 @@ public class SessionAuthenticationFilter extends OncePerRequestFilter {
                     );
                 }
 
-                logger.info("Redisからセッション情報を取得しました。認証情報を作成します。");
+                logger.debug("Redisからセッション情報を取得しました。認証情報を作成します。");
 
                 // ユーザー情報を取得
                 String userId = (String) sessionData.get("userId");
                 String userName = (String) sessionData.get("userName");
                 String spotifyAccessToken = (String) sessionData.get("spotifyAccessToken");
 
-                logger.info("ユーザー認証成功 - ユーザーID: {}, ユーザー名: {}", userId, userName);
+                logger.debug("ユーザー認証成功 - ユーザーID: {}", userId);
 
                 // OAuth2Userオブジェクトを作成
                 Map<String, Object> attributes = new HashMap<>();
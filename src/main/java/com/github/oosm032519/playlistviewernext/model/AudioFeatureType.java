@@ -0,0 +1,71 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * 統計計算の対象とするAudio Featuresの種類と値の抽出方法を定義する列挙型
+ * 各種類はパーセンタイル計算のヒストグラムに使用する値の範囲を持つ
+ */
+public enum AudioFeatureType {
+    DANCEABILITY(AudioFeatures::getDanceability, 0, 1),
+    ENERGY(AudioFeatures::getEnergy, 0, 1),
+    VALENCE(AudioFeatures::getValence, 0, 1),
+    TEMPO(AudioFeatures::getTempo, 0, 250),
+    ACOUSTICNESS(AudioFeatures::getAcousticness, 0, 1),
+    INSTRUMENTALNESS(AudioFeatures::getInstrumentalness, 0, 1),
+    LIVENESS(AudioFeatures::getLiveness, 0, 1),
+    SPEECHINESS(AudioFeatures::getSpeechiness, 0, 1);
+
+    private final Function<AudioFeatures, Float> extractor;
+    private final String key;
+    private final double lowerBound;
+    private final double upperBound;
+
+    AudioFeatureType(Function<AudioFeatures, Float> extractor, double lowerBound, double upperBound) {
+        this.extractor = extractor;
+        key = name().toLowerCase(Locale.ROOT);
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * レスポンスのキーとして使用する名前 (小文字) を返す
+     *
+     * @return レスポンスのキー
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 値が通常取りうる範囲の下限を返す
+     *
+     * @return 範囲の下限
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * 値が通常取りうる範囲の上限を返す (テンポなど上限のない値は、実用上の上限)
+     *
+     * @return 範囲の上限
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * AudioFeaturesからこの種類の値を取り出す
+     *
+     * @param audioFeatures 値を取り出すAudioFeatures
+     * @return 特徴量の値 (値が存在しない場合は0)
+     */
+    public float extract(AudioFeatures audioFeatures) {
+        Float value = extractor.apply(audioFeatures);
+        return value != null ? value : 0f;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import se.michaelthelin.spotify.enums.Modality;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+/**
+ * レスポンスに含めるAudioFeaturesを、フロントエンドが使用する項目のみに絞って表すモデル
+ * 項目名はSpotifyのAudioFeaturesをJacksonで変換した場合と同じとし、解析結果のURLなどの項目は含めない
+ * 値がnullの項目は出力しない
+ *
+ * @param id               トラックID
+ * @param danceability     ダンス性
+ * @param energy           エネルギー
+ * @param valence          明るさ
+ * @param tempo            テンポ
+ * @param acousticness     アコースティック度
+ * @param instrumentalness インスト度
+ * @param liveness         ライブ感
+ * @param speechiness      スピーチ度
+ * @param loudness         音量 (dB)
+ * @param key              キー
+ * @param mode             長調・短調
+ * @param timeSignature    拍子
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CompactAudioFeatures(
+        String id,
+        Float danceability,
+        Float energy,
+        Float valence,
+        Float tempo,
+        Float acousticness,
+        Float instrumentalness,
+        Float liveness,
+        Float speechiness,
+        Float loudness,
+        Integer key,
+        Modality mode,
+        Integer timeSignature
+) {
+
+    /**
+     * SpotifyのAudioFeaturesから必要な項目のみを取り出す
+     *
+     * @param audioFeatures AudioFeatures (nullの場合はnullを返す)
+     * @return 項目を絞ったAudioFeatures
+     */
+    public static CompactAudioFeatures from(AudioFeatures audioFeatures) {
+        if (audioFeatures == null) {
+            return null;
+        }
+        return new CompactAudioFeatures(
+                audioFeatures.getId(),
+                audioFeatures.getDanceability(),
+                audioFeatures.getEnergy(),
+                audioFeatures.getValence(),
+                audioFeatures.getTempo(),
+                audioFeatures.getAcousticness(),
+                audioFeatures.getInstrumentalness(),
+                audioFeatures.getLiveness(),
+                audioFeatures.getSpeechiness(),
+                audioFeatures.getLoudness(),
+                audioFeatures.getKey(),
+                audioFeatures.getMode(),
+                audioFeatures.getTimeSignature());
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import se.michaelthelin.spotify.model_objects.specification.AlbumSimplified;
+import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
+import se.michaelthelin.spotify.model_objects.specification.ExternalUrl;
+import se.michaelthelin.spotify.model_objects.specification.Image;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * レスポンスに含めるトラックを、フロントエンドが使用する項目のみに絞って表すモデル
+ * 項目名はSpotifyのTrackをJacksonで変換した場合と同じとし、利用可能な国・外部IDなどの項目は含めない
+ * 値がnullの項目は出力しない
+ *
+ * @param id           トラックID
+ * @param name         トラック名
+ * @param uri          トラックのURI
+ * @param durationMs   再生時間 (ミリ秒)
+ * @param popularity   人気度
+ * @param previewUrl   プレビューのURL
+ * @param externalUrls 外部URL
+ * @param artists      アーティスト
+ * @param album        アルバム
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CompactTrack(
+        String id,
+        String name,
+        String uri,
+        Integer durationMs,
+        Integer popularity,
+        String previewUrl,
+        ExternalUrls externalUrls,
+        List<Artist> artists,
+        Album album
+) {
+
+    /**
+     * SpotifyのTrackから必要な項目のみを取り出す
+     *
+     * @param track トラック (nullの場合はnullを返す)
+     * @return 項目を絞ったトラック
+     */
+    public static CompactTrack from(Track track) {
+        if (track == null) {
+            return null;
+        }
+        return new CompactTrack(
+                track.getId(),
+                track.getName(),
+                track.getUri(),
+                track.getDurationMs(),
+                track.getPopularity(),
+                track.getPreviewUrl(),
+                ExternalUrls.from(track.getExternalUrls()),
+                track.getArtists() != null ? Arrays.stream(track.getArtists()).map(Artist::from).toList() : List.of(),
+                Album.from(track.getAlbum()));
+    }
+
+    /**
+     * 外部URL
+     * 既存のレスポンスと同じく、サービス名からURLへのMapを externalUrls の中に持つ
+     *
+     * @param externalUrls サービス名からURLへのMap
+     */
+    public record ExternalUrls(Map<String, String> externalUrls) {
+
+        static ExternalUrls from(ExternalUrl externalUrl) {
+            return externalUrl != null ? new ExternalUrls(externalUrl.getExternalUrls()) : null;
+        }
+    }
+
+    /**
+     * アーティスト
+     *
+     * @param id   アーティストID
+     * @param name アーティスト名
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Artist(String id, String name) {
+
+        static Artist from(ArtistSimplified artist) {
+            return new Artist(artist.getId(), artist.getName());
+        }
+    }
+
+    /**
+     * アルバム
+     *
+     * @param id     アルバムID
+     * @param name   アルバム名
+     * @param images ジャケット画像
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Album(String id, String name, List<AlbumImage> images) {
+
+        static Album from(AlbumSimplified album) {
+            if (album == null) {
+                return null;
+            }
+            return new Album(
+                    album.getId(),
+                    album.getName(),
+                    album.getImages() != null ? Arrays.stream(album.getImages()).map(AlbumImage::from).toList() : List.of());
+        }
+    }
+
+    /**
+     * ジャケット画像
+     *
+     * @param url    画像のURL
+     * @param height 高さ
+     * @param width  幅
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AlbumImage(String url, Integer height, Integer width) {
+
+        static AlbumImage from(Image image) {
+            return new AlbumImage(image.getUrl(), image.getHeight(), image.getWidth());
+        }
+    }
+}
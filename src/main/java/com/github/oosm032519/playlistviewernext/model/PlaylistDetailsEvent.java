@@ -0,0 +1,58 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+/**
+ * プレイリスト詳細を段階的に送信する際の1件のイベントを表すモデル
+ * イベント名はServer-Sent Eventsのevent、データはdataとして送信する
+ * 送信順は playlist → tracks / audioFeatures (ページごと) → genres → seedArtists → complete であり、
+ * 途中で失敗した場合は error を送信して終了する
+ *
+ * @param name イベント名
+ * @param data イベントのデータ
+ */
+public record PlaylistDetailsEvent(String name, Object data) {
+
+    /**
+     * プレイリストのメタデータ (名前・オーナー・トラックの総数)
+     */
+    public static final String PLAYLIST = "playlist";
+
+    /**
+     * 1ページ分のトラックとAudioFeatures
+     */
+    public static final String TRACKS = "tracks";
+
+    /**
+     * 送信済みのトラックのAudioFeaturesの統計値 (ページごとに更新)
+     */
+    public static final String AUDIO_FEATURES = "audioFeatures";
+
+    /**
+     * ジャンルごとの出現回数
+     */
+    public static final String GENRES = "genres";
+
+    /**
+     * 出現頻度上位のアーティスト
+     */
+    public static final String SEED_ARTISTS = "seedArtists";
+
+    /**
+     * 送信の完了 (総再生時間とトラック数)
+     */
+    public static final String COMPLETE = "complete";
+
+    /**
+     * 送信中に発生したエラー
+     */
+    public static final String ERROR = "error";
+
+    /**
+     * playlist のデータのうち、トラックの総数の項目名 (段階的な送信の進捗にのみ使用し、詳細情報のレスポンスには含まない)
+     */
+    public static final String TOTAL_TRACKS = "totalTracks";
+
+    /**
+     * audioFeatures と complete のデータのうち、集計したトラック数の項目名 (段階的な送信の進捗にのみ使用し、詳細情報のレスポンスには含まない)
+     */
+    public static final String TRACK_COUNT = "trackCount";
+}
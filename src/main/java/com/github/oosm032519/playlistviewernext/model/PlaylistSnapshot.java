@@ -0,0 +1,48 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import lombok.Getter;
+import se.michaelthelin.spotify.model_objects.specification.Playlist;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+
+/**
+ * 1回の詳細取得リクエスト内で共有するプレイリストのスナップショットを表すモデルクラス
+ * プレイリスト情報と全トラックを一度だけ取得し、各分析処理に同じトラック一覧を渡すために使用する
+ */
+@Getter
+public class PlaylistSnapshot {
+
+    /**
+     * プレイリストのID
+     */
+    private final String playlistId;
+
+    /**
+     * プレイリストのメタデータ
+     */
+    private final Playlist playlist;
+
+    /**
+     * プレイリスト内の全トラック
+     */
+    private final PlaylistTrack[] tracks;
+
+    /**
+     * スナップショットの作成に要した上流APIへのページ取得回数
+     */
+    private final int pageFetchCount;
+
+    /**
+     * PlaylistSnapshotオブジェクトを生成するコンストラクタ
+     *
+     * @param playlistId     プレイリストのID
+     * @param playlist       プレイリストのメタデータ
+     * @param tracks         プレイリスト内の全トラック
+     * @param pageFetchCount 上流APIへのページ取得回数
+     */
+    public PlaylistSnapshot(String playlistId, Playlist playlist, PlaylistTrack[] tracks, int pageFetchCount) {
+        this.playlistId = playlistId;
+        this.playlist = playlist;
+        this.tracks = tracks;
+        this.pageFetchCount = pageFetchCount;
+    }
+}
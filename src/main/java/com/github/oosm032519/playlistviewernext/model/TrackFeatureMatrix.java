@@ -0,0 +1,164 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * プレイリストのトラックとAudio Featuresを列指向で保持するモデルクラス
+ * 特徴量の種類ごとに全トラックの値を1つのfloat配列に格納し、統計計算ではトラックごとのオブジェクトを辿らずに配列を走査する
+ * 行の順序はプレイリスト内のトラックの順序と一致する
+ */
+public class TrackFeatureMatrix {
+
+    private static final TrackFeatureMatrix EMPTY = new TrackFeatureMatrix(new Track[0], List.of());
+
+    private final String[] trackIds;
+    private final Track[] tracks;
+    private final AudioFeatures[] audioFeatures;
+    private final float[][] columns;
+    private final int audioFeaturesCount;
+
+    /**
+     * TrackFeatureMatrixオブジェクトを生成するコンストラクタ
+     *
+     * @param tracks        プレイリスト内のトラック (取得できなかったトラックはnull)
+     * @param audioFeatures トラックと同じ順序に並んだAudioFeatures (取得できなかったトラックはnull、要素数が不足する場合は不足分をnullとして扱う)
+     */
+    public TrackFeatureMatrix(Track[] tracks, List<AudioFeatures> audioFeatures) {
+        int size = tracks.length;
+        this.tracks = tracks.clone();
+        trackIds = new String[size];
+        this.audioFeatures = new AudioFeatures[size];
+        columns = new float[AudioFeatureType.values().length][size];
+
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            trackIds[row] = tracks[row] != null ? tracks[row].getId() : null;
+            AudioFeatures features = row < audioFeatures.size() ? audioFeatures.get(row) : null;
+            if (features == null) {
+                continue;
+            }
+            this.audioFeatures[row] = features;
+            for (AudioFeatureType type : AudioFeatureType.values()) {
+                columns[type.ordinal()][row] = type.extract(features);
+            }
+            count++;
+        }
+        audioFeaturesCount = count;
+    }
+
+    /**
+     * トラックを1件も含まない行列を返す
+     *
+     * @return 空の行列
+     */
+    public static TrackFeatureMatrix empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 行 (トラック) の数を返す
+     *
+     * @return トラック数
+     */
+    public int size() {
+        return tracks.length;
+    }
+
+    /**
+     * AudioFeaturesを持つ行の数を返す
+     *
+     * @return AudioFeaturesを取得できたトラック数
+     */
+    public int getAudioFeaturesCount() {
+        return audioFeaturesCount;
+    }
+
+    /**
+     * 指定された行のトラックIDを返す
+     *
+     * @param row 行番号
+     * @return トラックID (トラックまたはIDが存在しない場合はnull)
+     */
+    public String getTrackId(int row) {
+        return trackIds[row];
+    }
+
+    /**
+     * 指定された行のトラックを返す
+     *
+     * @param row 行番号
+     * @return トラック (存在しない場合はnull)
+     */
+    public Track getTrack(int row) {
+        return tracks[row];
+    }
+
+    /**
+     * 指定された行のAudioFeaturesを返す
+     *
+     * @param row 行番号
+     * @return AudioFeatures (取得できなかった場合はnull)
+     */
+    public AudioFeatures getAudioFeatures(int row) {
+        return audioFeatures[row];
+    }
+
+    /**
+     * 指定された行がAudioFeaturesを持つかどうかを返す
+     *
+     * @param row 行番号
+     * @return AudioFeaturesを持つ場合はtrue
+     */
+    public boolean hasAudioFeatures(int row) {
+        return audioFeatures[row] != null;
+    }
+
+    /**
+     * 指定された種類の特徴量の値を返す
+     *
+     * @param type 特徴量の種類
+     * @param row  行番号
+     * @return 特徴量の値 (AudioFeaturesを持たない行は0)
+     */
+    public float get(AudioFeatureType type, int row) {
+        return columns[type.ordinal()][row];
+    }
+
+    /**
+     * 指定された種類の特徴量の全トラック分の値を返す
+     * 統計計算で配列を直接走査するため内部の配列をそのまま返す。呼び出し元で変更しないこと
+     *
+     * @param type 特徴量の種類
+     * @return 行番号をインデックスとする特徴量の値の配列 (AudioFeaturesを持たない行は0)
+     */
+    public float[] getColumn(AudioFeatureType type) {
+        return columns[type.ordinal()];
+    }
+
+    /**
+     * レスポンスに含めるトラック一覧を作成する
+     * トラックとAudioFeaturesはフロントエンドが使用する項目のみに絞る
+     *
+     * @return トラックとAudioFeaturesの組のリスト
+     */
+    public List<TrackItem> toTrackItems() {
+        List<TrackItem> items = new ArrayList<>(tracks.length);
+        for (int row = 0; row < tracks.length; row++) {
+            items.add(new TrackItem(CompactTrack.from(tracks[row]), CompactAudioFeatures.from(audioFeatures[row])));
+        }
+        return items;
+    }
+
+    /**
+     * レスポンスのトラック一覧の1要素
+     *
+     * @param track         トラック
+     * @param audioFeatures トラックのAudioFeatures
+     */
+    public record TrackItem(CompactTrack track, CompactAudioFeatures audioFeatures) {
+    }
+}
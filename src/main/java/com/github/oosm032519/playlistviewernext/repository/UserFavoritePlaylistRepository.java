@@ -2,6 +2,8 @@ package com.github.oosm032519.playlistviewernext.repository;
 
 import com.github.oosm032519.playlistviewernext.entity.UserFavoritePlaylist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,4 +14,17 @@ public interface UserFavoritePlaylistRepository extends JpaRepository<UserFavori
 
     List<UserFavoritePlaylist> findByUserId(String userId);
 
+    /**
+     * ユーザーのお気に入りの件数と最大のIDを取得する
+     * お気に入りは追加と削除のみで更新されず、IDは再利用されないため、この組が変わらなければお気に入りの一覧も変わらない
+     */
+    @Query("select count(f) as favoriteCount, max(f.id) as maxId from UserFavoritePlaylist f where f.userId = :userId")
+    FavoritesVersion findVersionByUserId(@Param("userId") String userId);
+
+    interface FavoritesVersion {
+        long getFavoriteCount();
+
+        Long getMaxId();
+    }
+
 }
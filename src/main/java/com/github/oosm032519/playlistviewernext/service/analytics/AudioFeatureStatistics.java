@@ -0,0 +1,270 @@
+package com.github.oosm032519.playlistviewernext.service.analytics;
+
+import com.github.oosm032519.playlistviewernext.model.AudioFeatureType;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 全種類のAudio Featuresの件数・最小値・最大値・平均値・分散を1回の走査で集計するクラス。
+ * 値はプリミティブ配列に保持し、平均値と分散はWelfordの方法で逐次更新する。
+ * パーセンタイルは種類ごとの固定幅ヒストグラム ({@link #HISTOGRAM_BUCKETS} 個の区間) から求めるため、メモリ使用量はトラック数によらず一定となる。
+ * 部分的な集計結果同士を {@link #merge} で結合できるため、チャンクごとや並列に取得した結果を順次取り込むことができる。
+ * インスタンスはスレッドセーフではない。
+ */
+public class AudioFeatureStatistics {
+
+    /**
+     * 種類ごとのヒストグラムの区間数
+     */
+    static final int HISTOGRAM_BUCKETS = 100;
+
+    private static final int TYPE_COUNT = AudioFeatureType.values().length;
+    private static final double[] LOWER_BOUNDS = new double[TYPE_COUNT];
+    private static final double[] BUCKET_WIDTHS = new double[TYPE_COUNT];
+
+    static {
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            LOWER_BOUNDS[type.ordinal()] = type.getLowerBound();
+            BUCKET_WIDTHS[type.ordinal()] = (type.getUpperBound() - type.getLowerBound()) / HISTOGRAM_BUCKETS;
+        }
+    }
+
+    private long count;
+    private final double[] min = new double[TYPE_COUNT];
+    private final double[] max = new double[TYPE_COUNT];
+    private final double[] mean = new double[TYPE_COUNT];
+    private final double[] m2 = new double[TYPE_COUNT];
+    private final int[][] histograms = new int[TYPE_COUNT][HISTOGRAM_BUCKETS];
+
+    /**
+     * 空の集計結果を生成するコンストラクタ
+     */
+    public AudioFeatureStatistics() {
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * 行列のうちAudio Featuresを持つ全トラックを集計する
+     *
+     * @param matrix トラックとAudio Featuresの行列
+     * @return 集計結果
+     */
+    public static AudioFeatureStatistics of(TrackFeatureMatrix matrix) {
+        AudioFeatureStatistics statistics = new AudioFeatureStatistics();
+        statistics.addAll(matrix);
+        return statistics;
+    }
+
+    /**
+     * 1トラック分のAudio Featuresを集計に加える
+     *
+     * @param audioFeatures 集計に加えるAudio Features
+     */
+    public void add(AudioFeatures audioFeatures) {
+        count++;
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            accumulate(type.ordinal(), type.extract(audioFeatures), count);
+        }
+    }
+
+    /**
+     * 行列のうちAudio Featuresを持つ全トラックを集計に加える
+     * 特徴量の種類ごとに列の配列を先頭から走査する
+     *
+     * @param matrix トラックとAudio Featuresの行列
+     */
+    public void addAll(TrackFeatureMatrix matrix) {
+        if (matrix.getAudioFeaturesCount() == 0) {
+            return;
+        }
+        boolean complete = matrix.getAudioFeaturesCount() == matrix.size();
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            float[] column = matrix.getColumn(type);
+            long n = count;
+            for (int row = 0; row < column.length; row++) {
+                if (complete || matrix.hasAudioFeatures(row)) {
+                    accumulate(type.ordinal(), column[row], ++n);
+                }
+            }
+        }
+        count += matrix.getAudioFeaturesCount();
+    }
+
+    /**
+     * 別の集計結果をこの集計結果に結合する
+     *
+     * @param other 結合する集計結果
+     * @return この集計結果
+     */
+    public AudioFeatureStatistics merge(AudioFeatureStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            double delta = other.mean[i] - mean[i];
+            mean[i] += delta * other.count / total;
+            m2[i] += other.m2[i] + delta * delta * count * other.count / total;
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+            for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++) {
+                histograms[i][bucket] += other.histograms[i][bucket];
+            }
+        }
+        count = total;
+        return this;
+    }
+
+    private void accumulate(int index, double value, long n) {
+        double delta = value - mean[index];
+        mean[index] += delta / n;
+        m2[index] += delta * (value - mean[index]);
+        if (value < min[index]) {
+            min[index] = value;
+        }
+        if (value > max[index]) {
+            max[index] = value;
+        }
+        // 範囲外の値は両端の区間に含める
+        int bucket = (int) ((value - LOWER_BOUNDS[index]) / BUCKET_WIDTHS[index]);
+        histograms[index][Math.clamp(bucket, 0, HISTOGRAM_BUCKETS - 1)]++;
+    }
+
+    /**
+     * 集計したトラック数を返す
+     *
+     * @return 集計したトラック数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 指定された種類の最小値を返す
+     *
+     * @param type 特徴量の種類
+     * @return 最小値 (集計したトラックがない場合は正の無限大)
+     */
+    public double getMin(AudioFeatureType type) {
+        return min[type.ordinal()];
+    }
+
+    /**
+     * 指定された種類の最大値を返す
+     *
+     * @param type 特徴量の種類
+     * @return 最大値 (集計したトラックがない場合は負の無限大)
+     */
+    public double getMax(AudioFeatureType type) {
+        return max[type.ordinal()];
+    }
+
+    /**
+     * 指定された種類の平均値を返す
+     *
+     * @param type 特徴量の種類
+     * @return 平均値 (集計したトラックがない場合は0)
+     */
+    public double getMean(AudioFeatureType type) {
+        return mean[type.ordinal()];
+    }
+
+    /**
+     * 指定された種類の分散 (母分散) を返す
+     *
+     * @param type 特徴量の種類
+     * @return 分散 (集計したトラックがない場合は0)
+     */
+    public double getVariance(AudioFeatureType type) {
+        return count == 0 ? 0 : m2[type.ordinal()] / count;
+    }
+
+    /**
+     * 指定された種類のパーセンタイルをヒストグラムから推定して返す
+     * 該当する区間内では値が一様に分布しているものとして線形補間し、結果は実際の最小値と最大値の範囲に収める
+     * 誤差は区間の幅 (テンポは2.5、その他は0.01) 以内となる
+     *
+     * @param type     特徴量の種類
+     * @param quantile 求める分位 (0以上1以下。0.9の場合は90パーセンタイル)
+     * @return パーセンタイルの推定値 (集計したトラックがない場合はNaN)
+     */
+    public double getPercentile(AudioFeatureType type, double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int index = type.ordinal();
+        int[] histogram = histograms[index];
+        double target = Math.clamp(quantile, 0, 1) * count;
+        long cumulative = 0;
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++) {
+            int bucketCount = histogram[bucket];
+            if (bucketCount > 0 && cumulative + bucketCount >= target) {
+                double fraction = (target - cumulative) / bucketCount;
+                double estimate = LOWER_BOUNDS[index] + (bucket + fraction) * BUCKET_WIDTHS[index];
+                return Math.clamp(estimate, min[index], max[index]);
+            }
+            cumulative += bucketCount;
+        }
+        return max[index];
+    }
+
+    /**
+     * 全種類のパーセンタイルをレスポンスのキーと値のペアで返す
+     *
+     * @param quantile 求める分位 (0以上1以下)
+     * @return 各Audio Featuresのパーセンタイルの推定値 (集計したトラックがない場合は空)
+     */
+    public Map<String, Float> getPercentileValues(double quantile) {
+        Map<String, Float> result = new HashMap<>();
+        if (count == 0) {
+            return result;
+        }
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            result.put(type.getKey(), (float) getPercentile(type, quantile));
+        }
+        return result;
+    }
+
+    /**
+     * 全種類の最小値をレスポンスのキーと値のペアで返す
+     *
+     * @return 各Audio Featuresの最小値 (集計したトラックがない場合は空)
+     */
+    public Map<String, Float> getMinValues() {
+        return toMap(min);
+    }
+
+    /**
+     * 全種類の最大値をレスポンスのキーと値のペアで返す
+     *
+     * @return 各Audio Featuresの最大値 (集計したトラックがない場合は空)
+     */
+    public Map<String, Float> getMaxValues() {
+        return toMap(max);
+    }
+
+    /**
+     * 全種類の平均値をレスポンスのキーと値のペアで返す
+     *
+     * @return 各Audio Featuresの平均値 (集計したトラックがない場合は空)
+     */
+    public Map<String, Float> getMeanValues() {
+        return toMap(mean);
+    }
+
+    private Map<String, Float> toMap(double[] values) {
+        Map<String, Float> result = new HashMap<>();
+        if (count == 0) {
+            return result;
+        }
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            result.put(type.getKey(), (float) values[type.ordinal()]);
+        }
+        return result;
+    }
+}
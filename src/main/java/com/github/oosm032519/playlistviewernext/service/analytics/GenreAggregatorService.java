@@ -12,6 +12,7 @@ import se.michaelthelin.spotify.model_objects.specification.Track;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class GenreAggregatorService {
@@ -36,47 +37,11 @@ public class GenreAggregatorService {
      */
     public Map<String, Integer> aggregateGenres(PlaylistTrack[] tracks) {
         try {
-            Map<String, Integer> genreCount = new HashMap<>();
-            Map<String, Integer> artistCount = new HashMap<>();
-
-            List<String> artistIds = Arrays.stream(tracks)
-                    .filter(Objects::nonNull)
-                    .map(PlaylistTrack::getTrack)
-                    .filter(Objects::nonNull)
-                    .map(Track.class::cast)
-                    .flatMap(track -> Arrays.stream(track.getArtists()))
-                    .map(ArtistSimplified::getId)
-                    .toList();
-
-            artistIds.forEach(artistId -> artistCount.merge(artistId, 1, Integer::sum));
-
-            List<String> uniqueArtistIds = new ArrayList<>(artistCount.keySet());
-
-            Map<String, List<String>> artistGenresMap = artistService.getArtistGenres(uniqueArtistIds);
-
-            Arrays.stream(tracks)
-                    .filter(Objects::nonNull)
-                    .map(PlaylistTrack::getTrack)
-                    .filter(Objects::nonNull)
-                    .map(Track.class::cast)
-                    .flatMap(track -> Arrays.stream(track.getArtists()))
-                    .forEach(artist -> {
-                        List<String> genres = artistGenresMap.get(artist.getId());
-                        if (genres != null) {
-                            int weight = artistCount.get(artist.getId());
-                            genres.forEach(genre -> genreCount.merge(genre, weight, Integer::sum));
-                        }
-                    });
-
-            return genreCount.entrySet()
-                    .stream()
-                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            Map.Entry::getValue,
-                            (e1, _) -> e1,
-                            LinkedHashMap::new
-                    ));
+            Map<String, List<String>> artistGenresMap = artistService.getArtistGenres(getUniqueArtistIds(tracks));
+            return aggregateGenres(tracks, artistGenresMap);
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
         } catch (Exception e) {
             throw new InvalidRequestException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
@@ -86,6 +51,82 @@ public class GenreAggregatorService {
         }
     }
 
+    /**
+     * プレイリストのトラックに含まれるアーティストIDを重複なく取得するメソッド
+     *
+     * @param tracks プレイリストのトラック配列
+     * @return アーティストIDのリスト
+     */
+    public List<String> getUniqueArtistIds(PlaylistTrack[] tracks) {
+        return new ArrayList<>(countArtists(tracks).keySet());
+    }
+
+    /**
+     * 取得済みのアーティストのジャンルを使用して、プレイリストのトラックからジャンルを集計するメソッド
+     * アーティスト情報を取得しないため、アーティスト情報を別の方法 (リアクティブな取得など) で取得した場合に使用する
+     *
+     * @param tracks          プレイリストのトラック配列
+     * @param artistGenresMap アーティストIDとジャンルのリストのマップ
+     * @return ジャンルとその出現回数のマップ (出現回数の降順)
+     */
+    public Map<String, Integer> aggregateGenres(PlaylistTrack[] tracks, Map<String, List<String>> artistGenresMap) {
+        return aggregateGenresByArtistCounts(countArtists(tracks), artistGenresMap);
+    }
+
+    /**
+     * アーティストの出現回数と取得済みのジャンルからジャンルを集計するメソッド
+     * トラック一覧を保持せずにページごとにアーティストの出現回数のみを集計した場合 (段階的な詳細取得など) に使用する
+     * アーティストの各出現に出現回数の重みを付けるため、ジャンルの出現回数にはアーティストの出現回数の2乗を加える
+     *
+     * @param artistCounts    アーティストIDと出現回数のマップ
+     * @param artistGenresMap アーティストIDとジャンルのリストのマップ
+     * @return ジャンルとその出現回数のマップ (出現回数の降順)
+     */
+    public Map<String, Integer> aggregateGenresByArtistCounts(Map<String, Integer> artistCounts, Map<String, List<String>> artistGenresMap) {
+        Map<String, Integer> genreCount = new HashMap<>();
+
+        artistCounts.forEach((artistId, count) -> {
+            List<String> genres = artistGenresMap.get(artistId);
+            if (genres != null) {
+                int weight = count * count;
+                genres.forEach(genre -> genreCount.merge(genre, weight, Integer::sum));
+            }
+        });
+
+        return genreCount.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        Map.Entry::getValue,
+                        (e1, _) -> e1,
+                        LinkedHashMap::new
+                ));
+    }
+
+    /**
+     * トラック配列に含まれるアーティストの出現回数をカウントするメソッド
+     *
+     * @param tracks プレイリストのトラック配列
+     * @return アーティストIDと出現回数のマップ
+     */
+    public Map<String, Integer> countArtists(PlaylistTrack[] tracks) {
+        Map<String, Integer> artistCount = new HashMap<>();
+        artists(tracks).map(ArtistSimplified::getId).forEach(artistId -> artistCount.merge(artistId, 1, Integer::sum));
+        return artistCount;
+    }
+
+    private static Stream<ArtistSimplified> artists(PlaylistTrack[] tracks) {
+        return Arrays.stream(tracks)
+                .filter(Objects::nonNull)
+                .map(PlaylistTrack::getTrack)
+                // エピソードなどトラック以外の要素はアーティストを持たないため対象外とする
+                .filter(Track.class::isInstance)
+                .map(Track.class::cast)
+                .filter(track -> track.getArtists() != null)
+                .flatMap(track -> Arrays.stream(track.getArtists()));
+    }
+
     /**
      * 集計されたジャンルの上位を取得するメソッド
      *
@@ -2,15 +2,14 @@ package com.github.oosm032519.playlistviewernext.service.analytics;
 
 import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
 import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
 import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistDetailsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
-import se.michaelthelin.spotify.model_objects.specification.Track;
 
 import java.util.*;
 
@@ -35,7 +34,7 @@ public class SpotifyPlaylistAnalyticsService {
      * @throws PlaylistViewerNextException ジャンル出現頻度上位5つの取得中にエラーが発生した場合
      */
     public List<String> getTop5GenresForPlaylist(String playlistId) {
-        logger.info("プレイリストのジャンル出現頻度上位5つの取得を開始します。プレイリストID: {}", playlistId);
+        logger.debug("プレイリストのジャンル出現頻度上位5つの取得を開始します。プレイリストID: {}", playlistId);
 
         try {
             Map<String, Integer> genreCounts = getGenreCountsForPlaylist(playlistId);
@@ -59,7 +58,7 @@ public class SpotifyPlaylistAnalyticsService {
      * @throws PlaylistViewerNextException ジャンルごとのトラック数の取得中にエラーが発生した場合
      */
     public Map<String, Integer> getGenreCountsForPlaylist(String playlistId) {
-        logger.info("プレイリストのジャンル集計を開始します。プレイリストID: {}", playlistId);
+        logger.debug("プレイリストのジャンル集計を開始します。プレイリストID: {}", playlistId);
 
         try {
             PlaylistTrack[] tracks = fetchPlaylistTracks(playlistId);
@@ -80,6 +79,37 @@ public class SpotifyPlaylistAnalyticsService {
         }
     }
 
+    /**
+     * 取得済みのプレイリストスナップショットからジャンルごとのトラック数を集計するメソッド
+     * トラック一覧を再取得しないため、詳細取得リクエスト内ではこちらを使用する
+     *
+     * @param snapshot プレイリストのスナップショット
+     * @return ジャンルごとのトラック数を表すマップ
+     * @throws PlaylistViewerNextException ジャンルごとのトラック数の取得中にエラーが発生した場合
+     */
+    public Map<String, Integer> getGenreCountsForPlaylist(PlaylistSnapshot snapshot) {
+        logger.debug("スナップショットからジャンル集計を開始します。プレイリストID: {}", snapshot.getPlaylistId());
+
+        try {
+            if (snapshot.getTracks() == null) {
+                logger.warn("プレイリストID: {} に対するトラックが見つかりませんでした。", snapshot.getPlaylistId());
+                return Collections.emptyMap();
+            }
+
+            return genreAggregatorService.aggregateGenres(snapshot.getTracks());
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("プレイリストID: {} のジャンルごとのトラック数の取得中にエラーが発生しました。", snapshot.getPlaylistId(), e);
+            throw new InvalidRequestException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "プレイリストのジャンルごとのトラック数の取得中にエラーが発生しました。",
+                    e
+            );
+        }
+    }
+
     /**
      * プレイリストのトラックを取得するヘルパーメソッド
      *
@@ -104,7 +134,7 @@ public class SpotifyPlaylistAnalyticsService {
      * @throws PlaylistViewerNextException アーティスト出現頻度上位5つの取得中にエラーが発生した場合
      */
     public List<String> getTop5ArtistsForPlaylist(String playlistId) {
-        logger.info("プレイリストのアーティスト出現頻度上位5つの取得を開始します。プレイリストID: {}", playlistId);
+        logger.debug("プレイリストのアーティスト出現頻度上位5つの取得を開始します。プレイリストID: {}", playlistId);
 
         try {
             Map<String, Integer> artistCounts = getArtistCountsForPlaylist(playlistId);
@@ -119,6 +149,37 @@ public class SpotifyPlaylistAnalyticsService {
         }
     }
 
+    /**
+     * 取得済みのプレイリストスナップショットからアーティスト出現頻度上位5つを取得するメソッド
+     *
+     * @param snapshot プレイリストのスナップショット
+     * @return アーティスト出現頻度上位5つのリスト
+     * @throws PlaylistViewerNextException アーティスト出現頻度上位5つの取得中にエラーが発生した場合
+     */
+    public List<String> getTop5ArtistsForPlaylist(PlaylistSnapshot snapshot) {
+        logger.debug("スナップショットからアーティスト出現頻度上位5つの取得を開始します。プレイリストID: {}", snapshot.getPlaylistId());
+
+        try {
+            if (snapshot.getTracks() == null) {
+                logger.warn("プレイリストID: {} に対するトラックが見つかりませんでした。", snapshot.getPlaylistId());
+                return Collections.emptyList();
+            }
+
+            Map<String, Integer> artistCounts = genreAggregatorService.countArtists(snapshot.getTracks());
+            return genreAggregatorService.getTopArtists(artistCounts, 5);
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("プレイリストID: {} のアーティスト出現頻度上位5つの取得中にエラーが発生しました。", snapshot.getPlaylistId(), e);
+            throw new InvalidRequestException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "プレイリストのアーティスト出現頻度上位5つの取得中にエラーが発生しました。",
+                    e
+            );
+        }
+    }
+
     /**
      * プレイリストに含まれるアーティストの出現回数をカウントする
      *
@@ -126,7 +187,7 @@ public class SpotifyPlaylistAnalyticsService {
      * @return アーティストIDと出現回数のマップ
      */
     public Map<String, Integer> getArtistCountsForPlaylist(String playlistId) {
-        logger.info("プレイリストのアーティスト集計を開始します。プレイリストID: {}", playlistId);
+        logger.debug("プレイリストのアーティスト集計を開始します。プレイリストID: {}", playlistId);
 
         try {
             PlaylistTrack[] tracks = fetchPlaylistTracks(playlistId);
@@ -135,20 +196,7 @@ public class SpotifyPlaylistAnalyticsService {
                 return Collections.emptyMap();
             }
 
-            Map<String, Integer> artistCount = new HashMap<>();
-
-            List<String> artistIds = Arrays.stream(tracks)
-                    .filter(Objects::nonNull)
-                    .map(PlaylistTrack::getTrack)
-                    .filter(Objects::nonNull)
-                    .map(Track.class::cast)
-                    .flatMap(track -> Arrays.stream(track.getArtists()))
-                    .map(ArtistSimplified::getId)
-                    .toList();
-
-            artistIds.forEach(artistId -> artistCount.merge(artistId, 1, Integer::sum));
-
-            return artistCount;
+            return genreAggregatorService.countArtists(tracks);
         } catch (Exception e) {
             logger.error("プレイリストID: {} のアーティスト数の取得中にエラーが発生しました。", playlistId, e);
             throw new InvalidRequestException(
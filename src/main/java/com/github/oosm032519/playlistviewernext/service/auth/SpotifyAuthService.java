@@ -1,9 +1,15 @@
 package com.github.oosm032519.playlistviewernext.service.auth;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.RequestPriority;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import se.michaelthelin.spotify.SpotifyApi;
@@ -11,50 +17,170 @@ import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.credentials.ClientCredentials;
 import se.michaelthelin.spotify.requests.authorization.client_credentials.ClientCredentialsRequest;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Spotify の認証サービス。クライアントクレデンシャルトークンの取得に使用される
+ * 取得したトークンは有効期限まで再利用し、有効期限の少し前にバックグラウンドで更新する
  */
 @Service
 public class SpotifyAuthService {
     private static final Logger logger = LoggerFactory.getLogger(SpotifyAuthService.class);
 
+    /**
+     * レスポンスに有効期間が含まれない場合に使用する有効期間 (秒)。Spotifyのクライアントクレデンシャルトークンの有効期間は1時間
+     */
+    static final int DEFAULT_EXPIRES_IN_SECONDS = 3600;
+
     private final SpotifyApi spotifyApi;
+    private final ParallelFetchExecutor parallelFetchExecutor;
+    private final long refreshMarginNanos;
+    private final Timer refreshSuccessTimer;
+    private final Timer refreshFailureTimer;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicBoolean backgroundRefreshInProgress = new AtomicBoolean();
+
+    /**
+     * トークンの有効期限 (System.nanoTime() 基準)。トークン未取得の場合はnull
+     */
+    private volatile Long expiresAtNanos;
 
     /**
      * SpotifyAuthService のコンストラクタ
      *
-     * @param spotifyApi Spotify API のインスタンス
+     * @param spotifyApi            Spotify API のインスタンス
+     * @param parallelFetchExecutor バックグラウンドでのトークン更新に使用する実行基盤
+     * @param meterRegistry         メトリクスの登録先
+     * @param refreshMargin         有効期限のどれだけ前からトークンを更新するか
      */
-    public SpotifyAuthService(SpotifyApi spotifyApi) {
+    @Autowired
+    public SpotifyAuthService(SpotifyApi spotifyApi,
+                              ParallelFetchExecutor parallelFetchExecutor,
+                              MeterRegistry meterRegistry,
+                              @Value("${spotify.auth.token-refresh-margin:5m}") Duration refreshMargin) {
         this.spotifyApi = spotifyApi;
+        this.parallelFetchExecutor = parallelFetchExecutor;
+        refreshMarginNanos = refreshMargin.toNanos();
+        refreshSuccessTimer = Timer.builder("spotify.auth.token.refresh")
+                .description("クライアントクレデンシャルトークンの取得にかかった時間")
+                .tag("result", "success")
+                .register(meterRegistry);
+        refreshFailureTimer = Timer.builder("spotify.auth.token.refresh")
+                .description("クライアントクレデンシャルトークンの取得にかかった時間")
+                .tag("result", "failure")
+                .register(meterRegistry);
     }
 
     /**
      * クライアントクレデンシャルフローを使用して Spotify API のアクセストークンを取得する
+     * 有効なトークンを保持している場合は通信を行わない。有効期限が近い場合はバックグラウンドで更新を開始し、現在のトークンをそのまま使用する
+     * トークンが未取得または期限切れの場合のみ呼び出し元で取得し、同時に呼び出された場合も取得は1回だけ行う
      *
      * @throws InternalServerException アクセストークンの取得中にエラーが発生した場合
      */
     public void getClientCredentialsToken() throws SpotifyWebApiException {
-        RetryUtil.executeWithRetry(() -> {
-            try {
-                ClientCredentialsRequest clientCredentialsRequest = spotifyApi.clientCredentials().build();
-                ClientCredentials clientCredentials = clientCredentialsRequest.execute();
-                spotifyApi.setAccessToken(clientCredentials.getAccessToken());
-                logger.info("クライアントクレデンシャルトークンが正常に取得されました");
-                return null; // void メソッドなので null を返す
-            } catch (SpotifyWebApiException e) {
-                // SpotifyWebApiException はそのまま再スロー
-                logger.error("Spotify API エラー: {}", e.getMessage(), e);
-                throw e;
-            } catch (Exception e) {
-                // その他の例外は InternalServerException にラップしてスロー
-                logger.error("クライアントクレデンシャルトークンの取得中にエラーが発生しました", e);
-                throw new InternalServerException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "クライアントクレデンシャルトークンの取得中にエラーが発生しました。",
-                        e
-                );
+        long remainingNanos = remainingNanos();
+        if (remainingNanos > refreshMarginNanos) {
+            return;
+        }
+        if (remainingNanos > 0) {
+            refreshInBackground();
+            return;
+        }
+
+        refreshLock.lock();
+        try {
+            // 待機中に他のスレッドが取得を完了している場合は再取得しない
+            if (remainingNanos() > 0) {
+                return;
             }
-        }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+            refreshToken();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * 有効期限が近いトークンをバックグラウンドで更新する。更新中の場合は何もしない
+     */
+    private void refreshInBackground() {
+        if (!backgroundRefreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            parallelFetchExecutor.fork(() -> RequestPriority.callWith(RequestPriority.BACKGROUND, () -> {
+                refreshLock.lock();
+                try {
+                    if (remainingNanos() <= refreshMarginNanos) {
+                        refreshToken();
+                    }
+                } catch (SpotifyWebApiException | RuntimeException e) {
+                    // 現在のトークンは有効期限内のため、次回の呼び出しで再度更新を試みる
+                    logger.warn("クライアントクレデンシャルトークンのバックグラウンド更新に失敗しました", e);
+                } finally {
+                    refreshLock.unlock();
+                    backgroundRefreshInProgress.set(false);
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            // 更新処理を開始できなかった場合はフラグを戻し、次回の呼び出しで再度更新を試みる
+            backgroundRefreshInProgress.set(false);
+            logger.warn("クライアントクレデンシャルトークンのバックグラウンド更新を開始できませんでした", e);
+        }
+    }
+
+    /**
+     * トークンを取得してSpotifyApiインスタンスに設定し、有効期限を記録する
+     */
+    private void refreshToken() throws SpotifyWebApiException {
+        long start = System.nanoTime();
+        try {
+            RetryUtil.executeWithRetry(() -> {
+                try {
+                    ClientCredentialsRequest clientCredentialsRequest = spotifyApi.clientCredentials().build();
+                    ClientCredentials clientCredentials = clientCredentialsRequest.execute();
+                    spotifyApi.setAccessToken(clientCredentials.getAccessToken());
+                    Integer expiresIn = clientCredentials.getExpiresIn();
+                    if (expiresIn == null) {
+                        // 有効期間が不明な場合に毎回同期的に再取得しないよう、既定の有効期間を使用する
+                        expiresIn = DEFAULT_EXPIRES_IN_SECONDS;
+                    }
+                    expiresAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(expiresIn);
+                    logger.info("クライアントクレデンシャルトークンが正常に取得されました。有効期間: {}秒", expiresIn);
+                    return null; // void メソッドなので null を返す
+                } catch (SpotifyWebApiException e) {
+                    // SpotifyWebApiException はそのまま再スロー
+                    logger.error("Spotify API エラー: {}", e.getMessage(), e);
+                    throw e;
+                } catch (Exception e) {
+                    // その他の例外は InternalServerException にラップしてスロー
+                    logger.error("クライアントクレデンシャルトークンの取得中にエラーが発生しました", e);
+                    throw new InternalServerException(
+                            HttpStatus.INTERNAL_SERVER_ERROR,
+                            "クライアントクレデンシャルトークンの取得中にエラーが発生しました。",
+                            e
+                    );
+                }
+            }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+            refreshSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (SpotifyWebApiException | RuntimeException e) {
+            refreshFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * トークンの有効期限までの残り時間を返す
+     *
+     * @return 残り時間 (ナノ秒)。トークン未取得の場合は0
+     */
+    private long remainingNanos() {
+        Long expiresAt = expiresAtNanos;
+        return expiresAt == null ? 0 : expiresAt - System.nanoTime();
     }
 }
@@ -0,0 +1,137 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * アーティストIDをキーとしてジャンルのリストをキャッシュするコンポーネント
+ * ジャンル名は整数IDに置き換えて保持し、同じジャンル名の文字列を重複して保持しないようにする
+ * ジャンルを持たないアーティストも空のエントリとしてキャッシュし、上流APIへの再問い合わせを防ぐ
+ */
+@Component
+public class ArtistGenreCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistGenreCache.class);
+
+    private static final int[] NO_GENRES = new int[0];
+
+    private final Cache<String, int[]> cache;
+    private final Map<String, Integer> genreIds = new ConcurrentHashMap<>();
+    private final List<String> genreNames = new CopyOnWriteArrayList<>();
+    private final ReentrantLock internLock = new ReentrantLock();
+
+    /**
+     * コンストラクタ
+     *
+     * @param meterRegistry メトリクスの登録先
+     * @param maxSize       キャッシュの最大エントリ数
+     * @param ttl           エントリの有効期間
+     */
+    @Autowired
+    public ArtistGenreCache(MeterRegistry meterRegistry,
+                            @Value("${spotify.cache.artist-genres.max-size:100000}") long maxSize,
+                            @Value("${spotify.cache.artist-genres.ttl:24h}") Duration ttl) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // ヒット数・ミス数・追い出し数を cache.gets / cache.evictions として公開する
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "artistGenres");
+        logger.info("ArtistGenreCache が初期化されました。最大エントリ数: {}, TTL: {}", maxSize, ttl);
+    }
+
+    /**
+     * 指定されたアーティストIDのうち、キャッシュに存在するもののジャンルを取得する
+     * ジャンルを持たないことがキャッシュされているアーティストは空のリストとして返す
+     *
+     * @param artistIds アーティストIDのコレクション
+     * @return アーティストIDとジャンルのリストのマップ (キャッシュに存在したもののみ)
+     */
+    public Map<String, List<String>> getAll(Collection<String> artistIds) {
+        Map<String, List<String>> cached = new HashMap<>();
+        cache.getAllPresent(artistIds).forEach((artistId, ids) -> cached.put(artistId, toGenreNames(ids)));
+        return cached;
+    }
+
+    /**
+     * 上流APIから取得したアーティストのジャンルをキャッシュに格納する
+     * ジャンルがnullまたは空の場合は「ジャンルなし」として格納する
+     *
+     * @param genresByArtistId アーティストIDとジャンルのリストのマップ
+     */
+    public void putAll(Map<String, List<String>> genresByArtistId) {
+        Map<String, int[]> entries = new HashMap<>();
+        genresByArtistId.forEach((artistId, genres) -> {
+            if (artistId != null) {
+                entries.put(artistId, toGenreIds(genres));
+            }
+        });
+        cache.putAll(entries);
+    }
+
+    /**
+     * 上流APIに問い合わせたアーティストのジャンルをキャッシュに格納する
+     * 上流APIが返さなかったアーティストも「ジャンルなし」として格納し、次回以降に再度問い合わせないようにする
+     *
+     * @param requestedIds 上流APIに問い合わせたアーティストIDのコレクション
+     * @param fetched      上流APIが返したアーティストIDとジャンルのリストのマップ
+     */
+    public void putFetched(Collection<String> requestedIds, Map<String, List<String>> fetched) {
+        Map<String, List<String>> entries = new HashMap<>(fetched);
+        requestedIds.forEach(artistId -> entries.putIfAbsent(artistId, List.of()));
+        putAll(entries);
+    }
+
+    private int[] toGenreIds(List<String> genres) {
+        if (genres == null || genres.isEmpty()) {
+            return NO_GENRES;
+        }
+        int[] ids = new int[genres.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = intern(genres.get(i));
+        }
+        return ids;
+    }
+
+    private List<String> toGenreNames(int[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = genreNames.get(ids[i]);
+        }
+        return List.of(names);
+    }
+
+    private int intern(String genre) {
+        Integer id = genreIds.get(genre);
+        if (id != null) {
+            return id;
+        }
+        // 仮想スレッドをキャリアスレッドに固定しないよう、synchronizedではなくReentrantLockで採番を直列化する
+        internLock.lock();
+        try {
+            return genreIds.computeIfAbsent(genre, name -> {
+                genreNames.add(name);
+                return genreNames.size() - 1;
+            });
+        } finally {
+            internLock.unlock();
+        }
+    }
+}
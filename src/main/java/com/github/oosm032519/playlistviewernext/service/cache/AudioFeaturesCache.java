@@ -0,0 +1,159 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * トラックIDをキーとしてAudioFeaturesをキャッシュするコンポーネント
+ * プロセス内のサイズ上限付きキャッシュとRedisの2段構成で、値は {@link AudioFeaturesCodec} の固定長バイナリ形式で保持する
+ * トラックのAudioFeaturesは変化しないため、リクエストをまたいで再利用する
+ */
+@Component
+public class AudioFeaturesCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioFeaturesCache.class);
+
+    static final String KEY_PREFIX = "audio-features:";
+
+    private final Cache<String, byte[]> localCache;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final Duration redisTtl;
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param redisTemplate 値をバイト配列として扱うRedisTemplate
+     * @param meterRegistry メトリクスの登録先
+     * @param maxSize       プロセス内キャッシュの最大エントリ数
+     * @param redisTtl      Redisに格納したエントリの有効期間
+     */
+    @Autowired
+    public AudioFeaturesCache(RedisTemplate<String, byte[]> redisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${spotify.cache.audio-features.max-size:50000}") long maxSize,
+                              @Value("${spotify.cache.audio-features.redis-ttl:30d}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = redisTtl;
+        localCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        // ローカルキャッシュのヒット数・ミス数・追い出し数を cache.gets / cache.evictions として公開する
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "audioFeatures");
+        redisHitCounter = Counter.builder("audio.features.cache.redis.gets")
+                .description("RedisのAudioFeaturesキャッシュの参照回数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        redisMissCounter = Counter.builder("audio.features.cache.redis.gets")
+                .description("RedisのAudioFeaturesキャッシュの参照回数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        logger.info("AudioFeaturesCache が初期化されました。最大エントリ数: {}, Redis TTL: {}", maxSize, redisTtl);
+    }
+
+    /**
+     * 指定されたトラックIDのうち、キャッシュに存在するAudioFeaturesを取得する
+     * プロセス内キャッシュを優先し、存在しないものだけをRedisから一括取得する
+     *
+     * @param trackIds トラックIDのコレクション
+     * @return トラックIDとAudioFeaturesのマップ (キャッシュに存在したもののみ)
+     */
+    public Map<String, AudioFeatures> getAll(Collection<String> trackIds) {
+        Map<String, AudioFeatures> cached = new HashMap<>();
+
+        Map<String, byte[]> localHits = localCache.getAllPresent(trackIds);
+        localHits.forEach((trackId, bytes) -> putDecoded(cached, trackId, bytes));
+
+        List<String> remainingIds = trackIds.stream()
+                .filter(trackId -> !localHits.containsKey(trackId))
+                .distinct()
+                .toList();
+        if (remainingIds.isEmpty()) {
+            return cached;
+        }
+
+        List<byte[]> redisValues;
+        try {
+            redisValues = redisTemplate.opsForValue().multiGet(remainingIds.stream().map(trackId -> KEY_PREFIX + trackId).toList());
+        } catch (DataAccessException e) {
+            // Redisに接続できない場合でも、上流APIから取得することで処理を継続する
+            logger.warn("getAll: RedisからのAudioFeatures取得に失敗しました。 件数: {}", remainingIds.size(), e);
+            redisMissCounter.increment(remainingIds.size());
+            return cached;
+        }
+
+        int redisHits = 0;
+        for (int i = 0; i < remainingIds.size(); i++) {
+            byte[] bytes = redisValues != null && i < redisValues.size() ? redisValues.get(i) : null;
+            if (bytes != null && putDecoded(cached, remainingIds.get(i), bytes)) {
+                localCache.put(remainingIds.get(i), bytes);
+                redisHits++;
+            }
+        }
+        redisHitCounter.increment(redisHits);
+        redisMissCounter.increment(remainingIds.size() - redisHits);
+
+        logger.debug("getAll: AudioFeaturesキャッシュ参照完了, 要求数: {}, ローカルヒット: {}, Redisヒット: {}", trackIds.size(), localHits.size(), redisHits);
+        return cached;
+    }
+
+    /**
+     * 上流APIから取得したAudioFeaturesを両方のキャッシュに格納する
+     *
+     * @param audioFeaturesById トラックIDとAudioFeaturesのマップ
+     */
+    public void putAll(Map<String, AudioFeatures> audioFeaturesById) {
+        Map<String, byte[]> encoded = new HashMap<>();
+        audioFeaturesById.forEach((trackId, audioFeatures) -> {
+            if (trackId != null && audioFeatures != null) {
+                encoded.put(trackId, AudioFeaturesCodec.encode(audioFeatures));
+            }
+        });
+        if (encoded.isEmpty()) {
+            return;
+        }
+
+        localCache.putAll(encoded);
+        try {
+            // 1往復で書き込むためにパイプラインを使用する
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> redisOperations = (RedisOperations<String, byte[]>) operations;
+                    encoded.forEach((trackId, bytes) -> redisOperations.opsForValue().set(KEY_PREFIX + trackId, bytes, redisTtl));
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            logger.warn("putAll: RedisへのAudioFeatures格納に失敗しました。 件数: {}", encoded.size(), e);
+        }
+    }
+
+    private boolean putDecoded(Map<String, AudioFeatures> target, String trackId, byte[] bytes) {
+        AudioFeatures audioFeatures = AudioFeaturesCodec.decode(trackId, bytes);
+        if (audioFeatures == null) {
+            return false;
+        }
+        target.put(trackId, audioFeatures);
+        return true;
+    }
+}
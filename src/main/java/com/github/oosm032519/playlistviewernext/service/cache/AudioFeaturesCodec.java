@@ -0,0 +1,109 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import se.michaelthelin.spotify.enums.Modality;
+import se.michaelthelin.spotify.enums.ModelObjectType;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AudioFeaturesをキャッシュ用の固定長バイナリ形式に変換するユーティリティクラス
+ * 数値の特徴量のみを格納し、URIやURLなどトラックIDから導出できる値は復元時に再構築する
+ */
+public final class AudioFeaturesCodec {
+
+    /**
+     * エンコード形式のバージョン
+     */
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * エンコード後のバイト数 (バージョン1バイト + float 9個 + int 4個)
+     */
+    static final int ENCODED_SIZE = 1 + 9 * Float.BYTES + 4 * Integer.BYTES;
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private AudioFeaturesCodec() {
+    }
+
+    /**
+     * AudioFeaturesをバイト配列にエンコードする
+     * 値が設定されていない特徴量は、float型はNaN、int型は番兵値として格納する
+     *
+     * @param audioFeatures エンコード対象のAudioFeatures
+     * @return エンコードされたバイト配列
+     */
+    public static byte[] encode(AudioFeatures audioFeatures) {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_SIZE);
+        buffer.put(FORMAT_VERSION);
+        putFloat(buffer, audioFeatures.getAcousticness());
+        putFloat(buffer, audioFeatures.getDanceability());
+        putFloat(buffer, audioFeatures.getEnergy());
+        putFloat(buffer, audioFeatures.getInstrumentalness());
+        putFloat(buffer, audioFeatures.getLiveness());
+        putFloat(buffer, audioFeatures.getLoudness());
+        putFloat(buffer, audioFeatures.getSpeechiness());
+        putFloat(buffer, audioFeatures.getTempo());
+        putFloat(buffer, audioFeatures.getValence());
+        putInt(buffer, audioFeatures.getDurationMs());
+        putInt(buffer, audioFeatures.getKey());
+        putInt(buffer, audioFeatures.getMode() != null ? audioFeatures.getMode().getType() : null);
+        putInt(buffer, audioFeatures.getTimeSignature());
+        return buffer.array();
+    }
+
+    /**
+     * バイト配列からAudioFeaturesを復元する
+     *
+     * @param trackId トラックID
+     * @param bytes   エンコードされたバイト配列
+     * @return 復元されたAudioFeatures。形式が不正な場合はnull
+     */
+    public static AudioFeatures decode(String trackId, byte[] bytes) {
+        if (bytes == null || bytes.length != ENCODED_SIZE || bytes[0] != FORMAT_VERSION) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, ENCODED_SIZE - 1);
+        AudioFeatures.Builder builder = new AudioFeatures.Builder()
+                .setId(trackId)
+                .setType(ModelObjectType.AUDIO_FEATURES)
+                .setUri("spotify:track:" + trackId)
+                .setTrackHref("https://api.spotify.com/v1/tracks/" + trackId)
+                .setAnalysisUrl("https://api.spotify.com/v1/audio-analysis/" + trackId)
+                .setAcousticness(getFloat(buffer))
+                .setDanceability(getFloat(buffer))
+                .setEnergy(getFloat(buffer))
+                .setInstrumentalness(getFloat(buffer))
+                .setLiveness(getFloat(buffer))
+                .setLoudness(getFloat(buffer))
+                .setSpeechiness(getFloat(buffer))
+                .setTempo(getFloat(buffer))
+                .setValence(getFloat(buffer))
+                .setDurationMs(getInt(buffer))
+                .setKey(getInt(buffer));
+        Integer mode = getInt(buffer);
+        builder.setMode(mode != null ? Modality.keyOf(mode) : null);
+        builder.setTimeSignature(getInt(buffer));
+        return builder.build();
+    }
+
+    private static void putFloat(ByteBuffer buffer, Float value) {
+        buffer.putFloat(value != null ? value : Float.NaN);
+    }
+
+    private static void putInt(ByteBuffer buffer, Integer value) {
+        buffer.putInt(value != null ? value : NULL_INT);
+    }
+
+    private static Float getFloat(ByteBuffer buffer) {
+        float value = buffer.getFloat();
+        return Float.isNaN(value) ? null : value;
+    }
+
+    private static Integer getInt(ByteBuffer buffer) {
+        int value = buffer.getInt();
+        return value == NULL_INT ? null : value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * キャッシュする値を、格納時刻付きの圧縮JSON形式に変換するユーティリティクラス
+ * 形式: バージョン (1バイト) + 格納時刻のエポックミリ秒 (8バイト) + Deflateで圧縮したJSON
+ */
+final class CompressedJsonCodec {
+
+    /**
+     * エンコード形式のバージョン
+     */
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * 復元した値と格納時刻
+     *
+     * @param value          復元した値
+     * @param storedAtMillis 格納時刻のエポックミリ秒
+     * @param <T>            値の型
+     */
+    record Decoded<T>(T value, long storedAtMillis) {
+    }
+
+    private CompressedJsonCodec() {
+    }
+
+    /**
+     * 値をJSONに変換して圧縮し、格納時刻とともにバイト配列にエンコードする
+     *
+     * @param objectMapper   JSONへの変換に使用するObjectMapper
+     * @param value          エンコード対象の値
+     * @param storedAtMillis 格納時刻のエポックミリ秒
+     * @return エンコードされたバイト配列
+     * @throws IOException JSONへの変換に失敗した場合
+     */
+    static byte[] encode(ObjectMapper objectMapper, Object value, long storedAtMillis) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(value);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 2 + 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(storedAtMillis);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * バイト配列から値と格納時刻を復元する
+     *
+     * @param objectMapper JSONからの変換に使用するObjectMapper
+     * @param bytes        エンコードされたバイト配列
+     * @param type         復元する値の型
+     * @param <T>          値の型
+     * @return 復元した値と格納時刻 (形式のバージョンが異なる場合はnull)
+     * @throws IOException 復元に失敗した場合
+     */
+    static <T> Decoded<T> decode(ObjectMapper objectMapper, byte[] bytes, TypeReference<T> type) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            long storedAtMillis = in.readLong();
+            return new Decoded<>(objectMapper.readValue(new InflaterInputStream(in), type), storedAtMillis);
+        }
+    }
+}
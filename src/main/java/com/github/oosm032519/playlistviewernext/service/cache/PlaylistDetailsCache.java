@@ -0,0 +1,118 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsRetrievalService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * プレイリスト詳細のレスポンス全体をRedisにキャッシュするコンポーネント
+ * キーはレスポンス形式のバージョン、プレイリストID、Spotifyのsnapshot_idから生成する。
+ * プレイリストが変更されるとsnapshot_idが、レスポンスの形式が変更されるとバージョンが変わるため、変更前のエントリは参照されなくなる
+ * 値は {@link CompressedJsonCodec} の圧縮JSON形式で保持する
+ */
+@Component
+public class PlaylistDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistDetailsCache.class);
+
+    static final String KEY_PREFIX = "playlist-details:";
+
+    private static final TypeReference<Map<String, Object>> DETAILS_TYPE = new TypeReference<>() {
+    };
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param redisTemplate 値をバイト配列として扱うRedisTemplate
+     * @param objectMapper  レスポンスのシリアライズに使用するObjectMapper
+     * @param meterRegistry メトリクスの登録先
+     * @param ttl           Redisに格納したエントリの有効期間
+     */
+    @Autowired
+    public PlaylistDetailsCache(RedisTemplate<String, byte[]> redisTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${spotify.cache.playlist-details.ttl:24h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        hitCounter = counter(meterRegistry, "hit");
+        missCounter = counter(meterRegistry, "miss");
+        logger.info("PlaylistDetailsCache が初期化されました。TTL: {}", ttl);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("playlist.details.cache.gets")
+                .description("プレイリスト詳細キャッシュの参照回数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    static String key(String playlistId, String snapshotId) {
+        return KEY_PREFIX + "v" + PlaylistDetailsRetrievalService.DETAILS_FORMAT_VERSION + ":" + playlistId + ":" + snapshotId;
+    }
+
+    /**
+     * 指定されたスナップショットのプレイリスト詳細をキャッシュから取得する
+     *
+     * @param playlistId プレイリストID
+     * @param snapshotId プレイリストのsnapshot_id
+     * @return キャッシュされたプレイリスト詳細 (存在しない場合は空)
+     */
+    public Optional<Map<String, Object>> get(String playlistId, String snapshotId) {
+        String key = key(playlistId, snapshotId);
+        try {
+            byte[] bytes = redisTemplate.opsForValue().get(key);
+            CompressedJsonCodec.Decoded<Map<String, Object>> decoded = bytes != null
+                    ? CompressedJsonCodec.decode(objectMapper, bytes, DETAILS_TYPE)
+                    : null;
+            if (decoded == null) {
+                missCounter.increment();
+                return Optional.empty();
+            }
+            hitCounter.increment();
+            return Optional.of(decoded.value());
+        } catch (DataAccessException | IOException e) {
+            // Redisに接続できない場合やデータが壊れている場合でも、詳細を再計算することで処理を継続する
+            logger.warn("get: キャッシュからのプレイリスト詳細取得に失敗しました。 key: {}", key, e);
+            missCounter.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * プレイリスト詳細をキャッシュに格納する
+     *
+     * @param playlistId プレイリストID
+     * @param snapshotId 詳細を計算したプレイリストのsnapshot_id
+     * @param details    プレイリスト詳細
+     */
+    public void put(String playlistId, String snapshotId, Map<String, Object> details) {
+        String key = key(playlistId, snapshotId);
+        try {
+            redisTemplate.opsForValue().set(key, CompressedJsonCodec.encode(objectMapper, details, System.currentTimeMillis()), ttl);
+        } catch (DataAccessException | IOException e) {
+            logger.warn("put: キャッシュへのプレイリスト詳細格納に失敗しました。 key: {}", key, e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * プレイリストの検索結果をRedisにキャッシュするコンポーネント
+ * キーは正規化した検索クエリ・開始位置・取得件数から生成し、値は {@link CompressedJsonCodec} の圧縮JSON形式で保持する
+ * 格納から一定時間 (ソフトTTL) を過ぎたエントリは古いエントリとして返し、呼び出し元に再検証を促す
+ */
+@Component
+public class PlaylistSearchCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistSearchCache.class);
+
+    static final String KEY_PREFIX = "playlist-search:";
+
+    private static final TypeReference<Map<String, Object>> RESULT_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * キャッシュから取得した検索結果
+     *
+     * @param result 検索結果
+     * @param stale  ソフトTTLを過ぎており、再検証が必要な場合はtrue
+     */
+    public record CachedSearchResult(Map<String, Object> result, boolean stale) {
+    }
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long softTtlMillis;
+    private final Counter hitCounter;
+    private final Counter staleCounter;
+    private final Counter missCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param redisTemplate 値をバイト配列として扱うRedisTemplate
+     * @param objectMapper  検索結果のシリアライズに使用するObjectMapper
+     * @param meterRegistry メトリクスの登録先
+     * @param ttl           Redisに格納したエントリの有効期間
+     * @param softTtl       エントリを再検証せずに返す期間
+     */
+    @Autowired
+    public PlaylistSearchCache(RedisTemplate<String, byte[]> redisTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${spotify.cache.search.ttl:10m}") Duration ttl,
+                               @Value("${spotify.cache.search.soft-ttl:1m}") Duration softTtl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        softTtlMillis = softTtl.toMillis();
+        hitCounter = counter(meterRegistry, "hit");
+        staleCounter = counter(meterRegistry, "stale");
+        missCounter = counter(meterRegistry, "miss");
+        logger.info("PlaylistSearchCache が初期化されました。TTL: {}, ソフトTTL: {}", ttl, softTtl);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("playlist.search.cache.gets")
+                .description("プレイリスト検索結果キャッシュの参照回数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 検索クエリ・開始位置・取得件数からキャッシュのキーを生成する
+     * 検索クエリはUnicode正規化 (NFKC)・小文字化・空白の圧縮を行い、表記揺れによるキャッシュミスを減らす
+     *
+     * @param query  検索クエリ文字列
+     * @param offset 検索結果の開始位置
+     * @param limit  取得する結果の最大数
+     * @return キャッシュのキー
+     */
+    public static String key(String query, int offset, int limit) {
+        String normalized = Normalizer.normalize(query == null ? "" : query, Normalizer.Form.NFKC)
+                .strip()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+        return KEY_PREFIX + offset + ":" + limit + ":" + normalized;
+    }
+
+    /**
+     * キャッシュから検索結果を取得する
+     *
+     * @param query  検索クエリ文字列
+     * @param offset 検索結果の開始位置
+     * @param limit  取得する結果の最大数
+     * @return キャッシュされた検索結果 (存在しない場合は空)
+     */
+    public Optional<CachedSearchResult> get(String query, int offset, int limit) {
+        String key = key(query, offset, limit);
+        byte[] bytes;
+        try {
+            bytes = redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            // Redisに接続できない場合でも、上流APIから取得することで処理を継続する
+            logger.warn("get: Redisからの検索結果取得に失敗しました。 key: {}", key, e);
+            missCounter.increment();
+            return Optional.empty();
+        }
+        if (bytes == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+
+        try {
+            CompressedJsonCodec.Decoded<Map<String, Object>> decoded = CompressedJsonCodec.decode(objectMapper, bytes, RESULT_TYPE);
+            if (decoded == null) {
+                missCounter.increment();
+                return Optional.empty();
+            }
+            boolean stale = System.currentTimeMillis() - decoded.storedAtMillis() >= softTtlMillis;
+            (stale ? staleCounter : hitCounter).increment();
+            return Optional.of(new CachedSearchResult(decoded.value(), stale));
+        } catch (IOException e) {
+            logger.warn("get: キャッシュされた検索結果の復元に失敗しました。 key: {}", key, e);
+            missCounter.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 検索結果をキャッシュに格納する
+     *
+     * @param query  検索クエリ文字列
+     * @param offset 検索結果の開始位置
+     * @param limit  取得する結果の最大数
+     * @param result 検索結果
+     */
+    public void put(String query, int offset, int limit, Map<String, Object> result) {
+        String key = key(query, offset, limit);
+        try {
+            redisTemplate.opsForValue().set(key, CompressedJsonCodec.encode(objectMapper, result, System.currentTimeMillis()), ttl);
+        } catch (IOException e) {
+            logger.warn("put: 検索結果のシリアライズに失敗しました。 key: {}", key, e);
+        } catch (DataAccessException e) {
+            logger.warn("put: Redisへの検索結果格納に失敗しました。 key: {}", key, e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.oosm032519.playlistviewernext.service.playlist;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.exception.ErrorResponse;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
+import com.github.oosm032519.playlistviewernext.util.FieldProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ReactivePlaylistDetailsService#streamPlaylistDetails} が発行するイベントを、
+ * {@link PlaylistDetailsRetrievalService} のレスポンスと同じ形式のJSONとして出力ストリームに直接書き込むクラス
+ * トラックはページを受信するたびにJsonGeneratorで書き込んでフラッシュするため、レスポンス全体のMapやJSONのツリーを作成せず、
+ * 1リクエストあたりのメモリ使用量はトラック数によらず一定となる
+ * トラックとAudioFeaturesは {@link com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix.TrackItem} の項目
+ * (フロントエンドが使用する項目のみ) を書き込む
+ * トラック一覧以外の項目は {@link PlaylistDetailsRetrievalService#playlistFields} と
+ * {@link PlaylistDetailsRetrievalService#summaryFields} で作成し、一括で作成するレスポンスと同じ項目とする
+ * 統計値・総再生時間・上位のアーティスト・ジャンルは、全ページの受信後にトラック一覧の後ろに書き込む
+ * 作成済みのレスポンス (キャッシュや作成中の結果の共有) がある場合は {@link #write(Map, OutputStream, FieldProjection)} でそのまま書き込む
+ */
+@Component
+public class PlaylistDetailsJsonWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistDetailsJsonWriter.class);
+    private static final Set<String> PROGRESS_FIELDS = Set.of(PlaylistDetailsEvent.TOTAL_TRACKS, PlaylistDetailsEvent.TRACK_COUNT);
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * コンストラクタ
+     *
+     * @param objectMapper トラックや統計値の書き込みに使用するObjectMapper
+     */
+    public PlaylistDetailsJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * イベントを順に読み取り、プレイリスト詳細のJSONを書き込む
+     * 最初のイベントがエラーの場合は何も書き込まずに例外をスローするため、呼び出し元は通常のエラーレスポンスを返すことができる
+     * 書き込みを開始した後にエラーとなった場合は、JSONを閉じずに例外をスローして不完全なレスポンスとして終了させる
+     *
+     * @param events       詳細情報のイベント
+     * @param outputStream 書き込み先の出力ストリーム
+     * @throws IOException                 書き込みに失敗した場合
+     * @throws PlaylistViewerNextException イベントの作成中にエラーが発生した場合
+     */
+    public void write(Iterable<PlaylistDetailsEvent> events, OutputStream outputStream) throws IOException {
+        write(events, outputStream, null);
+    }
+
+    /**
+     * イベントを順に読み取り、プレイリスト詳細のJSONのうち指定された項目のみを書き込む
+     *
+     * @param events       詳細情報のイベント
+     * @param outputStream 書き込み先の出力ストリーム
+     * @param projection   書き込む項目の指定 (nullの場合はすべての項目を書き込む)
+     * @throws IOException                 書き込みに失敗した場合
+     * @throws PlaylistViewerNextException イベントの作成中にエラーが発生した場合
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Iterable<PlaylistDetailsEvent> events, OutputStream outputStream, FieldProjection projection) throws IOException {
+        JsonGenerator generator = createGenerator(outputStream, projection);
+
+        Map<String, Object> statistics = PlaylistDetailsRetrievalService.statisticsFields(new AudioFeatureStatistics());
+        Map<?, ?> genreCounts = Map.of();
+        List<?> seedArtists = List.of();
+        long trackCount = 0;
+        for (PlaylistDetailsEvent event : events) {
+            switch (event.name()) {
+                case PlaylistDetailsEvent.PLAYLIST -> {
+                    generator.writeStartObject();
+                    writeFields(generator, (Map<?, ?>) event.data());
+                    generator.writeObjectFieldStart("tracks");
+                    generator.writeArrayFieldStart("items");
+                }
+                case PlaylistDetailsEvent.TRACKS -> {
+                    List<?> items = (List<?>) ((Map<?, ?>) event.data()).get("items");
+                    for (Object item : items) {
+                        generator.writeObject(item);
+                    }
+                    trackCount += items.size();
+                    // ページごとに送信し、書き込んだトラックを保持しない
+                    generator.flush();
+                }
+                case PlaylistDetailsEvent.AUDIO_FEATURES -> {
+                    Map<?, ?> data = (Map<?, ?>) event.data();
+                    statistics.replaceAll((key, value) -> data.containsKey(key) ? data.get(key) : value);
+                }
+                case PlaylistDetailsEvent.GENRES -> {
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                    genreCounts = (Map<?, ?>) ((Map<?, ?>) event.data()).get("genreCounts");
+                }
+                case PlaylistDetailsEvent.SEED_ARTISTS -> seedArtists = (List<?>) ((Map<?, ?>) event.data()).get("seedArtists");
+                case PlaylistDetailsEvent.COMPLETE -> {
+                    long totalDuration = ((Number) ((Map<?, ?>) event.data()).get("totalDuration")).longValue();
+                    writeFields(generator, PlaylistDetailsRetrievalService.summaryFields(statistics, totalDuration, (List<String>) seedArtists, (Map<String, Integer>) genreCounts));
+                    generator.writeEndObject();
+                }
+                case PlaylistDetailsEvent.ERROR -> throw toException((ErrorResponse) event.data());
+                default -> logger.warn("write: 不明なイベントを無視します。 イベント名: {}", event.name());
+            }
+        }
+        generator.close();
+        logger.debug("write: プレイリスト詳細の書き込み完了, トラック数: {}", trackCount);
+    }
+
+    /**
+     * 作成済みのプレイリスト詳細 (キャッシュや作成中の結果の共有で得たレスポンス) を、指定された項目のみJSONとして書き込む
+     *
+     * @param details      プレイリストの詳細情報
+     * @param outputStream 書き込み先の出力ストリーム
+     * @param projection   書き込む項目の指定 (nullの場合はすべての項目を書き込む)
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void write(Map<String, Object> details, OutputStream outputStream, FieldProjection projection) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream, projection)) {
+            objectMapper.writeValue(generator, details);
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream, FieldProjection projection) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return projection != null ? projection.filter(generator) : generator;
+    }
+
+    /**
+     * 項目を順に書き込む。段階的な送信の進捗にのみ使用する項目は、詳細情報のレスポンスに含めないため書き込まない
+     */
+    private static void writeFields(JsonGenerator generator, Map<?, ?> fields) throws IOException {
+        for (Map.Entry<?, ?> field : fields.entrySet()) {
+            if (!PROGRESS_FIELDS.contains(field.getKey())) {
+                generator.writeObjectField((String) field.getKey(), field.getValue());
+            }
+        }
+    }
+
+    private static PlaylistViewerNextException toException(ErrorResponse errorResponse) {
+        return new PlaylistViewerNextException(errorResponse.getStatus(), errorResponse.getMessage(), errorResponse.getErrorCode(), errorResponse.getDetails());
+    }
+}
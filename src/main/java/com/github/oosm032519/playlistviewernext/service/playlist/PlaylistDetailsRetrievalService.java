@@ -1,38 +1,68 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.controller.auth.SpotifyClientCredentialsAuthentication;
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
 import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
 import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeaturesCalculator;
 import com.github.oosm032519.playlistviewernext.service.analytics.SpotifyPlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistDetailsCache;
 import com.github.oosm032519.playlistviewernext.service.recommendation.SpotifyRecommendationService;
+import com.github.oosm032519.playlistviewernext.util.DiagnosticLog;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SingleFlight;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.Playlist;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+import se.michaelthelin.spotify.model_objects.specification.Track;
 import se.michaelthelin.spotify.model_objects.specification.User;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Future;
 
 /**
  * Spotifyプレイリストの詳細情報を取得するサービスクラス
  * プレイリストの楽曲情報、オーディオ特徴、統計情報などを提供する
+ * 作成したレスポンスはプレイリストのsnapshot_idごとにキャッシュし、プレイリストが変更されていなければ再計算しない
+ * 同じプレイリストの詳細が同時に要求された場合は、レスポンスの作成を1回にまとめて結果を共有する
  */
 @Service
 public class PlaylistDetailsRetrievalService {
 
     private static final Logger logger = LoggerFactory.getLogger(PlaylistDetailsRetrievalService.class);
 
+    /**
+     * 詳細情報のレスポンス形式のバージョン。{@link #createResponse} の項目や値の形式を変更した場合は更新する
+     * キャッシュのキーとETagの両方に含めるため、変更前の形式で作成されたエントリやETagはデプロイ後に使用されない
+     */
+    public static final String DETAILS_FORMAT_VERSION = "2";
+
     private final SpotifyPlaylistDetailsService playlistDetailsService;
     private final SpotifyClientCredentialsAuthentication authController;
     private final TrackDataRetriever trackDataRetriever;
     private final SpotifyPlaylistAnalyticsService playlistAnalyticsService;
+    private final ParallelFetchExecutor parallelFetchExecutor;
+    private final PlaylistDetailsCache playlistDetailsCache;
+    private final DistributionSummary pageFetchSummary;
+    private final SingleFlight<String, Map<String, Object>> detailsFlight;
 
     @Value("${spotify.mock.enabled}")
     private boolean mockEnabled;
@@ -45,6 +75,9 @@ public class PlaylistDetailsRetrievalService {
      * @param trackDataRetriever         トラックデータ取得サービス
      * @param playlistAnalyticsService   プレイリスト分析サービス
      * @param trackRecommendationService トラック推薦サービス
+     * @param parallelFetchExecutor      上流APIへのリクエストを並列実行するエグゼキュータ
+     * @param playlistDetailsCache       プレイリスト詳細のキャッシュ
+     * @param meterRegistry              メトリクスの登録先
      */
     @Autowired
     public PlaylistDetailsRetrievalService(
@@ -52,12 +85,21 @@ public class PlaylistDetailsRetrievalService {
             @Autowired(required = false) SpotifyClientCredentialsAuthentication authController,
             TrackDataRetriever trackDataRetriever,
             SpotifyPlaylistAnalyticsService playlistAnalyticsService,
-            SpotifyRecommendationService trackRecommendationService) {
+            SpotifyRecommendationService trackRecommendationService,
+            ParallelFetchExecutor parallelFetchExecutor,
+            PlaylistDetailsCache playlistDetailsCache,
+            MeterRegistry meterRegistry) {
         logger.info("PlaylistDetailsRetrievalService constructor started.");
         this.playlistDetailsService = playlistDetailsService;
         this.authController = authController;
         this.trackDataRetriever = trackDataRetriever;
         this.playlistAnalyticsService = playlistAnalyticsService;
+        this.parallelFetchExecutor = parallelFetchExecutor;
+        this.playlistDetailsCache = playlistDetailsCache;
+        pageFetchSummary = DistributionSummary.builder("playlist.details.upstream.page.fetches")
+                .description("詳細取得リクエスト1件あたりの上流APIへのページ取得回数")
+                .register(meterRegistry);
+        detailsFlight = new SingleFlight<>("playlist-details", meterRegistry);
         logger.info("PlaylistDetailsRetrievalService constructor finished.");
     }
 
@@ -67,123 +109,316 @@ public class PlaylistDetailsRetrievalService {
      * @param id プレイリストID
      * @return プレイリストの詳細情報を含むMap
      * @throws ResourceNotFoundException プレイリストが見つからない場合
+     * @throws InternalServerException   Spotify APIのレート制限中にリクエストが破棄された場合 (503)
      * @throws InvalidRequestException   処理中にエラーが発生した場合
      */
     public Map<String, Object> getPlaylistDetails(String id) {
-        logger.info("getPlaylistDetails: プレイリストID: {}", id);
+        return getPlaylistDetails(id, () -> playlistDetailsService.getPlaylistSnapshotId(id));
+    }
+
+    /**
+     * {@link #getPlaylistSnapshotId} で取得済みのsnapshot_idを使用して、プレイリストの詳細情報を取得する
+     * snapshot_idを再度取得しないため、ETagの作成とキャッシュの確認で上流APIの呼び出しは1回となる
+     *
+     * @param id                プレイリストID
+     * @param currentSnapshotId 取得済みのsnapshot_id (nullの場合はキャッシュを使用しない)
+     * @return プレイリストの詳細情報を含むMap
+     * @throws ResourceNotFoundException プレイリストが見つからない場合
+     * @throws InternalServerException   Spotify APIのレート制限中にリクエストが破棄された場合 (503)
+     * @throws InvalidRequestException   処理中にエラーが発生した場合
+     */
+    public Map<String, Object> getPlaylistDetails(String id, String currentSnapshotId) {
+        return getPlaylistDetails(id, () -> currentSnapshotId);
+    }
 
-        Map<String, Object> playlistDetails = new HashMap<>();
+    /**
+     * プレイリストの現在のsnapshot_idを取得する
+     * レスポンスのETagの作成に使用する。取得に失敗した場合は詳細情報の取得と同じ例外をスローし、
+     * レート制限による破棄 (503) などのステータスをそのまま返す
+     *
+     * @param id プレイリストID
+     * @return snapshot_id (モックモードの場合はnull)
+     * @throws ResourceNotFoundException プレイリストが見つからない場合
+     * @throws InternalServerException   Spotify APIのレート制限中にリクエストが破棄された場合 (503)
+     * @throws InvalidRequestException   処理中にエラーが発生した場合
+     */
+    public String getPlaylistSnapshotId(String id) {
         try {
-            logger.info("getPlaylistDetails: モックモード有効か: {}", mockEnabled);
-            // モックモードが有効な場合は認証をスキップ
-            if (!mockEnabled && authController != null) {
-                logger.info("getPlaylistDetails: Spotify API 認証開始");
-                // Spotify APIの認証を行う
-                authController.authenticate();
-                logger.info("getPlaylistDetails: Spotify API 認証完了");
-            } else {
-                logger.info("getPlaylistDetails: モックモード有効、認証スキップ");
+            authenticate();
+            return playlistDetailsService.getPlaylistSnapshotId(id);
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("getPlaylistSnapshotId: snapshot_idの取得中に予期しないエラーが発生しました。 プレイリストID: {}", id, e);
+            throw new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+        }
+    }
+
+    /**
+     * 作成済みのプレイリストの詳細情報を返す
+     * 同じプレイリストの同じsnapshot_idのレスポンスを作成中の場合はその完了を待機し、作成中でなければキャッシュを参照する
+     * どちらにもない場合はレスポンスを作成せずに空を返すため、呼び出し元はレスポンス全体を保持しない方法で作成できる
+     *
+     * @param id                プレイリストID
+     * @param currentSnapshotId 取得済みのsnapshot_id (nullの場合は作成済みのレスポンスを使用しない)
+     * @return 作成済みのプレイリストの詳細情報
+     * @throws ResourceNotFoundException プレイリストが見つからない場合 (作成中のレスポンスの失敗を共有した場合)
+     * @throws InvalidRequestException   作成中のレスポンスの待機中にエラーが発生した場合
+     */
+    public Optional<Map<String, Object>> findPlaylistDetails(String id, String currentSnapshotId) {
+        if (currentSnapshotId == null) {
+            return Optional.empty();
+        }
+        try {
+            Optional<Map<String, Object>> inFlightDetails = detailsFlight.join(inFlightKey(id, currentSnapshotId));
+            if (inFlightDetails.isPresent()) {
+                logger.debug("findPlaylistDetails: 作成中のレスポンスを共有します, プレイリストID: {}", id);
+                return inFlightDetails;
             }
+        } catch (PlaylistViewerNextException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("findPlaylistDetails: 作成中のレスポンスの待機中にエラーが発生しました。", e);
+            throw new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+        }
+        return playlistDetailsCache.get(id, currentSnapshotId).map(Collections::unmodifiableMap);
+    }
 
-            logger.info("getPlaylistDetails: プレイリスト情報取得開始, プレイリストID: {}", id);
-            // プレイリスト情報の取得
-            Playlist playlist = playlistDetailsService.getPlaylist(id);
-            logger.info("getPlaylistDetails: プレイリスト情報取得完了, プレイリスト: {}", playlist);
-
-            if (playlist == null) {
-                logger.warn("getPlaylistDetails: プレイリストが見つかりません, プレイリストID: {}", id);
-                throw new ResourceNotFoundException(
-                        HttpStatus.NOT_FOUND,
-                        "指定されたプレイリストが見つかりません。"
-                );
+    private Map<String, Object> getPlaylistDetails(String id, RetryUtil.RetryableOperation<String> currentSnapshotId) {
+        logger.debug("getPlaylistDetails: プレイリストID: {}", id);
+
+        try {
+            authenticate();
+
+            // 同じプレイリストの同じsnapshot_idのレスポンスを作成中の場合は、その結果を共有する
+            // (snapshot_idをキーに含め、より新しいsnapshot_idを確認した呼び出し元に古い結果を返さない)
+            String snapshotId = currentSnapshotId.execute();
+            return detailsFlight.execute(inFlightKey(id, snapshotId), () -> buildPlaylistDetails(id, snapshotId));
+        } catch (ResourceNotFoundException e) {
+            logger.warn("getPlaylistDetails: ResourceNotFoundException: {}", e.getMessage());
+            throw e;
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("getPlaylistDetails: プレイリストの詳細情報の取得中に予期しないエラーが発生しました。", e);
+            logger.error("getPlaylistDetails: エラー詳細: ", e);
+            throw new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+        }
+    }
+
+    /**
+     * 作成中のレスポンスを共有する単位のキーを返す
+     * ブロッキングな取得とノンブロッキングな取得で、同じプレイリストの同じsnapshot_idに対する要求のみを1つにまとめる
+     *
+     * @param id         プレイリストID
+     * @param snapshotId 呼び出し元が確認したsnapshot_id (取得できなかった場合はnull)
+     * @return 作成中のレスポンスのキー
+     */
+    static String inFlightKey(String id, String snapshotId) {
+        return id + ":" + snapshotId;
+    }
+
+    private void authenticate() throws SpotifyWebApiException {
+        logger.debug("getPlaylistDetails: モックモード有効か: {}", mockEnabled);
+        // モックモードが有効な場合は認証をスキップ
+        if (!mockEnabled && authController != null) {
+            logger.debug("getPlaylistDetails: Spotify API 認証開始");
+            // Spotify APIの認証を行う
+            authController.authenticate();
+            logger.debug("getPlaylistDetails: Spotify API 認証完了");
+        } else {
+            logger.debug("getPlaylistDetails: モックモード有効、認証スキップ");
+        }
+    }
+
+    /**
+     * プレイリストの詳細情報を作成する
+     * プレイリストが変更されていなければキャッシュしたレスポンスを返し、変更されていれば再計算してキャッシュに格納する
+     * 同時に要求した呼び出し元の間で同じインスタンスを共有するため、変更不可のMapとして返す
+     *
+     * @param id                プレイリストID
+     * @param currentSnapshotId 現在のsnapshot_id (nullの場合はキャッシュを使用しない)
+     * @return プレイリストの詳細情報を含むMap
+     * @throws ResourceNotFoundException プレイリストが見つからない場合
+     * @throws SpotifyWebApiException    Spotify API呼び出し時の例外
+     */
+    private Map<String, Object> buildPlaylistDetails(String id, String currentSnapshotId) throws SpotifyWebApiException {
+        // プレイリストが変更されていなければキャッシュしたレスポンスを返す
+        if (currentSnapshotId != null) {
+            Optional<Map<String, Object>> cachedDetails = playlistDetailsCache.get(id, currentSnapshotId);
+            if (cachedDetails.isPresent()) {
+                logger.debug("getPlaylistDetails: キャッシュからレスポンスを返します, プレイリストID: {}, snapshotId: {}", id, currentSnapshotId);
+                return Collections.unmodifiableMap(cachedDetails.get());
             }
+        }
 
-            String playlistName = playlist.getName();
-            User owner = playlist.getOwner();
-            logger.info("getPlaylistDetails: プレイリスト名: {}, オーナーID: {}, オーナー名: {}", playlistName, owner.getId(), owner.getDisplayName());
+        logger.debug("getPlaylistDetails: スナップショット取得開始, プレイリストID: {}", id);
+        // プレイリスト情報と全トラックを一度だけ取得し、以降の分析処理で共有する
+        PlaylistSnapshot snapshot = playlistDetailsService.getPlaylistSnapshot(id);
+        pageFetchSummary.record(snapshot.getPageFetchCount());
+        logger.debug("getPlaylistDetails: スナップショット取得完了, 上流APIページ取得回数: {}", snapshot.getPageFetchCount());
 
-            logger.info("getPlaylistDetails: トラック情報取得開始, プレイリストID: {}", id);
-            // トラック情報の取得と解析
-            PlaylistTrack[] tracks = playlistDetailsService.getPlaylistTracks(id);
-            logger.info("getPlaylistDetails: トラック情報取得完了, トラック数: {}", tracks != null ? tracks.length : 0);
-            List<Map<String, Object>> trackList = trackDataRetriever.getTrackListData(tracks);
-            logger.info("getPlaylistDetails: トラックデータリスト取得完了, トラックリストサイズ: {}", trackList.size());
+        Playlist playlist = snapshot.getPlaylist();
+        if (playlist == null) {
+            logger.warn("getPlaylistDetails: プレイリストが見つかりません, プレイリストID: {}", id);
+            throw new ResourceNotFoundException(
+                    HttpStatus.NOT_FOUND,
+                    "指定されたプレイリストが見つかりません。"
+            );
+        }
 
+        String playlistName = playlist.getName();
+        User owner = playlist.getOwner();
+        PlaylistTrack[] tracks = snapshot.getTracks();
+        logger.debug("getPlaylistDetails: プレイリスト名: {}, オーナーID: {}, オーナー名: {}", playlistName, owner.getId(), owner.getDisplayName());
 
-            logger.info("getPlaylistDetails: オーディオ特徴量計算開始");
-            // オーディオ特徴の計算
-            Map<String, Float> maxAudioFeatures = AudioFeaturesCalculator.calculateMaxAudioFeatures(trackList);
-            Map<String, Float> minAudioFeatures = AudioFeaturesCalculator.calculateMinAudioFeatures(trackList);
-            Map<String, Float> averageAudioFeatures = AudioFeaturesCalculator.calculateAverageAudioFeatures(trackList);
-            logger.info("getPlaylistDetails: オーディオ特徴量計算完了");
+        // ジャンル集計 (アーティスト情報の取得) はAudioFeaturesの取得と独立しているため、並行して開始する
+        logger.debug("getPlaylistDetails: ジャンル集計開始");
+        Future<Map<String, Integer>> genreCountsFuture = parallelFetchExecutor.fork(() -> playlistAnalyticsService.getGenreCountsForPlaylist(snapshot));
 
-            // 上位アーティストの取得
-            logger.info("getPlaylistDetails: 上位アーティスト取得開始");
-            List<String> seedArtists = playlistAnalyticsService.getTop5ArtistsForPlaylist(id);
-            logger.info("getPlaylistDetails: 上位アーティスト取得完了, seedArtists: {}", seedArtists);
+        TrackFeatureMatrix trackMatrix;
+        Map<String, Integer> genreCounts;
+        try {
+            // トラック情報の解析
+            logger.debug("getPlaylistDetails: トラック数: {}", tracks != null ? tracks.length : 0);
+            trackMatrix = trackDataRetriever.getTrackFeatureMatrix(snapshot);
+            logger.debug("getPlaylistDetails: トラックデータ取得完了, トラック数: {}", trackMatrix.size());
 
-            logAudioFeatures(maxAudioFeatures, minAudioFeatures, averageAudioFeatures);
+            genreCounts = parallelFetchExecutor.join(genreCountsFuture);
+            logger.debug("getPlaylistDetails: ジャンル集計完了, ジャンル数: {}", genreCounts.size());
+        } finally {
+            // AudioFeaturesの取得に失敗した場合は、進行中のジャンル集計を中断する
+            genreCountsFuture.cancel(true);
+        }
 
-            long totalDuration = calculateTotalDuration(tracks);
+        logger.debug("getPlaylistDetails: オーディオ特徴量計算開始");
+        // オーディオ特徴の計算 (最大値・最小値・平均値・パーセンタイルを1回の走査で集計する)
+        AudioFeatureStatistics statistics = AudioFeaturesCalculator.calculateStatistics(trackMatrix);
+        logger.debug("getPlaylistDetails: オーディオ特徴量計算完了");
 
-            playlistDetails = createResponse(trackList, playlistName, owner, maxAudioFeatures, minAudioFeatures, averageAudioFeatures, totalDuration, seedArtists);
-            logger.info("getPlaylistDetails: レスポンス作成完了, プレイリストID: {}", id);
+        // 上位アーティストの取得
+        logger.debug("getPlaylistDetails: 上位アーティスト取得開始");
+        List<String> seedArtists = playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot);
+        logger.debug("getPlaylistDetails: 上位アーティスト取得完了, seedArtists: {}", seedArtists);
 
+        logAudioFeatures(statistics);
 
-        } catch (ResourceNotFoundException e) {
-            logger.warn("getPlaylistDetails: ResourceNotFoundException: {}", e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            logger.error("getPlaylistDetails: プレイリストの詳細情報の取得中に予期しないエラーが発生しました。", e);
-            logger.error("getPlaylistDetails: エラー詳細: ", e);
-            throw new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+        long totalDuration = calculateTotalDuration(tracks);
+
+        Map<String, Object> playlistDetails = createResponse(trackMatrix, playlistName, owner, statistics, totalDuration, seedArtists, genreCounts);
+        // 1件の詳細作成につき1行の構造化されたイベントを出力する。INFOはサンプリングされるリクエスト要約のみとするためDEBUGとする
+        logger.atDebug()
+                .addKeyValue("playlistId", id)
+                .addKeyValue("tracks", trackMatrix.size())
+                .addKeyValue("pageFetches", snapshot.getPageFetchCount())
+                .addKeyValue("genres", genreCounts.size())
+                .log("getPlaylistDetails: レスポンス作成完了");
+
+        // 計算に使用したトラック一覧と同じ時点のsnapshot_idをキーとして格納する
+        // ETagは呼び出し元が先に取得したcurrentSnapshotIdから作成されるため、その間にプレイリストが変更された場合は
+        // 古いETagに新しい内容が対応する。内容がETagより古くなることはなく、次回の再検証ではsnapshot_idが一致せずに
+        // 新しいETagで200を返すため、snapshot_idの再取得は行わずにこの不一致を許容する
+        if (playlist.getSnapshotId() != null) {
+            playlistDetailsCache.put(id, playlist.getSnapshotId(), playlistDetails);
         }
-        return playlistDetails;
+        return Collections.unmodifiableMap(playlistDetails);
     }
 
     /**
      * オーディオ特徴をログに出力する
      */
-    private void logAudioFeatures(Map<String, Float> maxAudioFeatures, Map<String, Float> minAudioFeatures, Map<String, Float> averageAudioFeatures) {
-        logger.info("logAudioFeatures: 最大AudioFeatures: {}", maxAudioFeatures);
-        logger.info("logAudioFeatures: 最小AudioFeatures: {}", minAudioFeatures);
-        logger.info("logAudioFeatures: 平均AudioFeatures: {}", averageAudioFeatures);
+    private void logAudioFeatures(AudioFeatureStatistics statistics) {
+        logger.debug("logAudioFeatures: 最大AudioFeatures: {}", statistics.getMaxValues());
+        logger.debug("logAudioFeatures: 最小AudioFeatures: {}", statistics.getMinValues());
+        logger.debug("logAudioFeatures: 平均AudioFeatures: {}", statistics.getMeanValues());
     }
 
     /**
      * プレイリストの総再生時間を計算する
+     * null の要素やエピソードなどトラック以外の要素は、AudioFeaturesの集計と同じく対象外とする
      *
      * @param tracks プレイリストのトラック配列
      * @return 総再生時間（ミリ秒）
      */
-    private long calculateTotalDuration(PlaylistTrack[] tracks) {
+    static long calculateTotalDuration(PlaylistTrack[] tracks) {
         long totalDuration = 0;
         if (tracks != null) {
-            for (PlaylistTrack track : tracks) {
-                totalDuration += track.getTrack().getDurationMs();
+            for (PlaylistTrack item : tracks) {
+                if (item != null && item.getTrack() instanceof Track track && track.getDurationMs() != null) {
+                    totalDuration += track.getDurationMs();
+                }
             }
         }
-        logger.info("calculateTotalDuration: 総再生時間: {}ms", totalDuration);
+        logger.debug("calculateTotalDuration: 総再生時間: {}ms", totalDuration);
         return totalDuration;
     }
 
     /**
      * レスポンス用のMapを作成する
+     * 外れ値の影響を受けにくい範囲として、各AudioFeaturesの10・50・90パーセンタイルも含める
+     * ReactivePlaylistDetailsService も同じ形式のレスポンスを作成するために使用する
      */
-    private Map<String, Object> createResponse(List<Map<String, Object>> trackList, String playlistName, User owner, Map<String, Float> maxAudioFeatures, Map<String, Float> minAudioFeatures, Map<String, Float> averageAudioFeatures, long totalDuration, final List<String> seedArtists) {
-        logger.info("createResponse: レスポンス作成開始");
+    static Map<String, Object> createResponse(TrackFeatureMatrix trackMatrix, String playlistName, User owner, AudioFeatureStatistics statistics, long totalDuration, final List<String> seedArtists, Map<String, Integer> genreCounts) {
+        logger.debug("createResponse: レスポンス作成開始");
         Map<String, Object> response = new HashMap<>();
-        response.put("tracks", Map.of("items", trackList));
-        response.put("playlistName", playlistName);
-        response.put("ownerId", owner.getId());
-        response.put("ownerName", owner.getDisplayName());
-        response.put("maxAudioFeatures", maxAudioFeatures);
-        response.put("minAudioFeatures", minAudioFeatures);
-        response.put("averageAudioFeatures", averageAudioFeatures);
-        response.put("totalDuration", totalDuration);
-        response.put("seedArtists", seedArtists);
-        logger.info("createResponse: レスポンス: {}", response);
-        logger.info("createResponse: レスポンス作成完了");
+        response.put("tracks", Map.of("items", trackMatrix.toTrackItems()));
+        response.putAll(playlistFields(playlistName, owner));
+        response.putAll(summaryFields(statisticsFields(statistics), totalDuration, seedArtists, genreCounts));
+        DiagnosticLog.payload("createResponse", "response", response);
+        logger.debug("createResponse: レスポンス作成完了");
         return response;
     }
+
+    /**
+     * レスポンスのうち、プレイリストのメタデータの項目を作成する
+     * 段階的な書き込み ({@link PlaylistDetailsJsonWriter}) でも同じ項目をトラック一覧の前に書き込む
+     *
+     * @param playlistName プレイリスト名
+     * @param owner        プレイリストのオーナー
+     * @return プレイリスト名・オーナーID・オーナー名の項目
+     */
+    static Map<String, Object> playlistFields(String playlistName, User owner) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("playlistName", playlistName);
+        fields.put("ownerId", owner != null ? owner.getId() : null);
+        fields.put("ownerName", owner != null ? owner.getDisplayName() : null);
+        return fields;
+    }
+
+    /**
+     * レスポンスのうち、AudioFeaturesの統計値の項目を作成する
+     *
+     * @param statistics AudioFeaturesの統計値
+     * @return 最大値・最小値・平均値・パーセンタイルの項目
+     */
+    static Map<String, Object> statisticsFields(AudioFeatureStatistics statistics) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("maxAudioFeatures", statistics.getMaxValues());
+        fields.put("minAudioFeatures", statistics.getMinValues());
+        fields.put("averageAudioFeatures", statistics.getMeanValues());
+        fields.put("p10AudioFeatures", statistics.getPercentileValues(0.1));
+        fields.put("p50AudioFeatures", statistics.getPercentileValues(0.5));
+        fields.put("p90AudioFeatures", statistics.getPercentileValues(0.9));
+        return fields;
+    }
+
+    /**
+     * レスポンスのうち、全トラックを受信した後に確定する項目を作成する
+     * 段階的な書き込み ({@link PlaylistDetailsJsonWriter}) でも同じ項目をトラック一覧の後ろに書き込む
+     *
+     * @param statisticsFields {@link #statisticsFields} で作成した統計値の項目
+     * @param totalDuration    総再生時間
+     * @param seedArtists      出現頻度上位のアーティスト
+     * @param genreCounts      ジャンルごとの出現回数
+     * @return 統計値・総再生時間・上位のアーティスト・ジャンルの項目
+     */
+    static Map<String, Object> summaryFields(Map<String, ?> statisticsFields, long totalDuration, List<String> seedArtists, Map<String, Integer> genreCounts) {
+        Map<String, Object> fields = new LinkedHashMap<>(statisticsFields);
+        fields.put("totalDuration", totalDuration);
+        fields.put("seedArtists", seedArtists);
+        fields.put("genreCounts", genreCounts);
+        return fields;
+    }
 }
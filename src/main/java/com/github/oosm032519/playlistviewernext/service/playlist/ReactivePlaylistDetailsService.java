@@ -0,0 +1,387 @@
+package com.github.oosm032519.playlistviewernext.service.playlist;
+
+import com.github.oosm032519.playlistviewernext.controller.auth.SpotifyClientCredentialsAuthentication;
+import com.github.oosm032519.playlistviewernext.exception.ErrorResponse;
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeaturesCalculator;
+import com.github.oosm032519.playlistviewernext.service.analytics.GenreAggregatorService;
+import com.github.oosm032519.playlistviewernext.service.analytics.SpotifyPlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistDetailsCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.Playlist;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Spotifyプレイリストの詳細情報をノンブロッキングに作成するサービスクラス
+ * {@link PlaylistDetailsRetrievalService} と同じ形式のレスポンスを、スレッドを待機させずにMonoとして組み立てる
+ * プレイリストと全ページの取得の後、AudioFeaturesの取得とアーティストのジャンルの取得を並行して購読し、統計計算はparallelスケジューラで行う
+ * 各段階にはタイムアウトを設定し、超過した場合は504 (Gateway Timeout) として失敗させる
+ * 同じプレイリストの同じsnapshot_idの詳細が同時に要求された場合は、作成中のMonoの結果を共有する
+ * {@link #streamPlaylistDetails} は同じ内容を、全トラックを保持せずにページごとのイベントとして段階的に発行する
+ */
+@Service
+public class ReactivePlaylistDetailsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePlaylistDetailsService.class);
+
+    private final ReactiveSpotifyClient spotifyClient;
+    private final SpotifyClientCredentialsAuthentication authController;
+    private final SpotifyPlaylistAnalyticsService playlistAnalyticsService;
+    private final GenreAggregatorService genreAggregatorService;
+    private final PlaylistDetailsCache playlistDetailsCache;
+    private final DistributionSummary pageFetchSummary;
+    private final Duration playlistTimeout;
+    private final Duration audioFeaturesTimeout;
+    private final Duration artistsTimeout;
+    private final Map<String, Mono<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${spotify.mock.enabled}")
+    private boolean mockEnabled;
+
+    /**
+     * コンストラクタ - 必要な依存関係を注入する
+     *
+     * @param spotifyClient            ノンブロッキングなSpotify APIクライアント
+     * @param authController           Spotify認証コントローラ
+     * @param playlistAnalyticsService プレイリスト分析サービス
+     * @param genreAggregatorService   ジャンル集計サービス
+     * @param playlistDetailsCache     プレイリスト詳細のキャッシュ
+     * @param meterRegistry            メトリクスの登録先
+     * @param playlistTimeout          プレイリスト情報と全ページの取得のタイムアウト
+     * @param audioFeaturesTimeout     AudioFeaturesの取得のタイムアウト
+     * @param artistsTimeout           アーティストのジャンルの取得のタイムアウト
+     */
+    @Autowired
+    public ReactivePlaylistDetailsService(
+            ReactiveSpotifyClient spotifyClient,
+            @Autowired(required = false) SpotifyClientCredentialsAuthentication authController,
+            SpotifyPlaylistAnalyticsService playlistAnalyticsService,
+            GenreAggregatorService genreAggregatorService,
+            PlaylistDetailsCache playlistDetailsCache,
+            MeterRegistry meterRegistry,
+            @Value("${spotify.reactive.timeout.playlist:15s}") Duration playlistTimeout,
+            @Value("${spotify.reactive.timeout.audio-features:10s}") Duration audioFeaturesTimeout,
+            @Value("${spotify.reactive.timeout.artists:10s}") Duration artistsTimeout) {
+        this.spotifyClient = spotifyClient;
+        this.authController = authController;
+        this.playlistAnalyticsService = playlistAnalyticsService;
+        this.genreAggregatorService = genreAggregatorService;
+        this.playlistDetailsCache = playlistDetailsCache;
+        // ブロッキングな詳細取得と同じメトリクスに記録する
+        pageFetchSummary = DistributionSummary.builder("playlist.details.upstream.page.fetches")
+                .description("詳細取得リクエスト1件あたりの上流APIへのページ取得回数")
+                .register(meterRegistry);
+        this.playlistTimeout = playlistTimeout;
+        this.audioFeaturesTimeout = audioFeaturesTimeout;
+        this.artistsTimeout = artistsTimeout;
+    }
+
+    /**
+     * プレイリストの詳細情報を取得する
+     *
+     * @param id プレイリストID
+     * @return プレイリストの詳細情報を含むMap。プレイリストが見つからない場合は {@link ResourceNotFoundException}、
+     * タイムアウトした場合は504の {@link InternalServerException}、その他のエラーは {@link InvalidRequestException} で失敗する
+     */
+    public Mono<Map<String, Object>> getPlaylistDetails(String id) {
+        return getPlaylistDetails(id, Mono.defer(() -> spotifyClient.getPlaylistSnapshotId(id)));
+    }
+
+    /**
+     * {@link #getPlaylistSnapshotId} で取得済みのsnapshot_idを使用して、プレイリストの詳細情報を取得する
+     * snapshot_idを再度取得しないため、ETagの作成とキャッシュの確認で上流APIの呼び出しは1回となる
+     *
+     * @param id                プレイリストID
+     * @param currentSnapshotId 取得済みのsnapshot_id (nullの場合はキャッシュを使用しない)
+     * @return プレイリストの詳細情報を含むMap。失敗した場合は {@link #getPlaylistDetails(String)} と同じ例外で失敗する
+     */
+    public Mono<Map<String, Object>> getPlaylistDetails(String id, String currentSnapshotId) {
+        return getPlaylistDetails(id, Mono.justOrEmpty(currentSnapshotId));
+    }
+
+    /**
+     * プレイリストの現在のsnapshot_idを取得する
+     * レスポンスのETagの作成に使用する。取得に失敗した場合は {@link #getPlaylistDetails(String)} と同じ例外で失敗し、
+     * レート制限による破棄 (503) などのステータスをそのまま返す
+     *
+     * @param id プレイリストID
+     * @return snapshot_id。モックモードの場合は空のMono
+     */
+    public Mono<String> getPlaylistSnapshotId(String id) {
+        return authenticate()
+                .then(Mono.defer(() -> spotifyClient.getPlaylistSnapshotId(id)))
+                .timeout(playlistTimeout)
+                .onErrorMap(TimeoutException.class, e -> timeout("プレイリスト", e))
+                .onErrorMap(e -> !(e instanceof PlaylistViewerNextException), e -> {
+                    logger.error("getPlaylistSnapshotId: snapshot_idの取得中に予期しないエラーが発生しました。 プレイリストID: {}", id, e);
+                    return new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+                });
+    }
+
+    private Mono<Map<String, Object>> getPlaylistDetails(String id, Mono<String> currentSnapshotId) {
+        logger.debug("getPlaylistDetails: プレイリストID: {}, モックモード有効か: {}", id, mockEnabled);
+        return authenticate()
+                .then(currentSnapshotId
+                        .timeout(playlistTimeout)
+                        .onErrorMap(TimeoutException.class, e -> timeout("プレイリスト", e))
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
+                // 同じプレイリストの同じsnapshot_idのレスポンスを作成中の場合は、その結果を共有する
+                // (snapshot_idをキーに含め、より新しいsnapshot_idを確認した呼び出し元に古い結果を返さない)
+                .flatMap(snapshotId -> {
+                    String key = PlaylistDetailsRetrievalService.inFlightKey(id, snapshotId.orElse(null));
+                    return inFlight.computeIfAbsent(key, _ -> buildPlaylistDetails(id, snapshotId.orElse(null))
+                            .doFinally(_ -> inFlight.remove(key))
+                            .cache());
+                })
+                .onErrorMap(e -> !(e instanceof PlaylistViewerNextException), e -> {
+                    logger.error("getPlaylistDetails: プレイリストの詳細情報の取得中に予期しないエラーが発生しました。", e);
+                    return new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+                });
+    }
+
+    /**
+     * プレイリストの詳細情報を段階的に作成し、作成できた部分から順にイベントとして発行する
+     * プレイリスト情報の取得 (上流APIへの1回の呼び出し) の直後に最初のイベントを発行し、以降はページを受信するたびに
+     * トラックとそれまでのAudioFeaturesの統計値を発行する。全ページの受信後にジャンルの出現回数・上位のアーティスト・総再生時間を発行する
+     * 全トラックは保持せず、ページの間で保持するのはアーティストの出現回数・統計値・総再生時間のみとする
+     * 同じ内容のレスポンスを保持しないため、プレイリスト詳細のキャッシュと作成中の結果の共有は使用しない
+     *
+     * @param id プレイリストID
+     * @return 詳細情報のイベントのFlux。失敗した場合は {@link PlaylistDetailsEvent#ERROR} のイベントを発行して完了する
+     */
+    public Flux<PlaylistDetailsEvent> streamPlaylistDetails(String id) {
+        logger.debug("streamPlaylistDetails: プレイリストID: {}, モックモード有効か: {}", id, mockEnabled);
+        return authenticate()
+                .then(spotifyClient.getPlaylistPages(id)
+                        .timeout(playlistTimeout)
+                        .onErrorMap(TimeoutException.class, e -> timeout("プレイリスト", e)))
+                .flatMapMany(playlistPages -> Flux.defer(() -> streamDetails(id, playlistPages)))
+                .onErrorResume(e -> Mono.just(errorEvent(e)));
+    }
+
+    /**
+     * プレイリスト情報のイベントに続けて、ページごとのイベントと全ページの受信後のイベントを発行する
+     */
+    private Flux<PlaylistDetailsEvent> streamDetails(String id, ReactiveSpotifyClient.PlaylistPages playlistPages) {
+        pageFetchSummary.record(playlistPages.pageFetchCount());
+        Playlist playlist = playlistPages.playlist();
+        Map<String, Object> playlistData = new HashMap<>(PlaylistDetailsRetrievalService.playlistFields(playlist.getName(), playlist.getOwner()));
+        playlistData.put(PlaylistDetailsEvent.TOTAL_TRACKS, playlistPages.totalTracks());
+
+        // ページの間で保持する集計値 (ページのイベントは順に処理されるため、同時に更新されることはない)
+        AudioFeatureStatistics statistics = new AudioFeatureStatistics();
+        Map<String, Integer> artistCounts = new HashMap<>();
+        long[] totals = new long[2]; // [トラック数, 総再生時間]
+
+        Flux<PlaylistDetailsEvent> pageEvents = playlistPages.pages()
+                // ページの間隔がタイムアウトを超えた場合に失敗させる
+                .timeout(playlistTimeout)
+                .onErrorMap(TimeoutException.class, e -> timeout("プレイリスト", e))
+                .flatMapSequential(page -> getTrackFeatureMatrix(page)
+                        .timeout(audioFeaturesTimeout)
+                        .onErrorMap(TimeoutException.class, e -> timeout("AudioFeatures", e))
+                        .map(matrix -> Tuples.of(page, matrix)), spotifyClient.getConcurrency())
+                .concatMapIterable(pageResult -> {
+                    PlaylistTrack[] page = pageResult.getT1();
+                    TrackFeatureMatrix matrix = pageResult.getT2();
+                    long offset = totals[0];
+                    statistics.addAll(matrix);
+                    genreAggregatorService.countArtists(page).forEach((artistId, count) -> artistCounts.merge(artistId, count, Integer::sum));
+                    totals[0] += page.length;
+                    totals[1] += PlaylistDetailsRetrievalService.calculateTotalDuration(page);
+                    return List.of(
+                            new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("offset", offset, "items", matrix.toTrackItems())),
+                            new PlaylistDetailsEvent(PlaylistDetailsEvent.AUDIO_FEATURES, statisticsData(statistics)));
+                });
+
+        Flux<PlaylistDetailsEvent> summaryEvents = Flux.defer(() -> spotifyClient.getArtistGenres(new ArrayList<>(artistCounts.keySet()))
+                .timeout(artistsTimeout)
+                .onErrorMap(TimeoutException.class, e -> timeout("アーティスト情報", e))
+                .flatMapIterable(artistGenres -> {
+                    Map<String, Integer> genreCounts = genreAggregatorService.aggregateGenresByArtistCounts(artistCounts, artistGenres);
+                    List<String> seedArtists = genreAggregatorService.getTopArtists(artistCounts, 5);
+                    logger.atDebug()
+                            .addKeyValue("playlistId", id)
+                            .addKeyValue("tracks", totals[0])
+                            .addKeyValue("pageFetches", playlistPages.pageFetchCount())
+                            .addKeyValue("genres", genreCounts.size())
+                            .log("streamPlaylistDetails: 全イベント送信完了");
+                    return List.of(
+                            new PlaylistDetailsEvent(PlaylistDetailsEvent.GENRES, Map.of("genreCounts", genreCounts)),
+                            new PlaylistDetailsEvent(PlaylistDetailsEvent.SEED_ARTISTS, Map.of("seedArtists", seedArtists)),
+                            new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of(PlaylistDetailsEvent.TRACK_COUNT, totals[0], "totalDuration", totals[1])));
+                }));
+
+        return Flux.concat(Mono.just(new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, playlistData)), pageEvents, summaryEvents);
+    }
+
+    /**
+     * 統計値を {@link PlaylistDetailsRetrievalService} のレスポンスと同じキーのMapに変換し、集計したトラック数を加える
+     */
+    private static Map<String, Object> statisticsData(AudioFeatureStatistics statistics) {
+        Map<String, Object> data = new HashMap<>(PlaylistDetailsRetrievalService.statisticsFields(statistics));
+        data.put(PlaylistDetailsEvent.TRACK_COUNT, statistics.getCount());
+        return data;
+    }
+
+    /**
+     * 送信中のエラーを {@link PlaylistDetailsEvent#ERROR} のイベントに変換する
+     * レスポンスの送信を開始した後はステータスコードを変更できないため、エラーはイベントのデータとして返す
+     */
+    private static PlaylistDetailsEvent errorEvent(Throwable e) {
+        PlaylistViewerNextException exception = e instanceof PlaylistViewerNextException playlistViewerNextException
+                ? playlistViewerNextException
+                : new InvalidRequestException(HttpStatus.INTERNAL_SERVER_ERROR, "プレイリストの詳細情報の取得中にエラーが発生しました。", e);
+        if (exception != e) {
+            logger.error("streamPlaylistDetails: プレイリストの詳細情報の取得中に予期しないエラーが発生しました。", e);
+        } else {
+            logger.warn("streamPlaylistDetails: プレイリストの詳細情報の送信を中断しました。 {}", exception.getMessage());
+        }
+        return new PlaylistDetailsEvent(PlaylistDetailsEvent.ERROR,
+                new ErrorResponse(exception.getHttpStatus(), exception.getErrorCode(), exception.getMessage(), exception.getDetails()));
+    }
+
+    /**
+     * クライアントクレデンシャル認証を行う
+     * トークンの更新はブロッキングのため、boundedElasticスケジューラで実行する (有効なトークンがある場合はすぐに完了する)
+     */
+    private Mono<Void> authenticate() {
+        // モックモードが有効な場合は認証をスキップ
+        if (mockEnabled || authController == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> {
+                    authController.authenticate();
+                    return true;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * プレイリストの詳細情報を作成する
+     * プレイリストが変更されていなければキャッシュしたレスポンスを返し、変更されていれば再計算してキャッシュに格納する
+     *
+     * @param id                プレイリストID
+     * @param currentSnapshotId 現在のsnapshot_id (nullの場合はキャッシュを使用しない)
+     */
+    private Mono<Map<String, Object>> buildPlaylistDetails(String id, String currentSnapshotId) {
+        // プレイリストが変更されていなければキャッシュしたレスポンスを返す
+        Mono<Map<String, Object>> cachedDetails = currentSnapshotId == null
+                ? Mono.empty()
+                : Mono.fromCallable(() -> playlistDetailsCache.get(id, currentSnapshotId).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(_ -> logger.debug("getPlaylistDetails: キャッシュからレスポンスを返します, プレイリストID: {}", id));
+
+        return cachedDetails
+                .switchIfEmpty(Mono.defer(() -> spotifyClient.getPlaylistSnapshot(id)
+                        .timeout(playlistTimeout)
+                        .onErrorMap(TimeoutException.class, e -> timeout("プレイリスト", e))
+                        .flatMap(snapshot -> createDetails(id, snapshot))));
+    }
+
+    /**
+     * スナップショットからAudioFeaturesとジャンルを並行して取得し、レスポンスを作成する
+     */
+    private Mono<Map<String, Object>> createDetails(String id, PlaylistSnapshot snapshot) {
+        pageFetchSummary.record(snapshot.getPageFetchCount());
+        Playlist playlist = snapshot.getPlaylist();
+        if (playlist == null) {
+            logger.warn("getPlaylistDetails: プレイリストが見つかりません, プレイリストID: {}", id);
+            return Mono.error(new ResourceNotFoundException(HttpStatus.NOT_FOUND, "指定されたプレイリストが見つかりません。"));
+        }
+        PlaylistTrack[] tracks = snapshot.getTracks() != null ? snapshot.getTracks() : new PlaylistTrack[0];
+
+        Mono<TrackFeatureMatrix> trackMatrix = getTrackFeatureMatrix(tracks)
+                .timeout(audioFeaturesTimeout)
+                .onErrorMap(TimeoutException.class, e -> timeout("AudioFeatures", e));
+        Mono<Map<String, Integer>> genreCounts = spotifyClient.getArtistGenres(genreAggregatorService.getUniqueArtistIds(tracks))
+                .timeout(artistsTimeout)
+                .onErrorMap(TimeoutException.class, e -> timeout("アーティスト情報", e))
+                .map(artistGenres -> genreAggregatorService.aggregateGenres(tracks, artistGenres));
+
+        return Mono.zip(trackMatrix, genreCounts)
+                // 統計計算はCPUを使用するため、イベントループから切り替えて実行する
+                .publishOn(Schedulers.parallel())
+                .map(results -> {
+                    AudioFeatureStatistics statistics = AudioFeaturesCalculator.calculateStatistics(results.getT1());
+                    List<String> seedArtists = playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot);
+                    long totalDuration = PlaylistDetailsRetrievalService.calculateTotalDuration(tracks);
+                    Map<String, Object> playlistDetails = PlaylistDetailsRetrievalService.createResponse(
+                            results.getT1(), playlist.getName(), playlist.getOwner(), statistics, totalDuration, seedArtists, results.getT2());
+                    logger.atDebug()
+                            .addKeyValue("playlistId", id)
+                            .addKeyValue("tracks", results.getT1().size())
+                            .addKeyValue("pageFetches", snapshot.getPageFetchCount())
+                            .addKeyValue("genres", results.getT2().size())
+                            .log("getPlaylistDetails: レスポンス作成完了 (reactive)");
+                    return playlistDetails;
+                })
+                .doOnNext(playlistDetails -> {
+                    // 計算に使用したトラック一覧と同じ時点のsnapshot_idをキーとして、レスポンスを待たずに格納する
+                    // (ETagとの不一致の扱いは PlaylistDetailsRetrievalService#buildPlaylistDetails と同じ)
+                    if (playlist.getSnapshotId() != null) {
+                        Schedulers.boundedElastic().schedule(() -> playlistDetailsCache.put(id, playlist.getSnapshotId(), playlistDetails));
+                    }
+                });
+    }
+
+    /**
+     * トラックのAudioFeaturesを取得し、トラックと同じ順序の行列を作成する
+     */
+    private Mono<TrackFeatureMatrix> getTrackFeatureMatrix(PlaylistTrack[] tracks) {
+        Track[] fullTracks = new Track[tracks.length];
+        List<String> trackIds = new ArrayList<>(tracks.length);
+        for (int i = 0; i < tracks.length; i++) {
+            if (tracks[i] != null && tracks[i].getTrack() instanceof Track track) {
+                fullTracks[i] = track;
+                if (track.getId() != null) {
+                    trackIds.add(track.getId());
+                }
+            }
+        }
+
+        return spotifyClient.getAudioFeatures(trackIds).map(audioFeaturesById -> {
+            List<AudioFeatures> alignedAudioFeatures = new ArrayList<>(fullTracks.length);
+            for (Track track : fullTracks) {
+                alignedAudioFeatures.add(track != null && track.getId() != null ? audioFeaturesById.get(track.getId()) : null);
+            }
+            return new TrackFeatureMatrix(fullTracks, alignedAudioFeatures);
+        });
+    }
+
+    private static InternalServerException timeout(String stage, Throwable cause) {
+        logger.warn("getPlaylistDetails: {}の取得がタイムアウトしました。", stage);
+        return new InternalServerException(HttpStatus.GATEWAY_TIMEOUT, stage + "の取得がタイムアウトしました。", cause);
+    }
+}
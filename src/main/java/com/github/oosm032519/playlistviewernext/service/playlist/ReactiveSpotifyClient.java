@@ -0,0 +1,435 @@
+package com.github.oosm032519.playlistviewernext.service.playlist;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.service.cache.ArtistGenreCache;
+import com.github.oosm032519.playlistviewernext.service.cache.AudioFeaturesCache;
+import com.github.oosm032519.playlistviewernext.util.BatchUtil;
+import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.model_objects.specification.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Spotify API (モックモードの場合はモックAPI) からプレイリスト詳細の作成に必要なデータをノンブロッキングに取得するクラス
+ * すべての取得はWebClientのMonoとして組み立て、スレッドを待機させずにイベントループ上で完了する
+ * ページ・チャンク単位の取得は spotify.fetch.concurrency を上限に並行して購読し、結果は要求した順序で返す
+ * 送信前の流量制限は {@link SpotifyRequestThrottle#acquireAsync} で遅延させ、429を受け取った場合は
+ * Retry-Afterの期間だけ {@link RetryUtil} と共有するレート制限の停止期間を設定してから再試行する
+ */
+@Service
+public class ReactiveSpotifyClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveSpotifyClient.class);
+    private static final int MAX_RETRIES = 3;
+
+    private final SpotifyApi spotifyApi;
+    private final WebClient webClient;
+    private final SpotifyRequestThrottle requestThrottle;
+    private final SpotifyPlaylistDetailsService playlistDetailsService;
+    private final AudioFeaturesCache audioFeaturesCache;
+    private final ArtistGenreCache artistGenreCache;
+    private final int concurrency;
+    private final String apiUrl;
+
+    @Value("${spotify.mock-api.url}")
+    private String mockApiUrl;
+
+    @Value("${spotify.mock.enabled:false}")
+    private boolean mockEnabled;
+
+    /**
+     * コンストラクタ
+     *
+     * @param spotifyApi             アクセストークンを保持するSpotifyApi
+     * @param webClientBuilder       WebClientのビルダー
+     * @param requestThrottle        Spotify APIへのリクエストの流量制限
+     * @param playlistDetailsService モックAPIのレスポンスの変換に使用するプレイリスト詳細取得サービス
+     * @param audioFeaturesCache     AudioFeaturesのキャッシュ
+     * @param artistGenreCache       アーティストのジャンルのキャッシュ
+     * @param concurrency            ページ・チャンク単位の取得を並行して行う最大数
+     * @param apiUrl                 Spotify APIのベースURL
+     * @param maxInMemorySize        1件のレスポンスとして読み込む最大サイズ
+     */
+    @Autowired
+    public ReactiveSpotifyClient(SpotifyApi spotifyApi,
+                                 WebClient.Builder webClientBuilder,
+                                 SpotifyRequestThrottle requestThrottle,
+                                 SpotifyPlaylistDetailsService playlistDetailsService,
+                                 AudioFeaturesCache audioFeaturesCache,
+                                 ArtistGenreCache artistGenreCache,
+                                 @Value("${spotify.fetch.concurrency:4}") int concurrency,
+                                 @Value("${spotify.api.url:https://api.spotify.com/v1}") String apiUrl,
+                                 @Value("${spotify.reactive.max-in-memory-size:16MB}") DataSize maxInMemorySize) {
+        this.spotifyApi = spotifyApi;
+        webClient = webClientBuilder
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
+                .build();
+        this.requestThrottle = requestThrottle;
+        this.playlistDetailsService = playlistDetailsService;
+        this.audioFeaturesCache = audioFeaturesCache;
+        this.artistGenreCache = artistGenreCache;
+        this.concurrency = Math.max(1, concurrency);
+        this.apiUrl = apiUrl;
+    }
+
+    /**
+     * ページ・チャンク単位の取得を並行して行う最大数を返す
+     *
+     * @return 最大同時リクエスト数
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * 指定されたプレイリストIDの現在のsnapshot_idのみを取得する
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリストのsnapshot_id。モックモードの場合 (モックAPIはsnapshot_idを返さない) は空のMono
+     */
+    public Mono<String> getPlaylistSnapshotId(String playlistId) {
+        if (isMockMode()) {
+            return Mono.empty();
+        }
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .pathSegment("playlists", playlistId)
+                .queryParam("fields", "snapshot_id")
+                .build()
+                .toUri();
+        return getJson(uri)
+                .mapNotNull(json -> new Playlist.JsonUtil().createModelObject(json).getSnapshotId())
+                .onErrorMap(WebClientResponseException.NotFound.class, ReactiveSpotifyClient::playlistNotFound);
+    }
+
+    /**
+     * プレイリスト情報と、トラックのページを順に発行するFlux
+     * ページのFluxは購読されるまで残りのページを取得しない
+     *
+     * @param playlist       プレイリストのメタデータ
+     * @param totalTracks    トラックの総数 (モックAPIが総数を返さない場合はnull)
+     * @param pageFetchCount 全ページを取得し終えるまでの上流APIへのページ取得回数
+     * @param pages          オフセット順に並んだトラックのページ
+     */
+    public record PlaylistPages(Playlist playlist, Integer totalTracks, int pageFetchCount, Flux<PlaylistTrack[]> pages) {
+    }
+
+    /**
+     * 指定されたプレイリストIDのプレイリスト情報と全トラックを取得し、スナップショットとして返す
+     * 最初のレスポンスに含まれる総数から残りのページを算出し、並行して取得する
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリスト情報と全トラックを保持するスナップショット。プレイリストが見つからない場合は {@link ResourceNotFoundException} で失敗する
+     */
+    public Mono<PlaylistSnapshot> getPlaylistSnapshot(String playlistId) {
+        return getPlaylistPages(playlistId)
+                .flatMap(playlistPages -> playlistPages.pages()
+                        .collectList()
+                        .map(pages -> toSnapshot(playlistId, playlistPages, pages)));
+    }
+
+    /**
+     * 指定されたプレイリストIDのプレイリスト情報を取得し、トラックをページ単位で発行するFluxとともに返す
+     * プレイリスト情報は1回の上流APIの呼び出しで取得でき、残りのページは返されたFluxを購読したときに並行して取得する
+     * 全トラックを保持せずにページごとに処理する場合 (Server-Sent Eventsによる段階的な送信など) に使用する
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリスト情報とページのFlux。プレイリストが見つからない場合は {@link ResourceNotFoundException} で失敗する
+     */
+    public Mono<PlaylistPages> getPlaylistPages(String playlistId) {
+        Mono<PlaylistPages> playlistPages = isMockMode() ? getPlaylistPagesMock(playlistId) : getPlaylistPagesReal(playlistId);
+        return playlistPages
+                .map(result -> new PlaylistPages(result.playlist(), result.totalTracks(), result.pageFetchCount(),
+                        result.pages().onErrorMap(WebClientResponseException.NotFound.class, ReactiveSpotifyClient::playlistNotFound)))
+                .onErrorMap(WebClientResponseException.NotFound.class, ReactiveSpotifyClient::playlistNotFound);
+    }
+
+    private Mono<PlaylistPages> getPlaylistPagesReal(String playlistId) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .pathSegment("playlists", playlistId)
+                .build()
+                .toUri();
+        return getJson(uri)
+                .map(json -> new Playlist.JsonUtil().createModelObject(json))
+                .map(playlist -> {
+                    Paging<PlaylistTrack> firstPage = playlist.getTracks();
+                    PlaylistTrack[] firstItems = firstPage != null && firstPage.getItems() != null ? firstPage.getItems() : new PlaylistTrack[0];
+                    int total = firstPage != null && firstPage.getTotal() != null ? firstPage.getTotal() : firstItems.length;
+                    int remainingPageCount = pageCount(firstItems.length, total);
+                    // 最初のページはプレイリスト情報に含まれるため、残りのページのみを取得する
+                    Flux<PlaylistTrack[]> pages = Mono.just(firstItems)
+                            .concatWith(fetchRemainingPages(firstItems.length, remainingPageCount, offset -> getPlaylistTracksPageReal(playlistId, offset)));
+                    return new PlaylistPages(playlist, total, 1 + remainingPageCount, pages);
+                });
+    }
+
+    private Mono<PlaylistTrack[]> getPlaylistTracksPageReal(String playlistId, int offset) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .pathSegment("playlists", playlistId, "tracks")
+                .queryParam("offset", offset)
+                .queryParam("limit", SpotifyPlaylistDetailsService.PAGE_SIZE)
+                .build()
+                .toUri();
+        return getJson(uri).map(json -> {
+            PlaylistTrack[] items = new PlaylistTrack.JsonUtil().createModelObjectPaging(json).getItems();
+            logger.debug("getPlaylistTracksPageReal: ページ受信, offset: {}, items size: {}", offset, items.length);
+            return items;
+        });
+    }
+
+    /**
+     * モックAPIからプレイリスト情報とページを取得する
+     * モックAPIがトラックの総数 (totalTracks) を返す場合はoffsetとlimitを指定してページ単位で並行して取得し、
+     * 返さない場合は従来どおり1回のリクエストで全トラックを取得する
+     */
+    private Mono<PlaylistPages> getPlaylistPagesMock(String playlistId) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("playlists", playlistId)
+                .build()
+                .toUri();
+        return getMock(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, uri, new ParameterizedTypeReference<Map<String, Object>>() {
+        }).map(response -> {
+            Playlist playlist = playlistDetailsService.convertMapToPlaylist(response);
+            if (!(response.get("totalTracks") instanceof Number totalTracks)) {
+                return new PlaylistPages(playlist, null, 2, getPlaylistTracksMock(playlistId, null).flux());
+            }
+            int pageCount = pageCount(0, totalTracks.intValue());
+            return new PlaylistPages(playlist, totalTracks.intValue(), 1 + pageCount,
+                    fetchRemainingPages(0, pageCount, offset -> getPlaylistTracksMock(playlistId, offset)));
+        });
+    }
+
+    private Mono<PlaylistTrack[]> getPlaylistTracksMock(String playlistId, Integer offset) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("playlists", playlistId, "tracks");
+        if (offset != null) {
+            builder.queryParam("offset", offset).queryParam("limit", SpotifyPlaylistDetailsService.PAGE_SIZE);
+        }
+        return getMock(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, builder.build().toUri(), new ParameterizedTypeReference<List<Map<String, Object>>>() {
+        }).map(playlistDetailsService::convertMapListToPlaylistTrackArray);
+    }
+
+    private static int pageCount(int fetchedCount, int total) {
+        return Math.max(0, (total - fetchedCount + SpotifyPlaylistDetailsService.PAGE_SIZE - 1) / SpotifyPlaylistDetailsService.PAGE_SIZE);
+    }
+
+    /**
+     * 指定された位置以降のページを並行して取得する
+     * 同時に購読するページ数は concurrency 件までに制限し、結果はオフセット順に発行する
+     *
+     * @param fetchedCount 取得済みのトラック数 (最初のページを取得するオフセット)
+     * @param pageCount    取得するページ数
+     * @param pageFetcher  オフセットを指定して1ページ分のトラックを取得する関数
+     * @return オフセット順に並んだページ
+     */
+    private Flux<PlaylistTrack[]> fetchRemainingPages(int fetchedCount, int pageCount, Function<Integer, Mono<PlaylistTrack[]>> pageFetcher) {
+        return Flux.range(0, pageCount)
+                .doOnSubscribe(_ -> logger.debug("fetchRemainingPages: ページ取得開始, ページ数: {}, 最大同時リクエスト数: {}", pageCount, concurrency))
+                .map(page -> fetchedCount + page * SpotifyPlaylistDetailsService.PAGE_SIZE)
+                .flatMapSequential(pageFetcher, concurrency);
+    }
+
+    private static PlaylistSnapshot toSnapshot(String playlistId, PlaylistPages playlistPages, List<PlaylistTrack[]> pages) {
+        List<PlaylistTrack> allTracks = new ArrayList<>();
+        pages.forEach(items -> allTracks.addAll(Arrays.asList(items)));
+        logger.debug("toSnapshot: 全トラック取得完了, allTracks size: {}, pageFetchCount: {}", allTracks.size(), playlistPages.pageFetchCount());
+        return new PlaylistSnapshot(playlistId, playlistPages.playlist(), allTracks.toArray(new PlaylistTrack[0]), playlistPages.pageFetchCount());
+    }
+
+    /**
+     * 指定されたトラックIDのAudioFeaturesを取得する
+     * キャッシュに存在しないトラックのみを対象に、100曲ごとのチャンクを並行して取得する
+     * キャッシュ (Redis) の参照と格納はブロッキングのため、boundedElasticスケジューラで実行する
+     *
+     * @param trackIds トラックIDのリスト
+     * @return トラックIDとAudioFeaturesのマップ (取得できなかったトラックは含まない)
+     */
+    public Mono<Map<String, AudioFeatures>> getAudioFeatures(List<String> trackIds) {
+        if (trackIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        // モックモードでもキャッシュを経由し、チャンクの取得先のみを切り替える
+        Function<List<String>, Mono<Map<String, AudioFeatures>>> chunkFetcher = isMockMode() ? this::getAudioFeaturesChunkMock : this::getAudioFeaturesChunkReal;
+
+        return Mono.fromCallable(() -> audioFeaturesCache.getAll(trackIds))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(cached -> {
+                    List<String> missingIds = BatchUtil.missingIds(trackIds, cached);
+                    logger.debug("getAudioFeatures: キャッシュヒット数: {}, 上流API取得対象数: {}", cached.size(), missingIds.size());
+                    if (missingIds.isEmpty()) {
+                        return Mono.just(cached);
+                    }
+                    return fetchInChunks(missingIds, SpotifyTrackService.MAX_TRACKS_PER_REQUEST, chunkFetcher)
+                            .doOnNext(fetched -> Schedulers.boundedElastic().schedule(() -> audioFeaturesCache.putAll(fetched)))
+                            .map(fetched -> {
+                                Map<String, AudioFeatures> audioFeaturesById = new HashMap<>(cached);
+                                audioFeaturesById.putAll(fetched);
+                                return audioFeaturesById;
+                            });
+                });
+    }
+
+    private Mono<Map<String, AudioFeatures>> getAudioFeaturesChunkReal(List<String> trackIdsChunk) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .pathSegment("audio-features")
+                .queryParam("ids", String.join(",", trackIdsChunk))
+                .build()
+                .toUri();
+        return getJson(uri)
+                .map(json -> SpotifyTrackService.zipById(trackIdsChunk, Arrays.asList(new AudioFeatures.JsonUtil().createModelObjectArray(json, "audio_features"))));
+    }
+
+    private Mono<Map<String, AudioFeatures>> getAudioFeaturesChunkMock(List<String> trackIdsChunk) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("tracks", "audio-features")
+                .queryParam("trackIds", String.join(",", trackIdsChunk))
+                .build()
+                .toUri();
+        return getMock(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES, uri, new ParameterizedTypeReference<List<AudioFeatures>>() {
+        }).map(audioFeatures -> SpotifyTrackService.zipById(trackIdsChunk, audioFeatures));
+    }
+
+    /**
+     * 指定されたアーティストIDのジャンルを取得する
+     * キャッシュに存在しないアーティストのみを対象に、50件ごとのチャンクを並行して取得する
+     *
+     * @param artistIds アーティストIDのリスト
+     * @return アーティストIDとジャンルのリストのマップ
+     */
+    public Mono<Map<String, List<String>>> getArtistGenres(List<String> artistIds) {
+        if (artistIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        // モックモードでもキャッシュを経由し、チャンクの取得先のみを切り替える
+        Function<List<String>, Mono<Map<String, List<String>>>> chunkFetcher = isMockMode() ? this::getArtistGenresChunkMock : this::getArtistGenresChunkReal;
+
+        // アーティストのジャンルのキャッシュはプロセス内のみのため、イベントループ上で参照する
+        Map<String, List<String>> cached = artistGenreCache.getAll(artistIds);
+        List<String> missingIds = BatchUtil.missingIds(artistIds, cached);
+        logger.debug("getArtistGenres: キャッシュヒット数: {}, 上流API取得対象数: {}", cached.size(), missingIds.size());
+        if (missingIds.isEmpty()) {
+            return Mono.just(cached);
+        }
+        return fetchInChunks(missingIds, SpotifyArtistService.MAX_ARTISTS_PER_REQUEST, chunkFetcher)
+                .map(fetched -> {
+                    artistGenreCache.putFetched(missingIds, fetched);
+
+                    Map<String, List<String>> artistGenresMap = new HashMap<>(cached);
+                    artistGenresMap.putAll(fetched);
+                    return artistGenresMap;
+                });
+    }
+
+    private Mono<Map<String, List<String>>> getArtistGenresChunkReal(List<String> artistIdsChunk) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .pathSegment("artists")
+                .queryParam("ids", String.join(",", artistIdsChunk))
+                .build()
+                .toUri();
+        return getJson(uri)
+                .map(json -> SpotifyArtistService.toGenresById(new Artist.JsonUtil().createModelObjectArray(json, "artists")));
+    }
+
+    private Mono<Map<String, List<String>>> getArtistGenresChunkMock(List<String> artistIdsChunk) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("artists", "genres")
+                .queryParam("artistIds", String.join(",", artistIdsChunk))
+                .build()
+                .toUri();
+        return getMock(SpotifyRequestThrottle.EndpointClass.ARTISTS, uri, new ParameterizedTypeReference<>() {
+        });
+    }
+
+    /**
+     * IDのリストを指定された件数ごとのチャンクに分割し、並行して取得した結果を1つのマップにまとめる
+     * 同時に購読するチャンク数は concurrency 件までに制限する
+     */
+    private <V> Mono<Map<String, V>> fetchInChunks(List<String> ids, int chunkSize, Function<List<String>, Mono<Map<String, V>>> chunkFetcher) {
+        return Flux.fromIterable(BatchUtil.partition(ids, chunkSize))
+                .flatMapSequential(chunkFetcher, concurrency)
+                .collect(HashMap::new, Map::putAll);
+    }
+
+    /**
+     * Spotify APIにGETリクエストを送信し、レスポンスのJSONを返す
+     * 送信前に流量制限のトークンを取得し、アクセストークンは再試行のたびに最新のものを使用する
+     */
+    private Mono<String> getJson(URI uri) {
+        Mono<String> request = requestThrottle.acquireAsync("GET", uri)
+                .then(Mono.defer(() -> webClient.get()
+                        .uri(uri)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + spotifyApi.getAccessToken())
+                        .retrieve()
+                        .bodyToMono(String.class)));
+        return withRateLimitRetry(uri, request);
+    }
+
+    /**
+     * モックAPIにGETリクエストを送信する
+     * モックAPIのURIからは分類を判定できないため、呼び出し元が指定した分類で流量制限のトークンを取得する
+     */
+    private <T> Mono<T> getMock(SpotifyRequestThrottle.EndpointClass endpointClass, URI uri, ParameterizedTypeReference<T> type) {
+        logger.debug("getMock: WebClient GET リクエスト送信, URL: {}", uri);
+        Mono<T> request = requestThrottle.acquireAsync(endpointClass)
+                .then(Mono.defer(() -> webClient.get()
+                        .uri(uri)
+                        .retrieve()
+                        .bodyToMono(type)));
+        return withRateLimitRetry(uri, request);
+    }
+
+    /**
+     * レート制限の停止期間中は送信を遅延し、429を受け取った場合はRetry-Afterの期間だけ全体の送信を停止させてから再試行する
+     * 再試行の上限を超えた場合、および429以外のエラーは {@link InternalServerException} に変換する (404はそのまま返す)
+     */
+    private <T> Mono<T> withRateLimitRetry(URI uri, Mono<T> request) {
+        return Mono.defer(() -> {
+                    Duration pause = RetryUtil.getRateLimitCoordinator().getRemainingPause();
+                    return pause.isZero() ? request : Mono.delay(pause).then(request);
+                })
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    if (!(signal.failure() instanceof WebClientResponseException.TooManyRequests e) || signal.totalRetries() >= MAX_RETRIES) {
+                        return Mono.error(signal.failure());
+                    }
+                    Duration pause = RetryUtil.rateLimitPause(RetryUtil.parseRetryAfterSeconds(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)),
+                            RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS, signal.totalRetries());
+                    RetryUtil.getRateLimitCoordinator().pause(pause);
+                    logger.warn("TooManyRequests: {}ミリ秒後に再試行します... (試行回数: {}) URI: {}", pause.toMillis(), signal.totalRetries() + 1, uri);
+                    return Mono.delay(pause);
+                })))
+                .onErrorMap(e -> e instanceof WebClientResponseException && !(e instanceof WebClientResponseException.NotFound), e -> {
+                    logger.error("withRateLimitRetry: 上流APIの呼び出しに失敗しました。 URI: {}", uri, e);
+                    return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Spotify APIの呼び出し中にエラーが発生しました。", e);
+                });
+    }
+
+    private static ResourceNotFoundException playlistNotFound(Throwable e) {
+        return new ResourceNotFoundException(HttpStatus.NOT_FOUND, "指定されたプレイリストが見つかりません。");
+    }
+
+    private boolean isMockMode() {
+        return mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty();
+    }
+}
@@ -1,7 +1,10 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
-import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.service.cache.ArtistGenreCache;
+import com.github.oosm032519.playlistviewernext.util.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,26 +12,34 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.Artist;
 import se.michaelthelin.spotify.requests.data.artists.GetSeveralArtistsRequest;
 
+import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Spotify API を使用してアーティスト情報を取得するサービス
+ * 同じアーティストIDの取得が同時に要求された場合は、上流APIへのリクエストを1回にまとめる
+ * モックモードでも、キャッシュ・チャンク分割・並列取得・再試行は実APIと同じ処理を通る
  */
 @Service
 public class SpotifyArtistService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyArtistService.class);
+    static final int MAX_ARTISTS_PER_REQUEST = 50; // Spotify APIの制限
+    private static final ParameterizedTypeReference<Map<String, List<String>>> MOCK_ARTIST_GENRES_TYPE = new ParameterizedTypeReference<>() {
+    };
 
     private final SpotifyApi spotifyApi;
-    private final WebClient webClient;
+    private final MockApiClient mockApiClient;
+    private final ParallelFetchExecutor parallelFetchExecutor;
+    private final ArtistGenreCache artistGenreCache;
+    private final SingleFlight<String, List<String>> artistGenresFlight;
 
     @Value("${spotify.mock-api.url}")
     private String mockApiUrl;
@@ -37,9 +48,12 @@ public class SpotifyArtistService {
     private boolean mockEnabled;
 
     @Autowired
-    public SpotifyArtistService(SpotifyApi spotifyApi, WebClient.Builder webClientBuilder) {
+    public SpotifyArtistService(SpotifyApi spotifyApi, MockApiClient mockApiClient, ParallelFetchExecutor parallelFetchExecutor, ArtistGenreCache artistGenreCache, MeterRegistry meterRegistry) {
         this.spotifyApi = spotifyApi;
-        webClient = webClientBuilder.build();
+        this.mockApiClient = mockApiClient;
+        this.parallelFetchExecutor = parallelFetchExecutor;
+        this.artistGenreCache = artistGenreCache;
+        artistGenresFlight = new SingleFlight<>("artist-genres", meterRegistry);
     }
 
     /**
@@ -49,67 +63,74 @@ public class SpotifyArtistService {
      * @return アーティストIDとジャンルのリストのマップ
      */
     public Map<String, List<String>> getArtistGenres(List<String> artistIds) throws SpotifyWebApiException {
-        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
-            return getArtistGenresMock(artistIds);
-        } else {
-            return getArtistGenresReal(artistIds);
+        logger.info("Getting artist genres. Artist IDs: {}", artistIds);
+
+        // キャッシュに存在しないアーティストIDだけを上流APIから取得する
+        Map<String, List<String>> artistGenresMap = new HashMap<>(artistGenreCache.getAll(artistIds));
+        List<String> missingIds = BatchUtil.missingIds(artistIds, artistGenresMap);
+        logger.info("Artist genre cache hits: {}, misses: {}", artistGenresMap.size(), missingIds.size());
+        if (missingIds.isEmpty()) {
+            return artistGenresMap;
         }
+
+        // 他のリクエストが取得中のアーティストIDは、その結果を共有する
+        artistGenresMap.putAll(artistGenresFlight.executeAll(missingIds, this::fetchArtistGenres));
+        return artistGenresMap;
     }
 
-    public Map<String, List<String>> getArtistGenresMock(List<String> artistIds) {
-        logger.info("Getting artist genres using mock API. Artist IDs: {}", artistIds);
-
-        // WebClientを使用してモックAPIからデータを取得
-        Map<String, List<String>> response = webClient.get()
-                .uri(mockApiUrl + "/artists/genres", uriBuilder -> uriBuilder
-                        .queryParam("artistIds", String.join(",", artistIds))
-                        .build())
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, List<String>>>() {
-                })
-                .onErrorMap(WebClientResponseException.class, e -> {
-                    logger.error("Error calling mock API: {}", e.getResponseBodyAsString(), e);
-                    return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Error calling mock API", e);
-                })
-                .block();
-
-        return response;
+    /**
+     * 指定されたアーティストIDのジャンルを上流APIから取得し、キャッシュに格納する
+     *
+     * @param artistIds キャッシュに存在しないアーティストIDのリスト
+     * @return 上流APIが返したアーティストのIDとジャンルのリストのマップ
+     * @throws SpotifyWebApiException Spotify API 呼び出し時の例外
+     */
+    private Map<String, List<String>> fetchArtistGenres(List<String> artistIds) throws SpotifyWebApiException {
+        // アーティストIDのリストを50個以下のチャンクに分割し、各チャンクを並列にリクエスト
+        List<RetryUtil.RetryableOperation<Map<String, List<String>>>> chunkOperations = new ArrayList<>();
+        for (List<String> chunk : BatchUtil.partition(artistIds, MAX_ARTISTS_PER_REQUEST)) {
+            chunkOperations.add(() -> getArtistGenresChunk(chunk));
+        }
+
+        Map<String, List<String>> fetched = new HashMap<>();
+        for (Map<String, List<String>> chunkGenres : parallelFetchExecutor.invokeAll(chunkOperations, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS)) {
+            chunkGenres.forEach(fetched::putIfAbsent);
+        }
+
+        artistGenreCache.putFetched(artistIds, fetched);
+        return fetched;
     }
 
-    public Map<String, List<String>> getArtistGenresReal(List<String> artistIds) throws SpotifyWebApiException {
-        logger.info("Getting artist genres using real API. Artist IDs: {}", artistIds);
-
-        return RetryUtil.executeWithRetry(() -> {
-            try {
-                // アーティストIDのリストを50個以下のチャンクに分割
-                List<List<String>> artistIdChunks = new ArrayList<>();
-                for (int i = 0; i < artistIds.size(); i += 50) {
-                    artistIdChunks.add(artistIds.subList(i, Math.min(i + 50, artistIds.size())));
-                }
-
-                // 各チャンクに対して GetSeveralArtistsRequest を実行
-                Map<String, List<String>> artistGenresMap = new HashMap<>();
-                for (List<String> chunk : artistIdChunks) {
-                    Artist[] artists = getArtists(chunk);
-                    artistGenresMap.putAll(Arrays.stream(artists)
-                            .collect(Collectors.toMap(Artist::getId, artist -> List.of(artist.getGenres()))));
-                }
-
-                return artistGenresMap;
-            } catch (SpotifyWebApiException e) {
-                // SpotifyWebApiException はそのまま再スロー
-                logger.error("Spotify API エラー: {}", e.getMessage(), e);
-                throw e;
-            } catch (Exception e) {
-                // その他の例外は InternalServerException にラップしてスロー
-                logger.error("アーティスト情報の取得中にエラーが発生しました。 artistIds: {}", artistIds, e);
-                throw new InternalServerException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "アーティスト情報の取得中にエラーが発生しました。",
-                        e
-                );
-            }
-        }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+    /**
+     * 50個以下のアーティストIDに対応するアーティストのジャンルを1回のリクエストで取得する
+     * 再試行は呼び出し元の {@link ParallelFetchExecutor#invokeAll(List, int, long)} が行う
+     *
+     * @param chunk 50個以下のアーティストIDのリスト
+     * @return 上流APIが返したアーティストのIDとジャンルのリストのマップ
+     * @throws SpotifyWebApiException Spotify API 呼び出し時の例外
+     */
+    private Map<String, List<String>> getArtistGenresChunk(List<String> chunk) throws SpotifyWebApiException {
+        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
+            return getArtistGenresChunkMock(chunk);
+        }
+        try {
+            return toGenresById(getArtists(chunk));
+        } catch (SpotifyWebApiException e) {
+            // SpotifyWebApiException はそのまま再スロー
+            logger.error("Spotify API エラー: {}", e.getMessage(), e);
+            throw e;
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            // その他の例外は InternalServerException にラップしてスロー
+            logger.error("アーティスト情報の取得中にエラーが発生しました。 artistIds: {}", chunk, e);
+            throw new InternalServerException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "アーティスト情報の取得中にエラーが発生しました。",
+                    e
+            );
+        }
     }
 
     /**
@@ -123,4 +144,36 @@ public class SpotifyArtistService {
         GetSeveralArtistsRequest getSeveralArtistsRequest = spotifyApi.getSeveralArtists(artistIds.toArray(new String[0])).build();
         return getSeveralArtistsRequest.execute();
     }
+
+    /**
+     * 上流APIが返したアーティストを、アーティストIDとジャンルのリストのマップに変換する
+     * 存在しないアーティストの要素 (null) は含めず、ジャンルを持たないアーティストは空のリストとする
+     *
+     * @param artists 上流APIが返したアーティストの配列
+     * @return アーティストIDとジャンルのリストのマップ
+     */
+    static Map<String, List<String>> toGenresById(Artist[] artists) {
+        return Arrays.stream(artists)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Artist::getId, artist -> artist.getGenres() != null ? List.of(artist.getGenres()) : List.<String>of(), (first, _) -> first));
+    }
+
+    /**
+     * 50個以下のアーティストIDに対応するアーティストのジャンルをモックAPIから1回のリクエストで取得する
+     *
+     * @param chunk 50個以下のアーティストIDのリスト
+     * @return アーティストIDとジャンルのリストのマップ
+     * @throws SpotifyWebApiException モックAPIがエラーを返した場合
+     */
+    private Map<String, List<String>> getArtistGenresChunkMock(List<String> chunk) throws SpotifyWebApiException {
+        logger.info("Getting artist genres using mock API. Artist IDs: {}", chunk);
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .path("/artists/genres")
+                .queryParam("artistIds", String.join(",", chunk))
+                .encode()
+                .build()
+                .toUri();
+        Map<String, List<String>> response = mockApiClient.get(SpotifyRequestThrottle.EndpointClass.ARTISTS, uri, MOCK_ARTIST_GENRES_TYPE);
+        return response != null ? response : Map.of();
+    }
 }
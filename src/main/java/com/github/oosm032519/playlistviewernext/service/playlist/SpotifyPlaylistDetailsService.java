@@ -2,8 +2,14 @@ package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
 import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.util.DiagnosticLog;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,19 +17,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.*;
 import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistRequest;
 import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistsItemsRequest;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Spotifyのプレイリストの詳細情報を取得するサービスクラス
@@ -33,10 +39,17 @@ import java.util.Map;
 public class SpotifyPlaylistDetailsService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyPlaylistDetailsService.class);
+    static final int PAGE_SIZE = 100; // Spotify APIの1ページあたりの最大取得件数
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MOCK_PLAYLIST_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> MOCK_TRACKS_TYPE = new ParameterizedTypeReference<>() {
+    };
 
     private final SpotifyApi spotifyApi;
-    private final WebClient webClient;
+    private final MockApiClient mockApiClient;
     private final ObjectMapper objectMapper;
+    private final ParallelFetchExecutor parallelFetchExecutor;
 
     @Value("${spotify.mock-api.url}")
     private String mockApiUrl;
@@ -45,11 +58,12 @@ public class SpotifyPlaylistDetailsService {
     private boolean mockEnabled;
 
     @Autowired
-    public SpotifyPlaylistDetailsService(SpotifyApi spotifyApi, WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public SpotifyPlaylistDetailsService(SpotifyApi spotifyApi, MockApiClient mockApiClient, ObjectMapper objectMapper, ParallelFetchExecutor parallelFetchExecutor) {
         logger.info("SpotifyPlaylistDetailsService constructor started.");
         this.spotifyApi = spotifyApi;
-        webClient = webClientBuilder.build();
+        this.mockApiClient = mockApiClient;
         this.objectMapper = objectMapper;
+        this.parallelFetchExecutor = parallelFetchExecutor;
         logger.info("SpotifyPlaylistDetailsService constructor finished.");
     }
 
@@ -61,19 +75,19 @@ public class SpotifyPlaylistDetailsService {
      * @throws ResourceNotFoundException プレイリストが見つからない場合
      */
     public PlaylistTrack[] getPlaylistTracks(String playlistId) throws SpotifyWebApiException {
-        logger.info("getPlaylistTracks: playlistId: {}", playlistId);
+        logger.debug("getPlaylistTracks: playlistId: {}", playlistId);
         if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
-            logger.info("getPlaylistTracks: モックAPIからトラック情報を取得");
-            return convertMapListToPlaylistTrackArray(getPlaylistTracksMock(playlistId)); // モックAPIからの返り値を変換
+            logger.debug("getPlaylistTracks: モックAPIからトラック情報を取得");
+            return getPlaylistSnapshotMock(playlistId).getTracks();
         } else {
-            logger.info("getPlaylistTracks: Spotify APIからトラック情報を取得");
+            logger.debug("getPlaylistTracks: Spotify APIからトラック情報を取得");
             return getPlaylistTracksReal(playlistId);
         }
     }
 
-    // List<Map<String, Object>> を PlaylistTrack[] に変換する
-    private PlaylistTrack[] convertMapListToPlaylistTrackArray(List<Map<String, Object>> mapList) {
-        logger.info("convertMapListToPlaylistTrackArray: mapList size: {}", mapList != null ? mapList.size() : 0);
+    // List<Map<String, Object>> を PlaylistTrack[] に変換する (ReactiveSpotifyClient のモックモードでも使用する)
+    PlaylistTrack[] convertMapListToPlaylistTrackArray(List<Map<String, Object>> mapList) {
+        logger.debug("convertMapListToPlaylistTrackArray: mapList size: {}", mapList != null ? mapList.size() : 0);
         if (mapList == null) {
             return new PlaylistTrack[0];
         }
@@ -84,112 +98,187 @@ public class SpotifyPlaylistDetailsService {
 
             // Track オブジェクトを生成
             Track track = objectMapper.convertValue(trackMap, Track.class);
-            logger.debug("convertMapListToPlaylistTrackArray: Track オブジェクト生成: {}", track);
-
 
             // PlaylistTrack オブジェクトを生成
             PlaylistTrack.Builder playlistTrackBuilder = new PlaylistTrack.Builder();
             playlistTrackBuilder.setTrack(track);
 
             playlistTracks[i] = playlistTrackBuilder.build();
-            logger.debug("convertMapListToPlaylistTrackArray: PlaylistTrack オブジェクト生成: {}", playlistTracks[i]);
+            DiagnosticLog.payload("convertMapListToPlaylistTrackArray", "playlistTrack", playlistTracks[i]);
         }
-        logger.info("convertMapListToPlaylistTrackArray: PlaylistTrack 変換完了, playlistTracks size: {}", playlistTracks.length);
+        logger.debug("convertMapListToPlaylistTrackArray: PlaylistTrack 変換完了, playlistTracks size: {}", playlistTracks.length);
 
         return playlistTracks;
     }
 
-    private List<Map<String, Object>> getPlaylistTracksMock(String playlistId) {
-        logger.info("getPlaylistTracksMock: playlistId: {}", playlistId);
-        logger.info("getPlaylistTracksMock: mockApiUrl: {}", mockApiUrl);
-        logger.info("getPlaylistTracksMock: WebClient GET リクエスト送信, URL: {}/playlists/{}/tracks", mockApiUrl, playlistId);
-
+    /**
+     * モックAPIからプレイリスト情報と全トラックを取得し、スナップショットとして返すメソッド
+     * モックAPIがトラックの総数 (totalTracks) を返す場合は、実APIと同様にoffsetとlimitを指定してページ単位で並列に取得する
+     * 返さない場合は1回のリクエストで全トラックを取得する
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリスト情報と全トラックを保持するスナップショット
+     */
+    private PlaylistSnapshot getPlaylistSnapshotMock(String playlistId) throws SpotifyWebApiException {
+        Map<String, Object> response = getPlaylistMockResponse(playlistId);
+        Playlist playlist = convertMapToPlaylist(response);
+        if (!(response.get("totalTracks") instanceof Number totalTracks)) {
+            PlaylistTrack[] tracks = RetryUtil.executeWithRetry(() -> getPlaylistTracksMockPage(playlistId, null), 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+            return new PlaylistSnapshot(playlistId, playlist, tracks, 2);
+        }
 
-        // WebClientを使用してモックAPIからデータを取得
-        List<Map<String, Object>> tracks = null;
-        try {
-            tracks = webClient.get() // List<Map<String, Object>> を取得
-                    .uri(mockApiUrl + "/playlists/{playlistId}/tracks", playlistId)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() { // TypeReference を List<Map<String, Object>> に変更
-                    })
-                    .onErrorMap(WebClientResponseException.class, e -> {
-                        logger.error("getPlaylistTracksMock: Mock API 呼び出しエラー: {}", e.getResponseBodyAsString(), e);
-                        return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Error calling mock API", e);
-                    })
-                    .block();
-            logger.info("getPlaylistTracksMock: Mock API レスポンス受信, tracks size: {}", tracks != null ? tracks.size() : 0);
-            logger.debug("getPlaylistTracksMock: Mock API レスポンス内容: {}", tracks);
-
-        } catch (WebClientRequestException e) {
-            logger.error("getPlaylistTracksMock: WebClientRequestException: ", e);
-            throw e;
-        } catch (Exception e) {
-            logger.error("getPlaylistTracksMock: 予期せぬエラー: ", e);
-            throw e;
+        List<RetryUtil.RetryableOperation<PlaylistTrack[]>> pageOperations = new ArrayList<>();
+        for (int offset = 0; offset < totalTracks.intValue(); offset += PAGE_SIZE) {
+            int pageOffset = offset;
+            pageOperations.add(() -> getPlaylistTracksMockPage(playlistId, pageOffset));
         }
+        logger.debug("getPlaylistSnapshotMock: ページネーション処理開始, ページ数: {}, 最大同時リクエスト数: {}", pageOperations.size(), parallelFetchExecutor.getConcurrency());
 
+        List<PlaylistTrack> allTracks = new ArrayList<>(totalTracks.intValue());
+        for (PlaylistTrack[] items : parallelFetchExecutor.invokeAll(pageOperations, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS)) {
+            allTracks.addAll(Arrays.asList(items));
+        }
+        return new PlaylistSnapshot(playlistId, playlist, allTracks.toArray(new PlaylistTrack[0]), 1 + pageOperations.size());
+    }
 
-        return tracks;
+    /**
+     * モックAPIからプレイリストのトラックを取得するメソッド
+     * 再試行は呼び出し元が行う
+     *
+     * @param playlistId プレイリストのID
+     * @param offset     取得開始位置 (nullの場合は全トラックを取得する)
+     * @return トラックの配列
+     */
+    private PlaylistTrack[] getPlaylistTracksMockPage(String playlistId, Integer offset) throws SpotifyWebApiException {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("playlists", playlistId, "tracks");
+        if (offset != null) {
+            uri.queryParam("offset", offset).queryParam("limit", PAGE_SIZE);
+        }
+        List<Map<String, Object>> tracks = mockApiClient.get(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, uri.build().toUri(), MOCK_TRACKS_TYPE);
+        logger.debug("getPlaylistTracksMockPage: Mock API レスポンス受信, offset: {}, tracks size: {}", offset, tracks != null ? tracks.size() : 0);
+        DiagnosticLog.payload("getPlaylistTracksMockPage", "tracks", tracks);
+        return convertMapListToPlaylistTrackArray(tracks);
     }
 
     public PlaylistTrack[] getPlaylistTracksReal(String playlistId) throws SpotifyWebApiException {
-        logger.info("getPlaylistTracksReal: playlistId: {}", playlistId);
+        logger.debug("getPlaylistTracksReal: playlistId: {}", playlistId);
+        return getPlaylistSnapshotReal(playlistId).getTracks();
+    }
 
-        return RetryUtil.executeWithRetry(() -> {
-            try {
-                Playlist playlist = getPlaylist(playlistId);
-                if (playlist == null) {
-                    throw new ResourceNotFoundException(
-                            HttpStatus.NOT_FOUND,
-                            "指定されたプレイリストが見つかりません。"
-                    );
-                }
-
-                // 最初の100曲を追加
-                List<PlaylistTrack> allTracks = new ArrayList<>(Arrays.asList(playlist.getTracks().getItems()));
-                logger.info("getPlaylistTracksReal: 最初の100曲を取得, allTracks size: {}", allTracks.size());
-
-
-                int offset = 100;
-                int limit = 100;
-
-                // 全曲取得するまで繰り返す
-                while (allTracks.size() < playlist.getTracks().getTotal()) {
-                    logger.info("getPlaylistTracksReal: ページネーション処理開始, offset: {}, limit: {}", offset, limit);
-                    GetPlaylistsItemsRequest getPlaylistsItemsRequest = spotifyApi
-                            .getPlaylistsItems(playlistId)
-                            .limit(limit)
-                            .offset(offset)
-                            .build();
-                    Paging<PlaylistTrack> playlistTracks = getPlaylistsItemsRequest.execute();
-                    List<PlaylistTrack> items = Arrays.asList(playlistTracks.getItems());
-                    logger.info("getPlaylistTracksReal: ページネーションレスポンス受信, items size: {}", items.size());
-                    allTracks.addAll(items);
-                    offset += limit;
-                    logger.info("getPlaylistTracksReal: ページネーション処理完了, allTracks size: {}", allTracks.size());
-                }
-
-                logger.info("getPlaylistTracksReal: 全トラック取得完了, allTracks size: {}", allTracks.size());
-                return allTracks.toArray(new PlaylistTrack[0]);
-            } catch (ResourceNotFoundException e) {
-                // ResourceNotFoundException はそのまま再スロー
-                logger.warn("getPlaylistTracksReal: ResourceNotFoundException: {}", e.getMessage());
-                throw e;
-            } catch (SpotifyWebApiException e) {
-                // SpotifyWebApiException はそのまま再スロー
-                logger.error("getPlaylistTracksReal: SpotifyWebApiException: {}", e.getMessage(), e);
-                throw e;
-            } catch (Exception e) {
-                logger.error("getPlaylistTracksReal: トラック情報の取得中にエラーが発生しました。 playlistId: {}", playlistId, e);
-                logger.error("getPlaylistTracksReal: エラー詳細: ", e);
-                throw new InternalServerException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "トラック情報の取得中にエラーが発生しました。",
-                        e
+    /**
+     * 指定されたプレイリストIDのプレイリスト情報と全トラックを一度だけ取得し、スナップショットとして返すメソッド
+     * 詳細取得リクエスト内の各分析処理は、このスナップショットを共有してトラック一覧の再取得を避ける
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリスト情報と全トラックを保持するスナップショット
+     * @throws ResourceNotFoundException プレイリストが見つからない場合
+     */
+    public PlaylistSnapshot getPlaylistSnapshot(String playlistId) throws SpotifyWebApiException {
+        logger.debug("getPlaylistSnapshot: playlistId: {}", playlistId);
+        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
+            logger.debug("getPlaylistSnapshot: モックAPIからスナップショットを取得");
+            return getPlaylistSnapshotMock(playlistId);
+        } else {
+            logger.debug("getPlaylistSnapshot: Spotify APIからスナップショットを取得");
+            return getPlaylistSnapshotReal(playlistId);
+        }
+    }
+
+    private PlaylistSnapshot getPlaylistSnapshotReal(String playlistId) throws SpotifyWebApiException {
+        // 上流APIへのページ取得回数
+        AtomicInteger pageFetchCount = new AtomicInteger();
+
+        // 再試行はリクエスト単位 (最初のページは getPlaylistReal、残りのページは invokeAll) でのみ行い、
+        // 1ページの失敗でプレイリスト全体を再取得しない
+        try {
+            Playlist playlist = getPlaylist(playlistId);
+            pageFetchCount.incrementAndGet();
+            if (playlist == null) {
+                throw new ResourceNotFoundException(
+                        HttpStatus.NOT_FOUND,
+                        "指定されたプレイリストが見つかりません。"
                 );
             }
-        }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS); // 最大3回再試行、初期間隔は RetryUtil のデフォルト値
+
+            // 最初の100曲を追加
+            List<PlaylistTrack> allTracks = new ArrayList<>(Arrays.asList(playlist.getTracks().getItems()));
+            logger.debug("getPlaylistSnapshotReal: 最初の100曲を取得, allTracks size: {}", allTracks.size());
+
+            // 最初のレスポンスに含まれる総数から残りのオフセットを算出し、並列に取得する
+            List<RetryUtil.RetryableOperation<PlaylistTrack[]>> pageOperations = new ArrayList<>();
+            for (int offset = allTracks.size(); offset < playlist.getTracks().getTotal(); offset += PAGE_SIZE) {
+                int pageOffset = offset;
+                pageOperations.add(() -> {
+                    PlaylistTrack[] items = fetchPlaylistTracksPage(playlistId, pageOffset);
+                    pageFetchCount.incrementAndGet();
+                    return items;
+                });
+            }
+            logger.debug("getPlaylistSnapshotReal: ページネーション処理開始, ページ数: {}, 最大同時リクエスト数: {}", pageOperations.size(), parallelFetchExecutor.getConcurrency());
+
+            // 結果はオフセット順に並んで返される。各ページは個別に最大3回再試行する
+            for (PlaylistTrack[] items : parallelFetchExecutor.invokeAll(pageOperations, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS)) {
+                allTracks.addAll(Arrays.asList(items));
+            }
+
+            logger.debug("getPlaylistSnapshotReal: 全トラック取得完了, allTracks size: {}, pageFetchCount: {}", allTracks.size(), pageFetchCount.get());
+            return new PlaylistSnapshot(playlistId, playlist, allTracks.toArray(new PlaylistTrack[0]), pageFetchCount.get());
+        } catch (ResourceNotFoundException e) {
+            // ResourceNotFoundException はそのまま再スロー
+            logger.warn("getPlaylistSnapshotReal: ResourceNotFoundException: {}", e.getMessage());
+            throw e;
+        } catch (SpotifyWebApiException e) {
+            // SpotifyWebApiException はそのまま再スロー
+            logger.error("getPlaylistSnapshotReal: SpotifyWebApiException: {}", e.getMessage(), e);
+            throw e;
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("getPlaylistSnapshotReal: トラック情報の取得中にエラーが発生しました。 playlistId: {}", playlistId, e);
+            throw new InternalServerException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "トラック情報の取得中にエラーが発生しました。",
+                    e
+            );
+        }
+    }
+
+    /**
+     * 指定されたオフセットからプレイリストのトラックを1ページ分取得するメソッド
+     * 再試行は呼び出し元の {@link ParallelFetchExecutor#invokeAll(List, int, long)} が行う
+     *
+     * @param playlistId プレイリストのID
+     * @param offset     取得開始位置
+     * @return 1ページ分のトラックの配列
+     */
+    private PlaylistTrack[] fetchPlaylistTracksPage(String playlistId, int offset) throws SpotifyWebApiException {
+        try {
+            logger.debug("fetchPlaylistTracksPage: playlistId: {}, offset: {}, limit: {}", playlistId, offset, PAGE_SIZE);
+            GetPlaylistsItemsRequest getPlaylistsItemsRequest = spotifyApi
+                    .getPlaylistsItems(playlistId)
+                    .limit(PAGE_SIZE)
+                    .offset(offset)
+                    .build();
+            Paging<PlaylistTrack> playlistTracks = getPlaylistsItemsRequest.execute();
+            logger.debug("fetchPlaylistTracksPage: ページネーションレスポンス受信, offset: {}, items size: {}", offset, playlistTracks.getItems().length);
+            return playlistTracks.getItems();
+        } catch (SpotifyWebApiException e) {
+            // SpotifyWebApiException はそのまま再スロー
+            logger.error("fetchPlaylistTracksPage: SpotifyWebApiException: {}", e.getMessage(), e);
+            throw e;
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
+        } catch (Exception e) {
+            logger.error("fetchPlaylistTracksPage: トラック情報の取得中にエラーが発生しました。 playlistId: {}, offset: {}", playlistId, offset, e);
+            throw new InternalServerException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "トラック情報の取得中にエラーが発生しました。",
+                    e
+            );
+        }
     }
 
     /**
@@ -199,43 +288,82 @@ public class SpotifyPlaylistDetailsService {
      * @return プレイリスト情報、見つからない場合は null
      */
     public Playlist getPlaylist(String playlistId) throws SpotifyWebApiException {
-        logger.info("getPlaylist: playlistId: {}", playlistId);
+        logger.debug("getPlaylist: playlistId: {}", playlistId);
         if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
-            logger.info("getPlaylist: モックAPIからプレイリスト情報を取得");
+            logger.debug("getPlaylist: モックAPIからプレイリスト情報を取得");
             return getPlaylistMock(playlistId);
         } else {
-            logger.info("getPlaylist: Spotify APIからプレイリスト情報を取得");
+            logger.debug("getPlaylist: Spotify APIからプレイリスト情報を取得");
             return getPlaylistReal(playlistId);
         }
     }
 
-    public Playlist getPlaylistMock(String playlistId) {
-        logger.info("getPlaylistMock: playlistId: {}", playlistId);
-        logger.info("getPlaylistMock: mockApiUrl: {}", mockApiUrl);
-        logger.info("getPlaylistMock: WebClient GET リクエスト送信, URL: {}/playlists/{}", mockApiUrl, playlistId);
-
-        // WebClientを使用してモックAPIからデータを取得
-        Map<String, Object> response = null;
-        try {
-            response = webClient.get()
-                    .uri(mockApiUrl + "/playlists/{playlistId}", playlistId)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .onErrorMap(WebClientResponseException.class, e -> {
-                        logger.error("getPlaylistMock: Mock API 呼び出しエラー: {}", e.getResponseBodyAsString(), e);
-                        return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Error calling mock API", e);
-                    })
-                    .block();
-            logger.info("getPlaylistMock: Mock API レスポンス受信, response: {}", response);
-            logger.debug("getPlaylistMock: Mock API レスポンス内容: {}", response);
-        } catch (WebClientRequestException e) {
-            logger.error("getPlaylistMock: WebClientRequestException: ", e);
-            throw e;
-        } catch (Exception e) {
-            logger.error("getPlaylistMock: 予期せぬエラー: ", e);
-            throw e;
+    /**
+     * 指定されたプレイリストIDの現在のsnapshot_idのみを取得するメソッド
+     * トラック一覧を含まない軽量なリクエストで、キャッシュされた詳細情報が最新かどうかの確認に使用する
+     *
+     * @param playlistId プレイリストのID
+     * @return プレイリストのsnapshot_id。モックモードの場合、またはプレイリストが見つからない場合は null
+     */
+    public String getPlaylistSnapshotId(String playlistId) throws SpotifyWebApiException {
+        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
+            // モックAPIはsnapshot_idを返さないため、キャッシュを使用しない
+            return null;
         }
 
+        return RetryUtil.executeWithRetry(() -> {
+            try {
+                GetPlaylistRequest getPlaylistRequest = spotifyApi.getPlaylist(playlistId)
+                        .fields("snapshot_id")
+                        .build();
+                Playlist playlist = getPlaylistRequest.execute();
+                String snapshotId = playlist != null ? playlist.getSnapshotId() : null;
+                logger.debug("getPlaylistSnapshotId: playlistId: {}, snapshotId: {}", playlistId, snapshotId);
+                return snapshotId;
+            } catch (SpotifyWebApiException e) {
+                // SpotifyWebApiException はそのまま再スロー
+                logger.error("getPlaylistSnapshotId: SpotifyWebApiException: {}", e.getMessage(), e);
+                throw e;
+            } catch (PlaylistViewerNextException e) {
+                // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+                throw e;
+            } catch (Exception e) {
+                logger.error("getPlaylistSnapshotId: プレイリスト情報の取得中にエラーが発生しました。 playlistId: {}", playlistId, e);
+                throw new InternalServerException(
+                        HttpStatus.INTERNAL_SERVER_ERROR,
+                        "プレイリスト情報の取得中にエラーが発生しました。",
+                        e
+                );
+            }
+        }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+    }
+
+    public Playlist getPlaylistMock(String playlistId) throws SpotifyWebApiException {
+        logger.debug("getPlaylistMock: playlistId: {}", playlistId);
+        return convertMapToPlaylist(getPlaylistMockResponse(playlistId));
+    }
+
+    private Map<String, Object> getPlaylistMockResponse(String playlistId) throws SpotifyWebApiException {
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .pathSegment("playlists", playlistId)
+                .build()
+                .toUri();
+        Map<String, Object> response = RetryUtil.executeWithRetry(
+                () -> mockApiClient.get(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, uri, MOCK_PLAYLIST_TYPE),
+                3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+        logger.debug("getPlaylistMock: Mock API レスポンス受信");
+        DiagnosticLog.payload("getPlaylistMock", "response", response);
+        return response;
+    }
+
+    /**
+     * モックAPIが返すプレイリスト情報のMapをPlaylistオブジェクトに変換する
+     * ReactiveSpotifyClient のモックモードでも使用する
+     *
+     * @param response モックAPIのレスポンス
+     * @return プレイリスト情報
+     */
+    Playlist convertMapToPlaylist(Map<String, Object> response) {
         // 取得したデータをPlaylistオブジェクトにマッピング
         Playlist.Builder builder = new Playlist.Builder();
         builder.setId((String) response.get("id"));
@@ -248,32 +376,36 @@ public class SpotifyPlaylistDetailsService {
             userBuilder.setId((String) ownerMap.get("id"));
             userBuilder.setDisplayName((String) ownerMap.get("displayName"));
             builder.setOwner(userBuilder.build());
-            logger.info("getPlaylistMock: ownerオブジェクト設定完了");
+            logger.debug("getPlaylistMock: ownerオブジェクト設定完了");
         } else {
             logger.warn("getPlaylistMock: ownerオブジェクトがnullです");
         }
 
         Playlist playlist = builder.build();
-        logger.info("getPlaylistMock: Playlist オブジェクト: {}", playlist);
-        logger.info("getPlaylistMock: Playlist オブジェクト生成完了");
+        DiagnosticLog.payload("getPlaylistMock", "playlist", playlist);
+        logger.debug("getPlaylistMock: Playlist オブジェクト生成完了");
 
         return playlist;
     }
 
     private Playlist getPlaylistReal(String playlistId) throws SpotifyWebApiException {
-        logger.info("getPlaylistReal: playlistId: {}", playlistId);
+        logger.debug("getPlaylistReal: playlistId: {}", playlistId);
 
         return RetryUtil.executeWithRetry(() -> {
             try {
-                logger.info("getPlaylistReal: Spotify API リクエスト送信, playlistId: {}", playlistId);
+                logger.debug("getPlaylistReal: Spotify API リクエスト送信, playlistId: {}", playlistId);
                 GetPlaylistRequest getPlaylistRequest = spotifyApi.getPlaylist(playlistId).build();
                 Playlist playlist = getPlaylistRequest.execute();
-                logger.info("getPlaylistReal: Spotify API レスポンス受信, playlist: {}", playlist);
+                logger.debug("getPlaylistReal: Spotify API レスポンス受信");
+                DiagnosticLog.payload("getPlaylistReal", "playlist", playlist);
                 return playlist;
             } catch (SpotifyWebApiException e) {
                 // SpotifyWebApiException はそのまま再スロー
                 logger.error("getPlaylistReal: SpotifyWebApiException: {}", e.getMessage(), e);
                 throw e;
+            } catch (PlaylistViewerNextException e) {
+                // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+                throw e;
             } catch (Exception e) {
                 logger.error("getPlaylistReal: プレイリスト情報の取得中にエラーが発生しました。 playlistId: {}", playlistId, e);
                 logger.error("getPlaylistReal: エラー詳細: ", e);
@@ -1,35 +1,52 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
-import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistSearchCache;
+import com.github.oosm032519.playlistviewernext.util.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.Paging;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistSimplified;
 import se.michaelthelin.spotify.requests.data.search.simplified.SearchPlaylistsRequest;
 
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Spotifyのプレイリスト検索機能を提供するサービスクラス。
  * SpotifyAPIを使用してプレイリストの検索を行い、結果をキャッシュする。
+ * キャッシュのソフトTTLを過ぎた結果はそのまま返し、バックグラウンドで再取得する (stale-while-revalidate)。
+ * キャッシュに存在しない同じ検索が同時に要求された場合は、Spotify APIへの検索を1回にまとめる。
  */
 @Service
 public class SpotifyPlaylistSearchService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyPlaylistSearchService.class);
 
+    private static final ParameterizedTypeReference<Map<String, Object>> MOCK_SEARCH_RESULT_TYPE = new ParameterizedTypeReference<>() {
+    };
+
     private final SpotifyApi spotifyApi;
-    private final WebClient webClient;
+    private final MockApiClient mockApiClient;
+    private final PlaylistSearchCache playlistSearchCache;
+    private final ParallelFetchExecutor parallelFetchExecutor;
+    private final SingleFlight<String, Map<String, Object>> searchFlight;
+
+    /**
+     * バックグラウンドで再取得中のキャッシュのキー
+     */
+    private final Set<String> revalidatingKeys = ConcurrentHashMap.newKeySet();
 
     /**
      * モックAPIサーバーのURL
@@ -46,19 +63,31 @@ public class SpotifyPlaylistSearchService {
     /**
      * SpotifyPlaylistSearchServiceのコンストラクタ。
      *
-     * @param spotifyApi       Spotify APIクライアントインスタンス
-     * @param webClientBuilder WebClientのビルダー
+     * @param spotifyApi            Spotify APIクライアントインスタンス
+     * @param mockApiClient         モックAPIのクライアント
+     * @param playlistSearchCache   検索結果のキャッシュ
+     * @param parallelFetchExecutor キャッシュの再取得に使用する実行基盤
+     * @param meterRegistry         メトリクスの登録先
      */
     @Autowired
-    public SpotifyPlaylistSearchService(SpotifyApi spotifyApi, WebClient.Builder webClientBuilder) {
+    public SpotifyPlaylistSearchService(SpotifyApi spotifyApi,
+                                        MockApiClient mockApiClient,
+                                        PlaylistSearchCache playlistSearchCache,
+                                        ParallelFetchExecutor parallelFetchExecutor,
+                                        MeterRegistry meterRegistry) {
         this.spotifyApi = spotifyApi;
-        webClient = webClientBuilder.build();
+        this.mockApiClient = mockApiClient;
+        this.playlistSearchCache = playlistSearchCache;
+        this.parallelFetchExecutor = parallelFetchExecutor;
+        searchFlight = new SingleFlight<>("playlist-search", meterRegistry);
     }
 
     /**
      * 指定されたクエリに基づいてSpotifyのプレイリストを検索する。
-     * 結果はキャッシュされ、同じパラメータでの再検索時にはキャッシュから返される。
-     * モックモードが有効で、かつモックAPIのURLが設定されている場合は、モックAPIサーバーからデータを取得する。
+     * キャッシュを優先し、キャッシュに存在しない場合はSpotify APIから取得してキャッシュに格納する。
+     * ソフトTTLを過ぎた結果はそのまま返し、同じキーの再取得が実行中でなければバックグラウンドで再取得する。
+     * 同じキーの検索が実行中の場合は、その結果を共有する。
+     * モックモードが有効で、かつモックAPIのURLが設定されている場合は、モックAPIサーバーからデータを取得する (キャッシュは同様に使用する)。
      *
      * @param query  検索クエリ文字列
      * @param offset 検索結果の開始位置（ページネーション用）
@@ -67,7 +96,56 @@ public class SpotifyPlaylistSearchService {
      * @throws SpotifyWebApiException Spotify APIでエラーが発生した場合
      */
     public Map<String, Object> searchPlaylists(String query, int offset, int limit) throws SpotifyWebApiException {
-        // モックモードが有効かつ、モックAPIのURLが設定されている場合のみモックAPIを呼び出す
+        Optional<PlaylistSearchCache.CachedSearchResult> cached = playlistSearchCache.get(query, offset, limit);
+        if (cached.isPresent()) {
+            if (cached.get().stale()) {
+                revalidateInBackground(query, offset, limit);
+            }
+            return cached.get().result();
+        }
+
+        return searchFlight.execute(PlaylistSearchCache.key(query, offset, limit), () -> {
+            Map<String, Object> result = searchPlaylistsUpstream(query, offset, limit);
+            playlistSearchCache.put(query, offset, limit, result);
+            return result;
+        });
+    }
+
+    /**
+     * ソフトTTLを過ぎた検索結果をバックグラウンドで再取得し、キャッシュを更新する。
+     *
+     * @param query  検索クエリ文字列
+     * @param offset 検索結果の開始位置（ページネーション用）
+     * @param limit  取得する結果の最大数
+     */
+    private void revalidateInBackground(String query, int offset, int limit) {
+        String key = PlaylistSearchCache.key(query, offset, limit);
+        if (!revalidatingKeys.add(key)) {
+            return;
+        }
+        parallelFetchExecutor.fork(() -> RequestPriority.callWith(RequestPriority.BACKGROUND, () -> {
+            try {
+                playlistSearchCache.put(query, offset, limit, searchPlaylistsUpstream(query, offset, limit));
+            } catch (SpotifyWebApiException | RuntimeException e) {
+                // 古い検索結果はTTLまで有効なため、次回の参照時に再度取得を試みる
+                logger.warn("検索結果のバックグラウンド再取得に失敗しました。 query: {}, offset: {}, limit: {}", query, offset, limit, e);
+            } finally {
+                revalidatingKeys.remove(key);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * モックモードが有効で、かつモックAPIのURLが設定されている場合はモックAPIサーバーから、それ以外はSpotify APIからプレイリストを検索する。
+     *
+     * @param query  検索クエリ文字列
+     * @param offset 検索結果の開始位置（ページネーション用）
+     * @param limit  取得する結果の最大数
+     * @return プレイリスト情報と総件数を含むMap
+     * @throws SpotifyWebApiException Spotify APIでエラーが発生した場合
+     */
+    private Map<String, Object> searchPlaylistsUpstream(String query, int offset, int limit) throws SpotifyWebApiException {
         if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
             return searchPlaylistsMock(query, offset, limit);
         } else {
@@ -77,24 +155,28 @@ public class SpotifyPlaylistSearchService {
 
     /**
      * モックAPIサーバーを使用してプレイリストを検索する。
+     * 実APIと同じく流量制限を通過させ、429を受け取った場合はRetry-Afterに従って再試行する。
      *
      * @param query  検索クエリ文字列
      * @param offset 検索結果の開始位置（ページネーション用）
      * @param limit  取得する結果の最大数
      * @return プレイリスト情報と総件数を含むMap
+     * @throws SpotifyWebApiException モックAPIがエラーを返した場合
      */
-    private Map<String, Object> searchPlaylistsMock(String query, int offset, int limit) {
-        logger.info("Searching playlists using mock API. Query: {}, Offset: {}, Limit: {}", query, offset, limit);
-
-        return webClient.get()
-                .uri(mockApiUrl + "/search/playlists?query={query}&offset={offset}&limit={limit}", query, offset, limit)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .onErrorMap(WebClientResponseException.class, e -> {
-                    logger.error("Error calling mock API: {}", e.getResponseBodyAsString(), e);
-                    return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Error calling mock API", e);
-                })
-                .block();
+    private Map<String, Object> searchPlaylistsMock(String query, int offset, int limit) throws SpotifyWebApiException {
+        logger.debug("Searching playlists using mock API. Query: {}, Offset: {}, Limit: {}", query, offset, limit);
+
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .path("/search/playlists")
+                .queryParam("query", query)
+                .queryParam("offset", offset)
+                .queryParam("limit", limit)
+                .encode()
+                .build()
+                .toUri();
+        return RetryUtil.executeWithRetry(
+                () -> mockApiClient.get(SpotifyRequestThrottle.EndpointClass.SEARCH, uri, MOCK_SEARCH_RESULT_TYPE),
+                3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
     }
 
     /**
@@ -107,7 +189,7 @@ public class SpotifyPlaylistSearchService {
      * @throws SpotifyWebApiException Spotify APIでエラーが発生した場合
      */
     private Map<String, Object> searchPlaylistsReal(String query, int offset, int limit) throws SpotifyWebApiException {
-        logger.info("Searching playlists using real API. Query: {}, Offset: {}, Limit: {}", query, offset, limit);
+        logger.debug("Searching playlists using real API. Query: {}, Offset: {}, Limit: {}", query, offset, limit);
 
         return RetryUtil.executeWithRetry(() -> {
             try {
@@ -1,12 +1,12 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.special.SnapshotResult;
 
@@ -15,10 +15,10 @@ public class SpotifyPlaylistTrackAdditionService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyPlaylistTrackAdditionService.class);
 
-    private final SpotifyApi spotifyApi;
+    private final SpotifyClientFactory spotifyClientFactory;
 
-    public SpotifyPlaylistTrackAdditionService(SpotifyApi spotifyApi) {
-        this.spotifyApi = spotifyApi;
+    public SpotifyPlaylistTrackAdditionService(SpotifyClientFactory spotifyClientFactory) {
+        this.spotifyClientFactory = spotifyClientFactory;
     }
 
     /**
@@ -33,9 +33,8 @@ public class SpotifyPlaylistTrackAdditionService {
     public SnapshotResult addTrackToPlaylist(String accessToken, String playlistId, String trackId) throws SpotifyWebApiException {
         return RetryUtil.executeWithRetry(() -> {
             try {
-                spotifyApi.setAccessToken(accessToken);
                 String trackUri = String.format("spotify:track:%s", trackId);
-                return spotifyApi.addItemsToPlaylist(playlistId, new String[]{trackUri})
+                return spotifyClientFactory.forAccessToken(accessToken).addItemsToPlaylist(playlistId, new String[]{trackUri})
                         .build()
                         .execute();
             } catch (SpotifyWebApiException e) {
@@ -1,5 +1,6 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.AuthenticationException;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.model.PlaylistTrackRemovalRequest;
@@ -31,7 +32,7 @@ public class SpotifyPlaylistTrackRemovalService {
     private static final Logger logger = LoggerFactory.getLogger(SpotifyPlaylistTrackRemovalService.class);
 
     @Autowired
-    private SpotifyApi spotifyApi;
+    private SpotifyClientFactory spotifyClientFactory;
 
     /**
      * プレイリストからトラックを削除する
@@ -51,7 +52,7 @@ public class SpotifyPlaylistTrackRemovalService {
             );
         }
 
-        spotifyApi.setAccessToken(accessToken);
+        SpotifyApi spotifyApi = spotifyClientFactory.forAccessToken(accessToken);
 
         String playlistId = request.getPlaylistId();
         String trackId = request.getTrackId();
@@ -1,7 +1,10 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
-import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.service.cache.AudioFeaturesCache;
+import com.github.oosm032519.playlistviewernext.util.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,30 +12,38 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
 import se.michaelthelin.spotify.requests.data.tracks.GetAudioFeaturesForSeveralTracksRequest;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Spotifyトラックに関連するサービスを提供するクラス
  * 複数トラックのAudioFeaturesを一度に取得する
+ * 同じトラックIDの取得が同時に要求された場合は、上流APIへのリクエストを1回にまとめる
+ * モックモードでも、キャッシュ・チャンク分割・並列取得・再試行は実APIと同じ処理を通る
  */
 @Service
 public class SpotifyTrackService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyTrackService.class);
-    private static final int MAX_TRACKS_PER_REQUEST = 100; // Spotify APIの制限
+    static final int MAX_TRACKS_PER_REQUEST = 100; // Spotify APIの制限
+    private static final ParameterizedTypeReference<List<AudioFeatures>> MOCK_AUDIO_FEATURES_TYPE = new ParameterizedTypeReference<>() {
+    };
 
     private final SpotifyApi spotifyApi;
-    private final WebClient webClient;
+    private final MockApiClient mockApiClient;
+    private final ParallelFetchExecutor parallelFetchExecutor;
+    private final AudioFeaturesCache audioFeaturesCache;
+    private final SingleFlight<String, AudioFeatures> audioFeaturesFlight;
 
     @Value("${spotify.mock-api.url}")
     private String mockApiUrl;
@@ -41,110 +52,148 @@ public class SpotifyTrackService {
     private boolean mockEnabled;
 
     @Autowired
-    public SpotifyTrackService(SpotifyApi spotifyApi, WebClient webClient) {
+    public SpotifyTrackService(SpotifyApi spotifyApi, MockApiClient mockApiClient, ParallelFetchExecutor parallelFetchExecutor, AudioFeaturesCache audioFeaturesCache, MeterRegistry meterRegistry) {
         logger.info("SpotifyTrackService constructor started. mockApiUrl: {}", mockApiUrl);
         this.spotifyApi = spotifyApi;
-        this.webClient = webClient;
+        this.mockApiClient = mockApiClient;
+        this.parallelFetchExecutor = parallelFetchExecutor;
+        this.audioFeaturesCache = audioFeaturesCache;
+        audioFeaturesFlight = new SingleFlight<>("audio-features", meterRegistry);
         logger.info("SpotifyTrackService constructor finished.");
     }
 
     /**
      * 指定されたトラックIDリストに対応するAudioFeaturesを取得する
-     * 100曲を超える場合は内部で分割してリクエストする
+     * キャッシュに存在しないトラックのみを対象に、100曲ごとに分割して各チャンクを並列にリクエストする
      *
      * @param trackIds 取得対象のトラックIDリスト
      * @return 指定されたトラックのAudioFeaturesリスト
      * @throws InternalServerException その他のエラーが発生した場合
      */
     public List<AudioFeatures> getAudioFeaturesForTracks(List<String> trackIds) throws SpotifyWebApiException {
-        logger.info("getAudioFeaturesForTracks: トラック数: {}", trackIds.size());
+        logger.debug("getAudioFeaturesForTracks: トラック数: {}", trackIds.size());
+        DiagnosticLog.payload("getAudioFeaturesForTracks", "trackIds", trackIds);
 
-        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
-            logger.info("getAudioFeaturesForTracks: モックAPIからAudioFeaturesを取得");
-            return getAudioFeaturesForTracksMock(trackIds);
-        } else {
-            logger.info("getAudioFeaturesForTracks: Spotify APIからAudioFeaturesを取得");
-            return getAudioFeaturesForTracksReal(trackIds);
+        // キャッシュに存在しないトラックIDだけを上流APIから取得する
+        Map<String, AudioFeatures> audioFeaturesById = new HashMap<>(audioFeaturesCache.getAll(trackIds));
+        List<String> missingIds = BatchUtil.missingIds(trackIds, audioFeaturesById);
+        logger.debug("getAudioFeaturesForTracks: キャッシュヒット数: {}, 上流API取得対象数: {}", audioFeaturesById.size(), missingIds.size());
+
+        if (!missingIds.isEmpty()) {
+            // 他のリクエストが取得中のトラックIDは、その結果を共有する
+            audioFeaturesById.putAll(audioFeaturesFlight.executeAll(missingIds, this::fetchAudioFeatures));
+        }
+
+        // 入力のトラックIDと同じ順序で返す (取得できなかったトラックはnull)
+        List<AudioFeatures> allAudioFeatures = new ArrayList<>(trackIds.size());
+        for (String trackId : trackIds) {
+            allAudioFeatures.add(audioFeaturesById.get(trackId));
         }
+
+        logger.debug("getAudioFeaturesForTracks: AudioFeatures取得完了, 合計 AudioFeatures 数: {}", allAudioFeatures.size());
+        return allAudioFeatures;
     }
 
-    private List<AudioFeatures> getAudioFeaturesForTracksMock(List<String> trackIds) {
-        logger.info("getAudioFeaturesForTracksMock: trackIds: {}", trackIds);
-        logger.info("getAudioFeaturesForTracksMock: mockApiUrl: {}", mockApiUrl);
-        logger.info("getAudioFeaturesForTracksMock: WebClient GET リクエスト送信, URL: {}/tracks/audio-features", mockApiUrl);
+    /**
+     * 指定されたトラックIDのAudioFeaturesを上流APIから取得し、キャッシュに格納する
+     * 100曲ずつ分割し、各チャンクを並列にリクエストする
+     *
+     * @param trackIds キャッシュに存在しないトラックIDのリスト
+     * @return トラックIDとAudioFeaturesのマップ (取得できなかったトラックは含まない)
+     * @throws SpotifyWebApiException Spotify API呼び出し時の例外
+     */
+    private Map<String, AudioFeatures> fetchAudioFeatures(List<String> trackIds) throws SpotifyWebApiException {
+        List<List<String>> chunks = BatchUtil.partition(trackIds, MAX_TRACKS_PER_REQUEST);
+        List<RetryUtil.RetryableOperation<AudioFeatures[]>> chunkOperations = new ArrayList<>(chunks.size());
+        for (List<String> trackIdsChunk : chunks) {
+            logger.debug("fetchAudioFeatures: トラックID分割処理, chunkSize: {}", trackIdsChunk.size());
+            chunkOperations.add(() -> getAudioFeaturesChunk(trackIdsChunk));
+        }
 
+        // 結果はチャンク順に並んで返されるため、各チャンクのトラックIDと位置で対応付ける
+        List<AudioFeatures[]> results = parallelFetchExecutor.invokeAll(chunkOperations, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS);
+        Map<String, AudioFeatures> fetched = new HashMap<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            fetched.putAll(zipById(chunks.get(i), Arrays.asList(results.get(i))));
+        }
+        audioFeaturesCache.putAll(fetched);
+        return fetched;
+    }
 
-        // WebClientを使用してモックAPIからデータを取得
-        List<AudioFeatures> audioFeatures = null;
+    /**
+     * リクエストしたトラックIDと、上流APIが同じ順序で返したAudioFeaturesを対応付ける
+     * AudioFeaturesが存在しないトラック (null) は含めない
+     *
+     * @param trackIds      リクエストしたトラックIDのリスト
+     * @param audioFeatures 上流APIが返したAudioFeaturesのリスト
+     * @return トラックIDとAudioFeaturesのマップ
+     */
+    static Map<String, AudioFeatures> zipById(List<String> trackIds, List<AudioFeatures> audioFeatures) {
+        Map<String, AudioFeatures> zipped = new HashMap<>();
+        for (int i = 0; i < Math.min(trackIds.size(), audioFeatures.size()); i++) {
+            if (audioFeatures.get(i) != null) {
+                zipped.put(trackIds.get(i), audioFeatures.get(i));
+            }
+        }
+        return zipped;
+    }
+
+    /**
+     * 100曲以下のトラックIDに対応するAudioFeaturesを1回のリクエストで取得する
+     * 再試行は呼び出し元の {@link ParallelFetchExecutor#invokeAll(List, int, long)} が行う
+     *
+     * @param trackIdsChunk 100曲以下のトラックIDリスト
+     * @return AudioFeaturesの配列
+     * @throws SpotifyWebApiException Spotify API呼び出し時の例外
+     */
+    private AudioFeatures[] getAudioFeaturesChunk(List<String> trackIdsChunk) throws SpotifyWebApiException {
+        if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
+            logger.debug("getAudioFeaturesChunk: モックAPIからAudioFeaturesを取得");
+            return getAudioFeaturesChunkMock(trackIdsChunk);
+        }
         try {
-            audioFeatures = webClient.get()
-                    .uri(mockApiUrl + "/tracks/audio-features", uriBuilder -> uriBuilder
-                            .queryParam("trackIds", String.join(",", trackIds))
-                            .build())
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<AudioFeatures>>() {
-                    })
-                    .onErrorMap(WebClientResponseException.class, e -> {
-                        logger.error("getAudioFeaturesForTracksMock: Mock API 呼び出しエラー: {}", e.getResponseBodyAsString(), e);
-                        return new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Error calling mock API", e);
-                    })
-                    .block();
-            logger.info("getAudioFeaturesForTracksMock: Mock API レスポンス受信, audioFeatures size: {}", audioFeatures != null ? audioFeatures.size() : 0);
-            logger.debug("getAudioFeaturesForTracksMock: Mock API レスポンス内容: {}", audioFeatures);
-
-        } catch (WebClientRequestException e) {
-            logger.error("getAudioFeaturesForTracksMock: WebClientRequestException: ", e);
+            // APIリクエスト
+            String ids = String.join(",", trackIdsChunk);
+            logger.debug("getAudioFeaturesChunk: Spotify API リクエスト送信, chunkSize: {}", trackIdsChunk.size());
+            DiagnosticLog.payload("getAudioFeaturesChunk", "trackIds", ids);
+            GetAudioFeaturesForSeveralTracksRequest request = spotifyApi.getAudioFeaturesForSeveralTracks(ids).build();
+            AudioFeatures[] audioFeaturesArray = request.execute();
+            logger.debug("getAudioFeaturesChunk: Spotify API レスポンス受信, audioFeaturesArray size: {}", audioFeaturesArray.length);
+            return audioFeaturesArray;
+        } catch (SpotifyWebApiException e) {
+            // SpotifyWebApiException はそのまま再スロー
+            logger.error("getAudioFeaturesChunk: SpotifyWebApiException: {}", e.getMessage(), e);
             throw e;
-        } catch (Exception e) {
-            logger.error("getAudioFeaturesForTracksMock: 予期せぬエラー: ", e);
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
             throw e;
+        } catch (Exception e) {
+            logger.error("getAudioFeaturesChunk: AudioFeaturesの取得中にエラーが発生しました。 trackIds: {}", trackIdsChunk, e);
+            throw new InternalServerException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "AudioFeaturesの取得中にエラーが発生しました。",
+                    e
+            );
         }
-
-
-        return audioFeatures;
     }
 
-    private List<AudioFeatures> getAudioFeaturesForTracksReal(List<String> trackIds) throws SpotifyWebApiException {
-        logger.info("getAudioFeaturesForTracksReal: trackIds: {}", trackIds);
-        return RetryUtil.executeWithRetry(() -> {
-            try {
-                List<AudioFeatures> allAudioFeatures = new ArrayList<>();
-
-                // 100曲ずつ分割してリクエスト
-                for (int i = 0; i < trackIds.size(); i += MAX_TRACKS_PER_REQUEST) {
-                    int endIndex = Math.min(i + MAX_TRACKS_PER_REQUEST, trackIds.size());
-                    List<String> trackIdsChunk = trackIds.subList(i, endIndex);
-                    logger.info("getAudioFeaturesForTracksReal: トラックID分割処理, chunk index: {}, chunkSize: {}", i / MAX_TRACKS_PER_REQUEST, trackIdsChunk.size());
-
-
-                    // APIリクエスト
-                    String ids = String.join(",", trackIdsChunk);
-                    logger.info("getAudioFeaturesForTracksReal: Spotify API リクエスト送信, trackIdsChunk: {}", ids);
-                    GetAudioFeaturesForSeveralTracksRequest request = spotifyApi.getAudioFeaturesForSeveralTracks(ids).build();
-                    AudioFeatures[] audioFeaturesArray = request.execute();
-                    List<AudioFeatures> features = Arrays.asList(audioFeaturesArray);
-                    logger.info("getAudioFeaturesForTracksReal: Spotify API レスポンス受信, audioFeaturesArray size: {}", features.size());
-
-
-                    allAudioFeatures.addAll(features);
-                    logger.info("getAudioFeaturesForTracksReal: AudioFeatures をリストに追加, allAudioFeatures size: {}", allAudioFeatures.size());
-                }
-
-                logger.info("getAudioFeaturesForTracksReal: AudioFeatures取得完了, 合計 AudioFeatures 数: {}", allAudioFeatures.size());
-                return allAudioFeatures;
-            } catch (SpotifyWebApiException e) {
-                // SpotifyWebApiException はそのまま再スロー
-                logger.error("getAudioFeaturesForTracksReal: SpotifyWebApiException: {}", e.getMessage(), e);
-                throw e;
-            } catch (Exception e) {
-                logger.error("getAudioFeaturesForTracksReal: AudioFeaturesの取得中にエラーが発生しました。 trackIds: {}", trackIds, e);
-                logger.error("getAudioFeaturesForTracksReal: エラー詳細: ", e);
-                throw new InternalServerException(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "AudioFeaturesの取得中にエラーが発生しました。",
-                        e
-                );
-            }
-        }, 3, RetryUtil.DEFAULT_RETRY_INTERVAL_MILLIS); // 最大3回再試行、初期間隔は RetryUtil のデフォルト値
+    /**
+     * 100曲以下のトラックIDに対応するAudioFeaturesをモックAPIから1回のリクエストで取得する
+     *
+     * @param trackIdsChunk 100曲以下のトラックIDリスト
+     * @return リクエストしたトラックIDと同じ順序に並んだAudioFeaturesの配列
+     * @throws SpotifyWebApiException モックAPIがエラーを返した場合
+     */
+    private AudioFeatures[] getAudioFeaturesChunkMock(List<String> trackIdsChunk) throws SpotifyWebApiException {
+        URI uri = UriComponentsBuilder.fromHttpUrl(mockApiUrl)
+                .path("/tracks/audio-features")
+                .queryParam("trackIds", String.join(",", trackIdsChunk))
+                .encode()
+                .build()
+                .toUri();
+        List<AudioFeatures> audioFeatures = mockApiClient.get(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES, uri, MOCK_AUDIO_FEATURES_TYPE);
+        logger.debug("getAudioFeaturesChunkMock: Mock API レスポンス受信, audioFeatures size: {}", audioFeatures != null ? audioFeatures.size() : 0);
+        DiagnosticLog.payload("getAudioFeaturesChunkMock", "audioFeatures", audioFeatures);
+        return audioFeatures != null ? audioFeatures.toArray(new AudioFeatures[0]) : new AudioFeatures[0];
     }
 }
@@ -1,5 +1,6 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
 import org.slf4j.Logger;
@@ -34,17 +35,17 @@ public class SpotifyUserPlaylistCreationService {
     private static final String SPOTIFY_TRACK_URI_PREFIX = "spotify:track:";
 
     /**
-     * Spotify API クライアントインスタンス
+     * ユーザーのアクセストークンを持つSpotify APIクライアントを生成するファクトリ
      */
-    private final SpotifyApi spotifyApi;
+    private final SpotifyClientFactory spotifyClientFactory;
 
     /**
      * コンストラクタ。
      *
-     * @param spotifyApi Spotify APIクライアントインスタンス
+     * @param spotifyClientFactory Spotify APIクライアントのファクトリ
      */
-    public SpotifyUserPlaylistCreationService(SpotifyApi spotifyApi) {
-        this.spotifyApi = spotifyApi;
+    public SpotifyUserPlaylistCreationService(SpotifyClientFactory spotifyClientFactory) {
+        this.spotifyClientFactory = spotifyClientFactory;
     }
 
     /**
@@ -61,13 +62,13 @@ public class SpotifyUserPlaylistCreationService {
     public String createPlaylist(String accessToken, String userId, String playlistName, List<String> trackIds) throws SpotifyWebApiException {
         logMethodCall(accessToken, userId, playlistName, trackIds);
 
-        spotifyApi.setAccessToken(accessToken);
+        SpotifyApi spotifyApi = spotifyClientFactory.forAccessToken(accessToken);
 
         return RetryUtil.executeWithRetry(() -> {
             try {
                 // プレイリストを作成し、楽曲を追加
-                String playlistId = createSpotifyPlaylist(userId, playlistName);
-                addTracksToPlaylist(playlistId, trackIds);
+                String playlistId = createSpotifyPlaylist(spotifyApi, userId, playlistName);
+                addTracksToPlaylist(spotifyApi, playlistId, trackIds);
 
                 logger.info("プレイリストの作成が完了しました。");
                 return playlistId;
@@ -99,11 +100,12 @@ public class SpotifyUserPlaylistCreationService {
     /**
      * Spotify APIを使用して新しいプレイリストを作成する。
      *
+     * @param spotifyApi   ユーザーのアクセストークンを持つSpotifyApiインスタンス
      * @param userId       ユーザーID
      * @param playlistName プレイリスト名
      * @return 作成されたプレイリストのID
      */
-    private String createSpotifyPlaylist(String userId, String playlistName) throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
+    private String createSpotifyPlaylist(SpotifyApi spotifyApi, String userId, String playlistName) throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
         CreatePlaylistRequest createPlaylistRequest = spotifyApi.createPlaylist(userId, playlistName)
                 .public_(false)  // プライベートプレイリストとして作成
                 .build();
@@ -117,10 +119,11 @@ public class SpotifyUserPlaylistCreationService {
     /**
      * 指定されたプレイリストに楽曲を追加する。
      *
+     * @param spotifyApi ユーザーのアクセストークンを持つSpotifyApiインスタンス
      * @param playlistId プレイリストID
      * @param trackIds   追加する楽曲IDのリスト
      */
-    private void addTracksToPlaylist(String playlistId, List<String> trackIds) throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
+    private void addTracksToPlaylist(SpotifyApi spotifyApi, String playlistId, List<String> trackIds) throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
         if (trackIds.isEmpty()) {
             return;
         }
@@ -1,5 +1,6 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.AuthenticationException;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
@@ -35,7 +36,7 @@ public class SpotifyUserPlaylistsService {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyUserPlaylistsService.class);
 
-    private final SpotifyApi spotifyApi;
+    private final SpotifyClientFactory spotifyClientFactory;
     private final WebClient webClient;
 
     @Value("${spotify.mock-api.url}")
@@ -45,8 +46,8 @@ public class SpotifyUserPlaylistsService {
     private boolean mockEnabled;
 
     @Autowired
-    public SpotifyUserPlaylistsService(SpotifyApi spotifyApi, WebClient.Builder webClientBuilder) {
-        this.spotifyApi = spotifyApi;
+    public SpotifyUserPlaylistsService(SpotifyClientFactory spotifyClientFactory, WebClient.Builder webClientBuilder) {
+        this.spotifyClientFactory = spotifyClientFactory;
         webClient = webClientBuilder.build();
     }
 
@@ -97,9 +98,8 @@ public class SpotifyUserPlaylistsService {
                     );
                 }
 
-                // アクセストークンをSpotifyApiインスタンスにセット
-                spotifyApi.setAccessToken(spotifyAccessToken);
-                return getPlaylists();
+                // ユーザーのアクセストークンを持つSpotifyApiインスタンスを使用
+                return getPlaylists(spotifyClientFactory.forAccessToken(spotifyAccessToken));
             } catch (AuthenticationException e) {
                 // AuthenticationException はそのまま再スロー
                 throw e;
@@ -121,12 +121,13 @@ public class SpotifyUserPlaylistsService {
     /**
      * Spotify APIを使用してプレイリスト一覧を取得する
      *
+     * @param spotifyApi ユーザーのアクセストークンを持つSpotifyApiインスタンス
      * @return プレイリストの簡略情報のリスト
      * @throws IOException                             Spotify APIの呼び出し中にIOエラーが発生した場合
      * @throws SpotifyWebApiException                  Spotify APIの呼び出し中にエラーが発生した場合
      * @throws org.apache.hc.core5.http.ParseException Spotify APIのレスポンスのパース中にエラーが発生した場合
      */
-    private List<PlaylistSimplified> getPlaylists() throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
+    private List<PlaylistSimplified> getPlaylists(SpotifyApi spotifyApi) throws IOException, SpotifyWebApiException, org.apache.hc.core5.http.ParseException {
         GetListOfCurrentUsersPlaylistsRequest playlistsRequest = spotifyApi.getListOfCurrentUsersPlaylists()
                 .limit(50)
                 .build();
@@ -1,19 +1,23 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.util.DiagnosticLog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import se.michaelthelin.spotify.model_objects.IPlaylistItem;
 import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
 import se.michaelthelin.spotify.model_objects.specification.Track;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 public class TrackDataRetriever {
@@ -32,60 +36,69 @@ public class TrackDataRetriever {
     }
 
     /**
-     * プレイリストのトラック情報を取得し、リストとして返す
+     * プレイリストスナップショットのトラック情報とAudioFeaturesを取得し、行列として返す
+     *
+     * @param snapshot プレイリストのスナップショット
+     * @return トラックとAudioFeaturesの行列
+     */
+    public TrackFeatureMatrix getTrackFeatureMatrix(PlaylistSnapshot snapshot) {
+        return getTrackFeatureMatrix(snapshot.getTracks());
+    }
+
+    /**
+     * プレイリストのトラック情報とAudioFeaturesを取得し、行列として返す
      *
      * @param tracks プレイリストのトラック配列
-     * @return トラック情報のリスト
+     * @return トラックとAudioFeaturesの行列 (行の順序はトラック配列と一致する)
      */
-    public List<Map<String, Object>> getTrackListData(PlaylistTrack[] tracks) {
-        logger.info("getTrackListData: トラック数: {}", tracks != null ? tracks.length : 0);
+    public TrackFeatureMatrix getTrackFeatureMatrix(PlaylistTrack[] tracks) {
+        logger.debug("getTrackFeatureMatrix: トラック数: {}", tracks != null ? tracks.length : 0);
 
-        List<Map<String, Object>> trackList = new ArrayList<>();
         try {
             if (tracks == null) {
-                logger.warn("getTrackListData: tracks 配列が null です。");
-                return Collections.emptyList(); // 空のリストを返すか、例外処理を検討
+                logger.warn("getTrackFeatureMatrix: tracks 配列が null です。");
+                return TrackFeatureMatrix.empty();
             }
 
-            // 全てのトラックIDをリストアップ
-            List<String> trackIds = Arrays.stream(tracks)
-                    .map(PlaylistTrack::getTrack)
-                    .filter(Objects::nonNull) // null チェックを追加
-                    .map(IPlaylistItem::getId)
-                    .filter(Objects::nonNull) // null チェックを追加
-                    .collect(Collectors.toList());
-            logger.info("getTrackListData: トラックIDリスト作成完了, trackIds size: {}", trackIds.size());
-            logger.debug("getTrackListData: トラックIDリスト: {}", trackIds);
-
+            // 全てのトラックとトラックIDをリストアップ
+            Track[] fullTracks = new Track[tracks.length];
+            List<String> trackIds = new ArrayList<>(tracks.length);
+            List<Integer> rows = new ArrayList<>(tracks.length);
+            for (int i = 0; i < tracks.length; i++) {
+                // エピソードや削除済みの項目はトラックとして扱わず、行のトラックをnullのままにする
+                if (tracks[i] != null && tracks[i].getTrack() instanceof Track track) {
+                    fullTracks[i] = track;
+                    if (track.getId() != null) {
+                        trackIds.add(track.getId());
+                        rows.add(i);
+                    }
+                }
+            }
+            logger.debug("getTrackFeatureMatrix: トラックIDリスト作成完了, trackIds size: {}", trackIds.size());
+            DiagnosticLog.payload("getTrackFeatureMatrix", "trackIds", trackIds);
 
             // 全てのトラックのAudioFeaturesを一度に取得
-            logger.info("getTrackListData: AudioFeatures 取得開始, trackIds size: {}", trackIds.size());
+            logger.debug("getTrackFeatureMatrix: AudioFeatures 取得開始, trackIds size: {}", trackIds.size());
             List<AudioFeatures> audioFeaturesList = Collections.emptyList(); //初期化
             if (!trackIds.isEmpty()) {
                 audioFeaturesList = trackService.getAudioFeaturesForTracks(trackIds);
             }
-            logger.info("getTrackListData: AudioFeatures 取得完了, audioFeaturesList size: {}", audioFeaturesList.size());
+            logger.debug("getTrackFeatureMatrix: AudioFeatures 取得完了, audioFeaturesList size: {}", audioFeaturesList.size());
 
-            // トラック情報とAudioFeaturesをマッピング
-            logger.info("getTrackListData: トラック情報と AudioFeatures のマッピング開始");
-            for (int i = 0; i < tracks.length; i++) {
-                Map<String, Object> trackData = new HashMap<>();
-                Track fullTrack = (Track) tracks[i].getTrack();
-                AudioFeatures audioFeatures = i < audioFeaturesList.size() ? audioFeaturesList.get(i) : null;
-
-                trackData.put("track", fullTrack);
-                trackData.put("audioFeatures", audioFeatures);
-                trackList.add(trackData);
-                logger.debug("getTrackListData: トラックデータ追加, track: {}, audioFeatures: {}", fullTrack, audioFeatures);
+            // IDを持たないトラックを除いて取得しているため、AudioFeaturesをトラックの位置に対応付ける
+            List<AudioFeatures> alignedAudioFeatures = new ArrayList<>(Collections.nCopies(tracks.length, null));
+            for (int i = 0; i < rows.size() && i < audioFeaturesList.size(); i++) {
+                alignedAudioFeatures.set(rows.get(i), audioFeaturesList.get(i));
             }
-            logger.info("getTrackListData: トラック情報と AudioFeatures のマッピング完了, trackList size: {}", trackList.size());
-
 
-            logger.info("getTrackListData: トラックデータリスト作成完了");
-            return trackList;
+            TrackFeatureMatrix matrix = new TrackFeatureMatrix(fullTracks, alignedAudioFeatures);
+            logger.debug("getTrackFeatureMatrix: 行列作成完了, トラック数: {}, AudioFeatures数: {}", matrix.size(), matrix.getAudioFeaturesCount());
+            return matrix;
+        } catch (PlaylistViewerNextException e) {
+            // レート制限による破棄 (503) などのステータスを保持するため、アプリケーション例外はそのまま再スロー
+            throw e;
         } catch (Exception e) {
-            logger.error("getTrackListData: トラックデータの取得中にエラーが発生しました。", e);
-            logger.error("getTrackListData: エラー詳細: ", e);
+            logger.error("getTrackFeatureMatrix: トラックデータの取得中にエラーが発生しました。", e);
             throw new InternalServerException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
                     "トラックデータの取得中にエラーが発生しました。",
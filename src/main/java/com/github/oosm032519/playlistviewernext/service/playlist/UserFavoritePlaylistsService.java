@@ -63,6 +63,28 @@ public class UserFavoritePlaylistsService {
         }
     }
 
+    /**
+     * 指定されたユーザーIDのお気に入りプレイリストのバージョンを取得する
+     * お気に入りの追加・削除で変わる値であり、一覧のETagの作成に使用する
+     *
+     * @param userId ユーザーID
+     * @return お気に入りプレイリストのバージョン
+     * @throws DatabaseAccessException データベースアクセスエラーが発生した場合
+     */
+    public String getFavoritePlaylistsVersion(String userId) {
+        try {
+            UserFavoritePlaylistRepository.FavoritesVersion version = userFavoritePlaylistRepository.findVersionByUserId(userId);
+            return version.getFavoriteCount() + ":" + version.getMaxId();
+        } catch (Exception e) {
+            LOGGER.error("お気に入りプレイリストのバージョンの取得中にデータベースアクセスエラーが発生しました。 userId: {}", userId, e);
+            throw new DatabaseAccessException(
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    "お気に入りプレイリストのバージョンの取得中にデータベースアクセスエラーが発生しました。",
+                    e
+            );
+        }
+    }
+
     /**
      * UserFavoritePlaylistエンティティをFavoritePlaylistResponseモデルにマッピングする
      *
@@ -2,6 +2,7 @@ package com.github.oosm032519.playlistviewernext.service.recommendation;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureSetter;
+import com.github.oosm032519.playlistviewernext.util.DiagnosticLog;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +58,9 @@ public class SpotifyRecommendationService {
      * @return 推奨トラックのリスト
      */
     public List<Track> getRecommendations(List<String> seedArtists, Map<String, Float> maxAudioFeatures, Map<String, Float> minAudioFeatures) throws SpotifyWebApiException {
-        logger.info("getRecommendations: seedArtists: {}, maxAudioFeatures: {}, minAudioFeatures: {}", seedArtists, maxAudioFeatures, minAudioFeatures);
+        logger.debug("getRecommendations: seedArtists: {}", seedArtists);
+        DiagnosticLog.payload("getRecommendations", "maxAudioFeatures", maxAudioFeatures);
+        DiagnosticLog.payload("getRecommendations", "minAudioFeatures", minAudioFeatures);
 
         if (mockEnabled && mockApiUrl != null && !mockApiUrl.isEmpty()) {
             return getRecommendationsMock();
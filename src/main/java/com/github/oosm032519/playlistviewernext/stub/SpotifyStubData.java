@@ -0,0 +1,243 @@
+package com.github.oosm032519.playlistviewernext.stub;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 組み込みSpotifyスタブが返すデータを生成するクラス。
+ * すべての値はIDから決定的に導出するため、同じIDに対しては常に同じ内容を返し、データを保持しない。
+ * 各レスポンスはモックAPIの契約 (キーはSpotify Web API Javaのモデルのプロパティ名) に従う。
+ */
+public class SpotifyStubData {
+
+    /**
+     * プレイリストIDの末尾に指定できるトラック数 (例: "load-5000") の上限
+     */
+    static final int MAX_PLAYLIST_TRACKS = 10_000;
+
+    private static final Pattern TRACK_COUNT_SUFFIX = Pattern.compile("-(\\d{1,9})$");
+    private static final int GENRE_POOL_SIZE = 300;
+
+    private final int defaultPlaylistTracks;
+    private final int artistPoolSize;
+    private final int searchTotal;
+    private final int recommendationCount;
+    private final int followedPlaylistCount;
+
+    /**
+     * コンストラクタ
+     *
+     * @param defaultPlaylistTracks IDでトラック数が指定されていないプレイリストのトラック数
+     * @param artistPoolSize        トラックに割り当てるアーティストの種類数
+     * @param searchTotal           プレイリスト検索の総件数
+     * @param recommendationCount   おすすめ楽曲の件数
+     * @param followedPlaylistCount フォロー中のプレイリストの件数
+     */
+    public SpotifyStubData(int defaultPlaylistTracks, int artistPoolSize, int searchTotal, int recommendationCount, int followedPlaylistCount) {
+        this.defaultPlaylistTracks = Math.clamp(defaultPlaylistTracks, 0, MAX_PLAYLIST_TRACKS);
+        this.artistPoolSize = Math.max(1, artistPoolSize);
+        this.searchTotal = Math.max(0, searchTotal);
+        this.recommendationCount = Math.max(0, recommendationCount);
+        this.followedPlaylistCount = Math.max(0, followedPlaylistCount);
+    }
+
+    /**
+     * プレイリストのトラック数を返す。
+     * IDが "-数値" で終わる場合はその数値 (上限 {@link #MAX_PLAYLIST_TRACKS})、それ以外は既定のトラック数とする
+     *
+     * @param playlistId プレイリストID
+     * @return トラック数
+     */
+    public int getTrackCount(String playlistId) {
+        Matcher matcher = TRACK_COUNT_SUFFIX.matcher(playlistId);
+        if (matcher.find()) {
+            return Math.min(Integer.parseInt(matcher.group(1)), MAX_PLAYLIST_TRACKS);
+        }
+        return defaultPlaylistTracks;
+    }
+
+    /**
+     * プレイリスト情報を生成する
+     *
+     * @param playlistId プレイリストID
+     * @return プレイリストID、名前、オーナーを含むMap
+     */
+    public Map<String, Object> playlist(String playlistId) {
+        Map<String, Object> playlist = new LinkedHashMap<>();
+        playlist.put("id", playlistId);
+        playlist.put("playlistName", "Stub Playlist " + playlistId);
+        playlist.put("owner", Map.of("id", "stub-owner", "displayName", "Stub Owner"));
+        playlist.put("totalTracks", getTrackCount(playlistId));
+        return playlist;
+    }
+
+    /**
+     * プレイリストのトラックを指定された範囲で生成する
+     *
+     * @param playlistId プレイリストID
+     * @param offset     開始位置
+     * @param limit      取得する最大件数
+     * @return トラックのリスト
+     */
+    public List<Map<String, Object>> playlistTracks(String playlistId, int offset, int limit) {
+        int total = getTrackCount(playlistId);
+        int from = Math.clamp(offset, 0, total);
+        int to = (int) Math.min(total, (long) from + Math.max(0, limit));
+        List<Map<String, Object>> tracks = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            tracks.add(track(playlistId + "-t" + i));
+        }
+        return tracks;
+    }
+
+    /**
+     * トラックIDごとのAudio Featuresを生成する
+     *
+     * @param trackIds トラックIDのリスト
+     * @return トラックIDと同じ順序に並んだAudio Featuresのリスト
+     */
+    public List<Map<String, Object>> audioFeatures(List<String> trackIds) {
+        List<Map<String, Object>> audioFeatures = new ArrayList<>(trackIds.size());
+        for (String trackId : trackIds) {
+            Random random = random(trackId);
+            Map<String, Object> features = new LinkedHashMap<>();
+            features.put("id", trackId);
+            features.put("danceability", random.nextFloat());
+            features.put("energy", random.nextFloat());
+            features.put("valence", random.nextFloat());
+            features.put("tempo", 60 + random.nextFloat() * 140);
+            features.put("acousticness", random.nextFloat());
+            features.put("instrumentalness", random.nextFloat());
+            features.put("liveness", random.nextFloat());
+            features.put("speechiness", random.nextFloat());
+            features.put("loudness", -20 + random.nextFloat() * 20);
+            features.put("key", random.nextInt(12));
+            features.put("mode", random.nextBoolean() ? "MAJOR" : "MINOR");
+            features.put("timeSignature", 4);
+            features.put("durationMs", 120_000 + random.nextInt(240_000));
+            audioFeatures.add(features);
+        }
+        return audioFeatures;
+    }
+
+    /**
+     * アーティストIDごとのジャンルを生成する
+     *
+     * @param artistIds アーティストIDのリスト
+     * @return アーティストIDとジャンルのリストのMap (ジャンルを持たないアーティストは空のリスト)
+     */
+    public Map<String, List<String>> artistGenres(List<String> artistIds) {
+        Map<String, List<String>> artistGenres = new HashMap<>();
+        for (String artistId : artistIds) {
+            Random random = random(artistId);
+            int genreCount = random.nextInt(5);
+            List<String> genres = new ArrayList<>(genreCount);
+            for (int i = 0; i < genreCount; i++) {
+                genres.add("stub genre " + random.nextInt(GENRE_POOL_SIZE));
+            }
+            artistGenres.put(artistId, genres);
+        }
+        return artistGenres;
+    }
+
+    /**
+     * プレイリストの検索結果を生成する
+     *
+     * @param query  検索クエリ
+     * @param offset 開始位置
+     * @param limit  取得する最大件数
+     * @return キー"playlists"に検索結果のリスト、キー"total"に総件数を含むMap
+     */
+    public Map<String, Object> searchPlaylists(String query, int offset, int limit) {
+        int from = Math.clamp(offset, 0, searchTotal);
+        int to = (int) Math.min(searchTotal, (long) from + Math.max(0, limit));
+        List<Map<String, Object>> playlists = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String playlistId = "search-" + Integer.toHexString(query.hashCode()) + "-" + i;
+            Map<String, Object> playlist = new LinkedHashMap<>();
+            playlist.put("id", playlistId);
+            playlist.put("name", query + " " + i);
+            playlist.put("tracks", Map.of("total", getTrackCount(playlistId)));
+            playlist.put("images", List.of(Map.of("url", imageUrl(playlistId))));
+            playlist.put("externalUrls", Map.of("spotify", "https://open.spotify.com/playlist/" + playlistId));
+            playlist.put("owner", Map.of("displayName", "Stub Owner"));
+            playlists.add(playlist);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("playlists", playlists);
+        result.put("total", searchTotal);
+        return result;
+    }
+
+    /**
+     * フォロー中のプレイリストを生成する
+     *
+     * @return プレイリストの概要のリスト
+     */
+    public List<Map<String, Object>> followedPlaylists() {
+        List<Map<String, Object>> playlists = new ArrayList<>(followedPlaylistCount);
+        for (int i = 0; i < followedPlaylistCount; i++) {
+            String playlistId = "followed-" + i;
+            Map<String, Object> playlist = new LinkedHashMap<>();
+            playlist.put("id", playlistId);
+            playlist.put("name", "Followed Playlist " + i);
+            playlist.put("tracks", Map.of("total", getTrackCount(playlistId)));
+            playlist.put("images", List.of(Map.of("url", imageUrl(playlistId))));
+            playlist.put("owner", Map.of("id", "stub-owner", "displayName", "Stub Owner"));
+            playlists.add(playlist);
+        }
+        return playlists;
+    }
+
+    /**
+     * おすすめ楽曲を生成する
+     *
+     * @return トラックのリスト
+     */
+    public List<Map<String, Object>> recommendations() {
+        List<Map<String, Object>> tracks = new ArrayList<>(recommendationCount);
+        for (int i = 0; i < recommendationCount; i++) {
+            tracks.add(track("recommendation-t" + i));
+        }
+        return tracks;
+    }
+
+    private Map<String, Object> track(String trackId) {
+        Random random = random(trackId);
+        List<Map<String, Object>> artists = new ArrayList<>(3);
+        int artistCount = 1 + random.nextInt(3);
+        for (int i = 0; i < artistCount; i++) {
+            int artist = random.nextInt(artistPoolSize);
+            artists.add(Map.of("id", "stub-artist-" + artist, "name", "Stub Artist " + artist));
+        }
+        String albumId = "stub-album-" + random.nextInt(artistPoolSize);
+
+        Map<String, Object> track = new LinkedHashMap<>();
+        track.put("id", trackId);
+        track.put("name", "Stub Track " + trackId);
+        track.put("uri", "spotify:track:" + trackId);
+        track.put("durationMs", 120_000 + random.nextInt(240_000));
+        track.put("popularity", random.nextInt(101));
+        track.put("previewUrl", "https://p.scdn.co/mp3-preview/" + trackId);
+        track.put("artists", artists);
+        track.put("album", Map.of(
+                "id", albumId,
+                "name", "Stub Album " + albumId,
+                "images", List.of(Map.of("url", imageUrl(albumId)))));
+        return track;
+    }
+
+    private static String imageUrl(String id) {
+        return "https://i.scdn.co/image/" + id;
+    }
+
+    private static Random random(String id) {
+        return new Random(id.hashCode());
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.oosm032519.playlistviewernext.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * モックAPIの契約に従ってSpotifyのデータを返す、アプリケーション内で起動するHTTPサーバー。
+ * 外部のモックサーバーやネットワークに依存せずに、モックモードでの動作確認や負荷試験を行うために使用する。
+ * アプリケーションのリクエスト処理スレッドを消費しないよう、JDKのHTTPサーバーを別ポートで起動し、各リクエストを仮想スレッドで処理する。
+ * 応答の遅延と、一定の割合での429 (Too Many Requests) の返却を設定できる。
+ */
+public class SpotifyStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpotifyStubServer.class);
+
+    private final SpotifyStubData data;
+    private final ObjectMapper objectMapper;
+    private final Faults faults;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+
+    /**
+     * 応答に注入する遅延とレート制限の設定
+     *
+     * @param latency           各応答の基本の遅延
+     * @param latencyJitter     基本の遅延に加える最大の揺らぎ (0から指定値までの一様分布)
+     * @param rateLimitRatio    429を返すリクエストの割合 (0以上1以下)
+     * @param retryAfterSeconds 429の応答のRetry-Afterヘッダーに設定する秒数
+     */
+    public record Faults(Duration latency, Duration latencyJitter, double rateLimitRatio, int retryAfterSeconds) {
+
+        /**
+         * 遅延もレート制限も注入しない設定
+         */
+        public static final Faults NONE = new Faults(Duration.ZERO, Duration.ZERO, 0, 1);
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param data         応答するデータの生成元
+     * @param objectMapper JSONへの変換に使用するObjectMapper
+     * @param faults       応答に注入する遅延とレート制限の設定
+     * @param port         待ち受けるポート番号 (0の場合は空いているポート)
+     * @throws UncheckedIOException ポートを確保できなかった場合
+     */
+    public SpotifyStubServer(SpotifyStubData data, ObjectMapper objectMapper, Faults faults, int port) {
+        this.data = data;
+        this.objectMapper = objectMapper;
+        this.faults = faults;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Spotifyスタブのポートを確保できませんでした。port: " + port, e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * サーバーを起動する
+     */
+    public void start() {
+        server.start();
+        logger.info("Spotifyスタブを起動しました。URL: {}, 遅延: {}, 揺らぎ: {}, 429の割合: {}",
+                getBaseUrl(), faults.latency(), faults.latencyJitter(), faults.rateLimitRatio());
+    }
+
+    /**
+     * サーバーを停止する
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        logger.info("Spotifyスタブを停止しました。リクエスト数: {}, 429の応答数: {}", requestCount.get(), rateLimitedCount.get());
+    }
+
+    /**
+     * spotify.mock-api.url に設定するベースURLを返す
+     *
+     * @return ベースURL
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    /**
+     * 待ち受けているポート番号を返す
+     *
+     * @return ポート番号
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 受け付けたリクエスト数を返す
+     *
+     * @return リクエスト数
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * 429を返したリクエスト数を返す
+     *
+     * @return 429の応答数
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requestCount.incrementAndGet();
+            delay();
+            if (faults.rateLimitRatio() > 0 && ThreadLocalRandom.current().nextDouble() < faults.rateLimitRatio()) {
+                rateLimitedCount.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(faults.retryAfterSeconds()));
+                writeJson(exchange, 429, Map.of("error", Map.of("status", 429, "message", "API rate limit exceeded")));
+                return;
+            }
+
+            Object body = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), parseQuery(exchange.getRequestURI().getRawQuery()));
+            if (body == null) {
+                writeJson(exchange, 404, Map.of("error", Map.of("status", 404, "message", "Not found")));
+            } else {
+                writeJson(exchange, 200, body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Spotifyスタブでエラーが発生しました。URI: {}", exchange.getRequestURI(), e);
+        }
+    }
+
+    /**
+     * パスに対応するレスポンスを返す
+     *
+     * @return レスポンスの本文 (対応するパスがない場合はnull)
+     */
+    private Object route(String method, String path, Map<String, String> query) {
+        if (!"GET".equals(method)) {
+            return null;
+        }
+        List<String> segments = Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toList();
+        return switch (segments.size()) {
+            case 1 -> "recommendations".equals(segments.get(0)) ? data.recommendations() : null;
+            case 2 -> switch (segments.get(0)) {
+                case "playlists" -> data.playlist(segments.get(1));
+                case "following" -> "playlists".equals(segments.get(1)) ? data.followedPlaylists() : null;
+                case "search" -> "playlists".equals(segments.get(1))
+                        ? data.searchPlaylists(query.getOrDefault("query", ""), intParam(query, "offset", 0), intParam(query, "limit", 20))
+                        : null;
+                case "tracks" -> "audio-features".equals(segments.get(1)) ? data.audioFeatures(listParam(query, "trackIds")) : null;
+                case "artists" -> "genres".equals(segments.get(1)) ? data.artistGenres(listParam(query, "artistIds")) : null;
+                default -> null;
+            };
+            // offset と limit が指定された場合はその範囲のみを返す
+            case 3 -> "playlists".equals(segments.get(0)) && "tracks".equals(segments.get(2))
+                    ? data.playlistTracks(segments.get(1), intParam(query, "offset", 0), intParam(query, "limit", SpotifyStubData.MAX_PLAYLIST_TRACKS))
+                    : null;
+            default -> null;
+        };
+    }
+
+    private void delay() throws InterruptedException {
+        long millis = faults.latency().toMillis();
+        long jitter = faults.latencyJitter().toMillis();
+        if (jitter > 0) {
+            millis += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private void writeJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        try {
+            return query.containsKey(name) ? Integer.parseInt(query.get(name)) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static List<String> listParam(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IDのリストを上流APIへの一括リクエストの単位で扱うユーティリティクラス。
+ * ブロッキングな取得とノンブロッキングな取得で、チャンクへの分割とキャッシュに存在しないIDの判定を共通化する。
+ */
+public class BatchUtil {
+
+    private BatchUtil() {
+    }
+
+    /**
+     * リストを指定された件数ごとのチャンクに分割する。
+     * 各チャンクは元のリストのビューであり、元の順序を保持する。
+     *
+     * @param items     分割するリスト
+     * @param chunkSize 1チャンクあたりの最大件数
+     * @param <T>       要素の型
+     * @return チャンクのリスト
+     */
+    public static <T> List<List<T>> partition(List<T> items, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>((items.size() + chunkSize - 1) / chunkSize);
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(i + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * キャッシュに存在しないIDを、重複を除いて元の順序で返す。
+     *
+     * @param ids    IDのリスト
+     * @param cached キャッシュから取得できたIDと値のマップ
+     * @return キャッシュに存在しないIDのリスト
+     */
+    public static List<String> missingIds(List<String> ids, Map<String, ?> cached) {
+        return ids.stream()
+                .filter(id -> !cached.containsKey(id))
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * レスポンスやトラック一覧などのペイロード全体を出力する診断用ログ
+ * 大きなプレイリストではペイロードの文字列化と出力が処理本体よりも重くなるため、通常のDEBUGログとは別のロガーに分離している
+ * 既定では無効であり、障害調査時のみ logging.level.com.github.oosm032519.playlistviewernext.diagnostic=DEBUG で有効にする
+ */
+public final class DiagnosticLog {
+
+    /**
+     * 診断用ログのロガー名
+     */
+    public static final String LOGGER_NAME = "com.github.oosm032519.playlistviewernext.diagnostic";
+
+    private static final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private DiagnosticLog() {
+    }
+
+    /**
+     * 診断用ログが有効かどうかを返す
+     * ペイロードの組み立て自体に費用がかかる場合は、この結果で処理を省略する
+     *
+     * @return 診断用ログが有効な場合はtrue
+     */
+    public static boolean isEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    /**
+     * ペイロードを出力する
+     * 診断用ログが無効な場合、ペイロードは文字列化されない
+     *
+     * @param source  出力元 (メソッド名など)
+     * @param name    ペイロードの名前
+     * @param payload 出力するペイロード
+     */
+    public static void payload(String source, String name, Object payload) {
+        if (logger.isDebugEnabled()) {
+            logger.atDebug()
+                    .addKeyValue("source", source)
+                    .addKeyValue("payload", name)
+                    .log("{}: {}: {}", source, name, payload);
+        }
+    }
+}
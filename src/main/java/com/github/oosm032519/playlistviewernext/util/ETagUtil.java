@@ -0,0 +1,104 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ETagによる条件付きGETのユーティリティクラス
+ * レスポンスの内容を決める値 (プレイリストのsnapshot_idなど) からETagを作成し、If-None-Matchと一致する場合は本文を作成せずに304を返すために使用する
+ * ETagは弱いETag (W/"...") とする。同じ内容でもMapの項目の順序などによりバイト列が一致するとは限らず、
+ * また Tomcat は強いETagを持つレスポンスを圧縮しないため
+ */
+public final class ETagUtil {
+
+    /**
+     * ETagを持つレスポンスのCache-Control。ブラウザに保存させ、使用する前に毎回ETagで再検証させる
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    /**
+     * ユーザーごとに異なるレスポンスのCache-Control。共有キャッシュには保存させない
+     */
+    public static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private static final int HASH_BYTES = 16;
+
+    private ETagUtil() {
+    }
+
+    /**
+     * レスポンスの内容を決める値から弱いETagを作成する
+     *
+     * @param parts レスポンスの内容を決める値 (エンドポイントの種類、バージョン、パラメータなど)
+     * @return 弱いETag。値にnullが含まれる場合 (内容を特定できない場合) はnull
+     */
+    public static String weakETag(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 が利用できません。", e);
+        }
+        for (String part : parts) {
+            if (part == null) {
+                return null;
+            }
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            // 区切りを含めて、値の境界が異なる組み合わせが同じETagにならないようにする
+            digest.update((byte) 0);
+        }
+        byte[] hash = digest.digest();
+        return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, HASH_BYTES)) + "\"";
+    }
+
+    /**
+     * リクエストのIf-None-MatchがETagと一致するか (クライアントが保持している内容から変更がないか) を返す
+     * 比較はGET・HEADの弱い比較とし、レスポンスのステータスやヘッダーは変更しない
+     *
+     * @param request リクエスト
+     * @param eTag    現在の内容のETag (nullの場合は常にfalse)
+     * @return 一致する場合はtrue
+     */
+    public static boolean isNotModified(HttpServletRequest request, String eTag) {
+        return eTag != null && new ServletWebRequest(request).checkNotModified(eTag);
+    }
+
+    /**
+     * 本文を持たない304のレスポンスを作成する
+     *
+     * @param eTag         現在の内容のETag
+     * @param cacheControl Cache-Control
+     * @param <T>          本文の型
+     * @return 304のレスポンス
+     */
+    public static <T> ResponseEntity<T> notModified(String eTag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    /**
+     * ETagとCache-Controlを設定した200のレスポンスのビルダーを作成する
+     *
+     * @param eTag         現在の内容のETag (nullの場合は設定しない)
+     * @param cacheControl Cache-Control
+     * @return 200のレスポンスのビルダー
+     */
+    public static ResponseEntity.BodyBuilder ok(String eTag, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(cacheControl);
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * レスポンスに含める項目を指定する fields パラメータを表すクラス
+ * 書式はSpotify Web APIの fields パラメータと同じく、項目名をカンマで区切り、入れ子の項目を括弧またはドットで指定する
+ * (例: {@code playlistName,tracks(items(track(id,name))),genreCounts} 、 {@code tracks.items.track.name})
+ * 配列は要素ごとに同じ指定を適用し、入れ子の指定がない項目は配下のすべての項目を含める
+ * JacksonのTokenFilterとして、書き込み時に指定されていない項目を読み飛ばす
+ */
+public final class FieldProjection extends TokenFilter {
+
+    private static final int MAX_EXPRESSION_LENGTH = 1024;
+
+    /**
+     * 含める項目名から、その項目の入れ子の指定へのMap (値がnullの場合は配下のすべての項目を含める)
+     */
+    private final Map<String, FieldProjection> fields = new LinkedHashMap<>();
+
+    private FieldProjection() {
+    }
+
+    /**
+     * fields パラメータを解析する
+     *
+     * @param expression fields パラメータの値
+     * @return 解析結果 (パラメータが指定されていない場合は空)
+     * @throws InvalidRequestException 書式が不正な場合
+     */
+    public static Optional<FieldProjection> parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return Optional.empty();
+        }
+        if (expression.length() > MAX_EXPRESSION_LENGTH) {
+            throw new InvalidRequestException(HttpStatus.BAD_REQUEST, "fields パラメータが長すぎます。");
+        }
+        Parser parser = new Parser(expression);
+        FieldProjection projection = parser.parseList();
+        if (!parser.isEnd()) {
+            throw parser.error();
+        }
+        return Optional.of(projection);
+    }
+
+    /**
+     * 指定された項目を含めるかどうかを返す
+     *
+     * @param name 項目名
+     * @return 含める場合はtrue
+     */
+    public boolean includes(String name) {
+        return fields.containsKey(name);
+    }
+
+    /**
+     * レスポンスのMapに指定を適用する
+     * 最上位の項目はMapから直接取り除き、入れ子の指定がある項目は書き込み時に指定を適用する値に置き換える
+     *
+     * @param response レスポンスのMap
+     * @return 指定された項目のみを含むMap
+     */
+    public Map<String, Object> apply(Map<String, Object> response) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        fields.forEach((name, child) -> {
+            if (response.containsKey(name)) {
+                Object value = response.get(name);
+                projected.put(name, child == null || value == null ? value : new ProjectedValue(value, child));
+            }
+        });
+        return projected;
+    }
+
+    /**
+     * 書き込み先のJsonGeneratorに指定を適用する
+     *
+     * @param generator 書き込み先のJsonGenerator
+     * @return 指定されていない項目を書き込まないJsonGenerator
+     */
+    public JsonGenerator filter(JsonGenerator generator) {
+        return new FilteringGeneratorDelegate(generator, this, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        if (!fields.containsKey(name)) {
+            return null;
+        }
+        FieldProjection child = fields.get(name);
+        return child != null ? child : TokenFilter.INCLUDE_ALL;
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        return this;
+    }
+
+    @Override
+    public TokenFilter includeRootValue(int index) {
+        return this;
+    }
+
+    @Override
+    public boolean includeEmptyObject(boolean contentsFiltered) {
+        return true;
+    }
+
+    @Override
+    public boolean includeEmptyArray(boolean contentsFiltered) {
+        return true;
+    }
+
+    /**
+     * 項目を追加する。同じ項目が複数回指定された場合は、いずれかで配下のすべてを含める指定であればすべてを含め、
+     * そうでなければ入れ子の指定を統合する
+     */
+    private void add(String name, FieldProjection child) {
+        if (!fields.containsKey(name)) {
+            fields.put(name, child);
+            return;
+        }
+        FieldProjection existing = fields.get(name);
+        if (existing == null || child == null) {
+            fields.put(name, null);
+        } else {
+            child.fields.forEach(existing::add);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        fields.forEach((name, child) -> {
+            if (!builder.isEmpty()) {
+                builder.append(',');
+            }
+            builder.append(name);
+            if (child != null) {
+                builder.append('(').append(child).append(')');
+            }
+        });
+        return builder.toString();
+    }
+
+    /**
+     * fields パラメータの再帰下降パーサー
+     * list := field (',' field)* 、 field := name ('.' field | '(' list ')')?
+     */
+    private static final class Parser {
+
+        private final String expression;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression;
+        }
+
+        private FieldProjection parseList() {
+            FieldProjection projection = new FieldProjection();
+            parseField(projection);
+            while (peek(',')) {
+                position++;
+                parseField(projection);
+            }
+            return projection;
+        }
+
+        private void parseField(FieldProjection parent) {
+            String name = parseName();
+            FieldProjection child = null;
+            if (peek('.')) {
+                position++;
+                child = new FieldProjection();
+                parseField(child);
+            } else if (peek('(')) {
+                position++;
+                child = parseList();
+                if (!peek(')')) {
+                    throw error();
+                }
+                position++;
+            }
+            parent.add(name, child);
+        }
+
+        private String parseName() {
+            int start = position;
+            while (position < expression.length() && isNameChar(expression.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw error();
+            }
+            return expression.substring(start, position);
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+        }
+
+        private boolean peek(char c) {
+            return position < expression.length() && expression.charAt(position) == c;
+        }
+
+        private boolean isEnd() {
+            return position == expression.length();
+        }
+
+        private InvalidRequestException error() {
+            return new InvalidRequestException(HttpStatus.BAD_REQUEST,
+                    "fields パラメータの書式が不正です。 位置: " + position);
+        }
+    }
+
+    /**
+     * 書き込み時に入れ子の項目の指定を適用する値
+     */
+    private record ProjectedValue(Object value, FieldProjection projection) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            serializers.defaultSerializeValue(value, projection.filter(generator));
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException {
+            serialize(generator, serializers);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.*;
+
+import java.net.URI;
+
+/**
+ * モックAPIサーバー (組み込みSpotifyスタブを含む) へのGETリクエストを送信するクラス。
+ * 実APIへのリクエストと同じく送信前に {@link SpotifyRequestThrottle} の流量制限を通過させ、
+ * エラーレスポンスはSpotifyApiと同じ {@link SpotifyWebApiException} のサブクラスに変換する。
+ * 429は {@link TooManyRequestsException} となるため、呼び出し元の {@link RetryUtil} や
+ * {@link ParallelFetchExecutor#invokeAll(java.util.List, int, long)} がRetry-Afterに従って再試行する。
+ * 1回の呼び出しでリクエストを1回だけ送信し、このクラス自身は再試行しない。
+ */
+@Component
+public class MockApiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockApiClient.class);
+
+    private final WebClient webClient;
+    private final SpotifyRequestThrottle requestThrottle;
+
+    /**
+     * コンストラクタ
+     *
+     * @param webClientBuilder WebClientのビルダー
+     * @param requestThrottle  Spotify APIへのリクエストの流量制限
+     */
+    public MockApiClient(WebClient.Builder webClientBuilder, SpotifyRequestThrottle requestThrottle) {
+        webClient = webClientBuilder.build();
+        this.requestThrottle = requestThrottle;
+    }
+
+    /**
+     * モックAPIにGETリクエストを送信し、レスポンスを指定された型で返す。
+     *
+     * @param endpointClass 流量制限に使用するエンドポイントの分類
+     * @param uri           リクエストのURI
+     * @param type          レスポンスの型
+     * @param <T>           レスポンスの型
+     * @return レスポンス
+     * @throws SpotifyWebApiException  モックAPIがエラーを返した場合
+     * @throws InternalServerException 流量制限によりリクエストが破棄された場合
+     */
+    public <T> T get(SpotifyRequestThrottle.EndpointClass endpointClass, URI uri, ParameterizedTypeReference<T> type) throws SpotifyWebApiException {
+        requestThrottle.acquire(endpointClass);
+        logger.debug("get: モックAPI リクエスト送信, URL: {}", uri);
+        try {
+            return webClient.get()
+                    .uri(uri)
+                    .retrieve()
+                    .bodyToMono(type)
+                    .block();
+        } catch (WebClientResponseException e) {
+            logger.error("get: モックAPI 呼び出しエラー: {} {}, URL: {}", e.getStatusCode().value(), e.getResponseBodyAsString(), uri);
+            throw toSpotifyWebApiException(e);
+        }
+    }
+
+    /**
+     * モックAPIのエラーレスポンスを、SpotifyApiが同じステータスコードに対してスローする例外に変換する。
+     *
+     * @param e モックAPIのエラーレスポンス
+     * @return ステータスコードに対応するSpotifyWebApiException
+     */
+    static SpotifyWebApiException toSpotifyWebApiException(WebClientResponseException e) {
+        String message = e.getStatusText();
+        return switch (e.getStatusCode().value()) {
+            case 400 -> new BadRequestException(message);
+            case 401 -> new UnauthorizedException(message);
+            case 403 -> new ForbiddenException(message);
+            case 404 -> new NotFoundException(message);
+            case 429 -> new TooManyRequestsException(message, RetryUtil.parseRetryAfterSeconds(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)));
+            case 500 -> new InternalServerErrorException(message);
+            case 502 -> new BadGatewayException(message);
+            case 503 -> new ServiceUnavailableException(message);
+            default -> new SpotifyWebApiException(message);
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Spotify APIへのリクエストを上限付きで並列実行するコンポーネント。
+ * 仮想スレッド上で各リクエストを実行し、インスタンス全体で共有するセマフォによって同時実行数を制限する。
+ */
+@Component
+public class ParallelFetchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelFetchExecutor.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int concurrency;
+
+    /**
+     * コンストラクタ
+     *
+     * @param concurrency インスタンス全体でのSpotify APIへの最大同時リクエスト数
+     */
+    public ParallelFetchExecutor(@Value("${spotify.fetch.concurrency:4}") int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        permits = new Semaphore(this.concurrency, true);
+        logger.info("ParallelFetchExecutor が初期化されました。最大同時リクエスト数: {}", this.concurrency);
+    }
+
+    /**
+     * 指定された操作を上限付きで並列実行し、入力と同じ順序で結果を返す。
+     * いずれかの操作が失敗した場合は、残りの操作をキャンセルして例外をスローする。
+     *
+     * @param operations 実行する操作のリスト
+     * @param <T>        操作の戻り値の型
+     * @return 入力と同じ順序に並んだ操作の実行結果
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 並列実行が中断された場合、またはその他の例外が発生した場合
+     */
+    public <T> List<T> invokeAll(List<RetryUtil.RetryableOperation<T>> operations) throws SpotifyWebApiException {
+        List<Callable<T>> tasks = new ArrayList<>(operations.size());
+        for (RetryUtil.RetryableOperation<T> operation : operations) {
+            tasks.add(() -> executeWithPermit(operation));
+        }
+        return submitAll(tasks);
+    }
+
+    /**
+     * 指定された操作を上限付きで並列実行し、各操作をレート制限に応じて個別に再試行する。
+     * 同時実行数の許可は1回の試行の間だけ保持し、Retry-Afterによる待機中は許可を解放するため、
+     * 待機中の操作が他のリクエストの実行枠を占有しない。
+     * 操作自体は再試行を含まない1回分のリクエストとして渡すこと。
+     *
+     * @param operations            実行する操作のリスト
+     * @param maxRetries            操作ごとの最大リトライ回数
+     * @param initialIntervalMillis 初期リトライ間隔（ミリ秒）。Retry-Afterが指定されない場合に使用する
+     * @param <T>                   操作の戻り値の型
+     * @return 入力と同じ順序に並んだ操作の実行結果
+     * @throws SpotifyWebApiException  再試行回数の上限に達した場合、またはSpotify API呼び出し時の例外
+     * @throws InternalServerException 並列実行が中断された場合、またはその他の例外が発生した場合
+     */
+    public <T> List<T> invokeAll(List<RetryUtil.RetryableOperation<T>> operations, int maxRetries, long initialIntervalMillis) throws SpotifyWebApiException {
+        List<Callable<T>> tasks = new ArrayList<>(operations.size());
+        for (RetryUtil.RetryableOperation<T> operation : operations) {
+            tasks.add(() -> RetryUtil.executeWithRetry(() -> executeWithPermit(operation), maxRetries, initialIntervalMillis));
+        }
+        return submitAll(tasks);
+    }
+
+    private <T> List<T> submitAll(List<Callable<T>> tasks) throws SpotifyWebApiException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(join(future));
+            }
+            return results;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * 独立した処理を別の仮想スレッドで開始する。
+     * 開始した処理自体は同時実行数の許可を取得しないため、内部でSpotify APIを呼び出す処理
+     * ({@link #invokeAll} を使用する処理) を並行して実行しても許可の取り合いによるデッドロックは発生しない。
+     *
+     * @param operation 実行する処理
+     * @param <T>       処理の戻り値の型
+     * @return 処理の結果を表すFuture
+     */
+    public <T> Future<T> fork(RetryUtil.RetryableOperation<T> operation) {
+        return executor.submit(operation::execute);
+    }
+
+    /**
+     * 処理の完了を待機して結果を返す。
+     * 処理がSpotifyWebApiExceptionまたは実行時例外をスローした場合は、その例外をそのまま再スローする。
+     *
+     * @param future 待機する処理のFuture
+     * @param <T>    処理の戻り値の型
+     * @return 処理の実行結果
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 待機が中断された場合、またはその他の例外が発生した場合
+     */
+    public <T> T join(Future<T> future) throws SpotifyWebApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "並列取得が中断されました。", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SpotifyWebApiException spotifyWebApiException) {
+                throw spotifyWebApiException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            logger.error("並列取得中にエラーが発生しました。", cause);
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "並列取得中にエラーが発生しました。", cause);
+        }
+    }
+
+    /**
+     * 同時実行数の許可を取得してから操作を実行する。
+     *
+     * @param operation 実行する操作
+     * @param <T>       操作の戻り値の型
+     * @return 操作の実行結果
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 許可の取得待機中に割り込まれた場合
+     */
+    private <T> T executeWithPermit(RetryUtil.RetryableOperation<T> operation) throws SpotifyWebApiException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "並列取得が中断されました。", e);
+        }
+        try {
+            return operation.execute();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * インスタンス全体でのSpotify APIへの最大同時リクエスト数を返す。
+     *
+     * @return 最大同時リクエスト数
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * アプリケーション終了時に実行中のタスクを停止する。
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spotify APIのレート制限状態をアプリケーション全体で共有するクラス。
+ * いずれかのリクエストが受け取ったRetry-Afterを記録し、その期間中はすべての送信リクエストを一時停止させる。
+ * 待機時間が上限を超える場合や待機中のリクエストが多すぎる場合は、待機せずにリクエストを破棄する。
+ */
+public class RateLimitCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitCoordinator.class);
+
+    /**
+     * 待機時間の上限のデフォルト値
+     */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(10);
+
+    /**
+     * 同時に待機できるリクエスト数のデフォルト値
+     */
+    public static final int DEFAULT_MAX_WAITERS = 256;
+
+    private final AtomicLong pausedUntilNanos = new AtomicLong(System.nanoTime());
+    private final long maxWaitNanos;
+    private final Semaphore waiterSlots;
+
+    /**
+     * コンストラクタ
+     *
+     * @param maxWait    1リクエストあたりの待機時間の上限
+     * @param maxWaiters 同時に待機できるリクエスト数の上限
+     */
+    public RateLimitCoordinator(Duration maxWait, int maxWaiters) {
+        maxWaitNanos = maxWait.toNanos();
+        waiterSlots = new Semaphore(Math.max(1, maxWaiters));
+    }
+
+    /**
+     * Spotify APIから受け取ったRetry-Afterを記録し、その期間中はすべての送信リクエストを一時停止させる。
+     * すでにより長い停止期間が記録されている場合は変更しない。
+     *
+     * @param retryAfter 停止する期間
+     */
+    public void pause(Duration retryAfter) {
+        long until = System.nanoTime() + retryAfter.toNanos();
+        long previous = pausedUntilNanos.getAndAccumulate(until, (current, candidate) -> candidate - current > 0 ? candidate : current);
+        if (until - previous > 0) {
+            logger.warn("Spotify APIのレート制限により、すべての送信リクエストを{}ミリ秒停止します。", retryAfter.toMillis());
+        }
+    }
+
+    /**
+     * 停止期間が終了するまで呼び出し元のスレッドを待機させる。
+     * 仮想スレッド上で呼び出された場合、待機中はキャリアスレッドを占有しない。
+     *
+     * @throws InterruptedException    待機中に割り込まれた場合
+     * @throws InternalServerException 待機時間が上限を超える場合、または待機中のリクエストが上限に達している場合
+     */
+    public void awaitClearance() throws InterruptedException {
+        long remainingNanos = getRemainingPause().toNanos();
+        if (remainingNanos <= 0) {
+            return;
+        }
+        if (remainingNanos > maxWaitNanos || !waiterSlots.tryAcquire()) {
+            throw shed(remainingNanos);
+        }
+        long deadlineNanos = System.nanoTime() + maxWaitNanos;
+        try {
+            // 待機中に停止期間が延長される可能性があるため、停止期間が終了するまで繰り返し待機する
+            while ((remainingNanos = getRemainingPause().toNanos()) > 0) {
+                if (remainingNanos > deadlineNanos - System.nanoTime()) {
+                    throw shed(remainingNanos);
+                }
+                LockSupport.parkNanos(this, remainingNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiterSlots.release();
+        }
+    }
+
+    private InternalServerException shed(long remainingNanos) {
+        logger.warn("Spotify APIのレート制限中のため、リクエストを破棄します。残り停止時間: {}ミリ秒", TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        return new InternalServerException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Spotify APIのレート制限中のため、リクエストを処理できませんでした。しばらくしてから再度お試しください。"
+        );
+    }
+
+    /**
+     * 停止期間の残り時間を返す。
+     *
+     * @return 停止期間の残り時間 (停止中でない場合はゼロ)
+     */
+    public Duration getRemainingPause() {
+        long remainingNanos = pausedUntilNanos.get() - System.nanoTime();
+        return remainingNanos > 0 ? Duration.ofNanos(remainingNanos) : Duration.ZERO;
+    }
+
+    /**
+     * 停止状態を解除する。テストで状態を初期化するために使用する。
+     */
+    void reset() {
+        pausedUntilNanos.set(System.nanoTime());
+    }
+}
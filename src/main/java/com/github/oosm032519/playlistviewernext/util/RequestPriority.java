@@ -0,0 +1,57 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+
+/**
+ * Spotify APIへのリクエストの優先度を表す列挙型。
+ * 優先度は呼び出し元のスレッドに紐づけて保持し、そのスレッドから生成された仮想スレッドにも引き継がれる。
+ * ユーザー操作に起因するリクエストは {@link #INTERACTIVE}、キャッシュのウォームアップなどのバックグラウンド処理は
+ * {@link #BACKGROUND} として実行し、流量制限ではINTERACTIVEのリクエストを優先する。
+ */
+public enum RequestPriority {
+
+    /**
+     * ユーザー操作に起因するリクエスト
+     */
+    INTERACTIVE,
+
+    /**
+     * バックグラウンド処理によるリクエスト
+     */
+    BACKGROUND;
+
+    private static final InheritableThreadLocal<RequestPriority> CURRENT = new InheritableThreadLocal<>() {
+        @Override
+        protected RequestPriority initialValue() {
+            return INTERACTIVE;
+        }
+    };
+
+    /**
+     * 現在のスレッドに設定されている優先度を返す。
+     *
+     * @return 現在の優先度 (未設定の場合はINTERACTIVE)
+     */
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 指定された優先度で操作を実行する。
+     *
+     * @param priority  操作中に適用する優先度
+     * @param operation 実行する操作
+     * @param <T>       操作の戻り値の型
+     * @return 操作の実行結果
+     * @throws SpotifyWebApiException Spotify API呼び出し時の例外
+     */
+    public static <T> T callWith(RequestPriority priority, RetryUtil.RetryableOperation<T> operation) throws SpotifyWebApiException {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return operation.execute();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
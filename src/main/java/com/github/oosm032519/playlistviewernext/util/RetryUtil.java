@@ -7,9 +7,12 @@ import org.springframework.http.HttpStatus;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
 
+import java.time.Duration;
+
 /**
  * Spotify APIへのリクエスト実行時のリトライ処理を提供するユーティリティクラス。
  * レート制限に対するリトライロジックを実装し、指数バックオフを使用して再試行を行う。
+ * レート制限の状態は {@link RateLimitCoordinator} を通じてアプリケーション全体で共有する。
  */
 public class RetryUtil {
 
@@ -20,53 +23,95 @@ public class RetryUtil {
      */
     public static final long DEFAULT_RETRY_INTERVAL_MILLIS = 5000;
 
+    private static volatile RateLimitCoordinator rateLimitCoordinator =
+            new RateLimitCoordinator(RateLimitCoordinator.DEFAULT_MAX_WAIT, RateLimitCoordinator.DEFAULT_MAX_WAITERS);
+
     /**
      * リトライ可能な操作を実行し、必要に応じて再試行を行う。
+     * レート制限中は操作を実行する前に停止期間の終了を待機し、TooManyRequestsExceptionを受け取った場合は
+     * Retry-Afterの期間だけすべての送信リクエストを停止させてから再試行する。
      *
      * @param operation             実行する操作
      * @param maxRetries            最大リトライ回数
-     * @param initialIntervalMillis 初期リトライ間隔（ミリ秒）
+     * @param initialIntervalMillis 初期リトライ間隔（ミリ秒）。Retry-Afterが指定されない場合に使用する
      * @param <T>                   戻り値の型
      * @return 操作の実行結果
      * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
-     * @throws InternalServerException リトライ処理が中断された場合の例外
+     * @throws InternalServerException リトライ処理が中断された場合、またはレート制限中にリクエストが破棄された場合の例外
      */
     public static <T> T executeWithRetry(RetryableOperation<T> operation, int maxRetries, long initialIntervalMillis) throws SpotifyWebApiException {
         int retryCount = 0;
-        long intervalMillis = initialIntervalMillis;
 
         while (true) {
             try {
-                return operation.execute();
-            } catch (SpotifyWebApiException e) {
-                if (e instanceof TooManyRequestsException tooManyRequestsException) {
-                    // レート制限に達した場合の処理
-                    if (retryCount < maxRetries) {
-                        // Spotify APIからのレスポンスに基づいてリトライ間隔を設定
-                        int retryAfterSeconds = tooManyRequestsException.getRetryAfter();
-                        intervalMillis = retryAfterSeconds * 1000L;
-                        logger.warn("TooManyRequests: {}秒後に再試行します... (試行回数: {})", retryAfterSeconds, retryCount + 1);
+                rateLimitCoordinator.awaitClearance();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "再試行が中断されました。", ex);
+            }
 
-                        try {
-                            Thread.sleep(intervalMillis);
-                        } catch (InterruptedException ex) {
-                            Thread.currentThread().interrupt();
-                            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "再試行が中断されました。", ex);
-                        }
+            try {
+                return operation.execute();
+            } catch (TooManyRequestsException e) {
+                // レート制限に達した場合、Spotify APIからのレスポンスに基づいて全体の送信を停止する
+                Duration pause = rateLimitPause(e.getRetryAfter(), initialIntervalMillis, retryCount);
+                rateLimitCoordinator.pause(pause);
 
-                        // 指数バックオフの適用
-                        retryCount++;
-                        intervalMillis *= 2;
-                    } else {
-                        throw e;
-                    }
-                } else {
+                if (retryCount >= maxRetries) {
                     throw e;
                 }
+                logger.warn("TooManyRequests: {}ミリ秒後に再試行します... (試行回数: {})", pause.toMillis(), retryCount + 1);
+                retryCount++;
             }
         }
     }
 
+    /**
+     * TooManyRequestsを受け取った場合に、すべての送信リクエストを停止する期間を返す。
+     * Retry-Afterが指定されている場合はその秒数とし、指定されていない場合は再試行回数に応じて初期間隔を倍増させる (指数バックオフ)。
+     *
+     * @param retryAfterSeconds     Retry-Afterの秒数 (指定されていない場合は0)
+     * @param initialIntervalMillis 初期リトライ間隔（ミリ秒）
+     * @param retryCount            これまでの再試行回数
+     * @return 送信を停止する期間
+     */
+    public static Duration rateLimitPause(int retryAfterSeconds, long initialIntervalMillis, long retryCount) {
+        return retryAfterSeconds > 0 ? Duration.ofSeconds(retryAfterSeconds) : Duration.ofMillis(initialIntervalMillis << retryCount);
+    }
+
+    /**
+     * Retry-Afterヘッダーの値を秒数として解釈する。
+     *
+     * @param retryAfter Retry-Afterヘッダーの値
+     * @return Retry-Afterの秒数。ヘッダーがない場合や秒数以外の形式 (日時) の場合は0
+     */
+    public static int parseRetryAfterSeconds(String retryAfter) {
+        try {
+            return retryAfter != null ? Integer.parseInt(retryAfter.trim()) : 0;
+        } catch (NumberFormatException ignored) {
+            // 秒数以外の形式は指定なしとして扱い、指数バックオフの間隔で再試行する
+            return 0;
+        }
+    }
+
+    /**
+     * アプリケーション全体で使用するレート制限の調整役を設定する。
+     *
+     * @param coordinator レート制限の調整役
+     */
+    public static void setRateLimitCoordinator(RateLimitCoordinator coordinator) {
+        rateLimitCoordinator = coordinator;
+    }
+
+    /**
+     * アプリケーション全体で使用しているレート制限の調整役を返す。
+     *
+     * @return レート制限の調整役
+     */
+    public static RateLimitCoordinator getRateLimitCoordinator() {
+        return rateLimitCoordinator;
+    }
+
     /**
      * リトライ可能な操作を定義するための関数型インターフェース。
      *
@@ -0,0 +1,187 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 同じキーに対する処理が同時に要求された場合に、処理を1回だけ実行して結果を共有するクラス (single-flight)。
+ * 最初の呼び出し元が自身のスレッドで処理を実行し、実行中に到着した呼び出し元はその完了を待機して同じ結果または例外を受け取る。
+ * 結果は保持しないため、処理の完了後に到着した呼び出し元は再度処理を実行する。
+ *
+ * @param <K> キーの型
+ * @param <V> 処理結果の型
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * 複数のキーに対する処理をまとめて実行する操作
+     *
+     * @param <K> キーの型
+     * @param <V> 処理結果の型
+     */
+    @FunctionalInterface
+    public interface BatchOperation<K, V> {
+        /**
+         * 指定されたキーに対する処理をまとめて実行する。
+         *
+         * @param keys 処理対象のキー
+         * @return キーと処理結果のマップ。結果が存在しないキーは含めなくてよい
+         * @throws SpotifyWebApiException Spotify API呼び出し時の例外
+         */
+        Map<K, V> execute(List<K> keys) throws SpotifyWebApiException;
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param name          メトリクスのタグに使用する処理の名前
+     * @param meterRegistry メトリクスの登録先
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        coalescedCounter = Counter.builder("singleflight.coalesced")
+                .description("実行中の同じキーの処理の結果を共有し、処理の実行を省略した件数")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 指定されたキーの処理を実行する。同じキーの処理が実行中の場合は、その完了を待機して結果を共有する。
+     *
+     * @param key       処理のキー
+     * @param operation 実行する処理
+     * @return 処理の実行結果
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 待機が中断された場合
+     */
+    public V execute(K key, RetryUtil.RetryableOperation<V> operation) throws SpotifyWebApiException {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        try {
+            V value = operation.execute();
+            flight.complete(value);
+            return value;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 指定されたキーの処理が実行中の場合はその完了を待機して結果を共有し、実行中でない場合は何も実行せずに空を返す。
+     *
+     * @param key 処理のキー
+     * @return 実行中の処理の結果。実行中の処理がない場合、または結果がnullの場合は空
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 待機が中断された場合
+     */
+    public Optional<V> join(K key) throws SpotifyWebApiException {
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing == null) {
+            return Optional.empty();
+        }
+        coalescedCounter.increment();
+        return Optional.ofNullable(await(existing));
+    }
+
+    /**
+     * 指定された複数のキーの処理を実行する。
+     * 実行中の処理がないキーのみをまとめて操作に渡し、他の呼び出し元が処理中のキーはその完了を待機して結果を共有する。
+     * 共有したキーの数は {@code singleflight.coalesced} にキーごとに計上する。
+     *
+     * @param keys      処理対象のキー
+     * @param operation 実行中の処理がないキーに対して実行する操作
+     * @return キーと処理結果のマップ。結果が存在しないキーは含まない
+     * @throws SpotifyWebApiException  Spotify API呼び出し時の例外
+     * @throws InternalServerException 待機が中断された場合
+     */
+    public Map<K, V> executeAll(Collection<K> keys, BatchOperation<K, V> operation) throws SpotifyWebApiException {
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> shared = new HashMap<>();
+        for (K key : keys) {
+            if (owned.containsKey(key) || shared.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                owned.put(key, flight);
+            } else {
+                shared.put(key, existing);
+            }
+        }
+        if (!shared.isEmpty()) {
+            coalescedCounter.increment(shared.size());
+        }
+
+        // 自身が担当するキーを先に処理してから待機するため、呼び出し元同士が互いの完了を待ち合うことはない
+        Map<K, V> results = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<K, V> loaded = operation.execute(List.copyOf(owned.keySet()));
+                owned.forEach((key, flight) -> {
+                    V value = loaded.get(key);
+                    flight.complete(value);
+                    if (value != null) {
+                        results.put(key, value);
+                    }
+                });
+            } catch (Throwable t) {
+                owned.values().forEach(flight -> flight.completeExceptionally(t));
+                throw t;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        for (Map.Entry<K, CompletableFuture<V>> entry : shared.entrySet()) {
+            V value = await(entry.getValue());
+            if (value != null) {
+                results.put(entry.getKey(), value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 他の呼び出し元が実行中の処理の完了を待機し、その結果を返す。
+     * 処理がSpotifyWebApiExceptionまたは実行時例外をスローした場合は、その例外をそのまま再スローする。
+     */
+    private V await(CompletableFuture<V> flight) throws SpotifyWebApiException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "実行中の処理の待機が中断されました。", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SpotifyWebApiException spotifyWebApiException) {
+                throw spotifyWebApiException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "実行中の処理でエラーが発生しました。", cause);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Spotify APIへのすべてのリクエストの送信前に、エンドポイントの種類ごとのトークンバケットで流量を制限するクラス。
+ * 429を受け取ってから停止するのではなく、クォータを下回る一定の速度でリクエストを送信することを目的とする。
+ */
+public class SpotifyRequestThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpotifyRequestThrottle.class);
+
+    /**
+     * 流量を個別に制限するSpotify APIエンドポイントの分類
+     */
+    public enum EndpointClass {
+        PLAYLIST_READ("playlist-read", 10, 20),
+        AUDIO_FEATURES("audio-features", 5, 10),
+        ARTISTS("artists", 5, 10),
+        SEARCH("search", 5, 10),
+        RECOMMENDATIONS("recommendations", 3, 5),
+        WRITE("write", 3, 5),
+        AUTH("auth", 1, 5),
+        OTHER("other", 5, 10);
+
+        private final String propertyKey;
+        private final double defaultRatePerSecond;
+        private final double defaultBurst;
+
+        EndpointClass(String propertyKey, double defaultRatePerSecond, double defaultBurst) {
+            this.propertyKey = propertyKey;
+            this.defaultRatePerSecond = defaultRatePerSecond;
+            this.defaultBurst = defaultBurst;
+        }
+
+        /**
+         * 設定プロパティのキー (spotify.throttle.&lt;キー&gt;.rate / .burst) に使用する名前を返す。
+         *
+         * @return 設定プロパティのキー
+         */
+        public String getPropertyKey() {
+            return propertyKey;
+        }
+
+        /**
+         * 1秒あたりのリクエスト数のデフォルト値を返す。
+         *
+         * @return 1秒あたりのリクエスト数
+         */
+        public double getDefaultRatePerSecond() {
+            return defaultRatePerSecond;
+        }
+
+        /**
+         * 瞬間的に許容するリクエスト数のデフォルト値を返す。
+         *
+         * @return 瞬間的に許容するリクエスト数
+         */
+        public double getDefaultBurst() {
+            return defaultBurst;
+        }
+
+        /**
+         * HTTPメソッドとURIからエンドポイントの分類を判定する。
+         *
+         * @param method HTTPメソッド
+         * @param uri    リクエストのURI
+         * @return エンドポイントの分類
+         */
+        public static EndpointClass classify(String method, URI uri) {
+            if ("accounts.spotify.com".equals(uri.getHost())) {
+                return AUTH;
+            }
+            if (!"GET".equals(method)) {
+                return WRITE;
+            }
+            String path = uri.getPath() != null ? uri.getPath() : "";
+            if (path.startsWith("/v1/audio-features")) {
+                return AUDIO_FEATURES;
+            }
+            if (path.startsWith("/v1/artists")) {
+                return ARTISTS;
+            }
+            if (path.startsWith("/v1/search")) {
+                return SEARCH;
+            }
+            if (path.startsWith("/v1/recommendations")) {
+                return RECOMMENDATIONS;
+            }
+            if (path.contains("/playlists")) {
+                return PLAYLIST_READ;
+            }
+            return OTHER;
+        }
+    }
+
+    private final Map<EndpointClass, TokenBucket> buckets;
+    private final Map<EndpointClass, Map<RequestPriority, Timer>> waitTimers = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+    private final long maxWaitNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * @param buckets       エンドポイントの分類ごとのトークンバケット
+     * @param maxWait       トークンの取得を待機する時間の上限
+     * @param meterRegistry メトリクスの登録先
+     */
+    public SpotifyRequestThrottle(Map<EndpointClass, TokenBucket> buckets, Duration maxWait, MeterRegistry meterRegistry) {
+        this.buckets = new EnumMap<>(buckets);
+        maxWaitNanos = maxWait.toNanos();
+        this.buckets.forEach((endpointClass, bucket) -> {
+            Gauge.builder("spotify.throttle.permits", bucket, TokenBucket::availableTokens)
+                    .description("Spotify APIの流量制限で現在利用可能なトークン数")
+                    .tag("endpoint", endpointClass.getPropertyKey())
+                    .register(meterRegistry);
+
+            // 待機時間はすべてのリクエストで記録するため、タイマーと破棄数のカウンターは事前に作成しておきリクエストごとにレジストリを参照しない
+            Map<RequestPriority, Timer> timers = new EnumMap<>(RequestPriority.class);
+            for (RequestPriority priority : RequestPriority.values()) {
+                timers.put(priority, Timer.builder("spotify.throttle.wait")
+                        .description("Spotify APIの流量制限によるリクエストの待機時間")
+                        .tag("endpoint", endpointClass.getPropertyKey())
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            waitTimers.put(endpointClass, timers);
+            rejectedCounters.put(endpointClass, Counter.builder("spotify.throttle.rejected")
+                    .description("Spotify APIの流量制限により送信しなかったリクエスト数")
+                    .tag("endpoint", endpointClass.getPropertyKey())
+                    .register(meterRegistry));
+        });
+    }
+
+    /**
+     * リクエストの送信前にトークンを取得する。トークンが不足している場合は補充されるまで待機する。
+     * 現在のスレッドの {@link RequestPriority} がINTERACTIVEのリクエストは、BACKGROUNDのリクエストより先にトークンを取得する。
+     *
+     * @param method HTTPメソッド
+     * @param uri    リクエストのURI
+     * @throws InternalServerException 待機時間の上限に達した場合、または待機中に割り込まれた場合
+     */
+    public void acquire(String method, URI uri) {
+        acquire(EndpointClass.classify(method, uri));
+    }
+
+    /**
+     * 指定された分類のエンドポイントへのリクエストの送信前にトークンを取得する。
+     * URIから分類を判定できないリクエスト (モックAPIへのリクエストなど) に使用する。
+     *
+     * @param endpointClass エンドポイントの分類
+     * @throws InternalServerException 待機時間の上限に達した場合、または待機中に割り込まれた場合
+     */
+    public void acquire(EndpointClass endpointClass) {
+        TokenBucket bucket = buckets.get(endpointClass);
+        if (bucket == null) {
+            return;
+        }
+
+        RequestPriority priority = RequestPriority.current();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = bucket.tryAcquire(priority, maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Spotify APIの呼び出し待機が中断されました。", e);
+        }
+        recordWait(endpointClass, priority, System.nanoTime() - start);
+
+        if (!acquired) {
+            throw rejected(endpointClass, priority);
+        }
+    }
+
+    /**
+     * リクエストの送信前にトークンを予約し、トークンが補充されるまでスレッドを占有せずに遅延する。
+     * WebClientによるリアクティブな処理から使用し、リクエストはすべてINTERACTIVEとして扱う。
+     *
+     * @param method HTTPメソッド
+     * @param uri    リクエストのURI
+     * @return トークンを取得できた時点で完了するMono。待機時間の上限を超える場合は {@link InternalServerException} で失敗する
+     */
+    public Mono<Void> acquireAsync(String method, URI uri) {
+        return Mono.defer(() -> acquireAsync(EndpointClass.classify(method, uri)));
+    }
+
+    /**
+     * 指定された分類のエンドポイントへのリクエストの送信前にトークンを予約し、トークンが補充されるまでスレッドを占有せずに遅延する。
+     * URIから分類を判定できないリクエスト (モックAPIへのリクエストなど) に使用する。
+     *
+     * @param endpointClass エンドポイントの分類
+     * @return トークンを取得できた時点で完了するMono。待機時間の上限を超える場合は {@link InternalServerException} で失敗する
+     */
+    public Mono<Void> acquireAsync(EndpointClass endpointClass) {
+        return Mono.defer(() -> {
+            TokenBucket bucket = buckets.get(endpointClass);
+            if (bucket == null) {
+                return Mono.empty();
+            }
+
+            long waitNanos = bucket.reserve(maxWaitNanos);
+            if (waitNanos < 0) {
+                recordWait(endpointClass, RequestPriority.INTERACTIVE, 0);
+                return Mono.error(rejected(endpointClass, RequestPriority.INTERACTIVE));
+            }
+            recordWait(endpointClass, RequestPriority.INTERACTIVE, waitNanos);
+            return waitNanos == 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+        });
+    }
+
+    private void recordWait(EndpointClass endpointClass, RequestPriority priority, long waitNanos) {
+        waitTimers.get(endpointClass).get(priority).record(Duration.ofNanos(waitNanos));
+    }
+
+    private InternalServerException rejected(EndpointClass endpointClass, RequestPriority priority) {
+        rejectedCounters.get(endpointClass).increment();
+        logger.warn("Spotify APIの流量制限によりリクエストを破棄します。 endpoint: {}, priority: {}", endpointClass.getPropertyKey(), priority);
+        return new InternalServerException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Spotify APIへのリクエストが混み合っているため、処理できませんでした。しばらくしてから再度お試しください。"
+        );
+    }
+}
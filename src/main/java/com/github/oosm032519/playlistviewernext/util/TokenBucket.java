@@ -0,0 +1,130 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 一定の速度でトークンを補充するトークンバケット。
+ * トークンが不足している場合、呼び出し元はトークンが補充されるまで待機する。
+ * {@link RequestPriority#INTERACTIVE} の待機者がいる間は {@link RequestPriority#BACKGROUND} の呼び出し元にトークンを渡さない。
+ * スレッドを待機させられない呼び出し元 (リアクティブな処理) は {@link #reserve(long)} で将来のトークンを予約し、返された時間だけ遅延させてから送信する。
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition tokenReleased = lock.newCondition();
+
+    private double tokens;
+    private long lastRefillNanos;
+    private int interactiveWaiters;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ratePerSecond 1秒あたりに補充するトークン数
+     * @param capacity      バケットに保持できるトークン数の上限 (瞬間的に許容するリクエスト数)
+     */
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.capacity = Math.max(1, capacity);
+        tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        tokens = this.capacity;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * トークンを1つ取得する。トークンが不足している場合は補充されるまで待機する。
+     *
+     * @param priority     リクエストの優先度
+     * @param maxWaitNanos 待機時間の上限 (ナノ秒)
+     * @return トークンを取得できた場合はtrue、待機時間の上限に達した場合はfalse
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public boolean tryAcquire(RequestPriority priority, long maxWaitNanos) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + maxWaitNanos;
+        boolean interactive = priority == RequestPriority.INTERACTIVE;
+        lock.lockInterruptibly();
+        try {
+            if (interactive) {
+                interactiveWaiters++;
+            }
+            try {
+                while (true) {
+                    refill();
+                    boolean eligible = interactive || interactiveWaiters == 0;
+                    if (eligible && tokens >= 1) {
+                        tokens -= 1;
+                        return true;
+                    }
+                    long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    // 次のトークンが補充されるまで、または優先度の高い待機者がいなくなるまで待機する
+                    tokenReleased.awaitNanos(Math.min(remainingNanos, nanosUntilNextToken()));
+                }
+            } finally {
+                if (interactive) {
+                    interactiveWaiters--;
+                }
+                tokenReleased.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 待機せずにトークンを1つ予約し、トークンが補充されるまでの待機時間を返す。
+     * トークンが不足している場合は将来補充されるトークンを前借りするため、予約後の利用可能なトークン数は負になることがある。
+     * 予約した呼び出し元はINTERACTIVEとして扱い、BACKGROUNDの待機者より先にトークンを受け取る。
+     *
+     * @param maxWaitNanos 待機時間の上限 (ナノ秒)
+     * @return 送信までに待機する時間 (ナノ秒)。待機時間の上限を超える場合は予約せずに-1
+     */
+    public long reserve(long maxWaitNanos) {
+        lock.lock();
+        try {
+            refill();
+            long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return waitNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 現在利用可能なトークン数を返す。
+     *
+     * @return 利用可能なトークン数
+     */
+    public double availableTokens() {
+        lock.lock();
+        try {
+            refill();
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    private long nanosUntilNextToken() {
+        if (tokens >= 1) {
+            // トークンはあるが優先度の高い待機者に譲っている場合は、短い間隔で再確認する
+            return TimeUnit.MILLISECONDS.toNanos(10);
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+}
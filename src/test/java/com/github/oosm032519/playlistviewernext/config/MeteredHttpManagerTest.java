@@ -0,0 +1,67 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.http.Header;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.IHttpManager;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredHttpManagerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IHttpManager delegate = mock(IHttpManager.class);
+    private final MeteredHttpManager httpManager = new MeteredHttpManager(delegate, meterRegistry);
+
+    /**
+     * 成功したリクエストが、エンドポイントの分類とステータスのタグを持つTimerに記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 成功したリクエストがエンドポイントごとに記録される")
+    void get_ShouldRecordSuccessfulRequestByEndpoint() throws Exception {
+        // Arrange: テストデータの準備
+        URI uri = URI.create("https://api.spotify.com/v1/audio-features?ids=a,b");
+        when(delegate.get(any(), any())).thenReturn("{}");
+
+        // Act: テスト対象メソッドの実行
+        String body = httpManager.get(uri, new Header[0]);
+
+        // Assert: 結果の検証
+        assertThat(body).isEqualTo("{}");
+        Timer timer = meterRegistry.find(MeteredHttpManager.METRIC_NAME)
+                .tags("endpoint", "audio-features", "method", "GET", "status", "2xx")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    /**
+     * 失敗したリクエストが例外に対応するステータスで記録され、例外がそのままスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 429の応答がステータス429として記録される")
+    void get_ShouldRecordStatusOfFailedRequest() throws Exception {
+        // Arrange: テストデータの準備
+        URI uri = URI.create("https://api.spotify.com/v1/playlists/abc/tracks");
+        when(delegate.get(any(), any())).thenThrow(new TooManyRequestsException("rate limited", 3));
+
+        // Act & Assert: テスト対象メソッドの実行と例外の検証
+        assertThatThrownBy(() -> httpManager.get(uri, new Header[0])).isInstanceOf(TooManyRequestsException.class);
+
+        Timer timer = meterRegistry.find(MeteredHttpManager.METRIC_NAME)
+                .tags("endpoint", "playlist-read", "status", "429")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
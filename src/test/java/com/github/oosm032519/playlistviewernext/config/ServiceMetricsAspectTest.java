@@ -0,0 +1,80 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import com.github.oosm032519.playlistviewernext.service.analytics.GenreAggregatorService;
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyArtistService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ServiceMetricsAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GenreAggregatorService proxy;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new GenreAggregatorService(mock(SpotifyArtistService.class)));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    /**
+     * サービスメソッドの実行時間が、サービス名・メソッド名・結果のタグを持つTimerに記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 正常終了した呼び出しがsuccessのTimerに記録される")
+    void recordExecutionTime_ShouldRecordSuccessfulCalls() {
+        // Act: テスト対象メソッドの実行
+        proxy.getTopGenres(Map.of("rock", 3, "pop", 1), 1);
+        proxy.getTopGenres(Map.of("jazz", 2), 1);
+
+        // Assert: 結果の検証
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("service", "GenreAggregatorService", "method", "getTopGenres", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    /**
+     * 例外をスローした呼び出しがerrorのTimerに記録され、例外がそのままスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 例外をスローした呼び出しがerrorのTimerに記録される")
+    void recordExecutionTime_ShouldRecordFailedCalls() {
+        // Act & Assert: テスト対象メソッドの実行と例外の検証
+        assertThatThrownBy(() -> proxy.getTopGenres(null, 1)).isInstanceOf(NullPointerException.class);
+
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("method", "getTopGenres", "outcome", "error")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    /**
+     * 例外をスローしていないメソッドについて、errorのTimerが登録されないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 例外をスローしていないメソッドのerrorのTimerは登録されない")
+    void recordExecutionTime_ShouldNotRegisterErrorTimerUntilFailure() {
+        // Act: テスト対象メソッドの実行
+        proxy.getTopGenres(Map.of("rock", 3), 1);
+
+        // Assert: 結果の検証
+        assertThat(meterRegistry.find(ServiceMetricsAspect.METRIC_NAME)
+                .tags("method", "getTopGenres", "outcome", "error")
+                .timer()).isNull();
+    }
+}
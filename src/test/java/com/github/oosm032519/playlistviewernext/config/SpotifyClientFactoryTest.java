@@ -0,0 +1,32 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.IHttpManager;
+import se.michaelthelin.spotify.SpotifyApi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SpotifyClientFactoryTest {
+
+    /**
+     * アクセストークンごとに別のSpotifyApiインスタンスが生成され、IHttpManagerが共有されることを確認する。
+     */
+    @Test
+    void forAccessToken_CreatesIndependentClientsSharingHttpManager() {
+        // Arrange: テストデータの準備
+        IHttpManager httpManager = mock(IHttpManager.class);
+        SpotifyClientFactory factory = new SpotifyClientFactory(httpManager);
+
+        // Act: テスト対象メソッドの実行
+        SpotifyApi first = factory.forAccessToken("token-a");
+        SpotifyApi second = factory.forAccessToken("token-b");
+
+        // Assert: 結果の検証
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getAccessToken()).isEqualTo("token-a");
+        assertThat(second.getAccessToken()).isEqualTo("token-b");
+        assertThat(first.getHttpManager()).isSameAs(httpManager);
+        assertThat(second.getHttpManager()).isSameAs(httpManager);
+    }
+}
@@ -32,6 +32,8 @@ class SpotifyLoginSuccessHandlerTest {
     @Mock
     private RedisTemplate<String, String> redisTemplate;
     @Mock
+    private SpotifyClientFactory spotifyClientFactory;
+    @Mock
     private SpotifyApi spotifyApi;
     @Mock
     private HttpServletRequest request;
@@ -52,7 +54,8 @@ class SpotifyLoginSuccessHandlerTest {
         // Arrange: テストデータの準備とモックの設定
         // handler の初期化をここで行う
         handler = new SpotifyLoginSuccessHandler(frontendUrl, false);
-        handler.spotifyApi = spotifyApi;
+        handler.spotifyClientFactory = spotifyClientFactory;
+        when(spotifyClientFactory.forAccessToken("accessToken")).thenReturn(spotifyApi);
         handler.redisTemplate = redisTemplate;
 
         when(authentication.getPrincipal()).thenReturn(oauth2User);
@@ -78,7 +81,7 @@ class SpotifyLoginSuccessHandlerTest {
         handler.onAuthenticationSuccess(request, response, authentication);
 
         // Assert: 期待される結果の検証
-        verify(spotifyApi).setAccessToken("accessToken");
+        verify(spotifyClientFactory).forAccessToken("accessToken");
         verify(hashOperations).putAll(anyString(), any(Map.class));
         verify(valueOperations).set(anyString(), anyString(), eq(5L), eq(TimeUnit.MINUTES));
         verify(response).sendRedirect(startsWith(frontendUrl + "#token="));
@@ -92,7 +95,8 @@ class SpotifyLoginSuccessHandlerTest {
         // Arrange: テストデータの準備とモックの設定
         // handler の初期化をここで行う
         handler = new SpotifyLoginSuccessHandler(frontendUrl, false);
-        handler.spotifyApi = spotifyApi;
+        handler.spotifyClientFactory = spotifyClientFactory;
+        when(spotifyClientFactory.forAccessToken("accessToken")).thenReturn(spotifyApi);
         handler.redisTemplate = redisTemplate;
 
         when(authentication.getPrincipal()).thenReturn(oauth2User);
@@ -115,7 +119,7 @@ class SpotifyLoginSuccessHandlerTest {
         handler.onAuthenticationSuccess(request, response, authentication);
 
         // Assert: 期待される結果の検証
-        verify(spotifyApi).setAccessToken("accessToken");
+        verify(spotifyClientFactory).forAccessToken("accessToken");
         verify(hashOperations).putAll(anyString(), any(Map.class));
         verify(valueOperations).set(anyString(), anyString(), eq(5L), eq(TimeUnit.MINUTES));
         verify(response).sendRedirect(startsWith(frontendUrl + "#token="));
@@ -129,7 +133,8 @@ class SpotifyLoginSuccessHandlerTest {
         // Arrange: テストデータの準備とモックの設定
         // handler の初期化をここで行う
         handler = new SpotifyLoginSuccessHandler(frontendUrl, false);
-        handler.spotifyApi = spotifyApi;
+        handler.spotifyClientFactory = spotifyClientFactory;
+        when(spotifyClientFactory.forAccessToken("accessToken")).thenReturn(spotifyApi);
         handler.redisTemplate = redisTemplate;
 
         when(authentication.getPrincipal()).thenReturn(oauth2User);
@@ -152,7 +157,7 @@ class SpotifyLoginSuccessHandlerTest {
         handler.onAuthenticationSuccess(request, response, authentication);
 
         // Assert: 期待される結果の検証
-        verify(spotifyApi).setAccessToken("accessToken");
+        verify(spotifyClientFactory).forAccessToken("accessToken");
         verify(hashOperations).putAll(anyString(), any(Map.class));
         verify(valueOperations).set(anyString(), anyString(), eq(5L), eq(TimeUnit.MINUTES));
         verify(response).sendRedirect(startsWith(frontendUrl + "#token="));
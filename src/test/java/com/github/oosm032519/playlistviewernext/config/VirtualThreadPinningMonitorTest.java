@@ -0,0 +1,57 @@
+package com.github.oosm032519.playlistviewernext.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ZERO);
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    /**
+     * synchronizedブロック内でブロッキングした仮想スレッドの固定が、Timerに記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 仮想スレッドの固定がTimerに記録される")
+    void start_ShouldRecordPinnedVirtualThreads() throws Exception {
+        // Arrange: 監視を開始
+        monitor.start();
+        Object monitorObject = new Object();
+
+        // Act: synchronizedブロック内でスリープして仮想スレッドを固定させる
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitorObject) {
+                sleep(20);
+            }
+        }).join();
+
+        // Assert: JFRイベントが配信されるまで待機して結果を検証
+        Timer timer = meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME).timer();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (timer.count() == 0 && System.nanoTime() < deadline) {
+            sleep(100);
+        }
+        assertThat(timer.count()).isPositive();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,24 +1,62 @@
 package com.github.oosm032519.playlistviewernext.controller.playlist;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.exception.GlobalExceptionHandler;
+import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
 import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
-import com.github.oosm032519.playlistviewernext.service.analytics.PlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.service.analytics.SpotifyPlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistDetailsCache;
+import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsJsonWriter;
 import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsRetrievalService;
+import com.github.oosm032519.playlistviewernext.service.playlist.ReactivePlaylistDetailsService;
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistDetailsService;
+import com.github.oosm032519.playlistviewernext.service.playlist.TrackDataRetriever;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.RateLimitCoordinator;
+import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
+import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistRequest;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class PlaylistDetailsControllerTest {
@@ -27,7 +65,10 @@ class PlaylistDetailsControllerTest {
     private PlaylistDetailsRetrievalService playlistDetailsRetrievalService;
 
     @Mock
-    private PlaylistAnalyticsService playlistAnalyticsService;
+    private ReactivePlaylistDetailsService reactivePlaylistDetailsService;
+
+    @Mock
+    private PlaylistDetailsJsonWriter playlistDetailsJsonWriter;
 
     @InjectMocks
     private PlaylistDetailsController detailsController;
@@ -39,14 +80,14 @@ class PlaylistDetailsControllerTest {
     void shouldReturnPlaylistDetailsSuccessfully() {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
-        Map<String, Object> playlistDetails = new HashMap<>(createTestPlaylistDetails());
         Map<String, Integer> genreCounts = new HashMap<>(Map.of("pop", 2, "rock", 1));
+        Map<String, Object> playlistDetails = new HashMap<>(createTestPlaylistDetails());
+        playlistDetails.put("genreCounts", genreCounts);
 
-        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId)).thenReturn(playlistDetails);
-        when(playlistAnalyticsService.getGenreCountsForPlaylist(playlistId)).thenReturn(genreCounts);
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, null)).thenReturn(playlistDetails);
 
         // Act: テスト対象メソッドの実行
-        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetails(playlistId);
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest());
 
         // Assert: 結果の検証
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -57,8 +98,118 @@ class PlaylistDetailsControllerTest {
         assertThat(response.getBody().get("ownerId")).isEqualTo("ownerId");
         assertThat(response.getBody().get("ownerName")).isEqualTo("Owner Name");
 
-        verify(playlistDetailsRetrievalService).getPlaylistDetails(playlistId);
-        verify(playlistAnalyticsService).getGenreCountsForPlaylist(playlistId);
+        verify(playlistDetailsRetrievalService).getPlaylistDetails(playlistId, null);
+    }
+
+    /**
+     * snapshot_idを取得できた場合に、取得済みのsnapshot_idで詳細情報を取得し、ETagとCache-Controlを設定して返すことを確認する。
+     */
+    @Test
+    void shouldReturnETagDerivedFromSnapshotId() {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> playlistDetails = createTestPlaylistDetails();
+        when(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1")).thenReturn(playlistDetails);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest());
+
+        // Assert: 結果の検証
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(playlistDetails);
+        assertThat(response.getHeaders().getETag()).startsWith("W/\"");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+
+        // snapshot_idまたは返す項目が異なる場合は、異なるETagとなる
+        when(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot2");
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot2")).thenReturn(playlistDetails);
+        String changedETag = detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest()).getHeaders().getETag();
+        String projectedETag = detailsController.getPlaylistDetails(playlistId, "playlistName", new MockHttpServletRequest()).getHeaders().getETag();
+        assertThat(changedETag).isNotEqualTo(response.getHeaders().getETag());
+        assertThat(projectedETag).isNotEqualTo(changedETag);
+    }
+
+    /**
+     * If-None-MatchがETagと一致する場合に、詳細情報を取得せずに本文のない304を返すことを確認する。
+     */
+    @Test
+    void shouldReturnNotModifiedWhenETagMatches() {
+        // Arrange: 1回目のレスポンスのETagを取得
+        String playlistId = "testPlaylistId";
+        when(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1")).thenReturn(createTestPlaylistDetails());
+        String eTag = detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest()).getHeaders().getETag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/playlists/" + playlistId + "/details");
+        request.addHeader("If-None-Match", eTag);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetails(playlistId, null, request);
+
+        // Assert: 結果の検証
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+        verify(playlistDetailsRetrievalService).getPlaylistDetails(playlistId, "snapshot1");
+    }
+
+    /**
+     * ノンブロッキングな詳細取得でも、If-None-MatchがETagと一致する場合は詳細情報を取得せずに304を返すことを確認する。
+     */
+    @Test
+    void shouldReturnNotModifiedReactivelyWhenETagMatches() {
+        // Arrange: 1回目のレスポンスのETagを取得
+        String playlistId = "testPlaylistId";
+        when(reactivePlaylistDetailsService.getPlaylistSnapshotId(playlistId)).thenReturn(Mono.just("snapshot1"));
+        when(reactivePlaylistDetailsService.getPlaylistDetails(playlistId, "snapshot1")).thenReturn(Mono.just(createTestPlaylistDetails()));
+        ResponseEntity<Map<String, Object>> first = detailsController.getPlaylistDetailsReactive(playlistId, null, new MockHttpServletRequest()).block();
+        assertThat(first).isNotNull();
+        String eTag = first.getHeaders().getETag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/playlists/" + playlistId + "/details/reactive");
+        request.addHeader("If-None-Match", eTag);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetailsReactive(playlistId, null, request).block();
+
+        // Assert: 結果の検証
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        verify(reactivePlaylistDetailsService).getPlaylistDetails(playlistId, "snapshot1");
+        verify(reactivePlaylistDetailsService, never()).getPlaylistDetails(anyString());
+    }
+
+    /**
+     * fields パラメータを指定した場合に、指定された項目のみを返し、入れ子の項目も指定どおりに書き込まれることを確認する。
+     */
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> playlistDetails = createTestPlaylistDetails();
+        playlistDetails.put("tracks", Map.of("items", List.of(Map.of("track", Map.of("id", "track1", "name", "Track 1")))));
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, null)).thenReturn(playlistDetails);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetails(playlistId, "playlistName,tracks(items(track(name)))", new MockHttpServletRequest());
+
+        // Assert: 結果の検証
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody()).containsOnlyKeys("playlistName", "tracks");
+        assertThat(new ObjectMapper().writeValueAsString(response.getBody()))
+                .isEqualTo("{\"playlistName\":\"Test Playlist\",\"tracks\":{\"items\":[{\"track\":{\"name\":\"Track 1\"}}]}}");
+    }
+
+    /**
+     * fields パラメータの書式が不正な場合に、詳細情報を取得せずにInvalidRequestExceptionがスローされることを確認する。
+     */
+    @Test
+    void shouldRejectInvalidFields() {
+        // Act & Assert: 例外がスローされることの確認
+        Throwable thrown = catchThrowable(() -> detailsController.getPlaylistDetails("testPlaylistId", "tracks(items", new MockHttpServletRequest()));
+        assertThat(thrown).isInstanceOf(InvalidRequestException.class);
+
+        verifyNoInteractions(playlistDetailsRetrievalService);
     }
 
     private Map<String, Object> createTestPlaylistDetails() {
@@ -81,12 +232,165 @@ class PlaylistDetailsControllerTest {
         // Arrange: モックの設定
         String playlistId = "testPlaylistId";
         ResourceNotFoundException exception = new ResourceNotFoundException(HttpStatus.NOT_FOUND, "RESOURCE_NOT_FOUND");
-        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId)).thenThrow(exception);
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, null)).thenThrow(exception);
 
         // Act & Assert: 例外がスローされることの確認
-        Throwable thrown = catchThrowable(() -> detailsController.getPlaylistDetails(playlistId));
+        Throwable thrown = catchThrowable(() -> detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest()));
         assertThat(thrown).isSameAs(exception);
 
-        verify(playlistDetailsRetrievalService).getPlaylistDetails(playlistId);
+        verify(playlistDetailsRetrievalService).getPlaylistDetails(playlistId, null);
+    }
+
+    /**
+     * Spotify APIのレート制限中にリクエストが破棄された場合、途中のサービスで500にラップされず、
+     * コントローラーから例外ハンドラーまでを通して503が返されることを確認する。
+     */
+    @Test
+    void shouldReturnServiceUnavailableWhenRequestIsShedDuringRateLimit() throws Exception {
+        // Arrange: 上流APIが長いRetry-Afterで429を返し、以降のリクエストが待機せずに破棄されるように設定
+        String playlistId = "testPlaylistId";
+        SpotifyApi spotifyApi = mock(SpotifyApi.class);
+        GetPlaylistRequest.Builder getPlaylistRequestBuilder = mock(GetPlaylistRequest.Builder.class);
+        GetPlaylistRequest getPlaylistRequest = mock(GetPlaylistRequest.class);
+        when(spotifyApi.getPlaylist(playlistId)).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.fields(anyString())).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.build()).thenReturn(getPlaylistRequest);
+        when(getPlaylistRequest.execute()).thenThrow(new TooManyRequestsException("Too Many Requests", 60));
+
+        ParallelFetchExecutor parallelFetchExecutor = new ParallelFetchExecutor(1);
+        SpotifyPlaylistDetailsService spotifyPlaylistDetailsService = new SpotifyPlaylistDetailsService(
+                spotifyApi, new MockApiClient(WebClient.builder(), mock(SpotifyRequestThrottle.class)), new ObjectMapper(), parallelFetchExecutor);
+        PlaylistDetailsRetrievalService retrievalService = new PlaylistDetailsRetrievalService(
+                spotifyPlaylistDetailsService, null, mock(TrackDataRetriever.class), mock(SpotifyPlaylistAnalyticsService.class),
+                null, parallelFetchExecutor, mock(PlaylistDetailsCache.class), new SimpleMeterRegistry());
+        PlaylistDetailsController controller = new PlaylistDetailsController(retrievalService, null, reactivePlaylistDetailsService, playlistDetailsJsonWriter);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(RateLimitCoordinator.DEFAULT_MAX_WAIT, RateLimitCoordinator.DEFAULT_MAX_WAITERS));
+
+        try {
+            // Act & Assert: 503が返される
+            mockMvc.perform(get("/api/playlists/{id}/details", playlistId))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(RateLimitCoordinator.DEFAULT_MAX_WAIT, RateLimitCoordinator.DEFAULT_MAX_WAITERS));
+            parallelFetchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * ノンブロッキングな詳細取得のエンドポイントが、サービスの結果をResponseEntityとして返すMonoを返すことを確認する。
+     */
+    @Test
+    void shouldReturnPlaylistDetailsReactively() {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> playlistDetails = createTestPlaylistDetails();
+        when(reactivePlaylistDetailsService.getPlaylistSnapshotId(playlistId)).thenReturn(Mono.empty());
+        when(reactivePlaylistDetailsService.getPlaylistDetails(playlistId, null)).thenReturn(Mono.just(playlistDetails));
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<Map<String, Object>> response = detailsController.getPlaylistDetailsReactive(playlistId, null, new MockHttpServletRequest()).block();
+
+        // Assert: 結果の検証
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(playlistDetails);
+        verify(reactivePlaylistDetailsService).getPlaylistDetails(playlistId, null);
+    }
+
+    /**
+     * 段階的な詳細取得のエンドポイントが、サービスが発行したイベントをイベント名とデータを持つServer-Sent Eventsに変換することを確認する。
+     */
+    @Test
+    void shouldStreamPlaylistDetailsAsServerSentEvents() {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        when(reactivePlaylistDetailsService.streamPlaylistDetails(playlistId)).thenReturn(Flux.just(
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, Map.of("playlistName", "Test Playlist")),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of("trackCount", 0L))));
+
+        // Act: テスト対象メソッドの実行
+        List<ServerSentEvent<Object>> events = detailsController.streamPlaylistDetails(playlistId).collectList().block();
+
+        // Assert: 結果の検証
+        assertThat(events).extracting(ServerSentEvent::event)
+                .containsExactly(PlaylistDetailsEvent.PLAYLIST, PlaylistDetailsEvent.COMPLETE);
+        assertThat(events.get(0).data()).isEqualTo(Map.of("playlistName", "Test Playlist"));
+        verify(reactivePlaylistDetailsService).streamPlaylistDetails(playlistId);
+    }
+
+    /**
+     * 書き込みながら返す詳細取得のエンドポイントが、サービスが発行したイベントをJSONの書き込みクラスに渡すStreamingResponseBodyを返すことを確認する。
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWritePlaylistDetailsWhileStreaming() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        PlaylistDetailsEvent event = new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, Map.of("playlistName", "Test Playlist"));
+        when(reactivePlaylistDetailsService.streamPlaylistDetails(playlistId)).thenReturn(Flux.just(event));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<StreamingResponseBody> response = detailsController.getPlaylistDetailsStreaming(playlistId, null, new MockHttpServletRequest());
+        response.getBody().writeTo(outputStream);
+
+        // Assert: 結果の検証
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        ArgumentCaptor<Iterable<PlaylistDetailsEvent>> events = ArgumentCaptor.forClass(Iterable.class);
+        verify(playlistDetailsJsonWriter).write(events.capture(), eq(outputStream), isNull());
+        assertThat(events.getValue()).containsExactly(event);
+    }
+
+    /**
+     * 書き込みながら返す詳細取得でも、作成済みのレスポンスがある場合はページごとに取得せずにそのレスポンスを書き込み、
+     * /{id}/details と同じETagを設定することを確認する。
+     */
+    @Test
+    void shouldWriteFoundPlaylistDetailsWhileStreaming() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> playlistDetails = createTestPlaylistDetails();
+        when(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsRetrievalService.findPlaylistDetails(playlistId, "snapshot1")).thenReturn(Optional.of(playlistDetails));
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1")).thenReturn(playlistDetails);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<StreamingResponseBody> response = detailsController.getPlaylistDetailsStreaming(playlistId, null, new MockHttpServletRequest());
+        response.getBody().writeTo(outputStream);
+
+        // Assert: 結果の検証
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag())
+                .isEqualTo(detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest()).getHeaders().getETag());
+        verify(playlistDetailsJsonWriter).write(eq(playlistDetails), eq(outputStream), isNull());
+        verifyNoInteractions(reactivePlaylistDetailsService);
+    }
+
+    /**
+     * 書き込みながら返す詳細取得でも、If-None-MatchがETagと一致する場合は詳細情報を取得せずに304を返すことを確認する。
+     */
+    @Test
+    void shouldReturnNotModifiedWhileStreamingWhenETagMatches() {
+        // Arrange: /{id}/details のETagを取得
+        String playlistId = "testPlaylistId";
+        when(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1")).thenReturn(createTestPlaylistDetails());
+        String eTag = detailsController.getPlaylistDetails(playlistId, null, new MockHttpServletRequest()).getHeaders().getETag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/playlists/" + playlistId + "/details/streaming");
+        request.addHeader("If-None-Match", eTag);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<StreamingResponseBody> response = detailsController.getPlaylistDetailsStreaming(playlistId, null, request);
+
+        // Assert: 結果の検証
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        verify(playlistDetailsRetrievalService, never()).findPlaylistDetails(anyString(), anyString());
+        verifyNoInteractions(reactivePlaylistDetailsService, playlistDetailsJsonWriter);
     }
 }
@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 import java.security.NoSuchAlgorithmException;
@@ -18,6 +19,7 @@ import java.util.List;
 import java.util.Objects;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,7 +56,7 @@ public class UserFavoritePlaylistsControllerTest {
         when(userFavoritePlaylistsService.getFavoritePlaylists(hashedUserId)).thenReturn(expectedPlaylists);
 
         // Act: テスト対象メソッドの実行
-        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal);
+        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal, new MockHttpServletRequest());
 
         // Assert: アサーション
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -78,10 +80,69 @@ public class UserFavoritePlaylistsControllerTest {
         when(userFavoritePlaylistsService.getFavoritePlaylists(hashedUserId)).thenReturn(expectedPlaylists);
 
         // Act: テスト対象メソッドの実行
-        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal);
+        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal, new MockHttpServletRequest());
 
         // Assert: アサーション
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(responseEntity.getBody()).isEqualTo(expectedPlaylists); // 空のリストが返されることを確認
     }
+
+    /**
+     * If-None-Matchがユーザーとお気に入りのバージョンから作成したETagと一致する場合に、一覧を取得せずに本文のない304を返すことを確認する。
+     */
+    @Test
+    public void testGetFavoritePlaylists_NotModified() throws NoSuchAlgorithmException {
+        // Arrange: 1回目のレスポンスのETagを取得
+        String userId = "testUserId";
+        String hashedUserId = "hashedTestUserId";
+        when(principal.getAttribute("id")).thenReturn(userId);
+        when(hashUtil.hashUserId(userId)).thenReturn(hashedUserId);
+        when(userFavoritePlaylistsService.getFavoritePlaylistsVersion(hashedUserId)).thenReturn("2:15");
+        when(userFavoritePlaylistsService.getFavoritePlaylists(hashedUserId)).thenReturn(List.of());
+        ResponseEntity<?> first = userFavoritePlaylistsController.getFavoritePlaylists(principal, new MockHttpServletRequest());
+        String eTag = first.getHeaders().getETag();
+        assertThat(eTag).startsWith("W/\"");
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/playlists/favorites");
+        request.addHeader("If-None-Match", eTag);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal, request);
+
+        // Assert: アサーション
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(responseEntity.getBody()).isNull();
+        verify(userFavoritePlaylistsService).getFavoritePlaylists(hashedUserId);
+    }
+
+    /**
+     * お気に入りのバージョンが変わった場合は、If-None-Matchに以前のETagを指定しても一覧を返すことを確認する。
+     */
+    @Test
+    public void testGetFavoritePlaylists_ModifiedAfterVersionChange() throws NoSuchAlgorithmException {
+        // Arrange: 1回目のレスポンスのETagを取得した後、お気に入りを追加
+        String userId = "testUserId";
+        String hashedUserId = "hashedTestUserId";
+        List<FavoritePlaylistResponse> expectedPlaylists = List.of(
+                new FavoritePlaylistResponse("playlistId1", "playlistName1", "ownerName1", 10, (LocalDateTime) null));
+        when(principal.getAttribute("id")).thenReturn(userId);
+        when(hashUtil.hashUserId(userId)).thenReturn(hashedUserId);
+        when(userFavoritePlaylistsService.getFavoritePlaylistsVersion(hashedUserId)).thenReturn("0:null");
+        when(userFavoritePlaylistsService.getFavoritePlaylists(hashedUserId)).thenReturn(List.of());
+        String eTag = userFavoritePlaylistsController.getFavoritePlaylists(principal, new MockHttpServletRequest()).getHeaders().getETag();
+        when(userFavoritePlaylistsService.getFavoritePlaylistsVersion(hashedUserId)).thenReturn("1:16");
+        when(userFavoritePlaylistsService.getFavoritePlaylists(hashedUserId)).thenReturn(expectedPlaylists);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/playlists/favorites");
+        request.addHeader("If-None-Match", eTag);
+
+        // Act: テスト対象メソッドの実行
+        ResponseEntity<?> responseEntity = userFavoritePlaylistsController.getFavoritePlaylists(principal, request);
+
+        // Assert: アサーション
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(expectedPlaylists);
+        assertThat(responseEntity.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
 }
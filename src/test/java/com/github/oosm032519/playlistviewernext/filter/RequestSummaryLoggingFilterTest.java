@@ -0,0 +1,139 @@
+package com.github.oosm032519.playlistviewernext.filter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestSummaryLoggingFilterTest {
+
+    private final Logger filterLogger = (Logger) LoggerFactory.getLogger(RequestSummaryLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        filterLogger.addAppender(appender);
+        request = new MockHttpServletRequest("GET", "/api/playlists/abc/details");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/playlists/{id}/details");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.detachAppender(appender);
+    }
+
+    /**
+     * サンプリングの割合が1の場合、リクエストの要約がルートのパターン・ステータス・所要時間のキーを持つイベントとして出力されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: リクエストの要約が構造化されたイベントとして出力される")
+    void doFilterInternal_ShouldLogStructuredSummary() throws Exception {
+        // Arrange: テストデータの準備
+        RequestSummaryLoggingFilter filter = new RequestSummaryLoggingFilter(1.0, Duration.ofSeconds(1));
+        FilterChain chain = (req, res) -> response.setStatus(200);
+
+        // Act: テスト対象メソッドの実行
+        filter.doFilter(request, response, chain);
+
+        // Assert: 結果の検証
+        assertThat(appender.list).hasSize(1);
+        Map<String, Object> keyValues = keyValues(appender.list.getFirst());
+        assertThat(keyValues)
+                .containsEntry("method", "GET")
+                .containsEntry("route", "/api/playlists/{id}/details")
+                .containsEntry("status", 200)
+                .containsKey("durationMs");
+    }
+
+    /**
+     * サンプリングの割合が0の場合、正常で速いリクエストの要約は出力されないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: サンプリングされなかった正常なリクエストは出力されない")
+    void doFilterInternal_ShouldSkipUnsampledRequests() throws Exception {
+        // Arrange: テストデータの準備
+        RequestSummaryLoggingFilter filter = new RequestSummaryLoggingFilter(0.0, Duration.ofSeconds(1));
+
+        // Act: テスト対象メソッドの実行
+        filter.doFilter(request, response, (req, res) -> response.setStatus(200));
+
+        // Assert: 結果の検証
+        assertThat(appender.list).isEmpty();
+    }
+
+    /**
+     * サンプリングの割合が0でも、例外で終了したリクエストと閾値を超えたリクエストは出力されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: サーバーエラーと遅いリクエストは常に出力される")
+    void doFilterInternal_ShouldAlwaysLogErrorsAndSlowRequests() throws Exception {
+        // Arrange: テストデータの準備
+        RequestSummaryLoggingFilter errorFilter = new RequestSummaryLoggingFilter(0.0, Duration.ofSeconds(1));
+        RequestSummaryLoggingFilter slowFilter = new RequestSummaryLoggingFilter(0.0, Duration.ZERO);
+
+        // Act: テスト対象メソッドの実行
+        assertThatThrownBy(() -> errorFilter.doFilter(request, response, (req, res) -> {
+            throw new ServletException("failure");
+        })).isInstanceOf(ServletException.class);
+        slowFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        // Assert: 結果の検証
+        assertThat(appender.list).hasSize(2);
+        assertThat(keyValues(appender.list.get(0))).containsEntry("status", 500);
+        assertThat(keyValues(appender.list.get(1))).containsEntry("status", 200);
+    }
+
+    /**
+     * 非同期に処理されるリクエストは、最初のディスパッチでは出力されず、非同期処理の完了後のディスパッチで最終的なステータスとともに出力されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 非同期に処理されるリクエストは完了後に出力される")
+    void doFilterInternal_ShouldLogAsyncRequestsAfterCompletion() throws Exception {
+        // Arrange: テストデータの準備
+        RequestSummaryLoggingFilter filter = new RequestSummaryLoggingFilter(1.0, Duration.ofSeconds(1));
+        request.setAsyncSupported(true);
+
+        // Act: 非同期処理を開始する最初のディスパッチ
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        int loggedAfterFirstDispatch = appender.list.size();
+
+        // Act: 非同期処理の完了後のディスパッチ
+        request.getAsyncContext().complete();
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> response.setStatus(504));
+
+        // Assert: 結果の検証
+        assertThat(loggedAfterFirstDispatch).isZero();
+        assertThat(appender.list).hasSize(1);
+        assertThat(keyValues(appender.list.getFirst()))
+                .containsEntry("route", "/api/playlists/{id}/details")
+                .containsEntry("status", 504);
+    }
+
+    private static Map<String, Object> keyValues(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(pair -> pair.key, (KeyValuePair pair) -> pair.value));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.oosm032519.playlistviewernext.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neovisionaries.i18n.CountryCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.model_objects.specification.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactTrackTest {
+
+    /**
+     * SpotifyのTrackから必要な項目のみを取り出し、利用可能な国や外部IDなどの項目を持たないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: Trackから必要な項目のみを取り出す")
+    void from_ShouldKeepOnlyRequiredFields() throws Exception {
+        // Arrange: テストデータの準備
+        Track track = new Track.Builder()
+                .setId("track1")
+                .setName("Track 1")
+                .setUri("spotify:track:track1")
+                .setDurationMs(200000)
+                .setAvailableMarkets(new CountryCode[]{CountryCode.JP, CountryCode.US})
+                .setExternalIds(new ExternalId.Builder().setExternalIds(Map.of("isrc", "JPXX00000001")).build())
+                .setExternalUrls(new ExternalUrl.Builder().setExternalUrls(Map.of("spotify", "https://open.spotify.com/track/track1")).build())
+                .setArtists(new ArtistSimplified.Builder().setId("artist1").setName("Artist 1").setUri("spotify:artist:artist1").build())
+                .setAlbum(new AlbumSimplified.Builder()
+                        .setId("album1")
+                        .setName("Album 1")
+                        .setAvailableMarkets(CountryCode.JP)
+                        .setImages(new Image.Builder().setUrl("https://i.scdn.co/image/album1").setHeight(640).setWidth(640).build())
+                        .build())
+                .build();
+
+        // Act: テスト対象メソッドの実行
+        CompactTrack compactTrack = CompactTrack.from(track);
+
+        // Assert: 結果の検証
+        assertThat(compactTrack).isEqualTo(new CompactTrack(
+                "track1", "Track 1", "spotify:track:track1", 200000, null, null,
+                new CompactTrack.ExternalUrls(Map.of("spotify", "https://open.spotify.com/track/track1")),
+                List.of(new CompactTrack.Artist("artist1", "Artist 1")),
+                new CompactTrack.Album("album1", "Album 1", List.of(new CompactTrack.AlbumImage("https://i.scdn.co/image/album1", 640, 640)))));
+        String json = new ObjectMapper().writeValueAsString(compactTrack);
+        assertThat(json).doesNotContain("availableMarkets", "externalIds", "popularity", "previewUrl");
+    }
+
+    /**
+     * nullのTrackやアーティスト・アルバムを持たないTrackを変換できることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: nullや欠けた項目を変換できる")
+    void from_ShouldHandleMissingValues() {
+        // Act & Assert: 結果の検証
+        assertThat(CompactTrack.from(null)).isNull();
+        assertThat(CompactAudioFeatures.from(null)).isNull();
+
+        CompactTrack compactTrack = CompactTrack.from(new Track.Builder().setId("track1").build());
+        assertThat(compactTrack.artists()).isEmpty();
+        assertThat(compactTrack.album()).isNull();
+        assertThat(compactTrack.externalUrls()).isNull();
+    }
+}
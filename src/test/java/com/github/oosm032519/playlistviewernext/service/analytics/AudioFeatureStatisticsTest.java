@@ -0,0 +1,158 @@
+package com.github.oosm032519.playlistviewernext.service.analytics;
+
+import com.github.oosm032519.playlistviewernext.model.AudioFeatureType;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AudioFeatureStatisticsTest {
+
+    /**
+     * 1回の走査で件数・最小値・最大値・平均値・分散が計算され、Audio Featuresを持たないトラックは除外されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 行列から全統計値が計算される")
+    void of_ShouldComputeAllStatisticsInOnePass() {
+        // Arrange: テストデータの準備 (2番目のトラックはAudio Featuresを持たない)
+        TrackFeatureMatrix matrix = matrixOf(features(0.2f, 100f), null, features(0.4f, 120f), features(0.9f, 140f));
+
+        // Act: テスト対象メソッドの実行
+        AudioFeatureStatistics statistics = AudioFeatureStatistics.of(matrix);
+
+        // Assert: 結果の検証
+        assertThat(statistics.getCount()).isEqualTo(3);
+        assertThat(statistics.getMin(AudioFeatureType.DANCEABILITY)).isCloseTo(0.2, within(1e-6));
+        assertThat(statistics.getMax(AudioFeatureType.DANCEABILITY)).isCloseTo(0.9, within(1e-6));
+        assertThat(statistics.getMean(AudioFeatureType.DANCEABILITY)).isCloseTo(0.5, within(1e-6));
+        assertThat(statistics.getVariance(AudioFeatureType.DANCEABILITY)).isCloseTo(0.26 / 3, within(1e-6));
+        assertThat(statistics.getMean(AudioFeatureType.TEMPO)).isCloseTo(120, within(1e-6));
+        assertThat(statistics.getVariance(AudioFeatureType.TEMPO)).isCloseTo(800.0 / 3, within(1e-6));
+        assertThat(statistics.getMaxValues()).containsEntry("tempo", 140f).hasSize(AudioFeatureType.values().length);
+    }
+
+    /**
+     * 部分的な集計結果を結合した結果が、全件をまとめて集計した結果と一致することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 部分集計の結合結果が全件の集計結果と一致する")
+    void merge_ShouldMatchSinglePassOverAllTracks() {
+        // Arrange: 全件と、2つに分割したチャンクを準備
+        AudioFeatures[] all = {features(0.1f, 90f), features(0.3f, 110f), features(0.8f, 128f), features(0.6f, 95f), features(0.5f, 170f)};
+        AudioFeatureStatistics expected = AudioFeatureStatistics.of(matrixOf(all));
+
+        AudioFeatureStatistics first = AudioFeatureStatistics.of(matrixOf(Arrays.copyOfRange(all, 0, 2)));
+        AudioFeatureStatistics second = new AudioFeatureStatistics();
+        for (AudioFeatures audioFeatures : Arrays.copyOfRange(all, 2, all.length)) {
+            second.add(audioFeatures);
+        }
+
+        // Act: テスト対象メソッドの実行
+        AudioFeatureStatistics merged = first.merge(second);
+
+        // Assert: 結果の検証
+        assertThat(merged.getCount()).isEqualTo(expected.getCount());
+        for (AudioFeatureType type : AudioFeatureType.values()) {
+            assertThat(merged.getMin(type)).isEqualTo(expected.getMin(type));
+            assertThat(merged.getMax(type)).isEqualTo(expected.getMax(type));
+            assertThat(merged.getMean(type)).isCloseTo(expected.getMean(type), within(1e-9));
+            assertThat(merged.getVariance(type)).isCloseTo(expected.getVariance(type), within(1e-9));
+        }
+    }
+
+    /**
+     * 集計したトラックがない場合、各値のマップが空で返され、空の集計結果の結合で値が変わらないことを確認する。
+     */
+    @Test
+    @DisplayName("境界値: 空の集計結果")
+    void emptyStatistics_ShouldReturnEmptyMapsAndBeMergeIdentity() {
+        // Arrange: テストデータの準備
+        AudioFeatureStatistics statistics = AudioFeatureStatistics.of(matrixOf(features(0.4f, 120f)));
+
+        // Act: テスト対象メソッドの実行
+        statistics.merge(new AudioFeatureStatistics());
+        AudioFeatureStatistics empty = new AudioFeatureStatistics().merge(new AudioFeatureStatistics());
+
+        // Assert: 結果の検証
+        assertThat(statistics.getCount()).isEqualTo(1);
+        assertThat(statistics.getMean(AudioFeatureType.TEMPO)).isEqualTo(120);
+        assertThat(empty.getMaxValues()).isEmpty();
+        assertThat(empty.getVariance(AudioFeatureType.TEMPO)).isZero();
+    }
+
+    /**
+     * 外れ値が含まれていても、90パーセンタイルが大多数のトラックの値付近に収まることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: パーセンタイルは外れ値の影響を受けない")
+    void getPercentile_ShouldNotBeDominatedByOutliers() {
+        // Arrange: 99曲が120BPM付近、1曲だけ200BPM
+        AudioFeatures[] all = new AudioFeatures[100];
+        for (int i = 0; i < 99; i++) {
+            all[i] = features(0.5f, 118f + (i % 5));
+        }
+        all[99] = features(0.5f, 200f);
+
+        // Act: テスト対象メソッドの実行
+        AudioFeatureStatistics statistics = AudioFeatureStatistics.of(matrixOf(all));
+
+        // Assert: 結果の検証 (誤差は区間の幅以内)
+        assertThat(statistics.getMax(AudioFeatureType.TEMPO)).isEqualTo(200);
+        assertThat(statistics.getPercentile(AudioFeatureType.TEMPO, 0.9)).isCloseTo(122, within(2.5));
+        assertThat(statistics.getPercentile(AudioFeatureType.TEMPO, 0.5)).isCloseTo(120, within(2.5));
+        assertThat(statistics.getPercentile(AudioFeatureType.TEMPO, 0.1)).isCloseTo(118, within(2.5));
+        assertThat(statistics.getPercentileValues(0.9)).containsKey("tempo").hasSize(AudioFeatureType.values().length);
+    }
+
+    /**
+     * 部分集計を結合した結果のパーセンタイルが、全件をまとめて集計した結果と一致することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 結合後のパーセンタイルが全件の集計結果と一致する")
+    void getPercentile_ShouldBeMergeable() {
+        // Arrange: 全件と、2つに分割したチャンクを準備
+        AudioFeatures[] all = new AudioFeatures[50];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = features(i / 50f, 60f + i * 3);
+        }
+        AudioFeatureStatistics expected = AudioFeatureStatistics.of(matrixOf(all));
+
+        // Act: テスト対象メソッドの実行
+        AudioFeatureStatistics merged = AudioFeatureStatistics.of(matrixOf(Arrays.copyOfRange(all, 0, 17)))
+                .merge(AudioFeatureStatistics.of(matrixOf(Arrays.copyOfRange(all, 17, all.length))));
+
+        // Assert: 結果の検証
+        for (double quantile : new double[]{0.1, 0.5, 0.9}) {
+            assertThat(merged.getPercentile(AudioFeatureType.DANCEABILITY, quantile))
+                    .isEqualTo(expected.getPercentile(AudioFeatureType.DANCEABILITY, quantile));
+            assertThat(merged.getPercentile(AudioFeatureType.TEMPO, quantile))
+                    .isEqualTo(expected.getPercentile(AudioFeatureType.TEMPO, quantile));
+        }
+        assertThat(merged.getPercentile(AudioFeatureType.DANCEABILITY, 0.5)).isCloseTo(0.49, within(0.02));
+    }
+
+    private static AudioFeatures features(float danceability, float tempo) {
+        return new AudioFeatures.Builder()
+                .setDanceability(danceability)
+                .setEnergy(0.5f)
+                .setValence(0.5f)
+                .setTempo(tempo)
+                .setAcousticness(0.1f)
+                .setInstrumentalness(0f)
+                .setLiveness(0.2f)
+                .setSpeechiness(0.05f)
+                .build();
+    }
+
+    private static TrackFeatureMatrix matrixOf(AudioFeatures... audioFeatures) {
+        List<AudioFeatures> list = Arrays.asList(audioFeatures);
+        return new TrackFeatureMatrix(new Track[audioFeatures.length], list);
+    }
+}
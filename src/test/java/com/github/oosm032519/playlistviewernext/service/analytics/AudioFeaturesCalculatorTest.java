@@ -1,6 +1,7 @@
 package com.github.oosm032519.playlistviewernext.service.analytics;
 
 import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -8,10 +9,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.Track;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,16 +44,10 @@ class AudioFeaturesCalculatorTest {
             when(audioFeatures2.getEnergy()).thenReturn(0.2f);
 
             // テストデータの準備
-            List<Map<String, Object>> trackList = new ArrayList<>();
-            Map<String, Object> track1 = new HashMap<>();
-            Map<String, Object> track2 = new HashMap<>();
-            track1.put("audioFeatures", audioFeatures1);
-            track2.put("audioFeatures", audioFeatures2);
-            trackList.add(track1);
-            trackList.add(track2);
+            TrackFeatureMatrix matrix = matrixOf(audioFeatures1, audioFeatures2);
 
             // Act: テスト対象メソッドの実行
-            Map<String, Float> result = AudioFeaturesCalculator.calculateAverageAudioFeatures(trackList);
+            Map<String, Float> result = AudioFeaturesCalculator.calculateAverageAudioFeatures(matrix);
 
             // Assert: 検証
             assertThat(result)
@@ -67,12 +61,12 @@ class AudioFeaturesCalculatorTest {
         @Test
         @DisplayName("異常系：空のトラックリストでInvalidRequestExceptionが発生")
         void throwExceptionWhenTrackListEmpty() {
-            // Arrange: 空のトラックリスト
-            List<Map<String, Object>> emptyTrackList = new ArrayList<>();
+            // Arrange: トラックを含まない行列
+            TrackFeatureMatrix emptyMatrix = TrackFeatureMatrix.empty();
 
             // Act & Assert: 例外がスローされることを確認
             assertThatThrownBy(() ->
-                    AudioFeaturesCalculator.calculateAverageAudioFeatures(emptyTrackList))
+                    AudioFeaturesCalculator.calculateAverageAudioFeatures(emptyMatrix))
                     .isInstanceOf(InvalidRequestException.class)
                     .hasMessageContaining("トラックリストが空です");
         }
@@ -84,14 +78,11 @@ class AudioFeaturesCalculatorTest {
         @DisplayName("異常系：AudioFeaturesがnullでInvalidRequestExceptionが発生")
         void throwExceptionWhenAudioFeaturesNull() {
             // Arrange: AudioFeaturesがnullのトラックを含むリスト
-            List<Map<String, Object>> trackList = new ArrayList<>();
-            Map<String, Object> track = new HashMap<>();
-            track.put("audioFeatures", null);
-            trackList.add(track);
+            TrackFeatureMatrix matrix = matrixOf((AudioFeatures) null);
 
             // Act & Assert: 例外がスローされることを確認
             assertThatThrownBy(() ->
-                    AudioFeaturesCalculator.calculateAverageAudioFeatures(trackList))
+                    AudioFeaturesCalculator.calculateAverageAudioFeatures(matrix))
                     .isInstanceOf(InvalidRequestException.class)
                     .hasMessageContaining("AudioFeaturesがnullです");
         }
@@ -114,16 +105,10 @@ class AudioFeaturesCalculatorTest {
             when(audioFeatures2.getEnergy()).thenReturn(0.2f);
 
             // テストデータの準備
-            List<Map<String, Object>> trackList = new ArrayList<>();
-            Map<String, Object> track1 = new HashMap<>();
-            Map<String, Object> track2 = new HashMap<>();
-            track1.put("audioFeatures", audioFeatures1);
-            track2.put("audioFeatures", audioFeatures2);
-            trackList.add(track1);
-            trackList.add(track2);
+            TrackFeatureMatrix matrix = matrixOf(audioFeatures1, audioFeatures2);
 
             // Act: テスト対象メソッドの実行
-            Map<String, Float> result = AudioFeaturesCalculator.calculateMaxAudioFeatures(trackList);
+            Map<String, Float> result = AudioFeaturesCalculator.calculateMaxAudioFeatures(matrix);
 
             // Assert: 検証
             assertThat(result)
@@ -131,4 +116,37 @@ class AudioFeaturesCalculatorTest {
                     .containsEntry("energy", 0.6f);
         }
     }
+
+    @Nested
+    @DisplayName("calculateMinAudioFeatures()のテスト")
+    class CalculateMinAudioFeaturesTest {
+
+        /**
+         * AudioFeaturesを持たないトラックを除いて、各特徴量の最小値が計算されることを確認する。
+         */
+        @Test
+        @DisplayName("正常系：AudioFeaturesを持たないトラックを除いて最小値が計算される")
+        void calculateMinIgnoresTracksWithoutAudioFeatures() {
+            // Arrange: モックの設定
+            when(audioFeatures1.getDanceability()).thenReturn(0.8f);
+            when(audioFeatures1.getEnergy()).thenReturn(0.6f);
+            when(audioFeatures2.getDanceability()).thenReturn(0.4f);
+            when(audioFeatures2.getEnergy()).thenReturn(0.2f);
+
+            // テストデータの準備
+            TrackFeatureMatrix matrix = matrixOf(audioFeatures1, null, audioFeatures2);
+
+            // Act: テスト対象メソッドの実行
+            Map<String, Float> result = AudioFeaturesCalculator.calculateMinAudioFeatures(matrix);
+
+            // Assert: 検証
+            assertThat(result)
+                    .containsEntry("danceability", 0.4f)
+                    .containsEntry("energy", 0.2f);
+        }
+    }
+
+    private static TrackFeatureMatrix matrixOf(AudioFeatures... audioFeatures) {
+        return new TrackFeatureMatrix(new Track[audioFeatures.length], Arrays.asList(audioFeatures));
+    }
 }
@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.ArtistSimplified;
+import se.michaelthelin.spotify.model_objects.specification.Episode;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
 import se.michaelthelin.spotify.model_objects.specification.Track;
 
@@ -21,6 +22,7 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -215,4 +217,74 @@ public class GenreAggregatorServiceTest {
         // 順序は保証されないので、要素が含まれているかのみ確認
         assertThat(topArtists).containsExactlyInAnyOrder("artist1", "artist2", "artist3");
     }
+
+    /**
+     * 取得済みのアーティストのジャンルを渡した場合、SpotifyArtistServiceを呼び出さずにジャンルが集計されることを確認する。
+     */
+    @Test
+    void aggregateGenres_正常系_取得済みのジャンルから集計できる() {
+        // Arrange: 2アーティスト、2トラックのプレイリストと取得済みのジャンルを準備
+        PlaylistTrack[] tracks = createMockPlaylistTracks(2, 2);
+        Map<String, List<String>> artistGenres = Map.of(
+                "artistId1", List.of("genre1", "genre2"),
+                "artistId2", List.of("genre2"));
+
+        // Act: aggregateGenresメソッドを実行
+        List<String> artistIds = genreAggregatorService.getUniqueArtistIds(tracks);
+        Map<String, Integer> result = genreAggregatorService.aggregateGenres(tracks, artistGenres);
+
+        // Assert: 期待通りの結果が返され、アーティスト情報を取得していないことを確認
+        assertThat(artistIds).containsExactlyInAnyOrder("artistId1", "artistId2");
+        assertThat(result).containsExactly(Map.entry("genre2", 8), Map.entry("genre1", 4));
+        verifyNoInteractions(artistService);
+    }
+
+    /**
+     * アーティストの出現回数と取得済みのジャンルから、トラック配列から集計した場合と同じ結果が得られることを確認する。
+     */
+    @Test
+    void aggregateGenresByArtistCounts_正常系_出現回数から集計できる() {
+        // Arrange: 2アーティスト、2トラックのプレイリストと取得済みのジャンルを準備
+        PlaylistTrack[] tracks = createMockPlaylistTracks(2, 2);
+        Map<String, List<String>> artistGenres = Map.of(
+                "artistId1", List.of("genre1", "genre2"),
+                "artistId2", List.of("genre2"));
+
+        // Act: アーティストの出現回数を集計してからジャンルを集計
+        Map<String, Integer> artistCounts = genreAggregatorService.countArtists(tracks);
+        Map<String, Integer> result = genreAggregatorService.aggregateGenresByArtistCounts(artistCounts, artistGenres);
+
+        // Assert: トラック配列から集計した場合と同じ結果が返されることを確認
+        assertThat(artistCounts).containsOnly(Map.entry("artistId1", 2), Map.entry("artistId2", 2));
+        assertThat(result).containsExactly(Map.entry("genre2", 8), Map.entry("genre1", 4));
+        verifyNoInteractions(artistService);
+    }
+
+    /**
+     * nullの要素、トラックがnullの要素、エピソードが含まれる場合も例外をスローせず、トラックのアーティストのみを集計することを確認する。
+     */
+    @Test
+    void countArtists_nullAndEpisodeItems_areSkipped() {
+        // Arrange: トラック・null・トラックのない要素・エピソードを含むプレイリストを準備
+        Track track = new Track.Builder()
+                .setId("track1")
+                .setArtists(new ArtistSimplified.Builder().setId("artistId1").build())
+                .build();
+        PlaylistTrack[] tracks = new PlaylistTrack[]{
+                new PlaylistTrack.Builder().setTrack(track).build(),
+                null,
+                new PlaylistTrack.Builder().build(),
+                new PlaylistTrack.Builder().setTrack(new Episode.Builder().setId("episode1").build()).build()
+        };
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Integer> artistCounts = genreAggregatorService.countArtists(tracks);
+        List<String> artistIds = genreAggregatorService.getUniqueArtistIds(tracks);
+        Map<String, Integer> genreCounts = genreAggregatorService.aggregateGenres(tracks, Map.of("artistId1", List.of("rock")));
+
+        // Assert: 結果の検証
+        assertThat(artistCounts).containsOnly(Map.entry("artistId1", 1));
+        assertThat(artistIds).containsExactly("artistId1");
+        assertThat(genreCounts).containsOnly(Map.entry("rock", 1));
+    }
 }
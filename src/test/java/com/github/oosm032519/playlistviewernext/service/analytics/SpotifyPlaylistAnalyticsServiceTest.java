@@ -1,7 +1,9 @@
 package com.github.oosm032519.playlistviewernext.service.analytics;
 
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
 import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
 import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistDetailsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +22,7 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -199,6 +202,45 @@ class SpotifyPlaylistAnalyticsServiceTest {
                 .hasMessage("プレイリストのジャンル出現頻度上位5つの取得中にエラーが発生しました。");
     }
 
+    /**
+     * スナップショットが与えられた場合、トラックを再取得せずにジャンル集計と上位アーティスト取得が行われることを確認する。
+     */
+    @Test
+    void snapshotOverloads_ShouldNotRefetchTracks() throws SpotifyWebApiException {
+        // Arrange: スナップショットとモックの設定
+        PlaylistTrack[] playlistTracks = createMockPlaylistTracks();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot("snapshotPlaylistId", null, playlistTracks, 1);
+        Map<String, Integer> genreCounts = Map.of("rock", 2);
+        when(genreAggregatorService.aggregateGenres(playlistTracks)).thenReturn(genreCounts);
+        when(genreAggregatorService.countArtists(playlistTracks)).thenReturn(Map.of("artist1", 1, "artist2", 1));
+        when(genreAggregatorService.getTopArtists(Map.of("artist1", 1, "artist2", 1), 5)).thenReturn(List.of("artist1", "artist2"));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Integer> genreResult = spotifyPlaylistAnalyticsService.getGenreCountsForPlaylist(snapshot);
+        List<String> artistResult = spotifyPlaylistAnalyticsService.getTop5ArtistsForPlaylist(snapshot);
+
+        // Assert: 結果の検証
+        assertThat(genreResult).isEqualTo(genreCounts);
+        assertThat(artistResult).containsExactly("artist1", "artist2");
+        verify(playlistDetailsService, never()).getPlaylistTracks(anyString());
+    }
+
+    /**
+     * スナップショットからの上位アーティスト取得中にアプリケーション例外が発生した場合、ステータスを保持したまま再スローされることを確認する。
+     */
+    @Test
+    void getTop5ArtistsForPlaylist_snapshot_ShouldRethrowApplicationException() {
+        // Arrange: スナップショットとモックの設定
+        PlaylistTrack[] playlistTracks = createMockPlaylistTracks();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot("snapshotPlaylistId", null, playlistTracks, 1);
+        InternalServerException rejected = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "rejected");
+        when(genreAggregatorService.countArtists(playlistTracks)).thenThrow(rejected);
+
+        // Act & Assert: 例外がそのまま再スローされることを検証
+        assertThatThrownBy(() -> spotifyPlaylistAnalyticsService.getTop5ArtistsForPlaylist(snapshot))
+                .isSameAs(rejected);
+    }
+
     private PlaylistTrack[] createMockPlaylistTracks() {
         PlaylistTrack track1 = mock(PlaylistTrack.class);
         PlaylistTrack track2 = mock(PlaylistTrack.class);
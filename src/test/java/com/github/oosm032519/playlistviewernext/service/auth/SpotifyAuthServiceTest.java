@@ -1,11 +1,13 @@
 package com.github.oosm032519.playlistviewernext.service.auth;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.hc.core5.http.ParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import se.michaelthelin.spotify.SpotifyApi;
@@ -14,7 +16,13 @@ import se.michaelthelin.spotify.model_objects.credentials.ClientCredentials;
 import se.michaelthelin.spotify.requests.authorization.client_credentials.ClientCredentialsRequest;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -30,11 +38,13 @@ class SpotifyAuthServiceTest {
     @Mock
     private ClientCredentialsRequest clientCredentialsRequest;
 
-    @InjectMocks
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private SpotifyAuthService spotifyAuthService;
 
     @BeforeEach
     void setUp() {
+        spotifyAuthService = new SpotifyAuthService(spotifyApi, new ParallelFetchExecutor(2), meterRegistry, Duration.ofMinutes(5));
         when(spotifyApi.clientCredentials()).thenReturn(clientCredentialsBuilder);
         when(clientCredentialsBuilder.build()).thenReturn(clientCredentialsRequest);
     }
@@ -88,4 +98,123 @@ class SpotifyAuthServiceTest {
                 .hasMessage("クライアントクレデンシャルトークンの取得中にエラーが発生しました。")
                 .hasCauseInstanceOf(ParseException.class);
     }
+
+    /**
+     * 有効期限内のトークンを保持している場合、再取得せずに再利用することを確認する。
+     */
+    @Test
+    void getClientCredentialsToken_ReusesCachedToken() throws IOException, SpotifyWebApiException, ParseException {
+        // Arrange: 有効期間1時間のトークンを返すモックの設定
+        ClientCredentials clientCredentials = mock(ClientCredentials.class);
+        when(clientCredentialsRequest.execute()).thenReturn(clientCredentials);
+        when(clientCredentials.getAccessToken()).thenReturn("test-access-token");
+        when(clientCredentials.getExpiresIn()).thenReturn(3600);
+
+        // Act: テスト対象メソッドを繰り返し実行
+        spotifyAuthService.getClientCredentialsToken();
+        spotifyAuthService.getClientCredentialsToken();
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Assert: トークンの取得が1回だけ行われ、取得時間が記録されたことを確認
+        verify(clientCredentialsRequest, times(1)).execute();
+        assertThat(meterRegistry.get("spotify.auth.token.refresh").tag("result", "success").timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * トークン未取得の状態で同時に呼び出された場合でも、トークンの取得が1回だけ行われることを確認する。
+     */
+    @Test
+    void getClientCredentialsToken_FetchesOnceForConcurrentCallers() throws Exception {
+        // Arrange: 取得に時間のかかるモックの設定
+        ClientCredentials clientCredentials = mock(ClientCredentials.class);
+        when(clientCredentials.getAccessToken()).thenReturn("test-access-token");
+        when(clientCredentials.getExpiresIn()).thenReturn(3600);
+        when(clientCredentialsRequest.execute()).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return clientCredentials;
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    spotifyAuthService.getClientCredentialsToken();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+
+        // Act: すべてのスレッドから同時に呼び出す
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert: トークンの取得が1回だけ行われたことを確認
+        verify(clientCredentialsRequest, times(1)).execute();
+    }
+
+    /**
+     * 有効期限が近いトークンを保持している場合、現在のトークンを使用したままバックグラウンドで更新することを確認する。
+     */
+    @Test
+    void getClientCredentialsToken_RefreshesInBackgroundBeforeExpiry() throws IOException, SpotifyWebApiException, ParseException {
+        // Arrange: 更新の閾値 (5分) より有効期間の短いトークンを返すモックの設定
+        ClientCredentials clientCredentials = mock(ClientCredentials.class);
+        when(clientCredentialsRequest.execute()).thenReturn(clientCredentials);
+        when(clientCredentials.getAccessToken()).thenReturn("test-access-token");
+        when(clientCredentials.getExpiresIn()).thenReturn(60);
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Act: テスト対象メソッドの実行
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Assert: バックグラウンドでトークンが再取得されたことを確認
+        verify(clientCredentialsRequest, timeout(1000).times(2)).execute();
+    }
+
+    /**
+     * バックグラウンド更新の開始自体に失敗した場合、更新中フラグが戻され、次回の呼び出しで再度更新が開始されることを確認する。
+     */
+    @Test
+    void getClientCredentialsToken_RetriesBackgroundRefreshWhenForkFails() throws IOException, SpotifyWebApiException, ParseException {
+        // Arrange: 1回目のバックグラウンド更新の開始が拒否される実行基盤と、更新の閾値より有効期間の短いトークンを設定
+        ParallelFetchExecutor parallelFetchExecutor = spy(new ParallelFetchExecutor(2));
+        doThrow(new RejectedExecutionException("rejected")).doCallRealMethod().when(parallelFetchExecutor).fork(any());
+        spotifyAuthService = new SpotifyAuthService(spotifyApi, parallelFetchExecutor, meterRegistry, Duration.ofMinutes(5));
+        ClientCredentials clientCredentials = mock(ClientCredentials.class);
+        when(clientCredentialsRequest.execute()).thenReturn(clientCredentials);
+        when(clientCredentials.getAccessToken()).thenReturn("test-access-token");
+        when(clientCredentials.getExpiresIn()).thenReturn(60);
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Act: テスト対象メソッドの実行 (1回目は開始に失敗、2回目で開始される)
+        spotifyAuthService.getClientCredentialsToken();
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Assert: 2回目の呼び出しでバックグラウンド更新が開始され、トークンが再取得されたことを確認
+        verify(parallelFetchExecutor, times(2)).fork(any());
+        verify(clientCredentialsRequest, timeout(1000).times(2)).execute();
+    }
+
+    /**
+     * レスポンスに有効期間が含まれない場合、既定の有効期間 (3600秒) を使用し、次の呼び出しで再取得しないことを確認する。
+     */
+    @Test
+    void getClientCredentialsToken_UsesDefaultExpiryWhenExpiresInIsMissing() throws IOException, SpotifyWebApiException, ParseException {
+        // Arrange: 有効期間を返さないモックの設定
+        ClientCredentials clientCredentials = mock(ClientCredentials.class);
+        when(clientCredentialsRequest.execute()).thenReturn(clientCredentials);
+        when(clientCredentials.getAccessToken()).thenReturn("test-access-token");
+        when(clientCredentials.getExpiresIn()).thenReturn(null);
+
+        // Act: テスト対象メソッドの実行
+        spotifyAuthService.getClientCredentialsToken();
+        spotifyAuthService.getClientCredentialsToken();
+
+        // Assert: トークンの取得は1回のみ
+        verify(clientCredentialsRequest, times(1)).execute();
+    }
 }
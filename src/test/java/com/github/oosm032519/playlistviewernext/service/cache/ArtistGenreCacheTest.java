@@ -0,0 +1,76 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtistGenreCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ArtistGenreCache artistGenreCache = new ArtistGenreCache(meterRegistry, 100, Duration.ofHours(24));
+
+    /**
+     * 格納したジャンルが順序を保ったまま取得でき、同じジャンル名は同一の文字列インスタンスとして共有されることを確認する。
+     */
+    @Test
+    void getAll_ReturnsInternedGenresInOrder() {
+        // Arrange: キャッシュへの格納
+        artistGenreCache.putAll(Map.of(
+                "artist1", List.of("j-pop", "anime"),
+                "artist2", List.of(new String("anime"), "rock")
+        ));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, List<String>> result = artistGenreCache.getAll(List.of("artist1", "artist2", "artist3"));
+
+        // Assert: 結果の検証
+        assertThat(result).containsOnlyKeys("artist1", "artist2");
+        assertThat(result.get("artist1")).containsExactly("j-pop", "anime");
+        assertThat(result.get("artist2")).containsExactly("anime", "rock");
+        assertThat(result.get("artist2").get(0)).isSameAs(result.get("artist1").get(1));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "artistGenres").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * ジャンルを持たないアーティストが空のリストとしてキャッシュされることを確認する。
+     */
+    @Test
+    void putAll_CachesArtistsWithoutGenres() {
+        // Arrange: ジャンルが空またはnullのアーティストを格納
+        Map<String, List<String>> entries = new HashMap<>();
+        entries.put("artist1", List.of());
+        entries.put("artist2", null);
+        artistGenreCache.putAll(entries);
+
+        // Act: テスト対象メソッドの実行
+        Map<String, List<String>> result = artistGenreCache.getAll(List.of("artist1", "artist2"));
+
+        // Assert: 結果の検証
+        assertThat(result)
+                .containsEntry("artist1", List.of())
+                .containsEntry("artist2", List.of());
+    }
+
+    /**
+     * 上流APIが返さなかったアーティストも、ジャンルを持たないアーティストとしてキャッシュされることを確認する。
+     */
+    @Test
+    void putFetched_CachesMissingArtistsAsEmpty() {
+        // Act: テスト対象メソッドの実行
+        artistGenreCache.putFetched(List.of("artist1", "artist2"), Map.of("artist1", List.of("rock")));
+
+        // Assert: 結果の検証
+        Map<String, List<String>> result = artistGenreCache.getAll(List.of("artist1", "artist2"));
+        assertThat(result).containsOnlyKeys("artist1", "artist2");
+        assertThat(result.get("artist1")).containsExactly("rock");
+        assertThat(result.get("artist2")).isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AudioFeaturesCacheTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AudioFeaturesCache audioFeaturesCache;
+
+    @BeforeEach
+    void setUp() {
+        audioFeaturesCache = new AudioFeaturesCache(redisTemplate, meterRegistry, 100, Duration.ofDays(30));
+    }
+
+    /**
+     * 格納したAudioFeaturesがプロセス内キャッシュから取得され、Redisへ問い合わせないことを確認する。
+     */
+    @Test
+    void getAll_ReturnsLocalHitsWithoutQueryingRedis() {
+        // Arrange: キャッシュへの格納
+        audioFeaturesCache.putAll(Map.of("track1", new AudioFeatures.Builder().setEnergy(0.5f).build()));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, AudioFeatures> result = audioFeaturesCache.getAll(List.of("track1"));
+
+        // Assert: 結果の検証
+        assertThat(result).containsOnlyKeys("track1");
+        assertThat(result.get("track1").getEnergy()).isEqualTo(0.5f);
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, never()).opsForValue();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "audioFeatures").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * プロセス内キャッシュに存在しないIDのみをRedisから一括取得し、ヒットしたものをプロセス内キャッシュに昇格させることを確認する。
+     */
+    @Test
+    void getAll_FetchesLocalMissesFromRedis() {
+        // Arrange: Redisのモック設定 (track1 はヒット、track2 はミス)
+        byte[] encoded = AudioFeaturesCodec.encode(new AudioFeatures.Builder().setTempo(128f).build());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("audio-features:track1", "audio-features:track2"))).thenReturn(Arrays.asList(encoded, null));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, AudioFeatures> first = audioFeaturesCache.getAll(List.of("track1", "track2"));
+        Map<String, AudioFeatures> second = audioFeaturesCache.getAll(List.of("track1"));
+
+        // Assert: 結果の検証
+        assertThat(first).containsOnlyKeys("track1");
+        assertThat(first.get("track1").getTempo()).isEqualTo(128f);
+        assertThat(second).containsOnlyKeys("track1");
+        verify(valueOperations, times(1)).multiGet(any());
+        assertThat(meterRegistry.get("audio.features.cache.redis.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("audio.features.cache.redis.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * Redisに接続できない場合でも例外をスローせず、キャッシュミスとして扱うことを確認する。
+     */
+    @Test
+    void getAll_TreatsRedisFailureAsMiss() {
+        // Arrange: Redisのモック設定
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(any())).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, AudioFeatures> result = audioFeaturesCache.getAll(List.of("track1"));
+
+        // Assert: 結果の検証
+        assertThat(result).isEmpty();
+        assertThat(meterRegistry.get("audio.features.cache.redis.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * 最大エントリ数を超えた場合に追い出しが発生し、その件数がメトリクスとして公開されることを確認する。
+     */
+    @Test
+    void putAll_EvictsEntriesBeyondMaximumSize() throws InterruptedException {
+        // Arrange: 最大エントリ数1のキャッシュを作成
+        MeterRegistry smallCacheRegistry = new SimpleMeterRegistry();
+        AudioFeaturesCache smallCache = new AudioFeaturesCache(redisTemplate, smallCacheRegistry, 1, Duration.ofDays(30));
+
+        // Act: テスト対象メソッドの実行
+        smallCache.putAll(Map.of("track1", new AudioFeatures.Builder().build()));
+        smallCache.putAll(Map.of("track2", new AudioFeatures.Builder().build()));
+        smallCache.putAll(Map.of("track3", new AudioFeatures.Builder().build()));
+
+        // Assert: 結果の検証 (Caffeineの追い出しは非同期に行われるため、反映されるまで待機する)
+        double evictions = 0;
+        for (int i = 0; i < 100 && evictions < 2; i++) {
+            Thread.sleep(10);
+            evictions = smallCacheRegistry.get("cache.evictions").tag("cache", "audioFeatures").functionCounter().count();
+        }
+        assertThat(evictions).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.enums.Modality;
+import se.michaelthelin.spotify.enums.ModelObjectType;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioFeaturesCodecTest {
+
+    /**
+     * エンコードしたAudioFeaturesを復元すると、すべての特徴量とトラックIDから導出される値が再現されることを確認する。
+     */
+    @Test
+    @DisplayName("エンコードとデコードで特徴量が復元されること")
+    void encodeAndDecode_RoundTrip() {
+        // Arrange: テストデータの準備
+        AudioFeatures original = new AudioFeatures.Builder()
+                .setId("track1")
+                .setAcousticness(0.1f)
+                .setDanceability(0.2f)
+                .setEnergy(0.3f)
+                .setInstrumentalness(0.4f)
+                .setLiveness(0.5f)
+                .setLoudness(-6.5f)
+                .setSpeechiness(0.6f)
+                .setTempo(120.5f)
+                .setValence(0.7f)
+                .setDurationMs(180000)
+                .setKey(5)
+                .setMode(Modality.MINOR)
+                .setTimeSignature(4)
+                .build();
+
+        // Act: テスト対象メソッドの実行
+        byte[] encoded = AudioFeaturesCodec.encode(original);
+        AudioFeatures decoded = AudioFeaturesCodec.decode("track1", encoded);
+
+        // Assert: 結果の検証
+        assertThat(encoded).hasSize(AudioFeaturesCodec.ENCODED_SIZE);
+        assertThat(decoded.getId()).isEqualTo("track1");
+        assertThat(decoded.getAcousticness()).isEqualTo(0.1f);
+        assertThat(decoded.getDanceability()).isEqualTo(0.2f);
+        assertThat(decoded.getEnergy()).isEqualTo(0.3f);
+        assertThat(decoded.getInstrumentalness()).isEqualTo(0.4f);
+        assertThat(decoded.getLiveness()).isEqualTo(0.5f);
+        assertThat(decoded.getLoudness()).isEqualTo(-6.5f);
+        assertThat(decoded.getSpeechiness()).isEqualTo(0.6f);
+        assertThat(decoded.getTempo()).isEqualTo(120.5f);
+        assertThat(decoded.getValence()).isEqualTo(0.7f);
+        assertThat(decoded.getDurationMs()).isEqualTo(180000);
+        assertThat(decoded.getKey()).isEqualTo(5);
+        assertThat(decoded.getMode()).isEqualTo(Modality.MINOR);
+        assertThat(decoded.getTimeSignature()).isEqualTo(4);
+        assertThat(decoded.getType()).isEqualTo(ModelObjectType.AUDIO_FEATURES);
+        assertThat(decoded.getUri()).isEqualTo("spotify:track:track1");
+    }
+
+    /**
+     * 値が設定されていない特徴量は、復元後もnullになることを確認する。
+     */
+    @Test
+    @DisplayName("未設定の特徴量はnullのまま復元されること")
+    void encodeAndDecode_NullFields() {
+        // Arrange: テストデータの準備
+        AudioFeatures original = new AudioFeatures.Builder().setEnergy(0.3f).build();
+
+        // Act: テスト対象メソッドの実行
+        AudioFeatures decoded = AudioFeaturesCodec.decode("track1", AudioFeaturesCodec.encode(original));
+
+        // Assert: 結果の検証
+        assertThat(decoded.getEnergy()).isEqualTo(0.3f);
+        assertThat(decoded.getTempo()).isNull();
+        assertThat(decoded.getKey()).isNull();
+        assertThat(decoded.getMode()).isNull();
+    }
+
+    /**
+     * 形式が不正なバイト配列の場合、nullが返されることを確認する。
+     */
+    @Test
+    @DisplayName("不正な形式のバイト配列はnullとして扱われること")
+    void decode_InvalidBytes() {
+        // Act & Assert: 結果の検証
+        assertThat(AudioFeaturesCodec.decode("track1", null)).isNull();
+        assertThat(AudioFeaturesCodec.decode("track1", new byte[]{1, 2, 3})).isNull();
+        assertThat(AudioFeaturesCodec.decode("track1", new byte[AudioFeaturesCodec.ENCODED_SIZE])).isNull();
+    }
+}
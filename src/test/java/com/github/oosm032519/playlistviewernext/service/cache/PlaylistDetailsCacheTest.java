@@ -0,0 +1,107 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.service.playlist.PlaylistDetailsRetrievalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlaylistDetailsCacheTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PlaylistDetailsCache playlistDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        playlistDetailsCache = new PlaylistDetailsCache(redisTemplate, new ObjectMapper(), meterRegistry, Duration.ofHours(24));
+    }
+
+    /**
+     * 格納したプレイリスト詳細が、プレイリストIDとsnapshot_idをキーとして取得できることを確認する。
+     */
+    @Test
+    void putAndGet_RoundTripsDetailsBySnapshotId() {
+        // Arrange: テストデータの準備
+        Map<String, Object> details = Map.of(
+                "playlistName", "Test Playlist",
+                "tracks", Map.of("items", List.of(Map.of("id", "track1"))),
+                "totalDuration", 180000
+        );
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+
+        // Act: テスト対象メソッドの実行
+        playlistDetailsCache.put("playlist1", "snapshot1", details);
+        verify(valueOperations).set(eq("playlist-details:v2:playlist1:snapshot1"), stored.capture(), eq(Duration.ofHours(24)));
+        when(valueOperations.get("playlist-details:v2:playlist1:snapshot1")).thenReturn(stored.getValue());
+        Optional<Map<String, Object>> cached = playlistDetailsCache.get("playlist1", "snapshot1");
+
+        // Assert: 結果の検証
+        assertThat(cached).contains(details);
+        assertThat(meterRegistry.get("playlist.details.cache.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * snapshot_idが異なる場合はキャッシュミスとなり、Redisの障害時も例外をスローしないことを確認する。
+     */
+    @Test
+    void get_ReturnsEmptyForMissOrRedisFailure() {
+        // Arrange: Redisのモック設定
+        when(valueOperations.get("playlist-details:v2:playlist1:snapshot2")).thenReturn(null);
+        when(valueOperations.get("playlist-details:v2:playlist2:snapshot1")).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // Act: テスト対象メソッドの実行
+        Optional<Map<String, Object>> changed = playlistDetailsCache.get("playlist1", "snapshot2");
+        Optional<Map<String, Object>> failed = playlistDetailsCache.get("playlist2", "snapshot1");
+
+        // Assert: 結果の検証
+        assertThat(changed).isEmpty();
+        assertThat(failed).isEmpty();
+        assertThat(meterRegistry.get("playlist.details.cache.gets").tag("result", "miss").counter().count()).isEqualTo(2.0);
+        verify(valueOperations, never()).set(any(), any(), any(Duration.class));
+    }
+
+    /**
+     * キーにETagと共通のレスポンス形式のバージョンが含まれ、形式の変更前に格納されたエントリを参照しないことを確認する。
+     */
+    @Test
+    void get_UsesKeyWithDetailsFormatVersion() {
+        // Arrange: Redisのモック設定
+        String versionedKey = "playlist-details:v" + PlaylistDetailsRetrievalService.DETAILS_FORMAT_VERSION + ":playlist1:snapshot1";
+        when(valueOperations.get(versionedKey)).thenReturn(null);
+
+        // Act: テスト対象メソッドの実行
+        Optional<Map<String, Object>> cached = playlistDetailsCache.get("playlist1", "snapshot1");
+
+        // Assert: 結果の検証
+        assertThat(cached).isEmpty();
+        verify(valueOperations).get(versionedKey);
+        verify(valueOperations, never()).get("playlist-details:playlist1:snapshot1");
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.oosm032519.playlistviewernext.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlaylistSearchCacheTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    /**
+     * 検索クエリの表記揺れ (大文字小文字・前後や連続する空白・全角英数字) が同じキーに正規化されることを確認する。
+     */
+    @Test
+    void key_NormalizesQuery() {
+        // Act & Assert: 結果の検証
+        assertThat(PlaylistSearchCache.key("  Lo-Fi   Beats ", 0, 20)).isEqualTo("playlist-search:0:20:lo-fi beats");
+        assertThat(PlaylistSearchCache.key("ＬＯ－ＦＩ　ＢＥＡＴＳ", 0, 20)).isEqualTo(PlaylistSearchCache.key("lo-fi beats", 0, 20));
+        assertThat(PlaylistSearchCache.key("lo-fi beats", 20, 20)).isNotEqualTo(PlaylistSearchCache.key("lo-fi beats", 0, 20));
+    }
+
+    /**
+     * 格納した検索結果が圧縮された形式でTTL付きで格納され、ソフトTTL内であれば新しい結果として取得できることを確認する。
+     */
+    @Test
+    void putAndGet_RoundTripsCompressedResult() {
+        // Arrange: テストデータの準備
+        PlaylistSearchCache cache = new PlaylistSearchCache(redisTemplate, objectMapper, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        Map<String, Object> result = Map.of(
+                "playlists", List.of(Map.of("id", "p1", "name", "Lo-Fi ".repeat(50))),
+                "total", 1
+        );
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+
+        // Act: テスト対象メソッドの実行
+        cache.put("Lo-Fi", 0, 20, result);
+        verify(valueOperations).set(eq("playlist-search:0:20:lo-fi"), stored.capture(), eq(Duration.ofMinutes(10)));
+        when(valueOperations.get("playlist-search:0:20:lo-fi")).thenReturn(stored.getValue());
+        Optional<PlaylistSearchCache.CachedSearchResult> cached = cache.get("lo-fi", 0, 20);
+
+        // Assert: 結果の検証
+        assertThat(stored.getValue().length).isLessThan(result.toString().getBytes(StandardCharsets.UTF_8).length);
+        assertThat(cached).isPresent();
+        assertThat(cached.get().stale()).isFalse();
+        assertThat(cached.get().result()).isEqualTo(result);
+        assertThat(meterRegistry.get("playlist.search.cache.gets").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * ソフトTTLを過ぎた検索結果が再検証の必要な結果として取得されることを確認する。
+     */
+    @Test
+    void get_MarksEntryStaleAfterSoftTtl() {
+        // Arrange: ソフトTTLが0のキャッシュに格納
+        PlaylistSearchCache cache = new PlaylistSearchCache(redisTemplate, objectMapper, meterRegistry, Duration.ofMinutes(10), Duration.ZERO);
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+        cache.put("query", 0, 20, Map.of("playlists", List.of(), "total", 0));
+        verify(valueOperations).set(any(), stored.capture(), any(Duration.class));
+        when(valueOperations.get(any())).thenReturn(stored.getValue());
+
+        // Act: テスト対象メソッドの実行
+        Optional<PlaylistSearchCache.CachedSearchResult> cached = cache.get("query", 0, 20);
+
+        // Assert: 結果の検証
+        assertThat(cached).isPresent();
+        assertThat(cached.get().stale()).isTrue();
+        assertThat(meterRegistry.get("playlist.search.cache.gets").tag("result", "stale").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * Redisへの接続に失敗した場合、例外をスローせずにキャッシュミスとして扱うことを確認する。
+     */
+    @Test
+    void get_TreatsRedisFailureAsMiss() {
+        // Arrange: Redisの接続失敗を設定
+        PlaylistSearchCache cache = new PlaylistSearchCache(redisTemplate, objectMapper, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        when(valueOperations.get(any())).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // Act: テスト対象メソッドの実行
+        Optional<PlaylistSearchCache.CachedSearchResult> cached = cache.get("query", 0, 20);
+
+        // Assert: 結果の検証
+        assertThat(cached).isEmpty();
+        assertThat(meterRegistry.get("playlist.search.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+}
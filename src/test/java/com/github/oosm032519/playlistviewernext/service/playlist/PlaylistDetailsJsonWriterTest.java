@@ -0,0 +1,251 @@
+package com.github.oosm032519.playlistviewernext.service.playlist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.exception.ErrorResponse;
+import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
+import com.github.oosm032519.playlistviewernext.model.CompactAudioFeatures;
+import com.github.oosm032519.playlistviewernext.model.CompactTrack;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix.TrackItem;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
+import com.github.oosm032519.playlistviewernext.util.FieldProjection;
+import com.neovisionaries.i18n.CountryCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import se.michaelthelin.spotify.enums.Modality;
+import se.michaelthelin.spotify.model_objects.specification.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PlaylistDetailsJsonWriterのテストクラス
+ */
+class PlaylistDetailsJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlaylistDetailsJsonWriter writer = new PlaylistDetailsJsonWriter(objectMapper);
+
+    /**
+     * イベントから一括での詳細取得と同じ形式のJSONが書き込まれ、トラックとAudioFeaturesの各項目が
+     * SpotifyのモデルをJacksonで変換した結果と一致し、フロントエンドが使用しない項目が含まれないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: イベントから詳細取得と同じ形式のJSONを書き込む")
+    void write_ShouldWriteDetailsInResponseFormat() throws Exception {
+        // Arrange: テストデータの準備
+        Track track = createTrack("track1");
+        AudioFeatures audioFeatures = createAudioFeatures("track1");
+        TrackItem first = new TrackItem(CompactTrack.from(track), CompactAudioFeatures.from(audioFeatures));
+        TrackItem second = createTrackItem("track2");
+        List<PlaylistDetailsEvent> events = List.of(
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, Map.of("playlistName", "Test Playlist", "ownerId", "owner1", "ownerName", "Owner")),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("offset", 0L, "items", List.of(first))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.AUDIO_FEATURES, Map.of("averageAudioFeatures", Map.of("energy", 0.4f))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("offset", 1L, "items", List.of(second))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.AUDIO_FEATURES, Map.of("averageAudioFeatures", Map.of("energy", 0.5f))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.GENRES, Map.of("genreCounts", Map.of("rock", 2))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.SEED_ARTISTS, Map.of("seedArtists", List.of("artist1"))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of("trackCount", 2L, "totalDuration", 400000L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        writer.write(events, outputStream);
+
+        // Assert: 結果の検証
+        JsonNode root = objectMapper.readTree(outputStream.toByteArray());
+        assertThat(root.get("playlistName").asText()).isEqualTo("Test Playlist");
+        assertThat(root.get("ownerId").asText()).isEqualTo("owner1");
+        assertThat(root.get("ownerName").asText()).isEqualTo("Owner");
+        assertThat(root.get("tracks").get("items")).hasSize(2);
+        assertThat(root.get("averageAudioFeatures").get("energy").floatValue()).isEqualTo(0.5f);
+        assertThat(root.get("maxAudioFeatures").isEmpty()).isTrue();
+        assertThat(root.get("genreCounts").get("rock").asInt()).isEqualTo(2);
+        assertThat(root.get("seedArtists").get(0).asText()).isEqualTo("artist1");
+        assertThat(root.get("totalDuration").asLong()).isEqualTo(400000L);
+
+        JsonNode written = root.get("tracks").get("items").get(0);
+        Map<String, Object> fullItem = Map.of("track", track, "audioFeatures", audioFeatures);
+        assertWrittenFieldsMatch(written, objectMapper.readTree(objectMapper.writeValueAsBytes(fullItem)), "item");
+        assertThat(written.get("track").has("availableMarkets")).isFalse();
+        assertThat(written.get("audioFeatures").has("analysisUrl")).isFalse();
+        assertThat(written.get("audioFeatures").has("trackHref")).isFalse();
+    }
+
+    /**
+     * 書き込む項目を指定した場合、指定された項目のみが書き込まれることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 指定された項目のみを書き込む")
+    void write_ShouldWriteOnlyRequestedFields() throws Exception {
+        // Arrange: テストデータの準備
+        List<PlaylistDetailsEvent> events = List.of(
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, Map.of("playlistName", "Test Playlist", "ownerId", "owner1", "ownerName", "Owner")),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("offset", 0L, "items", List.of(createTrackItem("track1")))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.GENRES, Map.of("genreCounts", Map.of("rock", 1))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.SEED_ARTISTS, Map.of("seedArtists", List.of("artist1"))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of("trackCount", 1L, "totalDuration", 200000L)));
+        FieldProjection projection = FieldProjection.parse("playlistName,tracks.items(track(id,name),audioFeatures.energy)").orElseThrow();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        writer.write(events, outputStream, projection);
+
+        // Assert: 結果の検証
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"playlistName\":\"Test Playlist\",\"tracks\":{\"items\":[{\"track\":{\"id\":\"track1\",\"name\":\"Track track1\"},\"audioFeatures\":{\"energy\":0.4}}]}}");
+    }
+
+    /**
+     * 同じデータから段階的に書き込んだJSONが、一括で作成するレスポンスをJacksonで変換したJSONと一致し、
+     * 段階的な送信の進捗にのみ使用する項目が書き込まれないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 一括で作成するレスポンスと同じJSONを書き込む")
+    void write_ShouldMatchCreatedResponse() throws Exception {
+        // Arrange: 一括で作成するレスポンスと、同じデータのイベントを準備
+        TrackFeatureMatrix matrix = new TrackFeatureMatrix(
+                new Track[]{createTrack("track1"), createTrack("track2")},
+                List.of(createAudioFeatures("track1"), createAudioFeatures("track2")));
+        AudioFeatureStatistics statistics = AudioFeatureStatistics.of(matrix);
+        User owner = new User.Builder().setId("owner1").setDisplayName("Owner").build();
+        Map<String, Object> response = PlaylistDetailsRetrievalService.createResponse(
+                matrix, "Test Playlist", owner, statistics, 400000L, List.of("artist1"), Map.of("rock", 2));
+
+        Map<String, Object> playlistData = new HashMap<>(PlaylistDetailsRetrievalService.playlistFields("Test Playlist", owner));
+        playlistData.put(PlaylistDetailsEvent.TOTAL_TRACKS, 2);
+        Map<String, Object> statisticsData = new HashMap<>(PlaylistDetailsRetrievalService.statisticsFields(statistics));
+        statisticsData.put(PlaylistDetailsEvent.TRACK_COUNT, 2L);
+        List<PlaylistDetailsEvent> events = List.of(
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.PLAYLIST, playlistData),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.TRACKS, Map.of("offset", 0L, "items", matrix.toTrackItems())),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.AUDIO_FEATURES, statisticsData),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.GENRES, Map.of("genreCounts", Map.of("rock", 2))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.SEED_ARTISTS, Map.of("seedArtists", List.of("artist1"))),
+                new PlaylistDetailsEvent(PlaylistDetailsEvent.COMPLETE, Map.of(PlaylistDetailsEvent.TRACK_COUNT, 2L, "totalDuration", 400000L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        writer.write(events, outputStream);
+
+        // Assert: 結果の検証
+        assertThat(objectMapper.readTree(outputStream.toByteArray())).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(response)));
+    }
+
+    /**
+     * 作成済みのレスポンスを書き込む場合も、指定された項目のみが書き込まれ、出力ストリームが閉じられないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 作成済みのレスポンスの指定された項目を書き込む")
+    void write_ShouldWriteCreatedDetailsWithProjection() throws Exception {
+        // Arrange: テストデータの準備
+        Map<String, Object> details = Map.of("playlistName", "Test Playlist", "ownerId", "owner1", "totalDuration", 200000L);
+        FieldProjection projection = FieldProjection.parse("playlistName,totalDuration").orElseThrow();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("出力ストリームが閉じられました");
+            }
+        };
+
+        // Act: テスト対象メソッドの実行
+        writer.write(details, outputStream, projection);
+
+        // Assert: 結果の検証
+        JsonNode root = objectMapper.readTree(outputStream.toByteArray());
+        assertThat(root.get("playlistName").asText()).isEqualTo("Test Playlist");
+        assertThat(root.get("totalDuration").asLong()).isEqualTo(200000L);
+        assertThat(root.has("ownerId")).isFalse();
+    }
+
+    /**
+     * 最初のイベントがエラーの場合、何も書き込まずにエラーの内容を持つ例外をスローすることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 書き込み開始前のエラーは何も書き込まずに例外をスローする")
+    void write_ShouldThrowWithoutWritingWhenFirstEventIsError() {
+        // Arrange: テストデータの準備
+        List<PlaylistDetailsEvent> events = List.of(new PlaylistDetailsEvent(PlaylistDetailsEvent.ERROR,
+                new ErrorResponse(HttpStatus.NOT_FOUND, "RESOURCE_NOT_FOUND", "指定されたプレイリストが見つかりません。")));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> writer.write(events, outputStream))
+                .isInstanceOf(PlaylistViewerNextException.class)
+                .satisfies(e -> assertThat(((PlaylistViewerNextException) e).getHttpStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+        assertThat(outputStream.size()).isZero();
+    }
+
+    /**
+     * 書き込まれた各項目 (入れ子の項目を含む) が、Jacksonで変換したJSONの同じ項目と一致することを検証する
+     */
+    private static void assertWrittenFieldsMatch(JsonNode written, JsonNode expected, String path) {
+        if (written.isObject()) {
+            for (Iterator<String> fields = written.fieldNames(); fields.hasNext(); ) {
+                String field = fields.next();
+                assertThat(expected.has(field)).as(path + "." + field).isTrue();
+                assertWrittenFieldsMatch(written.get(field), expected.get(field), path + "." + field);
+            }
+        } else if (written.isArray()) {
+            assertThat(written).as(path).hasSameSizeAs(expected);
+            for (int i = 0; i < written.size(); i++) {
+                assertWrittenFieldsMatch(written.get(i), expected.get(i), path + "[" + i + "]");
+            }
+        } else {
+            assertThat(written).as(path).isEqualTo(expected);
+        }
+    }
+
+    private static TrackItem createTrackItem(String trackId) {
+        return new TrackItem(CompactTrack.from(createTrack(trackId)), CompactAudioFeatures.from(createAudioFeatures(trackId)));
+    }
+
+    private static Track createTrack(String trackId) {
+        return new Track.Builder()
+                .setId(trackId)
+                .setName("Track " + trackId)
+                .setUri("spotify:track:" + trackId)
+                .setDurationMs(200000)
+                .setPopularity(50)
+                .setPreviewUrl("https://p.scdn.co/mp3-preview/" + trackId)
+                .setAvailableMarkets(new CountryCode[]{CountryCode.JP})
+                .setExternalUrls(new ExternalUrl.Builder().setExternalUrls(Map.of("spotify", "https://open.spotify.com/track/" + trackId)).build())
+                .setArtists(new ArtistSimplified.Builder().setId("artist1").setName("Artist 1").build())
+                .setAlbum(new AlbumSimplified.Builder()
+                        .setId("album1")
+                        .setName("Album 1")
+                        .setImages(new Image.Builder().setUrl("https://i.scdn.co/image/album1").setHeight(640).setWidth(640).build())
+                        .build())
+                .build();
+    }
+
+    private static AudioFeatures createAudioFeatures(String trackId) {
+        return new AudioFeatures.Builder()
+                .setId(trackId)
+                .setDanceability(0.5f)
+                .setEnergy(0.4f)
+                .setValence(0.3f)
+                .setTempo(120f)
+                .setAcousticness(0.2f)
+                .setInstrumentalness(0.1f)
+                .setLiveness(0.6f)
+                .setSpeechiness(0.05f)
+                .setLoudness(-5f)
+                .setKey(5)
+                .setMode(Modality.MAJOR)
+                .setTimeSignature(4)
+                .setAnalysisUrl("https://api.spotify.com/v1/audio-analysis/" + trackId)
+                .setTrackHref("https://api.spotify.com/v1/tracks/" + trackId)
+                .build();
+    }
+}
@@ -1,23 +1,42 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
 import com.github.oosm032519.playlistviewernext.exception.PlaylistViewerNextException;
 import com.github.oosm032519.playlistviewernext.exception.ResourceNotFoundException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
+import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeatureStatistics;
 import com.github.oosm032519.playlistviewernext.service.analytics.AudioFeaturesCalculator;
 import com.github.oosm032519.playlistviewernext.service.analytics.SpotifyPlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistDetailsCache;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.model_objects.specification.Episode;
 import se.michaelthelin.spotify.model_objects.specification.Playlist;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
 import se.michaelthelin.spotify.model_objects.specification.Track;
 import se.michaelthelin.spotify.model_objects.specification.User;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +57,15 @@ class PlaylistDetailsRetrievalServiceTest {
     @Mock
     private SpotifyPlaylistAnalyticsService playlistAnalyticsService;
 
+    @Mock
+    private PlaylistDetailsCache playlistDetailsCache;
+
+    @Spy
+    private ParallelFetchExecutor parallelFetchExecutor = new ParallelFetchExecutor(2);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private PlaylistDetailsRetrievalService playlistDetailsRetrievalService;
 
@@ -54,50 +82,91 @@ class PlaylistDetailsRetrievalServiceTest {
         };
         String playlistName = "Test Playlist";
         User owner = new User.Builder().setId("ownerId").setDisplayName("Owner Name").build();
-        List<Map<String, Object>> trackList = List.of(
-                Map.of("id", "track1"),
-                Map.of("id", "track2")
-        );
+        TrackFeatureMatrix trackMatrix = matrixOf(tracks);
 
         Map<String, Float> maxAudioFeatures = Map.of("feature1", 1.0f);
         Map<String, Float> minAudioFeatures = Map.of("feature1", 0.1f);
         Map<String, Float> averageAudioFeatures = Map.of("feature1", 0.3f);
         long expectedTotalDuration = 420000; // 180000 + 240000
         List<String> top5Artists = List.of("artist1", "artist2");
+        Map<String, Integer> genreCounts = Map.of("pop", 2);
 
         Playlist playlist = new Playlist.Builder().setName(playlistName).setOwner(owner).build();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot(playlistId, playlist, tracks, 1);
 
         // モックの設定
-        when(playlistDetailsService.getPlaylist(playlistId)).thenReturn(playlist);
-        when(playlistDetailsService.getPlaylistTracks(playlistId)).thenReturn(tracks);
-        when(trackDataRetriever.getTrackListData(tracks)).thenReturn(trackList);
-        when(playlistAnalyticsService.getTop5ArtistsForPlaylist(playlistId)).thenReturn(top5Artists);
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(snapshot);
+        when(trackDataRetriever.getTrackFeatureMatrix(snapshot)).thenReturn(trackMatrix);
+        when(playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot)).thenReturn(top5Artists);
+        when(playlistAnalyticsService.getGenreCountsForPlaylist(snapshot)).thenReturn(genreCounts);
+
+        AudioFeatureStatistics statistics = mock(AudioFeatureStatistics.class);
+        when(statistics.getMaxValues()).thenReturn(maxAudioFeatures);
+        when(statistics.getMinValues()).thenReturn(minAudioFeatures);
+        when(statistics.getMeanValues()).thenReturn(averageAudioFeatures);
 
         // AudioFeaturesCalculatorのスタティックメソッドのモック
         try (MockedStatic<AudioFeaturesCalculator> mockedCalculator = mockStatic(AudioFeaturesCalculator.class)) {
-            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateMaxAudioFeatures(trackList)).thenReturn(maxAudioFeatures);
-            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateMinAudioFeatures(trackList)).thenReturn(minAudioFeatures);
-            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateAverageAudioFeatures(trackList)).thenReturn(averageAudioFeatures);
+            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateStatistics(trackMatrix)).thenReturn(statistics);
 
             // Act: テスト対象メソッドの実行
             Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId);
 
             // Assert: 結果の検証
             assertThat(response)
-                    .containsEntry("tracks", Map.of("items", trackList))
+                    .containsEntry("tracks", Map.of("items", trackMatrix.toTrackItems()))
                     .containsEntry("playlistName", playlistName)
                     .containsEntry("ownerId", owner.getId())
                     .containsEntry("ownerName", owner.getDisplayName())
                     .containsEntry("maxAudioFeatures", maxAudioFeatures)
                     .containsEntry("minAudioFeatures", minAudioFeatures)
                     .containsEntry("averageAudioFeatures", averageAudioFeatures)
-                    .containsEntry("totalDuration", expectedTotalDuration);
+                    .containsEntry("totalDuration", expectedTotalDuration)
+                    .containsEntry("genreCounts", genreCounts);
+
+            // トラック一覧の取得はスナップショット1回のみで、各分析処理はスナップショットを共有する
+            verify(playlistDetailsService).getPlaylistSnapshot(playlistId);
+            verify(playlistDetailsService, never()).getPlaylistTracks(playlistId);
+            verify(trackDataRetriever).getTrackFeatureMatrix(snapshot);
+            verify(playlistAnalyticsService).getTop5ArtistsForPlaylist(snapshot);
+            verify(playlistAnalyticsService).getGenreCountsForPlaylist(snapshot);
+            assertThat(meterRegistry.get("playlist.details.upstream.page.fetches").summary().totalAmount()).isEqualTo(1.0);
+        }
+    }
+
+    /**
+     * プレイリストにnullの要素、トラックがnullの要素、エピソードが含まれる場合も詳細情報を作成でき、
+     * 総再生時間にはトラックのみが計上されることを確認する。
+     */
+    @Test
+    void getPlaylistDetails_SkipsNullAndEpisodeItems_WhenCalculatingTotalDuration() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Track track = new Track.Builder().setId("track1").setDurationMs(180000).build();
+        PlaylistTrack[] tracks = new PlaylistTrack[]{
+                new PlaylistTrack.Builder().setTrack(track).build(),
+                null,
+                new PlaylistTrack.Builder().build(),
+                new PlaylistTrack.Builder().setTrack(new Episode.Builder().setId("episode1").setDurationMs(600000).build()).build()
+        };
+        User owner = new User.Builder().setId("ownerId").setDisplayName("Owner Name").build();
+        Playlist playlist = new Playlist.Builder().setName("Test Playlist").setOwner(owner).build();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot(playlistId, playlist, tracks, 1);
+        TrackFeatureMatrix trackMatrix = new TrackFeatureMatrix(new Track[]{track}, List.of());
 
-            // モックの呼び出し検証
-            verify(playlistDetailsService).getPlaylist(playlistId);
-            verify(playlistDetailsService).getPlaylistTracks(playlistId);
-            verify(trackDataRetriever).getTrackListData(tracks);
-            verify(playlistAnalyticsService).getTop5ArtistsForPlaylist(playlistId);
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(snapshot);
+        when(trackDataRetriever.getTrackFeatureMatrix(snapshot)).thenReturn(trackMatrix);
+        when(playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot)).thenReturn(List.of());
+        when(playlistAnalyticsService.getGenreCountsForPlaylist(snapshot)).thenReturn(Map.of());
+
+        try (MockedStatic<AudioFeaturesCalculator> mockedCalculator = mockStatic(AudioFeaturesCalculator.class)) {
+            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateStatistics(trackMatrix)).thenReturn(new AudioFeatureStatistics());
+
+            // Act: テスト対象メソッドの実行
+            Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId, null);
+
+            // Assert: 結果の検証
+            assertThat(response).containsEntry("totalDuration", 180000L);
         }
     }
 
@@ -108,7 +177,7 @@ class PlaylistDetailsRetrievalServiceTest {
     void getPlaylistDetails_ThrowsPlaylistViewerNextException_WhenOtherExceptionOccurs() throws SpotifyWebApiException {
         // Arrange: 例外をスローするモックの設定
         String playlistId = "testPlaylistId";
-        when(playlistDetailsService.getPlaylist(playlistId)).thenThrow(new RuntimeException("Other Error"));
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenThrow(new RuntimeException("Other Error"));
 
         // Act & Assert: PlaylistViewerNextExceptionがスローされることの確認
         assertThatThrownBy(() -> playlistDetailsRetrievalService.getPlaylistDetails(playlistId))
@@ -123,11 +192,240 @@ class PlaylistDetailsRetrievalServiceTest {
     void getPlaylistDetails_ThrowsResourceNotFoundException_WhenPlaylistNotFound() throws SpotifyWebApiException {
         // Arrange: プレイリストが見つからない場合のモック設定
         String playlistId = "testPlaylistId";
-        when(playlistDetailsService.getPlaylist(playlistId)).thenReturn(null);
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(new PlaylistSnapshot(playlistId, null, null, 1));
 
         // Act & Assert: ResourceNotFoundExceptionがスローされることの確認
         assertThatThrownBy(() -> playlistDetailsRetrievalService.getPlaylistDetails(playlistId))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("指定されたプレイリストが見つかりません。");
     }
+
+    /**
+     * AudioFeaturesの取得とジャンル集計が並行して実行されることを確認する。
+     */
+    @Test
+    void getPlaylistDetails_FetchesAudioFeaturesAndGenresConcurrently() throws Exception {
+        // Arrange: ジャンル集計が開始されるまでAudioFeaturesの取得が完了しないように設定
+        String playlistId = "testPlaylistId";
+        PlaylistTrack[] tracks = new PlaylistTrack[]{
+                new PlaylistTrack.Builder().setTrack(new Track.Builder().setId("track1").setDurationMs(180000).build()).build()
+        };
+        User owner = new User.Builder().setId("ownerId").setDisplayName("Owner Name").build();
+        Playlist playlist = new Playlist.Builder().setName("Test Playlist").setOwner(owner).build();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot(playlistId, playlist, tracks, 1);
+        TrackFeatureMatrix trackMatrix = matrixOf(tracks);
+        Map<String, Integer> genreCounts = Map.of("pop", 1);
+        CountDownLatch genreAggregationStarted = new CountDownLatch(1);
+
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(snapshot);
+        when(playlistAnalyticsService.getGenreCountsForPlaylist(snapshot)).thenAnswer(invocation -> {
+            genreAggregationStarted.countDown();
+            return genreCounts;
+        });
+        when(trackDataRetriever.getTrackFeatureMatrix(snapshot)).thenAnswer(invocation -> {
+            assertThat(genreAggregationStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return trackMatrix;
+        });
+        when(playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot)).thenReturn(List.of("artist1"));
+
+        try (MockedStatic<AudioFeaturesCalculator> mockedCalculator = mockStatic(AudioFeaturesCalculator.class)) {
+            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateStatistics(trackMatrix)).thenReturn(new AudioFeatureStatistics());
+
+            // Act: テスト対象メソッドの実行
+            Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId);
+
+            // Assert: 結果の検証
+            assertThat(response)
+                    .containsEntry("tracks", Map.of("items", trackMatrix.toTrackItems()))
+                    .containsEntry("genreCounts", genreCounts);
+        }
+    }
+
+    /**
+     * ジャンル集計が失敗した場合、PlaylistViewerNextExceptionがスローされることを確認する。
+     */
+    @Test
+    void getPlaylistDetails_ThrowsPlaylistViewerNextException_WhenGenreAggregationFails() throws Exception {
+        // Arrange: ジャンル集計で例外をスローするモックの設定
+        String playlistId = "testPlaylistId";
+        User owner = new User.Builder().setId("ownerId").setDisplayName("Owner Name").build();
+        Playlist playlist = new Playlist.Builder().setName("Test Playlist").setOwner(owner).build();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot(playlistId, playlist, new PlaylistTrack[0], 1);
+
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(snapshot);
+        when(trackDataRetriever.getTrackFeatureMatrix(snapshot)).thenReturn(TrackFeatureMatrix.empty());
+        when(playlistAnalyticsService.getGenreCountsForPlaylist(snapshot)).thenThrow(new RuntimeException("Genre Error"));
+
+        // Act & Assert: PlaylistViewerNextExceptionがスローされることの確認
+        assertThatThrownBy(() -> playlistDetailsRetrievalService.getPlaylistDetails(playlistId))
+                .isInstanceOf(PlaylistViewerNextException.class)
+                .hasMessageContaining("プレイリストの詳細情報の取得中にエラーが発生しました。");
+    }
+
+    /**
+     * プレイリストのsnapshot_idに対応するレスポンスがキャッシュに存在する場合、トラック一覧を取得せずにキャッシュのレスポンスを返すことを確認する。
+     */
+    @Test
+    void getPlaylistDetails_ReturnsCachedDetails_WhenSnapshotIsUnchanged() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> cachedDetails = Map.of("playlistName", "Cached Playlist");
+        when(playlistDetailsService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsCache.get(playlistId, "snapshot1")).thenReturn(Optional.of(cachedDetails));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId);
+
+        // Assert: 結果の検証
+        assertThat(response).isEqualTo(cachedDetails);
+        verify(playlistDetailsService, never()).getPlaylistSnapshot(playlistId);
+        verifyNoInteractions(trackDataRetriever, playlistAnalyticsService);
+    }
+
+    /**
+     * 取得済みのsnapshot_idを指定した場合、snapshot_idを再度取得せずにキャッシュを確認することを確認する。
+     */
+    @Test
+    void getPlaylistDetails_UsesGivenSnapshotId_WithoutFetchingItAgain() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        Map<String, Object> cachedDetails = Map.of("playlistName", "Cached Playlist");
+        when(playlistDetailsCache.get(playlistId, "snapshot1")).thenReturn(Optional.of(cachedDetails));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1");
+
+        // Assert: 結果の検証
+        assertThat(response).isEqualTo(cachedDetails);
+        verify(playlistDetailsService, never()).getPlaylistSnapshotId(playlistId);
+        verify(playlistDetailsService, never()).getPlaylistSnapshot(playlistId);
+    }
+
+    /**
+     * snapshot_idの取得がレート制限により破棄された場合、503のInternalServerExceptionがそのままスローされることを確認する。
+     */
+    @Test
+    void getPlaylistSnapshotId_PropagatesApplicationException_WhenRequestIsShed() throws Exception {
+        // Arrange: モックの設定
+        String playlistId = "testPlaylistId";
+        InternalServerException shed = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "rejected");
+        when(playlistDetailsService.getPlaylistSnapshotId(playlistId)).thenThrow(shed);
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId))
+                .isSameAs(shed);
+    }
+
+    /**
+     * snapshot_idの取得中にSpotify APIの例外が発生した場合、詳細情報の取得と同じく500のInvalidRequestExceptionがスローされることを確認する。
+     */
+    @Test
+    void getPlaylistSnapshotId_ThrowsInvalidRequestException_WhenFetchFails() throws Exception {
+        // Arrange: モックの設定
+        String playlistId = "testPlaylistId";
+        when(playlistDetailsService.getPlaylistSnapshotId(playlistId)).thenThrow(new SpotifyWebApiException("API error"));
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId))
+                .isInstanceOf(InvalidRequestException.class)
+                .satisfies(e -> assertThat(((InvalidRequestException) e).getHttpStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * モックモード (snapshot_idを返さない) の場合、例外をスローせずにnullを返すことを確認する。
+     */
+    @Test
+    void getPlaylistSnapshotId_ReturnsNull_WhenSnapshotIdIsUnavailable() throws Exception {
+        // Arrange: モックの設定
+        String playlistId = "testPlaylistId";
+        when(playlistDetailsService.getPlaylistSnapshotId(playlistId)).thenReturn(null);
+
+        // Act & Assert: 結果の検証
+        assertThat(playlistDetailsRetrievalService.getPlaylistSnapshotId(playlistId)).isNull();
+    }
+
+    /**
+     * キャッシュに存在しない場合、レスポンスを作成し、計算に使用したプレイリストのsnapshot_idをキーとして格納することを確認する。
+     */
+    @Test
+    void getPlaylistDetails_StoresDetailsUnderFetchedSnapshotId_WhenCacheMisses() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        PlaylistTrack[] tracks = new PlaylistTrack[]{
+                new PlaylistTrack.Builder().setTrack(new Track.Builder().setId("track1").setDurationMs(180000).build()).build()
+        };
+        User owner = new User.Builder().setId("ownerId").setDisplayName("Owner Name").build();
+        Playlist playlist = new Playlist.Builder().setName("Test Playlist").setOwner(owner).setSnapshotId("snapshot2").build();
+        PlaylistSnapshot snapshot = new PlaylistSnapshot(playlistId, playlist, tracks, 1);
+        TrackFeatureMatrix trackMatrix = matrixOf(tracks);
+
+        when(playlistDetailsService.getPlaylistSnapshotId(playlistId)).thenReturn("snapshot1");
+        when(playlistDetailsCache.get(playlistId, "snapshot1")).thenReturn(Optional.empty());
+        when(playlistDetailsService.getPlaylistSnapshot(playlistId)).thenReturn(snapshot);
+        when(trackDataRetriever.getTrackFeatureMatrix(snapshot)).thenReturn(trackMatrix);
+        when(playlistAnalyticsService.getTop5ArtistsForPlaylist(snapshot)).thenReturn(List.of("artist1"));
+        when(playlistAnalyticsService.getGenreCountsForPlaylist(snapshot)).thenReturn(Map.of("pop", 1));
+
+        try (MockedStatic<AudioFeaturesCalculator> mockedCalculator = mockStatic(AudioFeaturesCalculator.class)) {
+            mockedCalculator.when(() -> AudioFeaturesCalculator.calculateStatistics(trackMatrix)).thenReturn(new AudioFeatureStatistics());
+
+            // Act: テスト対象メソッドの実行
+            Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId);
+
+            // Assert: 結果の検証
+            assertThat(response).containsEntry("playlistName", "Test Playlist");
+            verify(playlistDetailsCache).put(playlistId, "snapshot2", response);
+        }
+    }
+
+    /**
+     * 返されたレスポンスは変更不可であり、同時に要求した他の呼び出し元と共有するインスタンスを変更できないことを確認する。
+     */
+    @Test
+    void getPlaylistDetails_ReturnsUnmodifiableDetails() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        when(playlistDetailsCache.get(playlistId, "snapshot1")).thenReturn(Optional.of(new HashMap<>(Map.of("playlistName", "Cached Playlist"))));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> response = playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1");
+
+        // Assert: 結果の検証
+        assertThatThrownBy(() -> response.put("playlistName", "Changed"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    /**
+     * 同じプレイリストでもsnapshot_idが異なる要求は1つにまとめられず、それぞれのsnapshot_idに対応するレスポンスが返されることを確認する。
+     */
+    @Test
+    void getPlaylistDetails_DoesNotShareInFlightDetailsAcrossSnapshotIds() throws Exception {
+        // Arrange: 古いsnapshot_idのレスポンス作成が完了しないように設定
+        String playlistId = "testPlaylistId";
+        CountDownLatch olderBuildStarted = new CountDownLatch(1);
+        CountDownLatch releaseOlderBuild = new CountDownLatch(1);
+        when(playlistDetailsCache.get(playlistId, "snapshot1")).thenAnswer(invocation -> {
+            olderBuildStarted.countDown();
+            releaseOlderBuild.await(5, TimeUnit.SECONDS);
+            return Optional.of(Map.of("playlistName", "Older Playlist"));
+        });
+        when(playlistDetailsCache.get(playlistId, "snapshot2")).thenReturn(Optional.of(Map.of("playlistName", "Newer Playlist")));
+
+        Future<Map<String, Object>> olderResponse = Executors.newVirtualThreadPerTaskExecutor()
+                .submit(() -> playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot1"));
+        assertThat(olderBuildStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act: 古いsnapshot_idのレスポンスを作成中に、新しいsnapshot_idで要求する
+        Map<String, Object> newerResponse = playlistDetailsRetrievalService.getPlaylistDetails(playlistId, "snapshot2");
+        releaseOlderBuild.countDown();
+
+        // Assert: 結果の検証
+        assertThat(newerResponse).containsEntry("playlistName", "Newer Playlist");
+        assertThat(olderResponse.get(5, TimeUnit.SECONDS)).containsEntry("playlistName", "Older Playlist");
+    }
+
+    private static TrackFeatureMatrix matrixOf(PlaylistTrack[] tracks) {
+        Track[] fullTracks = Arrays.stream(tracks).map(track -> (Track) track.getTrack()).toArray(Track[]::new);
+        return new TrackFeatureMatrix(fullTracks, List.of());
+    }
 }
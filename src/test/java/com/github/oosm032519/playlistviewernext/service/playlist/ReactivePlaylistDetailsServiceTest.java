@@ -0,0 +1,329 @@
+package com.github.oosm032519.playlistviewernext.service.playlist;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.exception.ErrorResponse;
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistDetailsEvent;
+import com.github.oosm032519.playlistviewernext.service.analytics.GenreAggregatorService;
+import com.github.oosm032519.playlistviewernext.service.analytics.SpotifyPlaylistAnalyticsService;
+import com.github.oosm032519.playlistviewernext.service.cache.ArtistGenreCache;
+import com.github.oosm032519.playlistviewernext.service.cache.AudioFeaturesCache;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistDetailsCache;
+import com.github.oosm032519.playlistviewernext.stub.SpotifyStubData;
+import com.github.oosm032519.playlistviewernext.stub.SpotifyStubServer;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import com.github.oosm032519.playlistviewernext.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import se.michaelthelin.spotify.SpotifyApi;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReactivePlaylistDetailsServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final SpotifyStubData data = new SpotifyStubData(30, 50, 100, 5, 3);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PlaylistDetailsCache playlistDetailsCache = mock(PlaylistDetailsCache.class);
+    private SpotifyStubServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * モックモードで、プレイリストのページ・AudioFeatures・アーティストのジャンルをノンブロッキングに取得し、
+     * ブロッキングな詳細取得と同じ形式のレスポンスを作成することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 全ページとAudioFeatures・ジャンルを取得してレスポンスを作成する")
+    void getPlaylistDetails_ShouldComposeAllStages() {
+        // Arrange: テストデータの準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> details = service.getPlaylistDetails("load-250").block();
+
+        // Assert: 結果の検証
+        assertThat(details).isNotNull();
+        assertThat(details.get("playlistName")).isEqualTo("Stub Playlist load-250");
+        assertThat(details.get("ownerName")).isEqualTo("Stub Owner");
+        assertThat((List<?>) ((Map<?, ?>) details.get("tracks")).get("items")).hasSize(250);
+        assertThat((Map<?, ?>) details.get("averageAudioFeatures")).isNotEmpty();
+        assertThat((Map<?, ?>) details.get("genreCounts")).isNotEmpty();
+        assertThat((List<?>) details.get("seedArtists")).hasSize(5);
+        assertThat((Long) details.get("totalDuration")).isPositive();
+        // プレイリスト情報1回と、100曲ごとの3ページ
+        assertThat(meterRegistry.get("playlist.details.upstream.page.fetches").summary().totalAmount()).isEqualTo(4.0);
+        // モックAPIはsnapshot_idを返さないため、キャッシュは使用しない
+        verifyNoInteractions(playlistDetailsCache);
+    }
+
+    /**
+     * 同じプレイリストの詳細が同時に要求された場合、作成中の結果が共有されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 同時に要求された同じプレイリストの詳細は1回の作成にまとめられる")
+    void getPlaylistDetails_ShouldShareInFlightRequests() {
+        // Arrange: テストデータの準備
+        server = startServer(new SpotifyStubServer.Faults(Duration.ofMillis(50), Duration.ZERO, 0, 1));
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+
+        // Act: テスト対象メソッドの実行
+        Tuple2<Map<String, Object>, Map<String, Object>> results = Mono.zip(
+                service.getPlaylistDetails("shared-120"),
+                service.getPlaylistDetails("shared-120")).block();
+
+        // Assert: 結果の検証
+        assertThat(results).isNotNull();
+        assertThat(results.getT1()).isSameAs(results.getT2());
+        // プレイリスト情報、2ページ、AudioFeaturesの2チャンク、アーティストの1チャンク
+        assertThat(server.getRequestCount()).isEqualTo(6);
+    }
+
+    /**
+     * 同じプレイリストでもsnapshot_idが異なる要求は、作成中の結果を共有せずにそれぞれ作成されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: snapshot_idが異なる要求は作成中の結果を共有しない")
+    void getPlaylistDetails_ShouldNotShareAcrossSnapshots() {
+        // Arrange: テストデータの準備
+        server = startServer(new SpotifyStubServer.Faults(Duration.ofMillis(50), Duration.ZERO, 0, 1));
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+        when(playlistDetailsCache.get(anyString(), anyString())).thenReturn(Optional.empty());
+
+        // Act: テスト対象メソッドの実行
+        Tuple2<Map<String, Object>, Map<String, Object>> results = Mono.zip(
+                service.getPlaylistDetails("shared-120", "snapshot-1"),
+                service.getPlaylistDetails("shared-120", "snapshot-2")).block();
+
+        // Assert: 結果の検証
+        assertThat(results).isNotNull();
+        assertThat(results.getT1()).isNotSameAs(results.getT2());
+        // snapshot_idごとに、プレイリスト情報、2ページ、AudioFeaturesの2チャンク、アーティストの1チャンク
+        assertThat(server.getRequestCount()).isEqualTo(12);
+        verify(playlistDetailsCache).get("shared-120", "snapshot-1");
+        verify(playlistDetailsCache).get("shared-120", "snapshot-2");
+    }
+
+    /**
+     * モックAPIはsnapshot_idを返さないため、snapshot_idの取得は上流APIを呼び出さずに空となり、
+     * 取得済みのsnapshot_idがない場合も詳細情報を作成できることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: snapshot_idがない場合もETag用の取得と詳細の作成ができる")
+    void getPlaylistSnapshotId_ShouldBeEmptyInMockMode() {
+        // Arrange: テストデータの準備
+        server = startServer(new SpotifyStubServer.Faults(Duration.ZERO, Duration.ZERO, 0, 1));
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+
+        // Act: テスト対象メソッドの実行
+        String snapshotId = service.getPlaylistSnapshotId("shared-120").block();
+        Map<String, Object> details = service.getPlaylistDetails("shared-120", snapshotId).block();
+
+        // Assert: 結果の検証
+        assertThat(snapshotId).isNull();
+        assertThat(details).isNotNull();
+        assertThat(server.getRequestCount()).isEqualTo(6);
+    }
+
+    /**
+     * snapshot_idの取得がレート制限により破棄された場合、空とせずに503のInternalServerExceptionで失敗することを確認する。
+     */
+    @Test
+    @DisplayName("異常系: snapshot_idの取得の失敗は503などのステータスのまま伝播する")
+    void getPlaylistSnapshotId_ShouldPropagateShedRequests() {
+        // Arrange: snapshot_idの取得が破棄されるクライアントを準備
+        ReactiveSpotifyClient spotifyClient = mock(ReactiveSpotifyClient.class);
+        InternalServerException shed = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "rejected");
+        when(spotifyClient.getPlaylistSnapshotId("shed-10")).thenReturn(Mono.error(shed));
+        GenreAggregatorService genreAggregatorService = new GenreAggregatorService(mock(SpotifyArtistService.class));
+        ReactivePlaylistDetailsService service = new ReactivePlaylistDetailsService(
+                spotifyClient, null, mock(SpotifyPlaylistAnalyticsService.class), genreAggregatorService, playlistDetailsCache, meterRegistry,
+                Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5));
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> service.getPlaylistSnapshotId("shed-10").block())
+                .isSameAs(shed);
+    }
+
+    /**
+     * 上流APIの応答が段階ごとのタイムアウトを超えた場合、504のInternalServerExceptionで失敗することを確認する。
+     */
+    @Test
+    @DisplayName("異常系: タイムアウトを超えた場合は504で失敗する")
+    void getPlaylistDetails_ShouldFailWithGatewayTimeout() {
+        // Arrange: 応答の遅いスタブと短いタイムアウトを設定
+        server = startServer(new SpotifyStubServer.Faults(Duration.ofMillis(500), Duration.ZERO, 0, 1));
+        ReactivePlaylistDetailsService service = createService(Duration.ofMillis(100));
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> service.getPlaylistDetails("slow-10").block())
+                .isInstanceOf(InternalServerException.class)
+                .satisfies(e -> assertThat(((InternalServerException) e).getHttpStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    /**
+     * モックAPIへのリクエストにも流量制限が適用され、トークンを取得できない場合は503で失敗することを確認する。
+     */
+    @Test
+    @DisplayName("異常系: モックAPIへのリクエストも流量制限の対象となる")
+    void getPlaylistDetails_ShouldThrottleMockRequests() {
+        // Arrange: プレイリストの読み取りに1トークンしか使えない流量制限を設定
+        server = startServer(SpotifyStubServer.Faults.NONE);
+        SpotifyRequestThrottle requestThrottle = new SpotifyRequestThrottle(
+                Map.of(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, new TokenBucket(0.01, 1)), Duration.ofMillis(100), meterRegistry);
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5), requestThrottle);
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> service.getPlaylistDetails("throttled-10").block())
+                .isInstanceOf(InternalServerException.class)
+                .satisfies(e -> assertThat(((InternalServerException) e).getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("spotify.throttle.rejected").tag("endpoint", "playlist-read").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * 段階的な詳細取得で、プレイリスト情報・ページごとのトラックと統計値・ジャンル・上位のアーティスト・完了の順にイベントが発行され、
+     * 集計結果が一括での詳細取得と一致することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: プレイリスト情報からページごとのイベント、集計結果の順に発行する")
+    void streamPlaylistDetails_ShouldEmitEventsInStages() {
+        // Arrange: テストデータの準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+        Map<String, Object> details = service.getPlaylistDetails("load-250").block();
+
+        // Act: テスト対象メソッドの実行
+        List<PlaylistDetailsEvent> events = service.streamPlaylistDetails("load-250").collectList().block();
+
+        // Assert: 結果の検証
+        assertThat(events).extracting(PlaylistDetailsEvent::name).containsExactly(
+                PlaylistDetailsEvent.PLAYLIST,
+                PlaylistDetailsEvent.TRACKS, PlaylistDetailsEvent.AUDIO_FEATURES,
+                PlaylistDetailsEvent.TRACKS, PlaylistDetailsEvent.AUDIO_FEATURES,
+                PlaylistDetailsEvent.TRACKS, PlaylistDetailsEvent.AUDIO_FEATURES,
+                PlaylistDetailsEvent.GENRES, PlaylistDetailsEvent.SEED_ARTISTS, PlaylistDetailsEvent.COMPLETE);
+        assertThat(data(events.get(0))).containsEntry("playlistName", "Stub Playlist load-250").containsEntry("totalTracks", 250);
+        assertThat(data(events.get(1))).containsEntry("offset", 0L);
+        assertThat((List<?>) data(events.get(1)).get("items")).hasSize(100);
+        assertThat(data(events.get(5))).containsEntry("offset", 200L);
+        assertThat((List<?>) data(events.get(5)).get("items")).hasSize(50);
+        assertThat(data(events.get(2))).containsEntry("trackCount", 100L);
+        assertThat(data(events.get(6))).containsEntry("trackCount", 250L)
+                .containsEntry("averageAudioFeatures", details.get("averageAudioFeatures"))
+                .containsEntry("maxAudioFeatures", details.get("maxAudioFeatures"));
+        assertThat(data(events.get(7))).containsEntry("genreCounts", details.get("genreCounts"));
+        assertThat((List<?>) data(events.get(8)).get("seedArtists")).hasSize(5);
+        assertThat(data(events.get(9))).containsEntry("trackCount", 250L).containsEntry("totalDuration", details.get("totalDuration"));
+    }
+
+    /**
+     * 段階的な詳細取得のイベントをJSONとして書き込んだ結果が、一括での詳細取得のレスポンスと同じ集計結果を持つことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: イベントから書き込んだJSONが一括での詳細取得と一致する")
+    void streamPlaylistDetails_ShouldBeWritableAsDetailsJson() throws Exception {
+        // Arrange: テストデータの準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+        ReactivePlaylistDetailsService service = createService(Duration.ofSeconds(5));
+        Map<String, Object> details = service.getPlaylistDetails("load-250").block();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act: テスト対象メソッドの実行
+        new PlaylistDetailsJsonWriter(objectMapper).write(service.streamPlaylistDetails("load-250").toIterable(2), outputStream);
+
+        // Assert: 結果の検証
+        Map<String, Object> written = objectMapper.readValue(outputStream.toByteArray(), new TypeReference<>() {
+        });
+        Map<String, Object> expected = objectMapper.readValue(objectMapper.writeValueAsBytes(details), new TypeReference<>() {
+        });
+        assertThat((List<?>) ((Map<?, ?>) written.get("tracks")).get("items")).hasSize(250);
+        assertThat(written).containsOnlyKeys(expected.keySet());
+        for (String key : List.of("playlistName", "ownerId", "ownerName", "averageAudioFeatures", "maxAudioFeatures", "minAudioFeatures",
+                "p10AudioFeatures", "p50AudioFeatures", "p90AudioFeatures", "totalDuration", "genreCounts")) {
+            assertThat(written.get(key)).as(key).isEqualTo(expected.get(key));
+        }
+    }
+
+    /**
+     * 段階的な詳細取得で上流APIの応答がタイムアウトを超えた場合、504のエラーイベントを発行して完了することを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 段階的な詳細取得がタイムアウトした場合はエラーイベントを発行する")
+    void streamPlaylistDetails_ShouldEmitErrorEventOnTimeout() {
+        // Arrange: 応答の遅いスタブと短いタイムアウトを設定
+        server = startServer(new SpotifyStubServer.Faults(Duration.ofMillis(500), Duration.ZERO, 0, 1));
+        ReactivePlaylistDetailsService service = createService(Duration.ofMillis(100));
+
+        // Act: テスト対象メソッドの実行
+        List<PlaylistDetailsEvent> events = service.streamPlaylistDetails("slow-10").collectList().block();
+
+        // Assert: 結果の検証
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).name()).isEqualTo(PlaylistDetailsEvent.ERROR);
+        assertThat(((ErrorResponse) events.get(0).data()).getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> data(PlaylistDetailsEvent event) {
+        return (Map<String, Object>) event.data();
+    }
+
+    private ReactivePlaylistDetailsService createService(Duration timeout) {
+        return createService(timeout, new SpotifyRequestThrottle(
+                Map.of(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, new TokenBucket(1000, 1000)), Duration.ofSeconds(1), meterRegistry));
+    }
+
+    private ReactivePlaylistDetailsService createService(Duration timeout, SpotifyRequestThrottle requestThrottle) {
+        SpotifyApi spotifyApi = new SpotifyApi.Builder().build();
+        SpotifyPlaylistDetailsService playlistDetailsService = new SpotifyPlaylistDetailsService(
+                spotifyApi, new MockApiClient(WebClient.builder(), mock(SpotifyRequestThrottle.class)), objectMapper, new ParallelFetchExecutor(1));
+        ReactiveSpotifyClient spotifyClient = new ReactiveSpotifyClient(
+                spotifyApi, WebClient.builder(), requestThrottle, playlistDetailsService,
+                mock(AudioFeaturesCache.class), mock(ArtistGenreCache.class), 4, "https://api.spotify.com/v1", DataSize.ofMegabytes(16));
+        ReflectionTestUtils.setField(spotifyClient, "mockEnabled", true);
+        ReflectionTestUtils.setField(spotifyClient, "mockApiUrl", server.getBaseUrl());
+
+        GenreAggregatorService genreAggregatorService = new GenreAggregatorService(mock(SpotifyArtistService.class));
+        SpotifyPlaylistAnalyticsService playlistAnalyticsService = new SpotifyPlaylistAnalyticsService(playlistDetailsService, genreAggregatorService);
+        ReactivePlaylistDetailsService service = new ReactivePlaylistDetailsService(
+                spotifyClient, null, playlistAnalyticsService, genreAggregatorService, playlistDetailsCache, meterRegistry,
+                timeout, timeout, timeout);
+        ReflectionTestUtils.setField(service, "mockEnabled", true);
+        return service;
+    }
+
+    private SpotifyStubServer startServer(SpotifyStubServer.Faults faults) {
+        SpotifyStubServer stubServer = new SpotifyStubServer(data, objectMapper, faults, 0);
+        stubServer.start();
+        return stubServer;
+    }
+}
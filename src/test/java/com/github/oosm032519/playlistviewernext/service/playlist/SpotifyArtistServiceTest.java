@@ -1,33 +1,32 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
-import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.service.cache.ArtistGenreCache;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.hc.core5.http.ParseException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.InternalServerErrorException;
 import se.michaelthelin.spotify.model_objects.specification.Artist;
 import se.michaelthelin.spotify.requests.data.artists.GetSeveralArtistsRequest;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SpotifyArtistServiceTest {
@@ -36,19 +35,9 @@ class SpotifyArtistServiceTest {
     SpotifyApi spotifyApi;
 
     @Mock
-    WebClient.Builder webClientBuilder;
+    MockApiClient mockApiClient;
 
-    @Mock
-    WebClient webClient;
-
-    @Mock
-    WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-
-    @Mock
-    WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    WebClient.ResponseSpec responseSpec;
+    ArtistGenreCache artistGenreCache = new ArtistGenreCache(new SimpleMeterRegistry(), 1000, Duration.ofHours(24));
 
     SpotifyArtistService artistService;
 
@@ -62,8 +51,7 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtistGenres_shouldReturnGenres_whenArtistHasGenres() throws SpotifyWebApiException, IOException, ParseException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         ReflectionTestUtils.setField(artistService, "mockEnabled", false);
 
         String artistId = "test-artist-id";
@@ -92,8 +80,7 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtistGenres_shouldThrowException_whenArtistNotFound() throws IOException, ParseException, SpotifyWebApiException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         ReflectionTestUtils.setField(artistService, "mockEnabled", false);
 
         String artistId = "non-existent-artist-id";
@@ -116,8 +103,7 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtistGenres_shouldReturnAllGenres_whenArtistHasMultipleGenres() throws SpotifyWebApiException, IOException, ParseException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         ReflectionTestUtils.setField(artistService, "mockEnabled", false);
 
         String artistId = "test-artist-id";
@@ -146,97 +132,78 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtistGenres_shouldCallMockApi_whenMockEnabledAndMockApiUrlSet() throws SpotifyWebApiException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         ReflectionTestUtils.setField(artistService, "mockEnabled", true);
         ReflectionTestUtils.setField(artistService, "mockApiUrl", "http://mock-api-url");
 
-        String mockApiUrl = "http://mock-api-url"; // mockApiUrl をローカル変数として定義
-
         String artistId = "test-artist-id";
         List<String> artistIds = Collections.singletonList(artistId);
 
         Map<String, List<String>> expectedGenres = Collections.singletonMap(artistId, List.of("mock-genre"));
-
-        // WebClient のモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq(mockApiUrl + "/artists/genres"), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class))).thenReturn(Mono.just(expectedGenres));
+        doReturn(expectedGenres).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.ARTISTS), any(), any());
 
         // Act: テスト対象メソッドの実行
         Map<String, List<String>> actualGenres = artistService.getArtistGenres(artistIds);
 
         // Assert: 結果の検証
         assertThat(actualGenres).isEqualTo(expectedGenres);
+        verify(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.ARTISTS),
+                argThat(uri -> uri.toString().equals("http://mock-api-url/artists/genres?artistIds=test-artist-id")), any());
+        verify(spotifyApi, never()).getSeveralArtists(any(String[].class));
     }
 
     /**
-     * モックAPIがジャンルを返す場合、モックAPIからアーティストのジャンルが取得されることを確認する。
+     * モックモードでも、取得済みのアーティストはキャッシュから返し、モックAPIに再度問い合わせないことを確認する。
      */
     @Test
-    void getArtistGenresMock_shouldReturnGenres_whenMockApiReturnsGenres() {
+    void getArtistGenres_shouldFetchOnlyMissesFromMockApi_whenArtistsAreCached() throws SpotifyWebApiException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(artistService, "mockEnabled", true);
         ReflectionTestUtils.setField(artistService, "mockApiUrl", "http://mock-api-url");
 
-        String mockApiUrl = "http://mock-api-url"; // mockApiUrl をローカル変数として定義
-
-        String artistId = "test-artist-id";
-        List<String> artistIds = Collections.singletonList(artistId);
-
-        Map<String, List<String>> expectedGenres = Collections.singletonMap(artistId, List.of("mock-genre"));
-
-        // WebClient のモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq(mockApiUrl + "/artists/genres"), any(Function.class))).thenReturn(requestHeadersSpec); // 修正点: eq() と any(Function.class)
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class))).thenReturn(Mono.just(expectedGenres));
+        doReturn(Map.of("cached-artist", List.of("pop")))
+                .doReturn(Map.of("new-artist", List.of("rock")))
+                .when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.ARTISTS), any(), any());
 
         // Act: テスト対象メソッドの実行
-        Map<String, List<String>> actualGenres = artistService.getArtistGenresMock(artistIds);
+        artistService.getArtistGenres(List.of("cached-artist"));
+        Map<String, List<String>> result = artistService.getArtistGenres(List.of("cached-artist", "new-artist"));
 
         // Assert: 結果の検証
-        assertThat(actualGenres).isEqualTo(expectedGenres);
+        assertThat(result)
+                .containsEntry("cached-artist", List.of("pop"))
+                .containsEntry("new-artist", List.of("rock"));
+        verify(mockApiClient).get(any(), argThat(uri -> uri.getQuery().equals("artistIds=new-artist")), any());
+        verify(mockApiClient, times(2)).get(any(), any(), any());
     }
 
     /**
-     * モックAPI呼び出しが失敗した場合、InternalServerExceptionがスローされることを確認する。
+     * モックAPIがエラーを返した場合、実APIと同じSpotifyWebApiExceptionがそのままスローされることを確認する。
      */
     @Test
-    void getArtistGenresMock_shouldThrowException_whenMockApiCallFails() {
+    void getArtistGenres_shouldThrowException_whenMockApiCallFails() throws SpotifyWebApiException {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(artistService, "mockEnabled", true);
         ReflectionTestUtils.setField(artistService, "mockApiUrl", "http://mock-api-url");
 
-        String mockApiUrl = "http://mock-api-url"; // mockApiUrl をローカル変数として定義
-
-        String artistId = "test-artist-id";
-        List<String> artistIds = Collections.singletonList(artistId);
-
-        // WebClient のモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq(mockApiUrl + "/artists/genres"), any(Function.class))).thenReturn(requestHeadersSpec); // 修正点: eq() と any(Function.class)
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
-                .thenReturn(Mono.error(new WebClientResponseException("Mock API Error", HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", null, null, null)));
+        List<String> artistIds = Collections.singletonList("test-artist-id");
+        doThrow(new InternalServerErrorException("Internal Server Error")).when(mockApiClient).get(any(), any(), any());
 
         // Act & Assert: 例外がスローされることの確認
-        assertThatThrownBy(() -> artistService.getArtistGenresMock(artistIds))
-                .isInstanceOf(InternalServerException.class)
-                .hasMessageContaining("Error calling mock API");
+        assertThatThrownBy(() -> artistService.getArtistGenres(artistIds))
+                .isInstanceOf(InternalServerErrorException.class)
+                .hasMessage("Internal Server Error");
     }
 
     /**
      * 実際のSpotify APIがジャンルを返す場合、アーティストのジャンルが正しく取得されることを確認する。
      */
     @Test
-    void getArtistGenresReal_shouldReturnGenres_whenArtistHasGenres() throws Exception {
+    void getArtistGenres_shouldCallSpotifyApi_whenMockDisabled() throws Exception {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
 
         String artistId = "test-artist-id";
         String[] genres = {"pop", "rock"};
@@ -252,7 +219,7 @@ class SpotifyArtistServiceTest {
         when(artist.getId()).thenReturn(artistId);
 
         // Act: テスト対象メソッドの実行
-        Map<String, List<String>> result = artistService.getArtistGenresReal(Collections.singletonList(artistId));
+        Map<String, List<String>> result = artistService.getArtistGenres(Collections.singletonList(artistId));
 
         // Assert: 結果の検証
         assertThat(result.get(artistId)).containsExactly("pop", "rock");
@@ -262,10 +229,9 @@ class SpotifyArtistServiceTest {
      * 実際のSpotify API呼び出しが失敗した場合、SpotifyWebApiExceptionがスローされることを確認する。
      */
     @Test
-    void getArtistGenresReal_shouldThrowException_whenSpotifyApiCallFails() throws Exception {
+    void getArtistGenres_shouldThrowException_whenSpotifyApiCallFails() throws Exception {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         String artistId = "non-existent-artist-id";
         getSeveralArtistsRequest = mock(GetSeveralArtistsRequest.class);
 
@@ -275,7 +241,7 @@ class SpotifyArtistServiceTest {
         when(getSeveralArtistsRequest.execute()).thenThrow(new SpotifyWebApiException("Spotify API Error"));
 
         // Act & Assert: 例外がスローされることの確認
-        assertThatThrownBy(() -> artistService.getArtistGenresReal(Collections.singletonList(artistId)))
+        assertThatThrownBy(() -> artistService.getArtistGenres(Collections.singletonList(artistId)))
                 .isInstanceOf(SpotifyWebApiException.class)
                 .hasMessageContaining("Spotify API Error");
     }
@@ -286,8 +252,7 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtists_shouldReturnArtists_whenValidArtistIdsProvided() throws Exception {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         String artistId = "test-artist-id";
         Artist expectedArtist = new Artist.Builder().setId(artistId).setName("Test Artist").build();
         getSeveralArtistsRequest = mock(GetSeveralArtistsRequest.class);
@@ -310,8 +275,7 @@ class SpotifyArtistServiceTest {
     @Test
     void getArtists_shouldThrowException_whenSpotifyApiCallFails() throws Exception {
         // Arrange: モックの設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        artistService = new SpotifyArtistService(spotifyApi, webClientBuilder);
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
         String artistId = "invalid-artist-id";
         getSeveralArtistsRequest = mock(GetSeveralArtistsRequest.class);
 
@@ -325,4 +289,41 @@ class SpotifyArtistServiceTest {
                 .isInstanceOf(SpotifyWebApiException.class)
                 .hasMessageContaining("Spotify API Error");
     }
+
+    /**
+     * 2回目以降の呼び出しでは、キャッシュ済みのアーティストを上流APIに問い合わせず、
+     * ジャンルを持たないアーティストや上流APIが返さなかったアーティストも再取得しないことを確認する。
+     */
+    @Test
+    void getArtistGenres_shouldFetchOnlyMisses_whenArtistsAreCached() throws Exception {
+        // Arrange: モックの設定
+        artistService = new SpotifyArtistService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), artistGenreCache, new SimpleMeterRegistry());
+
+        Artist popArtist = new Artist.Builder().setId("pop-artist").setGenres("pop").build();
+        Artist noGenreArtist = new Artist.Builder().setId("no-genre-artist").setGenres().build();
+        Artist newArtist = new Artist.Builder().setId("new-artist").setGenres("rock").build();
+        GetSeveralArtistsRequest firstRequest = mock(GetSeveralArtistsRequest.class);
+        GetSeveralArtistsRequest secondRequest = mock(GetSeveralArtistsRequest.class);
+        GetSeveralArtistsRequest.Builder firstBuilder = mock(GetSeveralArtistsRequest.Builder.class);
+        GetSeveralArtistsRequest.Builder secondBuilder = mock(GetSeveralArtistsRequest.Builder.class);
+        when(spotifyApi.getSeveralArtists("pop-artist", "no-genre-artist", "unknown-artist")).thenReturn(firstBuilder);
+        when(firstBuilder.build()).thenReturn(firstRequest);
+        when(firstRequest.execute()).thenReturn(new Artist[]{popArtist, noGenreArtist, null});
+        when(spotifyApi.getSeveralArtists("new-artist")).thenReturn(secondBuilder);
+        when(secondBuilder.build()).thenReturn(secondRequest);
+        when(secondRequest.execute()).thenReturn(new Artist[]{newArtist});
+
+        // Act: テスト対象メソッドの実行
+        artistService.getArtistGenres(List.of("pop-artist", "no-genre-artist", "unknown-artist"));
+        Map<String, List<String>> result = artistService.getArtistGenres(List.of("pop-artist", "no-genre-artist", "unknown-artist", "new-artist"));
+
+        // Assert: 結果の検証
+        assertThat(result)
+                .containsEntry("pop-artist", List.of("pop"))
+                .containsEntry("no-genre-artist", List.of())
+                .containsEntry("unknown-artist", List.of())
+                .containsEntry("new-artist", List.of("rock"));
+        verify(spotifyApi, times(1)).getSeveralArtists("pop-artist", "no-genre-artist", "unknown-artist");
+        verify(spotifyApi, times(1)).getSeveralArtists("new-artist");
+    }
 }
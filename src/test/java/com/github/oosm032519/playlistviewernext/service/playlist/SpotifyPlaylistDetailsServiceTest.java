@@ -2,22 +2,26 @@ package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.RateLimitCoordinator;
+import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.NotFoundException;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
 import se.michaelthelin.spotify.model_objects.specification.Paging;
 import se.michaelthelin.spotify.model_objects.specification.Playlist;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
@@ -26,6 +30,8 @@ import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistRequest;
 import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistsItemsRequest;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -43,23 +49,11 @@ class SpotifyPlaylistDetailsServiceTest {
     private SpotifyApi spotifyApi;
 
     @Mock
-    private WebClient.Builder webClientBuilder; // WebClient.Builder をモック
-
-    @Mock
-    private WebClient webClient; // WebClient をモック
+    private MockApiClient mockApiClient;
 
     @Mock
     private ObjectMapper objectMapper;
 
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
-
     @Mock
     private GetPlaylistRequest.Builder getPlaylistRequestBuilder;
 
@@ -76,9 +70,7 @@ class SpotifyPlaylistDetailsServiceTest {
 
     @BeforeEach
     void setUp() {
-        // WebClient.Builder のモックの振る舞いを設定
-        when(webClientBuilder.build()).thenReturn(webClient);
-        spotifyPlaylistDetailsService = new SpotifyPlaylistDetailsService(spotifyApi, webClientBuilder, objectMapper);
+        spotifyPlaylistDetailsService = new SpotifyPlaylistDetailsService(spotifyApi, mockApiClient, objectMapper, new ParallelFetchExecutor(4));
         // モックモードを無効に設定
         ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", false);
         ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "");
@@ -128,16 +120,9 @@ class SpotifyPlaylistDetailsServiceTest {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
         List<Map<String, Object>> mockTracks = Collections.singletonList(Map.of("id", "track1"));
-
-        // モックモードを有効にする (コンストラクタ呼び出しより前に設定)
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (bodyToMono の戻り値を設定)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class))).thenReturn(Mono.just(mockTracks));
+        enableMockMode();
+        stubMockPlaylist(Map.of("id", playlistId, "playlistName", "Test Playlist"));
+        doReturn(mockTracks).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(SpotifyPlaylistDetailsServiceTest::isTracksUri), any());
 
         // ObjectMapper のモック設定 (convertValue の戻り値を設定)
         Track mockTrack = new Track.Builder().setId("track1").build();
@@ -149,119 +134,105 @@ class SpotifyPlaylistDetailsServiceTest {
         // Assert: 結果の検証
         assertThat(result).hasSize(1);
         assertThat(result[0].getTrack().getId()).isEqualTo("track1");
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get(); // WebClient の get() が呼ばれる
+        verify(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(uri -> uri.toString().equals("http://localhost:8081/playlists/testPlaylistId/tracks")), any());
     }
 
     /**
-     * モックモードが有効な場合、WebClientResponseExceptionが発生したときにInternalServerExceptionがスローされることを確認する。
+     * モックモードで、モックAPIがトラックの総数を返す場合に、実APIと同様にoffsetとlimitを指定したページを並列に取得することを確認する。
      */
     @Test
-    void getPlaylistTracks_mockMode_WebClientResponseException() {
-        // Arrange: テストデータの準備
+    void getPlaylistSnapshot_mockMode_fetchesPagesWhenTotalTracksIsReturned() throws Exception {
+        // Arrange: 150曲のプレイリスト
         String playlistId = "testPlaylistId";
+        enableMockMode();
+        stubMockPlaylist(Map.of("id", playlistId, "playlistName", "Test Playlist", "totalTracks", 150));
+        doReturn(List.of(Map.of("id", "track1"))).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(SpotifyPlaylistDetailsServiceTest::isTracksUri), any());
+        when(objectMapper.convertValue(any(Map.class), eq(Track.class))).thenReturn(new Track.Builder().setId("track1").build());
 
-        // モックモードを有効にする (コンストラクタ呼び出しより前に設定)
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (WebClientResponseException をスロー)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
-                .thenReturn(Mono.error(new WebClientResponseException("Mock API Error", HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", null, null, null)));
+        // Act: テスト対象メソッドの実行
+        PlaylistSnapshot snapshot = spotifyPlaylistDetailsService.getPlaylistSnapshot(playlistId);
 
-        // Act & Assert: InternalServerException がスローされることの確認
-        assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylistTracks(playlistId))
-                .isInstanceOf(InternalServerException.class)
-                .hasMessageContaining("Error calling mock API");
+        // Assert: プレイリスト本体 1 回 + ページ 2 回
+        assertThat(snapshot.getPageFetchCount()).isEqualTo(3);
+        assertThat(snapshot.getTracks()).hasSize(2);
+        verify(mockApiClient).get(any(), argThat(uri -> uri.toString().endsWith("/tracks?offset=0&limit=100")), any());
+        verify(mockApiClient).get(any(), argThat(uri -> uri.toString().endsWith("/tracks?offset=100&limit=100")), any());
+    }
 
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+    /**
+     * モックモードで、モックAPIが429を返した場合 (MockApiClient が TooManyRequestsException をスロー)、
+     * 実APIと同様にRetry-Afterの期間だけ待機して再試行することを確認する。
+     */
+    @Test
+    void getPlaylist_mockMode_retriesWhenRateLimited() throws Exception {
+        // Arrange: 1回目は429、2回目は成功する
+        String playlistId = "testPlaylistId";
+        enableMockMode();
+        doThrow(new TooManyRequestsException("Too Many Requests", 1))
+                .doReturn(Map.of("id", playlistId, "playlistName", "Test Playlist"))
+                .when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), any(), any());
+        RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(Duration.ofMinutes(1), 16));
+
+        try {
+            // Act: テスト対象メソッドの実行
+            Playlist result = spotifyPlaylistDetailsService.getPlaylist(playlistId);
+
+            // Assert: 再試行後のレスポンスが返される
+            assertThat(result.getName()).isEqualTo("Test Playlist");
+            verify(mockApiClient, times(2)).get(any(), any(), any());
+        } finally {
+            RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(RateLimitCoordinator.DEFAULT_MAX_WAIT, RateLimitCoordinator.DEFAULT_MAX_WAITERS));
+        }
     }
 
     /**
-     * モックモードが有効な場合、WebClientRequestExceptionが発生したときに、その例外がそのままスローされることを確認する。
+     * モックモードで、モックAPIがエラーを返した場合に、実APIと同じSpotifyWebApiExceptionが500にラップされずにスローされることを確認する。
      */
     @Test
-    void getPlaylistTracks_mockMode_WebClientRequestException() {
+    void getPlaylistTracks_mockMode_propagatesSpotifyWebApiException() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
+        enableMockMode();
+        NotFoundException notFound = new NotFoundException("Not Found");
+        doThrow(notFound).when(mockApiClient).get(any(), any(), any());
 
-        // モックモードを有効にする (コンストラクタ呼び出しより前に設定)
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (WebClientRequestException をスロー)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
-                .thenReturn(Mono.error(new WebClientRequestException(new RuntimeException("Connection refused"), HttpMethod.GET, null, new HttpHeaders())));
-
-        // Act & Assert: WebClientRequestException がそのままスローされることの確認
+        // Act & Assert: モックAPIのエラーがそのままスローされる
         assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylistTracks(playlistId))
-                .isInstanceOf(WebClientRequestException.class);
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+                .isSameAs(notFound);
+        verify(mockApiClient, times(1)).get(any(), any(), any());
     }
 
     /**
-     * モックモードが有効な場合、getPlaylistでWebClientResponseExceptionが発生したときにInternalServerExceptionがスローされることを確認する。
+     * モックモードで、モックAPIへのリクエストが流量制限により破棄された場合、503のままスローされることを確認する。
      */
     @Test
-    void getPlaylist_mockMode_WebClientResponseException() {
+    void getPlaylist_mockMode_keepsServiceUnavailableWhenRejectedByThrottle() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
+        enableMockMode();
+        InternalServerException rejected = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "Spotify APIへのリクエストが混み合っているため、処理できませんでした。");
+        doThrow(rejected).when(mockApiClient).get(any(), any(), any());
 
-        // モックモードを有効にする
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (WebClientResponseException をスロー)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class))
-                .thenReturn(Mono.error(new WebClientResponseException("Mock API Error", HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", null, null, null)));
-
-        // Act & Assert: InternalServerException がスローされることの確認
+        // Act & Assert: 流量制限による例外がそのままスローされる
         assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylist(playlistId))
-                .isInstanceOf(InternalServerException.class)
-                .hasMessageContaining("Error calling mock API");
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+                .isSameAs(rejected);
     }
 
     /**
-     * モックモードが有効な場合、getPlaylistでWebClientRequestExceptionが発生したときに、その例外がそのままスローされることを確認する。
+     * モックモードが有効な場合、WebClientRequestExceptionが発生したときに、その例外がそのままスローされることを確認する。
      */
     @Test
-    void getPlaylist_mockMode_WebClientRequestException() {
+    void getPlaylist_mockMode_WebClientRequestException() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
-
-        // モックモードを有効にする
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (WebClientRequestException をスロー)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class))
-                .thenReturn(Mono.error(new WebClientRequestException(new RuntimeException("Connection refused"), HttpMethod.GET, null, new HttpHeaders())));
+        enableMockMode();
+        doThrow(new WebClientRequestException(new RuntimeException("Connection refused"), HttpMethod.GET, null, new HttpHeaders()))
+                .when(mockApiClient).get(any(), any(), any());
 
         // Act & Assert: WebClientRequestException がそのままスローされることの確認
         assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylist(playlistId))
                 .isInstanceOf(WebClientRequestException.class);
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+        verify(mockApiClient, times(1)).get(any(), any(), any());
     }
 
     /**
@@ -275,10 +246,10 @@ class SpotifyPlaylistDetailsServiceTest {
         // Spotify API のモック設定 (IOException を RuntimeException でラップしてスロー)
         when(spotifyApi.getPlaylist(playlistId)).thenThrow(new RuntimeException(new IOException("IO error")));
 
-        // Act & Assert: InternalServerException がスローされることの確認
+        // Act & Assert: プレイリスト情報の取得で発生した InternalServerException が再ラップされずにスローされることの確認
         assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylistTracksReal(playlistId))
                 .isInstanceOf(InternalServerException.class)
-                .hasMessageContaining("トラック情報の取得中にエラーが発生しました。")
+                .hasMessageContaining("プレイリスト情報の取得中にエラーが発生しました。")
                 .hasRootCauseInstanceOf(IOException.class); // hasRootCauseInstanceOf を使用
 
         verify(spotifyApi).getPlaylist(playlistId);
@@ -288,7 +259,7 @@ class SpotifyPlaylistDetailsServiceTest {
      * モックモードで、getPlaylistMockがnullの所有者情報を持つプレイリストを返すことを確認する。
      */
     @Test
-    void getPlaylistMock_shouldReturnPlaylist_whenOwnerIsNull() {
+    void getPlaylistMock_shouldReturnPlaylist_whenOwnerIsNull() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
         // モックのレスポンスデータ (owner が null)
@@ -296,16 +267,8 @@ class SpotifyPlaylistDetailsServiceTest {
         mockApiResponse.put("id", playlistId);
         mockApiResponse.put("playlistName", "Test Playlist");
         mockApiResponse.put("owner", null); // owner を null に設定
-
-        // WebClient のモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockApiResponse));
-
-        // モックモードを有効にする
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
+        enableMockMode();
+        stubMockPlaylist(mockApiResponse);
 
         // Act: テスト対象メソッドの実行
         Playlist result = spotifyPlaylistDetailsService.getPlaylistMock(playlistId);
@@ -315,28 +278,19 @@ class SpotifyPlaylistDetailsServiceTest {
         assertThat(result.getId()).isEqualTo(playlistId);
         assertThat(result.getName()).isEqualTo("Test Playlist");
         assertThat(result.getOwner()).isNull(); // owner が null であることを確認
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+        verify(mockApiClient, times(1)).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), any(), any());
     }
 
     /**
-     * モックモードで、getPlaylistTracksがnullを返すことを確認する。
+     * モックモードで、モックAPIがトラックを返さない場合に空の配列を返すことを確認する。
      */
     @Test
     void getPlaylistTracks_mockMode_returnsNull() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
-
-        // モックモードを有効にする (コンストラクタ呼び出しより前に設定)
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
-
-        // WebClient のモック設定 (bodyToMono の戻り値を null に設定)
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class))).thenReturn(Mono.empty()); // null の代わりに empty()
+        enableMockMode();
+        stubMockPlaylist(Map.of("id", playlistId, "playlistName", "Test Playlist"));
+        doReturn(null).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(SpotifyPlaylistDetailsServiceTest::isTracksUri), any());
 
         // Act: テスト対象メソッドの実行
         PlaylistTrack[] result = spotifyPlaylistDetailsService.getPlaylistTracks(playlistId);
@@ -344,16 +298,13 @@ class SpotifyPlaylistDetailsServiceTest {
         // Assert: 結果の検証
         assertThat(result).isNotNull();
         assertThat(result.length).isEqualTo(0);
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get(); // WebClient の get() が呼ばれる
     }
 
     /**
      * モックモードで、getPlaylistMockがnullでない所有者情報を持つプレイリストを返すことを確認する。
      */
     @Test
-    void getPlaylistMock_shouldReturnPlaylist_whenOwnerIsNotNull() {
+    void getPlaylistMock_shouldReturnPlaylist_whenOwnerIsNotNull() throws Exception {
         // Arrange: テストデータの準備
         String playlistId = "testPlaylistId";
         // モックのレスポンスデータ (owner が null でない)
@@ -364,16 +315,8 @@ class SpotifyPlaylistDetailsServiceTest {
         ownerMap.put("id", "ownerId");
         ownerMap.put("displayName", "Owner Name");
         mockApiResponse.put("owner", ownerMap);
-
-        // WebClient のモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockApiResponse));
-
-        // モックモードを有効にする
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
-        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
+        enableMockMode();
+        stubMockPlaylist(mockApiResponse);
 
         // Act: テスト対象メソッドの実行
         Playlist result = spotifyPlaylistDetailsService.getPlaylistMock(playlistId);
@@ -385,9 +328,7 @@ class SpotifyPlaylistDetailsServiceTest {
         assertThat(result.getOwner()).isNotNull();
         assertThat(result.getOwner().getId()).isEqualTo("ownerId");
         assertThat(result.getOwner().getDisplayName()).isEqualTo("Owner Name");
-
-        // WebClient のメソッドが正しく呼び出されたことを確認
-        verify(webClient, times(1)).get();
+        verify(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(uri -> uri.toString().equals("http://localhost:8081/playlists/testPlaylistId")), any());
     }
 
     /**
@@ -461,4 +402,176 @@ class SpotifyPlaylistDetailsServiceTest {
 
         verify(spotifyApi).getPlaylist(playlistId);
     }
+
+    /**
+     * 実APIモードで、スナップショット取得時にプレイリスト情報と全トラックが一度だけ取得され、
+     * 上流APIへのページ取得回数が記録されることを確認する。
+     */
+    @Test
+    void getPlaylistSnapshot_shouldFetchPlaylistOnceAndCountPageFetches() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+
+        PlaylistTrack[] pageTracks = new PlaylistTrack[100];
+        for (int i = 0; i < 100; i++) {
+            Track track = new Track.Builder().setId("track" + i).setDurationMs(200000).build();
+            pageTracks[i] = new PlaylistTrack.Builder().setTrack(track).build();
+        }
+        Paging<PlaylistTrack> page = new Paging.Builder<PlaylistTrack>().setItems(pageTracks).setTotal(300).setOffset(0).setLimit(100).build();
+
+        Playlist playlist = mock(Playlist.class);
+        when(playlist.getTracks()).thenReturn(page);
+
+        when(spotifyApi.getPlaylist(playlistId)).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.build()).thenReturn(getPlaylistRequest);
+        when(getPlaylistRequest.execute()).thenReturn(playlist);
+
+        when(spotifyApi.getPlaylistsItems(playlistId)).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.limit(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.offset(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.build()).thenReturn(getPlaylistsItemsRequest);
+        when(getPlaylistsItemsRequest.execute()).thenReturn(page);
+
+        // Act: テスト対象メソッドの実行
+        PlaylistSnapshot snapshot = spotifyPlaylistDetailsService.getPlaylistSnapshot(playlistId);
+
+        // Assert: 結果の検証
+        assertThat(snapshot.getPlaylistId()).isEqualTo(playlistId);
+        assertThat(snapshot.getPlaylist()).isSameAs(playlist);
+        assertThat(snapshot.getTracks()).hasSize(300);
+        assertThat(snapshot.getPageFetchCount()).isEqualTo(3); // プレイリスト本体 1 回 + 追加ページ 2 回
+        verify(spotifyApi, times(1)).getPlaylist(playlistId);
+        verify(getPlaylistsItemsRequest, times(2)).execute();
+    }
+
+    /**
+     * 実APIモードで、追加ページの取得がレート制限により再試行回数の上限に達した場合、
+     * そのページだけが再試行され、プレイリスト本体や他のページは再取得されないことを確認する。
+     */
+    @Test
+    void getPlaylistSnapshot_pageRateLimited_retriesOnlyThatPage() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+
+        PlaylistTrack[] pageTracks = new PlaylistTrack[100];
+        for (int i = 0; i < 100; i++) {
+            Track track = new Track.Builder().setId("track" + i).setDurationMs(200000).build();
+            pageTracks[i] = new PlaylistTrack.Builder().setTrack(track).build();
+        }
+        Paging<PlaylistTrack> page = new Paging.Builder<PlaylistTrack>().setItems(pageTracks).setTotal(200).setOffset(0).setLimit(100).build();
+
+        Playlist playlist = mock(Playlist.class);
+        when(playlist.getTracks()).thenReturn(page);
+
+        when(spotifyApi.getPlaylist(playlistId)).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.build()).thenReturn(getPlaylistRequest);
+        when(getPlaylistRequest.execute()).thenReturn(playlist);
+
+        when(spotifyApi.getPlaylistsItems(playlistId)).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.limit(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.offset(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.build()).thenReturn(getPlaylistsItemsRequest);
+        TooManyRequestsException tooManyRequests = mock(TooManyRequestsException.class);
+        when(tooManyRequests.getRetryAfter()).thenReturn(1);
+        when(getPlaylistsItemsRequest.execute()).thenThrow(tooManyRequests);
+        RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(Duration.ofMinutes(1), 16));
+
+        try {
+            // Act & Assert: ページの再試行回数の上限に達した例外がそのままスローされる
+            assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylistSnapshot(playlistId))
+                    .isSameAs(tooManyRequests);
+        } finally {
+            RetryUtil.setRateLimitCoordinator(new RateLimitCoordinator(RateLimitCoordinator.DEFAULT_MAX_WAIT, RateLimitCoordinator.DEFAULT_MAX_WAITERS));
+        }
+
+        // Assert: プレイリスト本体は1回だけ、追加ページは最初の試行 + 再試行3回の計4回だけ取得される
+        verify(getPlaylistRequest, times(1)).execute();
+        verify(getPlaylistsItemsRequest, times(4)).execute();
+    }
+
+    /**
+     * 実APIモードで、追加ページの送信が流量制限により破棄された場合 (ThrottlingHttpManager が503をスロー)、
+     * 500にラップされずに503のまま呼び出し元へスローされることを確認する。
+     */
+    @Test
+    void getPlaylistSnapshot_pageRejectedByThrottle_keepsServiceUnavailable() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+
+        PlaylistTrack[] pageTracks = new PlaylistTrack[100];
+        for (int i = 0; i < 100; i++) {
+            Track track = new Track.Builder().setId("track" + i).setDurationMs(200000).build();
+            pageTracks[i] = new PlaylistTrack.Builder().setTrack(track).build();
+        }
+        Paging<PlaylistTrack> page = new Paging.Builder<PlaylistTrack>().setItems(pageTracks).setTotal(200).setOffset(0).setLimit(100).build();
+
+        Playlist playlist = mock(Playlist.class);
+        when(playlist.getTracks()).thenReturn(page);
+
+        when(spotifyApi.getPlaylist(playlistId)).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.build()).thenReturn(getPlaylistRequest);
+        when(getPlaylistRequest.execute()).thenReturn(playlist);
+
+        when(spotifyApi.getPlaylistsItems(playlistId)).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.limit(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.offset(anyInt())).thenReturn(getPlaylistsItemsRequestBuilder);
+        when(getPlaylistsItemsRequestBuilder.build()).thenReturn(getPlaylistsItemsRequest);
+        InternalServerException rejected = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "Spotify APIへのリクエストが混み合っているため、処理できませんでした。");
+        when(getPlaylistsItemsRequest.execute()).thenThrow(rejected);
+
+        // Act & Assert: 流量制限による例外がそのままスローされる
+        assertThatThrownBy(() -> spotifyPlaylistDetailsService.getPlaylistSnapshot(playlistId))
+                .isSameAs(rejected)
+                .extracting("httpStatus").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * snapshot_idのみを指定してプレイリスト情報を取得し、snapshot_idを返すことを確認する。
+     */
+    @Test
+    void getPlaylistSnapshotId_requestsOnlySnapshotIdField() throws Exception {
+        // Arrange: テストデータの準備
+        String playlistId = "testPlaylistId";
+        when(spotifyApi.getPlaylist(playlistId)).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.fields("snapshot_id")).thenReturn(getPlaylistRequestBuilder);
+        when(getPlaylistRequestBuilder.build()).thenReturn(getPlaylistRequest);
+        when(getPlaylistRequest.execute()).thenReturn(new Playlist.Builder().setSnapshotId("snapshot1").build());
+
+        // Act: テスト対象メソッドの実行
+        String snapshotId = spotifyPlaylistDetailsService.getPlaylistSnapshotId(playlistId);
+
+        // Assert: 結果の検証
+        assertThat(snapshotId).isEqualTo("snapshot1");
+        verify(getPlaylistRequestBuilder).fields("snapshot_id");
+    }
+
+    /**
+     * モックモードではsnapshot_idを取得せずにnullを返すことを確認する。
+     */
+    @Test
+    void getPlaylistSnapshotId_mockMode_returnsNull() throws Exception {
+        // Arrange: モックモードを有効に設定
+        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
+        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
+
+        // Act: テスト対象メソッドの実行
+        String snapshotId = spotifyPlaylistDetailsService.getPlaylistSnapshotId("testPlaylistId");
+
+        // Assert: 結果の検証
+        assertThat(snapshotId).isNull();
+        verifyNoInteractions(spotifyApi);
+    }
+
+    private void enableMockMode() {
+        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockEnabled", true);
+        ReflectionTestUtils.setField(spotifyPlaylistDetailsService, "mockApiUrl", "http://localhost:8081");
+    }
+
+    private void stubMockPlaylist(Map<String, Object> response) throws SpotifyWebApiException {
+        doReturn(response).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ), argThat(uri -> uri != null && !isTracksUri(uri)), any());
+    }
+
+    private static boolean isTracksUri(URI uri) {
+        return uri != null && uri.getPath().endsWith("/tracks");
+    }
 }
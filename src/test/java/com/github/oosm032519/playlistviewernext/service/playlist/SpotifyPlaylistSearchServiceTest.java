@@ -1,21 +1,25 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.service.cache.PlaylistSearchCache;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
 import com.github.oosm032519.playlistviewernext.util.RetryUtil;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.BadRequestException;
 import se.michaelthelin.spotify.model_objects.miscellaneous.PlaylistTracksInformation;
 import se.michaelthelin.spotify.model_objects.specification.Image;
 import se.michaelthelin.spotify.model_objects.specification.Paging;
@@ -27,6 +31,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,25 +45,25 @@ class SpotifyPlaylistSearchServiceTest {
     private SpotifyApi spotifyApi;
 
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private MockApiClient mockApiClient;
 
     @Mock
-    private WebClient webClient;
+    private SearchPlaylistsRequest.Builder searchPlaylistsRequestBuilder;
 
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private SearchPlaylistsRequest searchPlaylistsRequest;
 
     @Mock
-    private WebClient.ResponseSpec responseSpec;
+    private Paging<PlaylistSimplified> playlistSimplifiedPaging;
 
     @Mock
-    private SearchPlaylistsRequest.Builder searchPlaylistsRequestBuilder;
+    private PlaylistSearchCache playlistSearchCache;
 
     @Mock
-    private SearchPlaylistsRequest searchPlaylistsRequest;
+    private ParallelFetchExecutor parallelFetchExecutor;
 
-    @Mock
-    private Paging<PlaylistSimplified> playlistSimplifiedPaging;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private SpotifyPlaylistSearchService spotifyPlaylistSearchService;
@@ -73,9 +78,6 @@ class SpotifyPlaylistSearchServiceTest {
         ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockEnabled", true);
         ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockApiUrl", "http://localhost:8081");
 
-        // WebClientのモック設定
-        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "webClient", webClient);
-
         // モックAPIのレスポンスを設定
         Map<String, Object> mockApiResponse = new HashMap<>();
         Map<String, Object> playlist = new HashMap<>();
@@ -83,19 +85,36 @@ class SpotifyPlaylistSearchServiceTest {
         playlist.put("name", "playlistName");
         mockApiResponse.put("playlists", List.of(playlist));
         mockApiResponse.put("total", 1);
+        doReturn(mockApiResponse).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.SEARCH), any(), any());
 
-        // searchPlaylistsMock メソッド内で使用される WebClient のモックの振る舞いを設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), any(Object[].class))).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.just(mockApiResponse));
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> result = spotifyPlaylistSearchService.searchPlaylists("query", 0, 20);
+
+        // Assert: 結果の検証 (モックAPIの結果も実APIと同様にキャッシュされる)
+        assertThat(result).isEqualTo(mockApiResponse);
+        verify(mockApiClient, times(1)).get(eq(SpotifyRequestThrottle.EndpointClass.SEARCH),
+                argThat(uri -> uri.toString().equals("http://localhost:8081/search/playlists?query=query&offset=0&limit=20")), any());
+        verify(playlistSearchCache).put("query", 0, 20, mockApiResponse);
+    }
+
+    /**
+     * モックモードで、キャッシュに検索結果が存在する場合、モックAPIを呼び出さずにキャッシュの結果を返すことを確認する。
+     */
+    @Test
+    @DisplayName("モックモードで、キャッシュに検索結果が存在する場合、モックAPIを呼び出さずに返す")
+    void searchPlaylists_mockModeAndCacheHit_shouldReturnCachedResultWithoutCallingMockApi() throws Exception {
+        // Arrange: 事前条件
+        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockEnabled", true);
+        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockApiUrl", "http://localhost:8081");
+        Map<String, Object> cachedResult = Map.of("playlists", List.of(), "total", 0);
+        when(playlistSearchCache.get("query", 0, 20)).thenReturn(Optional.of(new PlaylistSearchCache.CachedSearchResult(cachedResult, false)));
 
         // Act: テスト対象メソッドの実行
         Map<String, Object> result = spotifyPlaylistSearchService.searchPlaylists("query", 0, 20);
 
         // Assert: 結果の検証
-        assertThat(result).isEqualTo(mockApiResponse);
-        verify(webClient, times(1)).get();
+        assertThat(result).isEqualTo(cachedResult);
+        verifyNoInteractions(mockApiClient, spotifyApi);
     }
 
     /**
@@ -138,28 +157,21 @@ class SpotifyPlaylistSearchServiceTest {
     }
 
     /**
-     * モックモードで、モックAPI呼び出し時にWebClientResponseExceptionが発生した場合、InternalServerExceptionがスローされることを確認する。
+     * モックモードで、モックAPIがエラーを返した場合、実APIと同じSpotifyWebApiExceptionがそのままスローされることを確認する。
      */
     @Test
-    @DisplayName("モックモードで、モックAPI呼び出し時にWebClientResponseExceptionが発生した場合、InternalServerExceptionがスローされる")
-    void searchPlaylists_mockModeAndWebClientResponseException_shouldThrowInternalServerException() {
+    @DisplayName("モックモードで、モックAPIがエラーを返した場合、SpotifyWebApiExceptionがそのままスローされる")
+    void searchPlaylists_mockModeAndSpotifyWebApiException_shouldThrowSpotifyWebApiException() throws Exception {
         // Arrange: 事前条件
         ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockEnabled", true);
         ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockApiUrl", "http://localhost:8081");
+        doThrow(new BadRequestException("Bad Request")).when(mockApiClient).get(any(), any(), any());
 
-        // WebClientのモック設定
-        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "webClient", webClient);
-
-        // WebClientResponseExceptionをスローするようモックを設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), any(Object[].class))).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(Mono.error(new WebClientResponseException("Mock Error", HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", null, null, null)));
-
-        // Act & Assert: InternalServerExceptionがスローされることの確認
+        // Act & Assert: SpotifyWebApiExceptionがスローされることの確認
         assertThatThrownBy(() -> spotifyPlaylistSearchService.searchPlaylists("query", 0, 20))
-                .isInstanceOf(InternalServerException.class)
-                .hasMessage("Error calling mock API");
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Bad Request");
+        verify(playlistSearchCache, never()).put(anyString(), anyInt(), anyInt(), any());
     }
 
     /**
@@ -338,4 +350,46 @@ class SpotifyPlaylistSearchServiceTest {
             retryUtilMockedStatic.verify(() -> RetryUtil.executeWithRetry(any(), anyInt(), anyLong()), times(1));
         }
     }
+
+    /**
+     * キャッシュに検索結果が存在する場合、Spotify APIを呼び出さずにキャッシュの結果を返すことを確認する。
+     */
+    @Test
+    @DisplayName("キャッシュに検索結果が存在する場合、Spotify APIを呼び出さずに返す")
+    void searchPlaylists_cacheHit_shouldReturnCachedResultWithoutCallingApi() throws Exception {
+        // Arrange: 事前条件
+        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockEnabled", false);
+        Map<String, Object> cachedResult = Map.of("playlists", List.of(), "total", 0);
+        when(playlistSearchCache.get("query", 0, 20)).thenReturn(Optional.of(new PlaylistSearchCache.CachedSearchResult(cachedResult, false)));
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> result = spotifyPlaylistSearchService.searchPlaylists("query", 0, 20);
+
+        // Assert: 結果の検証
+        assertThat(result).isEqualTo(cachedResult);
+        verifyNoInteractions(spotifyApi, parallelFetchExecutor);
+        verify(playlistSearchCache, never()).put(anyString(), anyInt(), anyInt(), any());
+    }
+
+    /**
+     * キャッシュの検索結果がソフトTTLを過ぎている場合、その結果を返しつつ、同じキーの再取得を1回だけ開始することを確認する。
+     */
+    @Test
+    @DisplayName("ソフトTTLを過ぎた検索結果を返し、バックグラウンドでの再取得を1回だけ開始する")
+    void searchPlaylists_staleCacheHit_shouldReturnStaleResultAndRevalidateOnce() throws Exception {
+        // Arrange: 事前条件
+        ReflectionTestUtils.setField(spotifyPlaylistSearchService, "mockEnabled", false);
+        Map<String, Object> cachedResult = Map.of("playlists", List.of(), "total", 0);
+        when(playlistSearchCache.get(anyString(), anyInt(), anyInt())).thenReturn(Optional.of(new PlaylistSearchCache.CachedSearchResult(cachedResult, true)));
+
+        // Act: テスト対象メソッドの実行 (表記揺れのある同じクエリで2回検索)
+        Map<String, Object> first = spotifyPlaylistSearchService.searchPlaylists("Query", 0, 20);
+        Map<String, Object> second = spotifyPlaylistSearchService.searchPlaylists(" query ", 0, 20);
+
+        // Assert: 結果の検証
+        assertThat(first).isEqualTo(cachedResult);
+        assertThat(second).isEqualTo(cachedResult);
+        verify(parallelFetchExecutor, times(1)).fork(any());
+        verifyNoInteractions(spotifyApi);
+    }
 }
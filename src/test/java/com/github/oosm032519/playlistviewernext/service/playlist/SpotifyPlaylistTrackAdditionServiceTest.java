@@ -1,6 +1,8 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -15,6 +17,7 @@ import se.michaelthelin.spotify.requests.data.playlists.AddItemsToPlaylistReques
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -24,9 +27,17 @@ class SpotifyPlaylistTrackAdditionServiceTest {
     @InjectMocks
     private SpotifyPlaylistTrackAdditionService spotifyPlaylistTrackAdditionService;
 
+    @Mock
+    private SpotifyClientFactory spotifyClientFactory;
+
     @Mock
     private SpotifyApi spotifyApi;
 
+    @BeforeEach
+    void setUpClientFactory() {
+        lenient().when(spotifyClientFactory.forAccessToken(anyString())).thenReturn(spotifyApi);
+    }
+
     /**
      * トラックがプレイリストに正常に追加され、スナップショットIDが返されることを確認する。
      */
@@ -1,5 +1,6 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.AuthenticationException;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import com.github.oosm032519.playlistviewernext.model.PlaylistTrackRemovalRequest;
@@ -24,11 +25,15 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SpotifyPlaylistTrackRemovalServiceTest {
 
+    @Mock
+    private SpotifyClientFactory spotifyClientFactory;
+
     @Mock
     private SpotifyApi spotifyApi;
 
@@ -45,6 +50,7 @@ class SpotifyPlaylistTrackRemovalServiceTest {
         request = new PlaylistTrackRemovalRequest();
         request.setPlaylistId("testPlaylistId");
         request.setTrackId("testTrackId");
+        lenient().when(spotifyClientFactory.forAccessToken(anyString())).thenReturn(spotifyApi);
     }
 
     /**
@@ -1,6 +1,10 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
-import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.service.cache.AudioFeaturesCache;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,23 +13,20 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.InternalServerErrorException;
 import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
 import se.michaelthelin.spotify.requests.data.tracks.GetAudioFeaturesForSeveralTracksRequest;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -41,19 +42,7 @@ class SpotifyTrackServiceTest {
     SpotifyApi spotifyApi;
 
     @Mock
-    WebClient.Builder webClientBuilder; // WebClient.Builder をモックに変更
-
-    @Mock
-    WebClient webClient;
-
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
+    MockApiClient mockApiClient;
 
     @Mock
     private GetAudioFeaturesForSeveralTracksRequest.Builder requestBuilder;
@@ -61,12 +50,14 @@ class SpotifyTrackServiceTest {
     @Mock
     private GetAudioFeaturesForSeveralTracksRequest request;
 
+    @Mock
+    private AudioFeaturesCache audioFeaturesCache;
+
     private SpotifyTrackService spotifyTrackService;
 
     @BeforeEach
     void setUp() {
-        // WebClient.Builder のモックの振る舞いを設定
-        spotifyTrackService = new SpotifyTrackService(spotifyApi, webClient);
+        spotifyTrackService = new SpotifyTrackService(spotifyApi, mockApiClient, new ParallelFetchExecutor(4), audioFeaturesCache, new SimpleMeterRegistry());
         // モックモードを無効に設定
         ReflectionTestUtils.setField(spotifyTrackService, "mockEnabled", false);
         ReflectionTestUtils.setField(spotifyTrackService, "mockApiUrl", "");
@@ -165,22 +156,49 @@ class SpotifyTrackServiceTest {
         AudioFeatures audioFeatures2 = mock(AudioFeatures.class);
         List<AudioFeatures> expectedFeatures = Arrays.asList(audioFeatures1, audioFeatures2);
 
-        // WebClientのモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq("http://mock-api/tracks/audio-features"), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(ArgumentMatchers.<ParameterizedTypeReference<List<AudioFeatures>>>notNull()))
-                .thenReturn(Mono.just(expectedFeatures));
+        doReturn(expectedFeatures).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES), any(), any());
 
         // Act: テスト対象メソッドの実行
         List<AudioFeatures> result = spotifyTrackService.getAudioFeaturesForTracks(trackIds);
 
-        // Assert: 結果の検証
+        // Assert: 結果の検証 (モックAPIの結果も実APIと同様にキャッシュされる)
         assertThat(result).hasSize(2).containsExactlyElementsOf(expectedFeatures);
-        verify(webClient, times(1)).get();
+        verify(mockApiClient, times(1)).get(eq(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES),
+                argThat(uri -> uri.toString().equals("http://mock-api/tracks/audio-features?trackIds=track1,track2")), any());
+        verify(audioFeaturesCache).putAll(Map.of("track1", audioFeatures1, "track2", audioFeatures2));
         verify(spotifyApi, never()).getAudioFeaturesForSeveralTracks(anyString());
     }
 
+    /**
+     * モックモードでも、キャッシュに存在しないトラックのみを100曲ごとに分割してモックAPIから取得することを確認する。
+     */
+    @Test
+    @DisplayName("モックモードでも、キャッシュに存在しないトラックIDのみを100曲ごとに分割して取得すること")
+    void getAudioFeaturesForTracks_MockModeEnabled_FetchesOnlyCacheMissesInChunks() throws Exception {
+        // Arrange: 151曲のうち track0 のみキャッシュに存在する状態を設定
+        ReflectionTestUtils.setField(spotifyTrackService, "mockEnabled", true);
+        ReflectionTestUtils.setField(spotifyTrackService, "mockApiUrl", "http://mock-api");
+        List<String> trackIds = IntStream.range(0, 151)
+                .mapToObj(i -> "track" + i)
+                .collect(Collectors.toList());
+        AudioFeatures cachedFeatures = mock(AudioFeatures.class);
+        when(audioFeaturesCache.getAll(trackIds)).thenReturn(Map.of("track0", cachedFeatures));
+        doAnswer(invocation -> {
+            String query = invocation.<URI>getArgument(1).getQuery();
+            int size = query.substring(query.indexOf('=') + 1).split(",").length;
+            return IntStream.range(0, size).mapToObj(i -> mock(AudioFeatures.class)).toList();
+        }).when(mockApiClient).get(eq(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES), any(), any());
+
+        // Act: テスト対象メソッドの実行
+        List<AudioFeatures> result = spotifyTrackService.getAudioFeaturesForTracks(trackIds);
+
+        // Assert: 結果の検証 (150曲を 100曲 + 50曲 の2回で取得する)
+        assertThat(result).hasSize(151).doesNotContainNull();
+        assertThat(result.get(0)).isSameAs(cachedFeatures);
+        verify(mockApiClient, times(2)).get(eq(SpotifyRequestThrottle.EndpointClass.AUDIO_FEATURES), any(), any());
+        verify(mockApiClient, never()).get(any(), argThat(uri -> uri.getQuery().contains("track0,")), any());
+    }
+
     /**
      * モックモードが無効な場合、Spotify APIからAudioFeaturesが取得されることを確認する。
      */
@@ -205,7 +223,7 @@ class SpotifyTrackServiceTest {
         // Assert: 結果の検証
         assertThat(result).hasSize(2).containsExactly(expectedFeatures);
         verify(spotifyApi, times(1)).getAudioFeaturesForSeveralTracks(anyString());
-        verify(webClient, never()).get();
+        verifyNoInteractions(mockApiClient);
     }
 
     /**
@@ -233,7 +251,7 @@ class SpotifyTrackServiceTest {
         // Assert: 結果の検証
         assertThat(result).hasSize(2).containsExactly(expectedFeatures);
         verify(spotifyApi, times(1)).getAudioFeaturesForSeveralTracks(anyString());
-        verify(webClient, never()).get();
+        verifyNoInteractions(mockApiClient);
     }
 
     /**
@@ -261,33 +279,27 @@ class SpotifyTrackServiceTest {
         // Assert: 結果の検証
         assertThat(result).hasSize(2).containsExactly(expectedFeatures);
         verify(spotifyApi, times(1)).getAudioFeaturesForSeveralTracks(anyString());
-        verify(webClient, never()).get();
+        verifyNoInteractions(mockApiClient);
     }
 
     /**
-     * モックモードが有効で、モックAPI呼び出し時にWebClientResponseExceptionが発生した場合、InternalServerExceptionがスローされることを確認する。
+     * モックモードが有効で、モックAPIがエラーを返した場合、実APIと同じSpotifyWebApiExceptionがそのままスローされることを確認する。
      */
     @Test
-    @DisplayName("モックモードが有効で、モックAPI呼び出し時にWebClientResponseExceptionが発生した場合、InternalServerExceptionがスローされること")
-    void getAudioFeaturesForTracks_MockModeEnabled_WebClientResponseException() {
-        // Arrange: モックモードを有効にし、モックAPI URLとWebClientを設定
+    @DisplayName("モックモードが有効で、モックAPIがエラーを返した場合、SpotifyWebApiExceptionがそのままスローされること")
+    void getAudioFeaturesForTracks_MockModeEnabled_SpotifyWebApiException() throws Exception {
+        // Arrange: モックモードを有効にし、モックAPI URLを設定
         ReflectionTestUtils.setField(spotifyTrackService, "mockEnabled", true);
         ReflectionTestUtils.setField(spotifyTrackService, "mockApiUrl", "http://mock-api");
-        ReflectionTestUtils.setField(spotifyTrackService, "webClient", webClient);
 
         List<String> trackIds = List.of("track1", "track2");
+        doThrow(new InternalServerErrorException("Internal Server Error")).when(mockApiClient).get(any(), any(), any());
 
-        // WebClientのモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq("http://mock-api/tracks/audio-features"), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(ArgumentMatchers.<ParameterizedTypeReference<List<AudioFeatures>>>notNull()))
-                .thenReturn(Mono.error(new WebClientResponseException("Mock API Error", HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", null, null, null)));
-
-        // Act & Assert: InternalServerExceptionがスローされることの確認
+        // Act & Assert: SpotifyWebApiExceptionがスローされることの確認
         assertThatThrownBy(() -> spotifyTrackService.getAudioFeaturesForTracks(trackIds))
-                .isInstanceOf(InternalServerException.class)
-                .hasMessageContaining("Error calling mock API");
+                .isInstanceOf(InternalServerErrorException.class)
+                .hasMessage("Internal Server Error");
+        verify(audioFeaturesCache, never()).putAll(any());
     }
 
     /**
@@ -295,24 +307,63 @@ class SpotifyTrackServiceTest {
      */
     @Test
     @DisplayName("モックモードが有効で、モックAPI呼び出し時にWebClientRequestExceptionが発生した場合、例外がそのままスローされること")
-    void getAudioFeaturesForTracks_MockModeEnabled_WebClientRequestException() {
-        // Arrange: モックモードを有効にし、モックAPI URLとWebClientを設定
+    void getAudioFeaturesForTracks_MockModeEnabled_WebClientRequestException() throws Exception {
+        // Arrange: モックモードを有効にし、モックAPI URLを設定
         ReflectionTestUtils.setField(spotifyTrackService, "mockEnabled", true);
         ReflectionTestUtils.setField(spotifyTrackService, "mockApiUrl", "http://mock-api");
-        ReflectionTestUtils.setField(spotifyTrackService, "webClient", webClient);
 
         List<String> trackIds = List.of("track1", "track2");
-
-        // WebClientのモック設定
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(eq("http://mock-api/tracks/audio-features"), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        HttpHeaders headers = new HttpHeaders();
-        when(responseSpec.bodyToMono(ArgumentMatchers.<ParameterizedTypeReference<List<AudioFeatures>>>notNull()))
-                .thenReturn(Mono.error(new WebClientRequestException(new RuntimeException("Connection refused"), HttpMethod.GET, null, headers)));
+        doThrow(new WebClientRequestException(new RuntimeException("Connection refused"), HttpMethod.GET, null, new HttpHeaders()))
+                .when(mockApiClient).get(any(), any(), any());
 
         // Act & Assert: WebClientRequestExceptionがそのままスローされることの確認
         assertThatThrownBy(() -> spotifyTrackService.getAudioFeaturesForTracks(trackIds))
                 .isInstanceOf(WebClientRequestException.class);
     }
+
+    /**
+     * キャッシュに存在するトラックは上流APIに問い合わせず、不足分のみを取得して入力順に返すことを確認する。
+     */
+    @Test
+    @DisplayName("キャッシュに存在しないトラックIDのみを上流APIから取得すること")
+    void getAudioFeaturesForTracks_FetchesOnlyCacheMisses() throws Exception {
+        // Arrange: track1 のみキャッシュに存在する状態を設定
+        List<String> trackIds = List.of("track1", "track2", "track3");
+        AudioFeatures cachedFeatures = mock(AudioFeatures.class);
+        AudioFeatures fetchedFeatures2 = mock(AudioFeatures.class);
+        AudioFeatures fetchedFeatures3 = mock(AudioFeatures.class);
+        when(audioFeaturesCache.getAll(trackIds)).thenReturn(Map.of("track1", cachedFeatures));
+        when(spotifyApi.getAudioFeaturesForSeveralTracks("track2,track3")).thenReturn(requestBuilder);
+        when(requestBuilder.build()).thenReturn(request);
+        when(request.execute()).thenReturn(new AudioFeatures[]{fetchedFeatures2, fetchedFeatures3});
+
+        // Act: テスト対象メソッドの実行
+        List<AudioFeatures> result = spotifyTrackService.getAudioFeaturesForTracks(trackIds);
+
+        // Assert: 結果の検証
+        assertThat(result).containsExactly(cachedFeatures, fetchedFeatures2, fetchedFeatures3);
+        verify(spotifyApi, times(1)).getAudioFeaturesForSeveralTracks(anyString());
+        verify(audioFeaturesCache).putAll(Map.of("track2", fetchedFeatures2, "track3", fetchedFeatures3));
+    }
+
+    /**
+     * すべてのトラックがキャッシュに存在する場合、上流APIを呼び出さないことを確認する。
+     */
+    @Test
+    @DisplayName("すべてのトラックIDがキャッシュに存在する場合、上流APIを呼び出さないこと")
+    void getAudioFeaturesForTracks_AllCached() throws Exception {
+        // Arrange: すべてのトラックがキャッシュに存在する状態を設定
+        List<String> trackIds = List.of("track1", "track2");
+        AudioFeatures audioFeatures1 = mock(AudioFeatures.class);
+        AudioFeatures audioFeatures2 = mock(AudioFeatures.class);
+        when(audioFeaturesCache.getAll(trackIds)).thenReturn(Map.of("track1", audioFeatures1, "track2", audioFeatures2));
+
+        // Act: テスト対象メソッドの実行
+        List<AudioFeatures> result = spotifyTrackService.getAudioFeaturesForTracks(trackIds);
+
+        // Assert: 結果の検証
+        assertThat(result).containsExactly(audioFeatures1, audioFeatures2);
+        verify(spotifyApi, never()).getAudioFeaturesForSeveralTracks(anyString());
+        verify(audioFeaturesCache, never()).putAll(any());
+    }
 }
@@ -1,7 +1,9 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import org.apache.hc.core5.http.ParseException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -26,6 +28,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class SpotifyUserPlaylistCreationServiceTest {
 
+    @Mock
+    private SpotifyClientFactory spotifyClientFactory;
+
     @Mock
     private SpotifyApi spotifyApi;
 
@@ -53,6 +58,11 @@ class SpotifyUserPlaylistCreationServiceTest {
     private final List<String> trackIds = Arrays.asList("track1", "track2", "track3");
     private final String playlistId = "test_playlist_id";
 
+    @BeforeEach
+    void setUpClientFactory() {
+        lenient().when(spotifyClientFactory.forAccessToken(anyString())).thenReturn(spotifyApi);
+    }
+
     /**
      * プレイリストが正常に作成され、トラックが追加されることを確認する。
      */
@@ -72,7 +82,7 @@ class SpotifyUserPlaylistCreationServiceTest {
 
         // Assert: 結果の検証
         assertThat(result).isEqualTo(playlistId);
-        verify(spotifyApi).setAccessToken(accessToken);
+        verify(spotifyClientFactory).forAccessToken(accessToken);
         verify(spotifyApi).createPlaylist(userId, playlistName);
         verify(createPlaylistRequestBuilder).public_(false);
         verify(createPlaylistRequest).execute();
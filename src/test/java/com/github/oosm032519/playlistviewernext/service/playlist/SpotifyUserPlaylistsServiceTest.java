@@ -1,5 +1,6 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
+import com.github.oosm032519.playlistviewernext.config.SpotifyClientFactory;
 import com.github.oosm032519.playlistviewernext.exception.AuthenticationException;
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
 import org.apache.hc.core5.http.ParseException;
@@ -41,6 +42,9 @@ import static org.mockito.Mockito.*;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class SpotifyUserPlaylistsServiceTest {
 
+    @Mock
+    private SpotifyClientFactory spotifyClientFactory;
+
     @Mock
     private SpotifyApi spotifyApi;
 
@@ -83,6 +87,7 @@ public class SpotifyUserPlaylistsServiceTest {
         when(authentication.getPrincipal()).thenReturn(oauth2User);
         SecurityContextHolder.setContext(securityContext);
 
+        when(spotifyClientFactory.forAccessToken(anyString())).thenReturn(spotifyApi);
         when(spotifyApi.getListOfCurrentUsersPlaylists()).thenReturn(requestBuilder);
         when(requestBuilder.limit(anyInt())).thenReturn(requestBuilder); // limit()のモックを追加
         when(requestBuilder.build()).thenReturn(request);
@@ -98,7 +103,7 @@ public class SpotifyUserPlaylistsServiceTest {
         ReflectionTestUtils.setField(spotifyUserPlaylistsService, "mockApiUrl", "http://localhost:8081");
 
         // SpotifyUserPlaylistsService のインスタンスを再生成 (WebClient.Builder のモックを注入)
-        spotifyUserPlaylistsService = new SpotifyUserPlaylistsService(spotifyApi, webClientBuilder);
+        spotifyUserPlaylistsService = new SpotifyUserPlaylistsService(spotifyClientFactory, webClientBuilder);
         ReflectionTestUtils.setField(spotifyUserPlaylistsService, "mockEnabled", true);
         ReflectionTestUtils.setField(spotifyUserPlaylistsService, "mockApiUrl", "http://localhost:8081");
     }
@@ -128,7 +133,7 @@ public class SpotifyUserPlaylistsServiceTest {
         verify(spyService, times(1)).getCurrentUsersPlaylistsMock();
 
         // 実API関連のメソッドが呼び出されていないことを確認
-        verify(spotifyApi, never()).setAccessToken(anyString());
+        verify(spotifyClientFactory, never()).forAccessToken(anyString());
         verify(requestBuilder, never()).limit(anyInt());
         verify(request, never()).execute();
     }
@@ -148,7 +153,7 @@ public class SpotifyUserPlaylistsServiceTest {
         // Act & Assert: 例外がスローされることの確認
         assertThatThrownBy(() -> spotifyUserPlaylistsService.getCurrentUsersPlaylists())
                 .isInstanceOf(SpotifyWebApiException.class);
-        verify(spotifyApi).setAccessToken(accessToken);
+        verify(spotifyClientFactory).forAccessToken(accessToken);
     }
 
     /**
@@ -167,7 +172,7 @@ public class SpotifyUserPlaylistsServiceTest {
         assertThatThrownBy(() -> spotifyUserPlaylistsService.getCurrentUsersPlaylists())
                 .isInstanceOf(InternalServerException.class)
                 .hasMessageContaining("Error occurred while retrieving playlists");
-        verify(spotifyApi).setAccessToken(accessToken);
+        verify(spotifyClientFactory).forAccessToken(accessToken);
     }
 
     /**
@@ -186,7 +191,7 @@ public class SpotifyUserPlaylistsServiceTest {
                 .hasMessage("アクセストークンが見つかりません。");
 
         // Verify:
-        verify(spotifyApi, never()).setAccessToken(anyString());
+        verify(spotifyClientFactory, never()).forAccessToken(anyString());
         verify(requestBuilder, never()).limit(anyInt());
         verify(request, never()).execute();
     }
@@ -214,7 +219,7 @@ public class SpotifyUserPlaylistsServiceTest {
                 .hasMessageContaining("Spotify API Error");
 
         // Verify:
-        verify(spotifyApi).setAccessToken(accessToken); // アクセストークンがセットされることを確認
+        verify(spotifyClientFactory).forAccessToken(accessToken); // アクセストークンがセットされることを確認
     }
 
     /**
@@ -289,7 +294,7 @@ public class SpotifyUserPlaylistsServiceTest {
         assertThat(actualPlaylists).hasSize(2);
         assertThat(actualPlaylists.get(0).getId()).isEqualTo("1");
         assertThat(actualPlaylists.get(1).getId()).isEqualTo("2");
-        verify(spotifyApi).setAccessToken(accessToken); // アクセストークンがセットされることを確認
+        verify(spotifyClientFactory).forAccessToken(accessToken); // アクセストークンがセットされることを確認
     }
 
     /**
@@ -341,7 +346,7 @@ public class SpotifyUserPlaylistsServiceTest {
         // Assert: 結果の検証
         assertThat(actualPlaylists).isEqualTo(expectedPlaylists);
         verify(webClient, times(1)).get(); // WebClientが呼び出されたことを確認
-        verify(spotifyApi, never()).setAccessToken(anyString()); // 実APIが呼び出されないことを確認
+        verify(spotifyClientFactory, never()).forAccessToken(anyString()); // 実APIが呼び出されないことを確認
         verify(requestBuilder, never()).limit(anyInt());
         verify(request, never()).execute();
     }
@@ -1,6 +1,8 @@
 package com.github.oosm032519.playlistviewernext.service.playlist;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.model.AudioFeatureType;
+import com.github.oosm032519.playlistviewernext.model.TrackFeatureMatrix;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -8,12 +10,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.Episode;
 import se.michaelthelin.spotify.model_objects.specification.PlaylistTrack;
 import se.michaelthelin.spotify.model_objects.specification.Track;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,55 +30,55 @@ public class TrackDataRetrieverTest {
     public TrackDataRetriever trackDataRetriever;
 
     /**
-     * tracks配列がnullの場合、空のリストが返されることを確認する。
+     * tracks配列がnullの場合、空の行列が返されることを確認する。
      */
     @Test
-    void getTrackListData_tracks配列がnullの場合_空のリストを返す() {
+    void getTrackFeatureMatrix_tracks配列がnullの場合_空の行列を返す() {
         // Act: テスト対象メソッドの実行
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(null);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix((PlaylistTrack[]) null);
 
         // Assert: 結果の検証
-        assertThat(result).isEqualTo(Collections.emptyList());
+        assertThat(result.size()).isZero();
     }
 
     /**
-     * tracks配列が空の場合、空のリストが返されることを確認する。
+     * tracks配列が空の場合、空の行列が返されることを確認する。
      */
     @Test
-    void getTrackListData_tracks配列が空の場合_空のリストを返す() {
+    void getTrackFeatureMatrix_tracks配列が空の場合_空の行列を返す() {
         // Act: テスト対象メソッドの実行
         PlaylistTrack[] emptyTracks = new PlaylistTrack[0];
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(emptyTracks);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(emptyTracks);
 
         // Assert: 結果の検証
-        assertThat(result).isEqualTo(Collections.emptyList());
+        assertThat(result.size()).isZero();
     }
 
     /**
-     * PlaylistTrackのTrackがnullの場合、trackとaudioFeaturesがnullの要素を含むリストが返されることを確認する。
+     * PlaylistTrackのTrackがnullの場合、trackとaudioFeaturesがnullの行を含む行列が返されることを確認する。
      */
     @Test
-    void getTrackListData_PlaylistTrackのTrackがnullの場合_trackとaudioFeaturesがnullの要素を含むリストを返す() throws Exception {
+    void getTrackFeatureMatrix_PlaylistTrackのTrackがnullの場合_trackとaudioFeaturesがnullの行を含む行列を返す() throws Exception {
         // Arrange: テストデータの準備
         PlaylistTrack mockPlaylistTrack = mock(PlaylistTrack.class);
         when(mockPlaylistTrack.getTrack()).thenReturn(null); // trackがnull
         PlaylistTrack[] tracks = {mockPlaylistTrack};
 
         // Act: テスト対象メソッドの実行
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(tracks);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
 
         // Assert: 結果の検証
         verify(trackService, never()).getAudioFeaturesForTracks(anyList()); // trackServiceは呼ばれない
-        assertThat(result).hasSize(1);
-        assertThat(result.getFirst().get("track")).isNull();
-        assertThat(result.getFirst().get("audioFeatures")).isNull();
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.getTrack(0)).isNull();
+        assertThat(result.getAudioFeatures(0)).isNull();
     }
 
     /**
      * trackIdsが空の場合、audioFeaturesListが空リストで初期化されることを確認する。
      */
     @Test
-    void getTrackListData_trackIdsが空の場合_audioFeaturesListが空リストで初期化される() throws Exception {
+    void getTrackFeatureMatrix_trackIdsが空の場合_audioFeaturesListが空リストで初期化される() throws Exception {
         // Arrange: PlaylistTrackのtrackはnullではないが、trackIdはnull
         PlaylistTrack mockPlaylistTrack = mock(PlaylistTrack.class);
         Track mockTrack = mock(Track.class);
@@ -87,20 +88,20 @@ public class TrackDataRetrieverTest {
         PlaylistTrack[] tracks = {mockPlaylistTrack};
 
         // Act: テスト対象メソッドの実行
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(tracks);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
 
         // Assert: 結果の検証
         verify(trackService, never()).getAudioFeaturesForTracks(anyList()); // trackServiceは呼ばれない
-        assertThat(result).hasSize(1);
-        assertThat(result.getFirst().get("track")).isSameAs(mockTrack); // trackはnullではない
-        assertThat(result.getFirst().get("audioFeatures")).isNull(); // audioFeaturesはnull
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.getTrack(0)).isSameAs(mockTrack); // trackはnullではない
+        assertThat(result.getAudioFeatures(0)).isNull(); // audioFeaturesはnull
     }
 
     /**
      * trackService.getAudioFeaturesForTracksが例外をスローした場合、InternalServerExceptionがスローされることを確認する。
      */
     @Test
-    void getTrackListData_例外発生時にInternalServerExceptionをスローする() throws Exception {
+    void getTrackFeatureMatrix_例外発生時にInternalServerExceptionをスローする() throws Exception {
         // Arrange: 例外をスローするモックの設定
         PlaylistTrack mockPlaylistTrack = mock(PlaylistTrack.class);
         Track mockTrack = mock(Track.class);
@@ -112,7 +113,7 @@ public class TrackDataRetrieverTest {
         when(trackService.getAudioFeaturesForTracks(anyList())).thenThrow(new SpotifyWebApiException("Test Exception"));
 
         // Act & Assert: InternalServerExceptionがスローされることの確認
-        assertThatThrownBy(() -> trackDataRetriever.getTrackListData(tracks))
+        assertThatThrownBy(() -> trackDataRetriever.getTrackFeatureMatrix(tracks))
                 .isInstanceOf(InternalServerException.class)
                 .hasMessageContaining("トラックデータの取得中にエラーが発生しました。");
     }
@@ -121,7 +122,7 @@ public class TrackDataRetrieverTest {
      * PlaylistTrackのTrackが一部nullの場合、audioFeaturesがnullになる場合があることを確認する。
      */
     @Test
-    void getTrackListData_PlaylistTrackのTrackが一部nullの場合_audioFeaturesがnullになる場合がある() throws Exception {
+    void getTrackFeatureMatrix_PlaylistTrackのTrackが一部nullの場合_audioFeaturesがnullになる場合がある() throws Exception {
         // Arrange: テストデータの準備
         PlaylistTrack mockPlaylistTrack1 = mock(PlaylistTrack.class);
         Track mockTrack1 = mock(Track.class);
@@ -137,21 +138,21 @@ public class TrackDataRetrieverTest {
         when(trackService.getAudioFeaturesForTracks(List.of("track1"))).thenReturn(List.of(mockAudioFeatures));
 
         // Act: テスト対象メソッドの実行
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(tracks);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
 
         // Assert: 結果の検証
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).get("track")).isSameAs(mockTrack1);
-        assertThat(result.get(0).get("audioFeatures")).isSameAs(mockAudioFeatures); // 1つ目はAudioFeaturesがある
-        assertThat(result.get(1).get("track")).isNull(); // 2つ目はtrackがnull
-        assertThat(result.get(1).get("audioFeatures")).isNull(); // 2つ目はAudioFeaturesもnull
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.getTrack(0)).isSameAs(mockTrack1);
+        assertThat(result.getAudioFeatures(0)).isSameAs(mockAudioFeatures); // 1つ目はAudioFeaturesがある
+        assertThat(result.getTrack(1)).isNull(); // 2つ目はtrackがnull
+        assertThat(result.getAudioFeatures(1)).isNull(); // 2つ目はAudioFeaturesもnull
     }
 
     /**
      * 正常なトラックデータとAudioFeaturesが与えられた場合、トラック情報とAudioFeaturesが正しくマッピングされることを確認する。
      */
     @Test
-    void getTrackListData_正常系_AudioFeaturesが正しくマッピングされる() throws Exception {
+    void getTrackFeatureMatrix_正常系_AudioFeaturesが正しくマッピングされる() throws Exception {
         // Arrange: テストデータの準備
         PlaylistTrack mockPlaylistTrack1 = mock(PlaylistTrack.class);
         Track mockTrack1 = mock(Track.class);
@@ -170,13 +171,100 @@ public class TrackDataRetrieverTest {
         when(trackService.getAudioFeaturesForTracks(List.of("track1", "track2"))).thenReturn(List.of(mockAudioFeatures1, mockAudioFeatures2));
 
         // Act: テスト対象メソッドの実行
-        List<Map<String, Object>> result = trackDataRetriever.getTrackListData(tracks);
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
 
         // Assert: 結果の検証
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).get("track")).isSameAs(mockTrack1);
-        assertThat(result.get(0).get("audioFeatures")).isSameAs(mockAudioFeatures1);
-        assertThat(result.get(1).get("track")).isSameAs(mockTrack2);
-        assertThat(result.get(1).get("audioFeatures")).isSameAs(mockAudioFeatures2);
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.getTrack(0)).isSameAs(mockTrack1);
+        assertThat(result.getAudioFeatures(0)).isSameAs(mockAudioFeatures1);
+        assertThat(result.getTrack(1)).isSameAs(mockTrack2);
+        assertThat(result.getAudioFeatures(1)).isSameAs(mockAudioFeatures2);
+    }
+
+    /**
+     * IDを持たないトラックより後ろのトラックにも、そのトラックのAudioFeaturesが対応付けられることを確認する。
+     */
+    @Test
+    void getTrackFeatureMatrix_IDを持たないトラックの後ろのトラックにAudioFeaturesが正しく対応付けられる() throws Exception {
+        // Arrange: 1つ目のトラックはIDを持たない
+        PlaylistTrack mockPlaylistTrack1 = mock(PlaylistTrack.class);
+        Track mockTrack1 = mock(Track.class);
+        when(mockPlaylistTrack1.getTrack()).thenReturn(mockTrack1);
+        when(mockTrack1.getId()).thenReturn(null);
+
+        PlaylistTrack mockPlaylistTrack2 = mock(PlaylistTrack.class);
+        Track mockTrack2 = mock(Track.class);
+        when(mockPlaylistTrack2.getTrack()).thenReturn(mockTrack2);
+        when(mockTrack2.getId()).thenReturn("track2");
+
+        PlaylistTrack[] tracks = {mockPlaylistTrack1, mockPlaylistTrack2};
+
+        AudioFeatures audioFeatures2 = new AudioFeatures.Builder().setDanceability(0.7f).setEnergy(0.5f).setValence(0.3f)
+                .setTempo(120f).setAcousticness(0.1f).setInstrumentalness(0f).setLiveness(0.2f).setSpeechiness(0.05f).build();
+        when(trackService.getAudioFeaturesForTracks(List.of("track2"))).thenReturn(List.of(audioFeatures2));
+
+        // Act: テスト対象メソッドの実行
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
+
+        // Assert: 結果の検証
+        assertThat(result.getAudioFeatures(0)).isNull();
+        assertThat(result.getAudioFeatures(1)).isSameAs(audioFeatures2);
+        assertThat(result.getTrackId(1)).isEqualTo("track2");
+        assertThat(result.getAudioFeaturesCount()).isEqualTo(1);
+        assertThat(result.get(AudioFeatureType.DANCEABILITY, 1)).isEqualTo(0.7f);
+    }
+
+    /**
+     * プレイリストにエピソードやnullの項目が含まれる場合、それらの行をトラックとして扱わずに行列を作成することを確認する。
+     */
+    @Test
+    void getTrackFeatureMatrix_エピソードとnullの項目を含む場合_トラックのみAudioFeaturesを取得する() throws Exception {
+        // Arrange: エピソード、nullの項目、トラックを含むプレイリスト
+        PlaylistTrack episodeItem = mock(PlaylistTrack.class);
+        when(episodeItem.getTrack()).thenReturn(new Episode.Builder().setId("episode1").build());
+
+        PlaylistTrack mockPlaylistTrack = mock(PlaylistTrack.class);
+        Track mockTrack = mock(Track.class);
+        when(mockPlaylistTrack.getTrack()).thenReturn(mockTrack);
+        when(mockTrack.getId()).thenReturn("track1");
+
+        PlaylistTrack[] tracks = {episodeItem, null, mockPlaylistTrack};
+
+        AudioFeatures mockAudioFeatures = mock(AudioFeatures.class);
+        when(trackService.getAudioFeaturesForTracks(List.of("track1"))).thenReturn(List.of(mockAudioFeatures));
+
+        // Act: テスト対象メソッドの実行
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(tracks);
+
+        // Assert: 結果の検証
+        assertThat(result.size()).isEqualTo(3);
+        assertThat(result.getTrack(0)).isNull();
+        assertThat(result.getTrack(1)).isNull();
+        assertThat(result.getTrack(2)).isSameAs(mockTrack);
+        assertThat(result.getAudioFeatures(2)).isSameAs(mockAudioFeatures);
+        assertThat(result.getAudioFeaturesCount()).isEqualTo(1);
+    }
+
+    /**
+     * AudioFeaturesの一部の値が存在しない場合でも、その値を0として行列を作成することを確認する。
+     */
+    @Test
+    void getTrackFeatureMatrix_AudioFeaturesの値が欠けている場合_0として扱う() throws Exception {
+        // Arrange: テンポ以外の値を持たないAudioFeatures
+        PlaylistTrack mockPlaylistTrack = mock(PlaylistTrack.class);
+        Track mockTrack = mock(Track.class);
+        when(mockPlaylistTrack.getTrack()).thenReturn(mockTrack);
+        when(mockTrack.getId()).thenReturn("track1");
+
+        AudioFeatures audioFeatures = new AudioFeatures.Builder().setTempo(120f).build();
+        when(trackService.getAudioFeaturesForTracks(List.of("track1"))).thenReturn(List.of(audioFeatures));
+
+        // Act: テスト対象メソッドの実行
+        TrackFeatureMatrix result = trackDataRetriever.getTrackFeatureMatrix(new PlaylistTrack[]{mockPlaylistTrack});
+
+        // Assert: 結果の検証
+        assertThat(result.getAudioFeaturesCount()).isEqualTo(1);
+        assertThat(result.get(AudioFeatureType.TEMPO, 0)).isEqualTo(120f);
+        assertThat(result.get(AudioFeatureType.DANCEABILITY, 0)).isZero();
     }
 }
@@ -16,6 +16,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -113,4 +114,35 @@ class UserFavoritePlaylistsServiceTest {
 
         verify(userFavoritePlaylistRepository).findByUserId(userId);
     }
+
+    /**
+     * お気に入りのバージョンとして、件数と最大のIDの組を返すことを確認する。
+     */
+    @Test
+    void getFavoritePlaylistsVersion_ReturnsCountAndMaxId() {
+        // Arrange: モックの設定
+        String userId = "testUser";
+        UserFavoritePlaylistRepository.FavoritesVersion version = mock(UserFavoritePlaylistRepository.FavoritesVersion.class);
+        when(version.getFavoriteCount()).thenReturn(2L);
+        when(version.getMaxId()).thenReturn(15L);
+        when(userFavoritePlaylistRepository.findVersionByUserId(userId)).thenReturn(version);
+
+        // Act & Assert: 結果の検証
+        assertThat(service.getFavoritePlaylistsVersion(userId)).isEqualTo("2:15");
+    }
+
+    /**
+     * バージョンの取得中に例外が発生した場合、DatabaseAccessExceptionがスローされることを確認する。
+     */
+    @Test
+    void getFavoritePlaylistsVersion_DatabaseAccessException() {
+        // Arrange: モックの設定（例外をスロー）
+        String userId = "testUser";
+        when(userFavoritePlaylistRepository.findVersionByUserId(userId)).thenThrow(new RuntimeException("Database error"));
+
+        // Act & Assert: 例外がスローされることの確認
+        assertThatThrownBy(() -> service.getFavoritePlaylistsVersion(userId))
+                .isInstanceOf(DatabaseAccessException.class)
+                .hasFieldOrPropertyWithValue("httpStatus", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
 }
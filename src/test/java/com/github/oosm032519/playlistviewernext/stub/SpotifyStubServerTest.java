@@ -0,0 +1,185 @@
+package com.github.oosm032519.playlistviewernext.stub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.model.PlaylistSnapshot;
+import com.github.oosm032519.playlistviewernext.service.playlist.SpotifyPlaylistDetailsService;
+import com.github.oosm032519.playlistviewernext.util.MockApiClient;
+import com.github.oosm032519.playlistviewernext.util.ParallelFetchExecutor;
+import com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle;
+import com.github.oosm032519.playlistviewernext.util.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import se.michaelthelin.spotify.SpotifyApi;
+import se.michaelthelin.spotify.model_objects.specification.AudioFeatures;
+import se.michaelthelin.spotify.model_objects.specification.PlaylistSimplified;
+import se.michaelthelin.spotify.model_objects.specification.Track;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpotifyStubServerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final SpotifyStubData data = new SpotifyStubData(30, 50, 100, 5, 3);
+    private SpotifyStubServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * プレイリストのトラックがSpotifyのモデルに変換でき、IDで指定したトラック数とoffset・limitによる範囲指定が反映されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: プレイリストのトラックをトラック数と範囲を指定して取得できる")
+    void playlistTracks_ShouldHonorTrackCountSuffixAndPaging() throws Exception {
+        // Arrange: テストデータの準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+
+        // Act: テスト対象メソッドの実行
+        HttpResponse<String> all = get("/playlists/load-250/tracks");
+        HttpResponse<String> page = get("/playlists/load-250/tracks?offset=200&limit=100");
+        HttpResponse<String> defaultSize = get("/playlists/abc/tracks");
+
+        // Assert: 結果の検証
+        assertThat(all.statusCode()).isEqualTo(200);
+        List<Track> tracks = objectMapper.readValue(all.body(), new TypeReference<>() {
+        });
+        assertThat(tracks).hasSize(250);
+        assertThat(tracks.getFirst().getId()).isEqualTo("load-250-t0");
+        assertThat(tracks.getFirst().getArtists()).isNotEmpty();
+        assertThat(tracks.getFirst().getDurationMs()).isPositive();
+        assertThat(objectMapper.readValue(page.body(), List.class)).hasSize(50);
+        assertThat(objectMapper.readValue(defaultSize.body(), List.class)).hasSize(30);
+        assertThat(get("/playlists/load-250/tracks").body()).isEqualTo(all.body());
+    }
+
+    /**
+     * Audio Features、ジャンル、検索結果、フォロー中のプレイリスト、おすすめ楽曲がモックAPIの契約どおりに返されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 各エンドポイントがモックAPIの契約どおりに応答する")
+    void endpoints_ShouldFollowMockApiContract() throws Exception {
+        // Arrange: テストデータの準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+
+        // Act: テスト対象メソッドの実行
+        List<AudioFeatures> audioFeatures = objectMapper.readValue(
+                get("/tracks/audio-features?trackIds=t1,t2").body(), new TypeReference<>() {
+                });
+        Map<String, List<String>> genres = objectMapper.readValue(
+                get("/artists/genres?artistIds=stub-artist-1,stub-artist-2").body(), new TypeReference<>() {
+                });
+        Map<String, Object> search = objectMapper.readValue(
+                get("/search/playlists?query=rock%20music&offset=90&limit=20").body(), new TypeReference<>() {
+                });
+        List<PlaylistSimplified> followed = objectMapper.readValue(get("/following/playlists").body(), new TypeReference<>() {
+        });
+        List<Track> recommendations = objectMapper.readValue(get("/recommendations").body(), new TypeReference<>() {
+        });
+
+        // Assert: 結果の検証
+        assertThat(audioFeatures).extracting(AudioFeatures::getId).containsExactly("t1", "t2");
+        assertThat(audioFeatures.getFirst().getTempo()).isBetween(60f, 200f);
+        assertThat(genres).containsOnlyKeys("stub-artist-1", "stub-artist-2");
+        assertThat(search).containsEntry("total", 100);
+        assertThat((List<?>) search.get("playlists")).hasSize(10);
+        assertThat(followed).hasSize(3);
+        assertThat(followed.getFirst().getOwner().getDisplayName()).isEqualTo("Stub Owner");
+        assertThat(recommendations).hasSize(5);
+        assertThat(get("/unknown").statusCode()).isEqualTo(404);
+        assertThat(server.getRequestCount()).isEqualTo(6);
+    }
+
+    /**
+     * 429を返す割合を1にした場合、すべてのリクエストにRetry-Afterヘッダー付きの429が返されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 設定した割合で429が返される")
+    void rateLimitRatio_ShouldRespondWithTooManyRequests() throws Exception {
+        // Arrange: テストデータの準備
+        server = startServer(new SpotifyStubServer.Faults(Duration.ZERO, Duration.ZERO, 1, 3));
+
+        // Act: テスト対象メソッドの実行
+        HttpResponse<String> response = get("/playlists/abc");
+
+        // Assert: 結果の検証
+        assertThat(response.statusCode()).isEqualTo(429);
+        assertThat(response.headers().firstValue("Retry-After")).hasValue("3");
+        assertThat(server.getRateLimitedCount()).isEqualTo(1);
+    }
+
+    /**
+     * 応答に設定した遅延が注入されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 設定した遅延が応答に注入される")
+    void latency_ShouldDelayResponses() throws Exception {
+        // Arrange: テストデータの準備
+        server = startServer(new SpotifyStubServer.Faults(Duration.ofMillis(100), Duration.ZERO, 0, 1));
+
+        // Act: テスト対象メソッドの実行
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/playlists/abc");
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Assert: 結果の検証
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(100);
+    }
+
+    /**
+     * モックモードのプレイリスト詳細サービスが、スタブからプレイリスト情報と全トラックを取得できることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: モックモードのサービスがスタブからスナップショットを取得できる")
+    void playlistDetailsService_ShouldReadSnapshotFromStub() throws Exception {
+        // Arrange: スタブを参照するモックモードのサービスを準備
+        server = startServer(SpotifyStubServer.Faults.NONE);
+        SpotifyRequestThrottle requestThrottle = new SpotifyRequestThrottle(
+                Map.of(SpotifyRequestThrottle.EndpointClass.PLAYLIST_READ, new TokenBucket(100, 10)), Duration.ofSeconds(1), new SimpleMeterRegistry());
+        SpotifyPlaylistDetailsService detailsService = new SpotifyPlaylistDetailsService(
+                new SpotifyApi.Builder().build(), new MockApiClient(WebClient.builder(), requestThrottle), objectMapper, new ParallelFetchExecutor(1));
+        ReflectionTestUtils.setField(detailsService, "mockEnabled", true);
+        ReflectionTestUtils.setField(detailsService, "mockApiUrl", server.getBaseUrl());
+
+        // Act: テスト対象メソッドの実行
+        PlaylistSnapshot snapshot = detailsService.getPlaylistSnapshot("details-120");
+
+        // Assert: 結果の検証
+        assertThat(snapshot.getPlaylist().getName()).isEqualTo("Stub Playlist details-120");
+        assertThat(snapshot.getPlaylist().getOwner().getDisplayName()).isEqualTo("Stub Owner");
+        assertThat(snapshot.getTracks()).hasSize(120);
+        assertThat(snapshot.getPageFetchCount()).isEqualTo(3);
+        assertThat(((Track) snapshot.getTracks()[0].getTrack()).getArtists()).isNotEmpty();
+    }
+
+    private SpotifyStubServer startServer(SpotifyStubServer.Faults faults) {
+        SpotifyStubServer stubServer = new SpotifyStubServer(data, objectMapper, faults, 0);
+        stubServer.start();
+        return stubServer;
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getBaseUrl() + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
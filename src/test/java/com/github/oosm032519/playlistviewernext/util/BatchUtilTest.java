@@ -0,0 +1,39 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchUtilTest {
+
+    /**
+     * リストが指定された件数ごとに元の順序で分割され、最後のチャンクに端数が入ることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 指定された件数ごとに順序を保って分割する")
+    void partition_SplitsInOrder() {
+        // Act: テスト対象メソッドの実行
+        List<List<String>> chunks = BatchUtil.partition(List.of("a", "b", "c", "d", "e"), 2);
+
+        // Assert: 結果の検証
+        assertThat(chunks).containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e"));
+        assertThat(BatchUtil.partition(List.of(), 2)).isEmpty();
+    }
+
+    /**
+     * キャッシュに存在しないIDのみが、重複を除いて元の順序で返されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: キャッシュに存在しないIDを重複なく順序どおりに返す")
+    void missingIds_ReturnsDistinctUncachedIdsInOrder() {
+        // Act: テスト対象メソッドの実行
+        List<String> missingIds = BatchUtil.missingIds(List.of("c", "a", "b", "c", "a"), Map.of("b", "cached"));
+
+        // Assert: 結果の検証
+        assertThat(missingIds).containsExactly("c", "a");
+    }
+}
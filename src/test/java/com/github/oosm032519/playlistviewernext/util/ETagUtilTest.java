@@ -0,0 +1,61 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagUtilTest {
+
+    /**
+     * 同じ値からは同じ弱いETagが作成され、値の区切りが異なる場合は異なるETagとなることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 値から弱いETagを作成する")
+    void weakETag_ShouldBeStableAndSeparateParts() {
+        // Act: テスト対象メソッドの実行
+        String eTag = ETagUtil.weakETag("details", "snapshot1");
+
+        // Assert: 結果の検証
+        assertThat(eTag).matches("W/\"[A-Za-z0-9_-]+\"");
+        assertThat(ETagUtil.weakETag("details", "snapshot1")).isEqualTo(eTag);
+        assertThat(ETagUtil.weakETag("details", "snapshot2")).isNotEqualTo(eTag);
+        assertThat(ETagUtil.weakETag("detailss", "napshot1")).isNotEqualTo(eTag);
+    }
+
+    /**
+     * 値にnullが含まれる場合 (内容を特定できない場合) はETagを作成しないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: nullを含む場合はETagを作成しない")
+    void weakETag_ShouldReturnNullWhenPartIsNull() {
+        // Act & Assert: 結果の検証
+        assertThat(ETagUtil.weakETag("details", null)).isNull();
+    }
+
+    /**
+     * If-None-Matchの弱い比較で一致を判定し、リクエストのETagが強いETagや複数指定の場合も一致することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: If-None-Matchと弱い比較で一致を判定する")
+    void isNotModified_ShouldUseWeakComparison() {
+        // Arrange: テストデータの準備
+        String eTag = ETagUtil.weakETag("details", "snapshot1");
+        String opaqueTag = eTag.substring(2);
+
+        // Act & Assert: 結果の検証
+        assertThat(ETagUtil.isNotModified(requestWithIfNoneMatch(eTag), eTag)).isTrue();
+        assertThat(ETagUtil.isNotModified(requestWithIfNoneMatch(opaqueTag), eTag)).isTrue();
+        assertThat(ETagUtil.isNotModified(requestWithIfNoneMatch("\"other\", " + eTag), eTag)).isTrue();
+        assertThat(ETagUtil.isNotModified(requestWithIfNoneMatch("W/\"other\""), eTag)).isFalse();
+        assertThat(ETagUtil.isNotModified(new MockHttpServletRequest("GET", "/"), eTag)).isFalse();
+        assertThat(ETagUtil.isNotModified(requestWithIfNoneMatch(eTag), null)).isFalse();
+    }
+
+    private static MockHttpServletRequest requestWithIfNoneMatch(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", ifNoneMatch);
+        return request;
+    }
+}
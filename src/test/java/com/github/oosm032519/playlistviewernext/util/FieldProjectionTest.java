@@ -0,0 +1,131 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.oosm032519.playlistviewernext.exception.InvalidRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldProjectionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 括弧とドットによる入れ子の指定を解析し、同じ項目の指定が統合されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 入れ子の指定を解析して同じ項目の指定を統合する")
+    void parse_ShouldParseNestedFieldsAndMergeDuplicates() {
+        // Act: テスト対象メソッドの実行
+        FieldProjection projection = FieldProjection.parse("playlistName,tracks(items(track(id))),tracks.items.track.name,genreCounts").orElseThrow();
+
+        // Assert: 結果の検証
+        assertThat(projection).hasToString("playlistName,tracks(items(track(id,name))),genreCounts");
+        assertThat(projection.includes("playlistName")).isTrue();
+        assertThat(projection.includes("ownerId")).isFalse();
+    }
+
+    /**
+     * 配下のすべての項目を含める指定と入れ子の指定が重なった場合は、すべての項目を含めることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: すべてを含める指定が入れ子の指定より優先される")
+    void parse_ShouldPreferWholeFieldOverNestedFields() {
+        // Act: テスト対象メソッドの実行
+        FieldProjection projection = FieldProjection.parse("tracks(items),tracks").orElseThrow();
+
+        // Assert: 結果の検証
+        assertThat(projection).hasToString("tracks");
+    }
+
+    /**
+     * パラメータが指定されていない場合は空を返すことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 未指定の場合は空を返す")
+    void parse_ShouldReturnEmptyWhenNotSpecified() {
+        // Act & Assert: 結果の検証
+        assertThat(FieldProjection.parse(null)).isEmpty();
+        assertThat(FieldProjection.parse(" ")).isEmpty();
+    }
+
+    /**
+     * 書式が不正な場合にInvalidRequestExceptionがスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 不正な書式はInvalidRequestExceptionとなる")
+    void parse_ShouldThrowForInvalidSyntax() {
+        // Act & Assert: 例外の検証
+        for (String expression : List.of("tracks(", "tracks()", "a,,b", "a)", "a.", "a b", ",a")) {
+            assertThatThrownBy(() -> FieldProjection.parse(expression))
+                    .as(expression)
+                    .isInstanceOf(InvalidRequestException.class);
+        }
+        assertThatThrownBy(() -> FieldProjection.parse("a".repeat(2000)))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    /**
+     * レスポンスのMapに適用した場合、指定された項目のみが指定した順に残り、入れ子の指定は書き込み時に配列の要素ごとに適用されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: Mapに適用すると指定された項目のみを書き込む")
+    void apply_ShouldWriteOnlyRequestedFields() throws Exception {
+        // Arrange: テストデータの準備
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("playlistName", "Test Playlist");
+        response.put("ownerId", "owner1");
+        response.put("tracks", Map.of("items", List.of(
+                Map.of("track", Map.of("id", "track1", "name", "Track 1"), "audioFeatures", Map.of("energy", 0.5)),
+                Map.of("track", Map.of("id", "track2", "name", "Track 2"), "audioFeatures", Map.of("energy", 0.6)))));
+        response.put("genreCounts", Map.of("rock", 2));
+        FieldProjection projection = FieldProjection.parse("genreCounts,tracks.items.track.name,unknown").orElseThrow();
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> projected = projection.apply(response);
+
+        // Assert: 結果の検証
+        assertThat(projected).containsOnlyKeys("genreCounts", "tracks");
+        assertThat(projected.get("genreCounts")).isSameAs(response.get("genreCounts"));
+        assertThat(objectMapper.writeValueAsString(projected)).isEqualTo(
+                "{\"genreCounts\":{\"rock\":2},\"tracks\":{\"items\":[{\"track\":{\"name\":\"Track 1\"}},{\"track\":{\"name\":\"Track 2\"}}]}}");
+    }
+
+    /**
+     * JsonGeneratorに適用した場合、指定されていない項目を書き込まず、空になったオブジェクトも有効なJSONとして書き込まれることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: JsonGeneratorに適用すると指定されていない項目を書き込まない")
+    void filter_ShouldSkipUnrequestedFields() throws Exception {
+        // Arrange: テストデータの準備
+        FieldProjection projection = FieldProjection.parse("playlistName,tracks(items(track(name)))").orElseThrow();
+        StringWriter writer = new StringWriter();
+
+        // Act: テスト対象メソッドの実行
+        try (JsonGenerator generator = projection.filter(objectMapper.getFactory().createGenerator(writer))) {
+            generator.writeStartObject();
+            generator.writeStringField("playlistName", "Test Playlist");
+            generator.writeStringField("ownerId", "owner1");
+            generator.writeObjectFieldStart("tracks");
+            generator.writeArrayFieldStart("items");
+            generator.writeObject(Map.of("track", Map.of("id", "track1", "name", "Track 1")));
+            generator.writeObject(Map.of("audioFeatures", Map.of("energy", 0.5)));
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeObjectField("genreCounts", Map.of("rock", 2));
+            generator.writeEndObject();
+        }
+
+        // Assert: 結果の検証
+        assertThat(writer).hasToString(
+                "{\"playlistName\":\"Test Playlist\",\"tracks\":{\"items\":[{\"track\":{\"name\":\"Track 1\"}},{}]}}");
+    }
+}
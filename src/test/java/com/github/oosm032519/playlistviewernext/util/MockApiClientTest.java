@@ -0,0 +1,134 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.NotFoundException;
+import se.michaelthelin.spotify.exceptions.detailed.ServiceUnavailableException;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
+
+import java.net.URI;
+import java.util.Map;
+
+import static com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle.EndpointClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MockApiClientTest {
+
+    private static final URI URI_PLAYLIST = URI.create("http://localhost:8081/playlists/abc");
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final SpotifyRequestThrottle requestThrottle = mock(SpotifyRequestThrottle.class);
+
+    /**
+     * 流量制限を通過してからリクエストを送信し、レスポンスを指定された型で返すことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 流量制限を通過してからリクエストを送信する")
+    void get_AcquiresThrottleBeforeRequest() throws Exception {
+        // Arrange: テストデータの準備
+        ExchangeFunction exchangeFunction = mock(ExchangeFunction.class);
+        when(exchangeFunction.exchange(any())).thenReturn(Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"id\":\"abc\"}")
+                .build()));
+        MockApiClient client = new MockApiClient(WebClient.builder().exchangeFunction(exchangeFunction), requestThrottle);
+
+        // Act: テスト対象メソッドの実行
+        Map<String, Object> result = client.get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE);
+
+        // Assert: 結果の検証
+        assertThat(result).containsEntry("id", "abc");
+        InOrder inOrder = inOrder(requestThrottle, exchangeFunction);
+        inOrder.verify(requestThrottle).acquire(EndpointClass.PLAYLIST_READ);
+        inOrder.verify(exchangeFunction).exchange(any());
+    }
+
+    /**
+     * 429の応答が、Retry-Afterの秒数を持つTooManyRequestsExceptionに変換されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 429はRetry-After付きのTooManyRequestsExceptionに変換される")
+    void get_TooManyRequests_ThrowsTooManyRequestsException() {
+        // Arrange: テストデータの準備
+        MockApiClient client = clientRespondingWith(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "3")
+                .build());
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> client.get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(3));
+    }
+
+    /**
+     * Retry-Afterが秒数でない429の応答は、Retry-Afterを0として変換されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 秒数でないRetry-Afterは0として扱われる")
+    void get_TooManyRequestsWithInvalidRetryAfter_UsesZero() {
+        // Arrange: テストデータの準備
+        MockApiClient client = clientRespondingWith(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT")
+                .build());
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> client.get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfter()).isZero());
+    }
+
+    /**
+     * エラーレスポンスのステータスコードが、SpotifyApiと同じ例外に変換されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: ステータスコードに対応するSpotifyWebApiExceptionに変換される")
+    void get_ErrorResponse_ThrowsCorrespondingException() {
+        // Arrange & Act & Assert: 例外の検証
+        assertThatThrownBy(() -> clientRespondingWith(ClientResponse.create(HttpStatus.NOT_FOUND).build())
+                .get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> clientRespondingWith(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> clientRespondingWith(ClientResponse.create(HttpStatus.I_AM_A_TEAPOT).build())
+                .get(EndpointClass.PLAYLIST_READ, URI_PLAYLIST, MAP_TYPE))
+                .isExactlyInstanceOf(SpotifyWebApiException.class);
+    }
+
+    /**
+     * 流量制限によりリクエストが破棄された場合、リクエストを送信せずに例外がそのままスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 流量制限で破棄された場合はリクエストを送信しない")
+    void get_ThrottleRejects_DoesNotSendRequest() {
+        // Arrange: テストデータの準備
+        ExchangeFunction exchangeFunction = mock(ExchangeFunction.class);
+        InternalServerException rejected = new InternalServerException(HttpStatus.SERVICE_UNAVAILABLE, "rejected");
+        doThrow(rejected).when(requestThrottle).acquire(EndpointClass.SEARCH);
+        MockApiClient client = new MockApiClient(WebClient.builder().exchangeFunction(exchangeFunction), requestThrottle);
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> client.get(EndpointClass.SEARCH, URI_PLAYLIST, MAP_TYPE))
+                .isSameAs(rejected);
+        verifyNoInteractions(exchangeFunction);
+    }
+
+    private MockApiClient clientRespondingWith(ClientResponse response) {
+        return new MockApiClient(WebClient.builder().exchangeFunction(request -> Mono.just(response)), requestThrottle);
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import com.github.oosm032519.playlistviewernext.service.cache.ArtistGenreCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ParallelFetchExecutorTest {
+
+    private final ParallelFetchExecutor parallelFetchExecutor = new ParallelFetchExecutor(2);
+
+    @AfterEach
+    void tearDown() {
+        parallelFetchExecutor.shutdown();
+        // テスト間でレート制限による停止状態を持ち越さないように初期化する
+        RetryUtil.getRateLimitCoordinator().reset();
+    }
+
+    /**
+     * 各操作の完了順にかかわらず、入力と同じ順序で結果が返されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 結果が入力順に返される")
+    void invokeAll_ShouldReturnResultsInInputOrder() throws Exception {
+        // Arrange: 後ろの操作ほど早く完了するように設定
+        List<RetryUtil.RetryableOperation<Integer>> operations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            operations.add(() -> {
+                sleep((5 - index) * 10L);
+                return index;
+            });
+        }
+
+        // Act: テスト対象メソッドの実行
+        List<Integer> results = parallelFetchExecutor.invokeAll(operations);
+
+        // Assert: 結果の検証
+        assertThat(results).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    /**
+     * 同時に実行される操作の数が設定された上限を超えないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 同時実行数が上限を超えない")
+    void invokeAll_ShouldNotExceedConcurrencyLimit() throws Exception {
+        // Arrange: 同時実行数の最大値を記録する操作を準備
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<RetryUtil.RetryableOperation<Integer>> operations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            operations.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                return 0;
+            });
+        }
+
+        // Act: テスト対象メソッドの実行
+        parallelFetchExecutor.invokeAll(operations);
+
+        // Assert: 結果の検証
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(parallelFetchExecutor.getConcurrency());
+    }
+
+    /**
+     * 操作がSpotifyWebApiExceptionをスローした場合、その例外がそのまま再スローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: SpotifyWebApiExceptionがそのまま再スローされる")
+    void invokeAll_ShouldRethrowSpotifyWebApiException() {
+        // Arrange: 例外をスローする操作を準備
+        List<RetryUtil.RetryableOperation<Integer>> operations = List.of(
+                () -> 1,
+                () -> {
+                    throw new SpotifyWebApiException("API error");
+                }
+        );
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> parallelFetchExecutor.invokeAll(operations))
+                .isInstanceOf(SpotifyWebApiException.class)
+                .hasMessage("API error");
+    }
+
+    /**
+     * 操作が実行時例外をスローした場合、その例外がそのまま再スローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 実行時例外がそのまま再スローされる")
+    void invokeAll_ShouldRethrowRuntimeException() {
+        // Arrange: 実行時例外をスローする操作を準備
+        List<RetryUtil.RetryableOperation<Integer>> operations = List.of(() -> {
+            throw new InternalServerException(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error", new RuntimeException());
+        });
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> parallelFetchExecutor.invokeAll(operations))
+                .isInstanceOf(InternalServerException.class)
+                .hasMessage("Unexpected error");
+    }
+
+    /**
+     * 再試行付きの並列実行で、TooManyRequestsExceptionを受け取った操作だけが再試行され、結果が入力順に返されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 再試行付きの並列実行で失敗した操作だけが再試行される")
+    void invokeAllWithRetry_ShouldRetryOnlyFailedOperation() throws Exception {
+        // Arrange: 2番目の操作だけが1回目にレート制限に達するように設定
+        AtomicInteger firstAttempts = new AtomicInteger();
+        AtomicInteger secondAttempts = new AtomicInteger();
+        List<RetryUtil.RetryableOperation<Integer>> operations = List.of(
+                () -> {
+                    firstAttempts.incrementAndGet();
+                    return 1;
+                },
+                () -> {
+                    if (secondAttempts.incrementAndGet() == 1) {
+                        throw new TooManyRequestsException("Too Many Requests", 0);
+                    }
+                    return 2;
+                }
+        );
+
+        // Act: テスト対象メソッドの実行
+        List<Integer> results = parallelFetchExecutor.invokeAll(operations, 3, 10);
+
+        // Assert: 結果の検証
+        assertThat(results).containsExactly(1, 2);
+        assertThat(firstAttempts.get()).isEqualTo(1);
+        assertThat(secondAttempts.get()).isEqualTo(2);
+    }
+
+    /**
+     * 再試行付きの並列実行で、Retry-Afterによる待機中は同時実行数の許可を解放し、
+     * 他のリクエストが許可を取得できることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: Retry-Afterの待機中は同時実行数の許可を保持しない")
+    void invokeAllWithRetry_ShouldReleasePermitWhileWaitingForRetryAfter() throws Exception {
+        // Arrange: 同時実行数1で、1回目の試行がレート制限に達して300ミリ秒停止する操作を準備
+        ParallelFetchExecutor singlePermitExecutor = new ParallelFetchExecutor(1);
+        CountDownLatch rateLimited = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        List<RetryUtil.RetryableOperation<Integer>> operations = List.of(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                rateLimited.countDown();
+                throw new TooManyRequestsException("Too Many Requests", 0);
+            }
+            return 1;
+        });
+        Future<List<Integer>> retrying = Executors.newVirtualThreadPerTaskExecutor()
+                .submit(() -> singlePermitExecutor.invokeAll(operations, 1, 300));
+        assertThat(rateLimited.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // Act: 待機中に別のリクエストが許可を取得して実行する
+        long start = System.nanoTime();
+        List<String> probe = singlePermitExecutor.invokeAll(List.of(() -> "probe"));
+        Duration probeLatency = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert: 結果の検証
+        assertThat(probe).containsExactly("probe");
+        assertThat(probeLatency).isLessThan(Duration.ofMillis(200));
+        assertThat(retrying.get(2, TimeUnit.SECONDS)).containsExactly(1);
+        singlePermitExecutor.shutdown();
+    }
+
+    /**
+     * 上流APIの呼び出しで使用する流量制御・重複排除・キャッシュの処理を、ブロッキングを伴う並列取得の中で実行しても、
+     * 仮想スレッドがキャリアスレッドに固定されないことをJFRのjdk.VirtualThreadPinnedイベントで確認する。
+     */
+    @Test
+    @DisplayName("正常系: 並列取得中に仮想スレッドがキャリアスレッドに固定されない")
+    void invokeAll_ShouldNotPinVirtualThreads() throws Exception {
+        // Arrange: 上流APIの呼び出し経路で使用するコンポーネントとブロッキングを伴う操作を準備
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(SpotifyRequestThrottle.EndpointClass.ARTISTS, new TokenBucket(1000, 10)), Duration.ofSeconds(1), new SimpleMeterRegistry());
+        URI uri = URI.create("https://api.spotify.com/v1/artists?ids=a");
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("pinning-test", new SimpleMeterRegistry());
+        ArtistGenreCache artistGenreCache = new ArtistGenreCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1));
+        List<RetryUtil.RetryableOperation<Integer>> operations = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            int index = i;
+            operations.add(() -> {
+                throttle.acquire("GET", uri);
+                artistGenreCache.putAll(Map.of("artist" + index, List.of("genre" + index % 4)));
+                return singleFlight.execute("key" + index % 4, () -> {
+                    sleep(20);
+                    return index;
+                });
+            });
+        }
+
+        // Act: JFRで記録しながらテスト対象メソッドを実行
+        Path recordingFile = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            parallelFetchExecutor.invokeAll(operations);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Assert: 結果の検証
+        List<RecordedEvent> pinnedEvents = RecordingFile.readAllEvents(recordingFile);
+        Files.deleteIfExists(recordingFile);
+        assertThat(pinnedEvents).isEmpty();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
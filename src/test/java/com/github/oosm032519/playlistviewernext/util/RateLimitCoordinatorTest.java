@@ -0,0 +1,123 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RateLimitCoordinatorTest {
+
+    /**
+     * 停止中でない場合、待機せずに処理が継続されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 停止中でない場合は待機しない")
+    void awaitClearance_ReturnsImmediatelyWhenNotPaused() throws Exception {
+        // Arrange: テストデータの準備
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(Duration.ofSeconds(1), 1);
+
+        // Act: テスト対象メソッドの実行
+        long start = System.nanoTime();
+        coordinator.awaitClearance();
+
+        // Assert: 結果の検証
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+        assertThat(coordinator.getRemainingPause()).isEqualTo(Duration.ZERO);
+    }
+
+    /**
+     * 一度記録された停止期間が、別のスレッドからの呼び出しにも適用されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 停止期間がすべてのスレッドで共有される")
+    void awaitClearance_WaitsForSharedPause() throws Exception {
+        // Arrange: 停止期間を記録
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(Duration.ofSeconds(1), 4);
+        coordinator.pause(Duration.ofMillis(200));
+        CountDownLatch cleared = new CountDownLatch(1);
+
+        // Act: 別の仮想スレッドから待機
+        long start = System.nanoTime();
+        Thread.ofVirtual().start(() -> {
+            try {
+                coordinator.awaitClearance();
+                cleared.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Assert: 結果の検証
+        assertThat(cleared.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+    }
+
+    /**
+     * 短い停止期間を記録しても、記録済みのより長い停止期間が短縮されないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: より長い停止期間が優先される")
+    void pause_KeepsLongerPause() {
+        // Arrange: テストデータの準備
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(Duration.ofSeconds(10), 1);
+
+        // Act: テスト対象メソッドの実行
+        coordinator.pause(Duration.ofSeconds(5));
+        coordinator.pause(Duration.ofSeconds(1));
+
+        // Assert: 結果の検証
+        assertThat(coordinator.getRemainingPause()).isGreaterThan(Duration.ofSeconds(4));
+    }
+
+    /**
+     * 停止期間が待機時間の上限を超える場合、待機せずにリクエストが破棄されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 停止期間が待機時間の上限を超える場合はリクエストを破棄する")
+    void awaitClearance_ShedsWhenPauseExceedsMaxWait() {
+        // Arrange: 待機時間の上限より長い停止期間を記録
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(Duration.ofMillis(100), 4);
+        coordinator.pause(Duration.ofSeconds(30));
+
+        // Act & Assert: 例外の検証
+        long start = System.nanoTime();
+        assertThatThrownBy(coordinator::awaitClearance)
+                .isInstanceOf(InternalServerException.class)
+                .satisfies(e -> assertThat(((InternalServerException) e).getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    /**
+     * 待機中のリクエスト数が上限に達している場合、新しいリクエストが破棄されることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 待機中のリクエスト数が上限に達している場合はリクエストを破棄する")
+    void awaitClearance_ShedsWhenWaiterSlotsAreExhausted() throws Exception {
+        // Arrange: 待機枠1つを別スレッドで占有
+        RateLimitCoordinator coordinator = new RateLimitCoordinator(Duration.ofSeconds(5), 1);
+        coordinator.pause(Duration.ofSeconds(2));
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                coordinator.awaitClearance();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+
+        try {
+            // Act & Assert: 例外の検証
+            assertThatThrownBy(coordinator::awaitClearance)
+                    .isInstanceOf(InternalServerException.class)
+                    .hasMessageContaining("レート制限中");
+        } finally {
+            waiter.interrupt();
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.github.oosm032519.playlistviewernext.util;
 
 import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.exceptions.detailed.TooManyRequestsException;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class RetryUtilTest {
 
+    @AfterEach
+    void tearDown() {
+        // テスト間でレート制限による停止状態を持ち越さないように初期化する
+        RetryUtil.getRateLimitCoordinator().reset();
+    }
+
     @Nested
     @DisplayName("executeWithRetryメソッドのテスト")
     class ExecuteWithRetryTest {
@@ -102,5 +111,64 @@ class RetryUtilTest {
                     .isInstanceOf(InternalServerException.class)
                     .hasMessageContaining("再試行が中断されました。");
         }
+
+        /**
+         * TooManyRequestsExceptionを受け取った場合、Retry-Afterの期間がアプリケーション全体の停止期間として記録され、
+         * 別の操作も停止期間の終了まで実行されないことを確認する。
+         */
+        @Test
+        @DisplayName("異常系: Retry-Afterによる停止期間が他の操作にも適用される場合")
+        void retryAfterPausesOtherOperations() throws Exception {
+            // Arrange: 1回目のみ TooManyRequestsException をスローする操作を準備
+            TooManyRequestsException exception = mock(TooManyRequestsException.class);
+            when(exception.getRetryAfter()).thenReturn(1);
+            RetryUtil.RetryableOperation<String> operation = mock(RetryUtil.RetryableOperation.class);
+            when(operation.execute())
+                    .thenThrow(exception)
+                    .thenReturn("success");
+
+            // Act: 429を受け取った直後に別の操作を実行
+            String result = RetryUtil.executeWithRetry(operation, 3, 100);
+            assertThat(RetryUtil.getRateLimitCoordinator().getRemainingPause()).isEqualTo(Duration.ZERO);
+
+            RetryUtil.getRateLimitCoordinator().pause(Duration.ofMillis(300));
+            long start = System.nanoTime();
+            String otherResult = RetryUtil.executeWithRetry(() -> "other", 3, 100);
+
+            // Assert: 結果の検証
+            assertThat(result).isEqualTo("success");
+            assertThat(otherResult).isEqualTo("other");
+            assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(250_000_000L);
+        }
+    }
+
+    @Nested
+    @DisplayName("rateLimitPauseメソッドとparseRetryAfterSecondsメソッドのテスト")
+    class RateLimitPauseTest {
+
+        /**
+         * Retry-Afterが指定されている場合はその秒数、指定されていない場合は再試行回数に応じた指数バックオフの間隔となることを確認する。
+         */
+        @Test
+        @DisplayName("正常系: Retry-Afterを優先し、指定がなければ指数バックオフとなる")
+        void rateLimitPause_PrefersRetryAfter() {
+            // Act & Assert: 結果の検証
+            assertThat(RetryUtil.rateLimitPause(3, 100, 2)).isEqualTo(Duration.ofSeconds(3));
+            assertThat(RetryUtil.rateLimitPause(0, 100, 0)).isEqualTo(Duration.ofMillis(100));
+            assertThat(RetryUtil.rateLimitPause(0, 100, 2)).isEqualTo(Duration.ofMillis(400));
+        }
+
+        /**
+         * Retry-Afterヘッダーが秒数の場合はその値、ヘッダーがない場合や日時形式の場合は0として解釈されることを確認する。
+         */
+        @Test
+        @DisplayName("正常系: 秒数以外のRetry-Afterは0として解釈される")
+        void parseRetryAfterSeconds_ParsesOnlySeconds() {
+            // Act & Assert: 結果の検証
+            assertThat(RetryUtil.parseRetryAfterSeconds("5")).isEqualTo(5);
+            assertThat(RetryUtil.parseRetryAfterSeconds(" 2 ")).isEqualTo(2);
+            assertThat(RetryUtil.parseRetryAfterSeconds(null)).isZero();
+            assertThat(RetryUtil.parseRetryAfterSeconds("Wed, 21 Oct 2015 07:28:00 GMT")).isZero();
+        }
     }
 }
@@ -0,0 +1,194 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    /**
+     * 同じキーの処理が同時に要求された場合、処理が1回だけ実行され、全員に同じ結果が返されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 同じキーの同時実行が1回にまとめられる")
+    void execute_ShouldCoalesceConcurrentCallsForSameKey() throws Exception {
+        // Arrange: 全員が待機を開始するまで完了しない処理を準備
+        int callers = 5;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        RetryUtil.RetryableOperation<String> operation = () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "result";
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> singleFlight.execute("key", operation)));
+            }
+            waitUntil(() -> coalescedCount() == callers - 1);
+
+            // Act: 処理を完了させる
+            release.countDown();
+
+            // Assert: 結果の検証
+            for (Future<String> future : futures) {
+                assertThat(future.get()).isEqualTo("result");
+            }
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(coalescedCount()).isEqualTo(callers - 1);
+    }
+
+    /**
+     * 処理の完了後に同じキーで呼び出した場合は、処理が再度実行されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 完了後の呼び出しでは処理が再実行される")
+    void execute_ShouldRunAgainAfterCompletion() throws Exception {
+        // Arrange: 実行回数を記録する処理を準備
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act: テスト対象メソッドを順に2回実行
+        singleFlight.execute("key", () -> "result" + executions.incrementAndGet());
+        String second = singleFlight.execute("key", () -> "result" + executions.incrementAndGet());
+
+        // Assert: 結果の検証
+        assertThat(second).isEqualTo("result2");
+        assertThat(coalescedCount()).isZero();
+    }
+
+    /**
+     * 実行中の処理がない場合は何も実行せずに空を返し、実行中の処理がある場合はその完了を待機して結果を共有することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 実行中の処理がある場合のみ結果を共有する")
+    void join_ShouldShareOnlyInFlightResult() throws Exception {
+        // Arrange: 完了を制御できる処理を準備
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThat(singleFlight.join("key")).isEmpty();
+            Future<String> owner = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            await(started);
+            Future<Optional<String>> joined = executor.submit(() -> singleFlight.join("key"));
+            waitUntil(() -> coalescedCount() == 1);
+
+            // Act: 処理を完了させる
+            release.countDown();
+
+            // Assert: 結果の検証
+            assertThat(owner.get()).isEqualTo("result");
+            assertThat(joined.get()).contains("result");
+        }
+        assertThat(singleFlight.join("key")).isEmpty();
+    }
+
+    /**
+     * 実行中の処理が例外をスローした場合、待機していた呼び出し元にも同じ例外がスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: 待機中の呼び出し元にも例外が共有される")
+    void execute_ShouldShareExceptionWithWaitingCallers() throws Exception {
+        // Arrange: 待機者が揃ってから例外をスローする処理を準備
+        CountDownLatch release = new CountDownLatch(1);
+        RetryUtil.RetryableOperation<String> operation = () -> {
+            await(release);
+            throw new SpotifyWebApiException("API error");
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", operation));
+            waitUntil(() -> leader.state() == Future.State.RUNNING);
+            Thread.sleep(20);
+            Future<String> follower = executor.submit(() -> singleFlight.execute("key", operation));
+            waitUntil(() -> coalescedCount() == 1);
+
+            // Act: 処理を失敗させる
+            release.countDown();
+
+            // Assert: 例外の検証
+            assertThatThrownBy(leader::get).hasCauseInstanceOf(SpotifyWebApiException.class);
+            assertThatThrownBy(follower::get)
+                    .hasCauseInstanceOf(SpotifyWebApiException.class)
+                    .hasRootCauseMessage("API error");
+        }
+    }
+
+    /**
+     * 複数キーの処理で、他の呼び出し元が処理中のキーは操作に渡されず、その結果が共有されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 複数キーの処理で処理中のキーの結果が共有される")
+    void executeAll_ShouldOnlyLoadKeysNotInFlight() throws Exception {
+        // Arrange: 先行する呼び出し元がキーaとbを処理中の状態を準備
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<String>> requestedKeys = new CopyOnWriteArrayList<>();
+        SingleFlight.BatchOperation<String, String> operation = keys -> {
+            requestedKeys.add(keys);
+            if (keys.contains("a")) {
+                await(release);
+            }
+            Map<String, String> loaded = new ConcurrentHashMap<>();
+            keys.stream().filter(key -> !key.equals("missing")).forEach(key -> loaded.put(key, key.toUpperCase()));
+            return loaded;
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Map<String, String>> first = executor.submit(() -> singleFlight.executeAll(List.of("a", "b"), operation));
+            waitUntil(() -> requestedKeys.size() == 1);
+            Future<Map<String, String>> second = executor.submit(() -> singleFlight.executeAll(List.of("b", "c", "missing"), operation));
+            waitUntil(() -> requestedKeys.size() == 2);
+
+            // Act: 先行する処理を完了させる
+            release.countDown();
+
+            // Assert: 結果の検証
+            assertThat(first.get()).containsOnly(Map.entry("a", "A"), Map.entry("b", "B"));
+            assertThat(second.get()).containsOnly(Map.entry("b", "B"), Map.entry("c", "C"));
+        }
+        assertThat(requestedKeys).containsExactly(List.of("a", "b"), List.of("c", "missing"));
+        assertThat(coalescedCount()).isEqualTo(1);
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("singleflight.coalesced").tag("name", "test").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
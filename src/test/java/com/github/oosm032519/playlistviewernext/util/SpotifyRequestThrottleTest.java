@@ -0,0 +1,165 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import com.github.oosm032519.playlistviewernext.exception.InternalServerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.github.oosm032519.playlistviewernext.util.SpotifyRequestThrottle.EndpointClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpotifyRequestThrottleTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * HTTPメソッドとURIから、エンドポイントの分類が正しく判定されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: エンドポイントの分類が判定される")
+    void classify_ReturnsEndpointClass() {
+        // Act & Assert: 結果の検証
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/playlists/abc"))).isEqualTo(EndpointClass.PLAYLIST_READ);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/playlists/abc/tracks?offset=100"))).isEqualTo(EndpointClass.PLAYLIST_READ);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/me/playlists"))).isEqualTo(EndpointClass.PLAYLIST_READ);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/audio-features?ids=a,b"))).isEqualTo(EndpointClass.AUDIO_FEATURES);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/artists?ids=a"))).isEqualTo(EndpointClass.ARTISTS);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/search?q=test"))).isEqualTo(EndpointClass.SEARCH);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/recommendations"))).isEqualTo(EndpointClass.RECOMMENDATIONS);
+        assertThat(EndpointClass.classify("POST", URI.create("https://api.spotify.com/v1/playlists/abc/tracks"))).isEqualTo(EndpointClass.WRITE);
+        assertThat(EndpointClass.classify("DELETE", URI.create("https://api.spotify.com/v1/playlists/abc/tracks"))).isEqualTo(EndpointClass.WRITE);
+        assertThat(EndpointClass.classify("POST", URI.create("https://accounts.spotify.com/api/token"))).isEqualTo(EndpointClass.AUTH);
+        assertThat(EndpointClass.classify("GET", URI.create("https://api.spotify.com/v1/me"))).isEqualTo(EndpointClass.OTHER);
+    }
+
+    /**
+     * トークンを取得できた場合、待機時間のメトリクスが記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: トークンを取得し、待機時間が記録される")
+    void acquire_RecordsWaitTime() {
+        // Arrange: テストデータの準備
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.SEARCH, new TokenBucket(10, 2)), Duration.ofSeconds(1), meterRegistry);
+
+        // Act: テスト対象メソッドの実行
+        throttle.acquire("GET", URI.create("https://api.spotify.com/v1/search?q=test"));
+
+        // Assert: 結果の検証
+        assertThat(meterRegistry.get("spotify.throttle.wait").tag("endpoint", "search").tag("priority", "interactive").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("spotify.throttle.permits").tag("endpoint", "search").gauge().value()).isLessThan(2.0);
+    }
+
+    /**
+     * 待機時間のタイマーがコンストラクタで作成され、リクエストごとに新たなタイマーを登録せずに同じタイマーへ記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 待機時間のタイマーを事前に作成して再利用する")
+    void acquire_ReusesPreRegisteredWaitTimers() {
+        // Arrange: テストデータの準備
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.SEARCH, new TokenBucket(100, 10)), Duration.ofSeconds(1), meterRegistry);
+        Timer interactiveTimer = meterRegistry.get("spotify.throttle.wait").tag("endpoint", "search").tag("priority", "interactive").timer();
+
+        // Act: テスト対象メソッドの実行
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("GET", URI.create("https://api.spotify.com/v1/search?q=test"));
+        }
+
+        // Assert: 結果の検証
+        assertThat(meterRegistry.get("spotify.throttle.wait").timers()).hasSize(RequestPriority.values().length);
+        assertThat(interactiveTimer.count()).isEqualTo(3);
+    }
+
+    /**
+     * 破棄数のカウンターがコンストラクタで作成され、リクエストの破棄ごとに新たなカウンターを登録せずに同じカウンターへ記録されることを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 破棄数のカウンターを事前に作成して再利用する")
+    void acquire_ReusesPreRegisteredRejectedCounters() {
+        // Arrange: 補充の遅いバケットを作成し、トークンを使い切る
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.SEARCH, new TokenBucket(0.1, 1)), Duration.ofMillis(10), meterRegistry);
+        Counter rejectedCounter = meterRegistry.get("spotify.throttle.rejected").tag("endpoint", "search").counter();
+        URI uri = URI.create("https://api.spotify.com/v1/search?q=test");
+        throttle.acquire("GET", uri);
+
+        // Act: テスト対象メソッドの実行
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> throttle.acquire("GET", uri)).isInstanceOf(InternalServerException.class);
+        }
+
+        // Assert: 結果の検証
+        assertThat(meterRegistry.get("spotify.throttle.rejected").counters()).hasSize(1);
+        assertThat(rejectedCounter.count()).isEqualTo(2.0);
+    }
+
+    /**
+     * 待機時間の上限までにトークンを取得できない場合、503のInternalServerExceptionがスローされることを確認する。
+     */
+    @Test
+    @DisplayName("異常系: トークンを取得できない場合はリクエストを破棄する")
+    void acquire_ThrowsWhenTokenIsUnavailable() {
+        // Arrange: 容量1、補充の遅いバケットを作成
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.WRITE, new TokenBucket(0.1, 1)), Duration.ofMillis(50), meterRegistry);
+        URI uri = URI.create("https://api.spotify.com/v1/playlists/abc/tracks");
+        throttle.acquire("POST", uri);
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> throttle.acquire("POST", uri))
+                .isInstanceOf(InternalServerException.class)
+                .satisfies(e -> assertThat(((InternalServerException) e).getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("spotify.throttle.rejected").tag("endpoint", "write").counter().count()).isEqualTo(1.0);
+    }
+
+    /**
+     * トークンが不足している場合、acquireAsyncはスレッドを待機させずに補充までの時間だけ遅延して完了することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: acquireAsyncはトークンの補充まで遅延して完了する")
+    void acquireAsync_DelaysUntilTokenIsAvailable() {
+        // Arrange: 1秒あたり10トークン、容量1のバケットを作成し、トークンを使い切る
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.ARTISTS, new TokenBucket(10, 1)), Duration.ofSeconds(1), meterRegistry);
+        URI uri = URI.create("https://api.spotify.com/v1/artists?ids=a");
+        throttle.acquireAsync("GET", uri).block();
+
+        // Act: テスト対象メソッドの実行
+        long start = System.nanoTime();
+        throttle.acquireAsync("GET", uri).block();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert: 結果の検証
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(meterRegistry.get("spotify.throttle.wait").tag("endpoint", "artists").tag("priority", "interactive").timer().count()).isEqualTo(2);
+    }
+
+    /**
+     * acquireAsyncで待機時間の上限までにトークンを取得できない場合、503のInternalServerExceptionで失敗することを確認する。
+     */
+    @Test
+    @DisplayName("異常系: acquireAsyncはトークンを取得できない場合に失敗する")
+    void acquireAsync_FailsWhenTokenIsUnavailable() {
+        // Arrange: 容量1、補充の遅いバケットを作成
+        SpotifyRequestThrottle throttle = new SpotifyRequestThrottle(
+                Map.of(EndpointClass.ARTISTS, new TokenBucket(0.1, 1)), Duration.ofMillis(50), meterRegistry);
+        URI uri = URI.create("https://api.spotify.com/v1/artists?ids=a");
+        throttle.acquireAsync("GET", uri).block();
+
+        // Act & Assert: 例外の検証
+        assertThatThrownBy(() -> throttle.acquireAsync("GET", uri).block())
+                .isInstanceOf(InternalServerException.class)
+                .satisfies(e -> assertThat(((InternalServerException) e).getHttpStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(meterRegistry.get("spotify.throttle.rejected").tag("endpoint", "artists").counter().count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.oosm032519.playlistviewernext.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    /**
+     * バケットの容量までは待機せずにトークンを取得でき、それを超えると補充を待つことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 容量を超えるとトークンの補充を待機する")
+    void tryAcquire_WaitsForRefillBeyondCapacity() throws Exception {
+        // Arrange: 1秒あたり10トークン、容量2のバケットを作成
+        TokenBucket bucket = new TokenBucket(10, 2);
+
+        // Act: テスト対象メソッドの実行
+        long start = System.nanoTime();
+        assertThat(bucket.tryAcquire(RequestPriority.INTERACTIVE, 0)).isTrue();
+        assertThat(bucket.tryAcquire(RequestPriority.INTERACTIVE, 0)).isTrue();
+        boolean immediate = bucket.tryAcquire(RequestPriority.INTERACTIVE, 0);
+        boolean afterWait = bucket.tryAcquire(RequestPriority.INTERACTIVE, TimeUnit.SECONDS.toNanos(1));
+
+        // Assert: 結果の検証
+        assertThat(immediate).isFalse();
+        assertThat(afterWait).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(80));
+    }
+
+    /**
+     * トークンの補充を待っている間、INTERACTIVEのリクエストがBACKGROUNDのリクエストより先にトークンを取得することを確認する。
+     */
+    @Test
+    @DisplayName("正常系: INTERACTIVEのリクエストが優先される")
+    void tryAcquire_PrefersInteractiveRequests() throws Exception {
+        // Arrange: トークンを使い切った状態のバケットを作成
+        TokenBucket bucket = new TokenBucket(5, 1);
+        bucket.tryAcquire(RequestPriority.INTERACTIVE, 0);
+        List<RequestPriority> order = new CopyOnWriteArrayList<>();
+
+        // Act: BACKGROUND の待機者が先に到着した後に INTERACTIVE の待機者が到着する
+        Thread background = Thread.ofVirtual().start(() -> acquireAndRecord(bucket, RequestPriority.BACKGROUND, order));
+        Thread.sleep(20);
+        Thread interactive = Thread.ofVirtual().start(() -> acquireAndRecord(bucket, RequestPriority.INTERACTIVE, order));
+        background.join();
+        interactive.join();
+
+        // Assert: 結果の検証
+        assertThat(order).containsExactly(RequestPriority.INTERACTIVE, RequestPriority.BACKGROUND);
+    }
+
+    /**
+     * トークンが不足している場合、待機せずに次のトークンが補充されるまでの時間を返して予約し、上限を超える場合は予約しないことを確認する。
+     */
+    @Test
+    @DisplayName("正常系: 待機せずにトークンを予約し、補充までの時間を返す")
+    void reserve_ReturnsWaitUntilRefill() {
+        // Arrange: 1秒あたり10トークン、容量1のバケットを作成
+        TokenBucket bucket = new TokenBucket(10, 1);
+
+        // Act: テスト対象メソッドの実行
+        long first = bucket.reserve(0);
+        long second = bucket.reserve(TimeUnit.SECONDS.toNanos(1));
+        long rejected = bucket.reserve(TimeUnit.MILLISECONDS.toNanos(150));
+
+        // Assert: 結果の検証
+        assertThat(first).isZero();
+        assertThat(second).isBetween(TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rejected).isEqualTo(-1);
+        assertThat(bucket.availableTokens()).isLessThan(0);
+    }
+
+    private static void acquireAndRecord(TokenBucket bucket, RequestPriority priority, List<RequestPriority> order) {
+        try {
+            if (bucket.tryAcquire(priority, TimeUnit.SECONDS.toNanos(2))) {
+                order.add(priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}